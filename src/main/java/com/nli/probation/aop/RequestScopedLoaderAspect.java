@@ -0,0 +1,122 @@
+package com.nli.probation.aop;
+
+import com.nli.probation.cache.RequestScopedLoader;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.DefaultRepositoryMetadata;
+import org.springframework.stereotype.Component;
+
+/**
+ * Route id lookups of application repositories through the request scoped loader, so existing
+ * service code is memoized and batched without changes
+ */
+@Aspect
+@Component
+public class RequestScopedLoaderAspect {
+
+  private static final String REPOSITORY_PACKAGE = "com.nli.probation.repository";
+
+  private final RequestScopedLoader requestScopedLoader;
+  private final Map<Class<?>, Class<?>> domainTypes = new ConcurrentHashMap<>();
+
+  public RequestScopedLoaderAspect(RequestScopedLoader requestScopedLoader) {
+    this.requestScopedLoader = requestScopedLoader;
+  }
+
+  /**
+   * Pointcut that matches all repositories of application.
+   */
+  @Pointcut("target(org.springframework.data.repository.CrudRepository)")
+  public void repositoryPointcut() {
+    // Method is empty as this is just a Pointcut, the implementations are in the advices.
+  }
+
+  /**
+   * Advice that memoizes findById.
+   *
+   * @param joinPoint join point for advice
+   * @return optional of entity
+   * @throws Throwable exception of repository
+   */
+  @Around("repositoryPointcut() && execution(* findById(..))")
+  @SuppressWarnings("unchecked")
+  public Object findById(ProceedingJoinPoint joinPoint) throws Throwable {
+    Class<Object> domainType = (Class<Object>) domainTypeOf(joinPoint.getThis());
+    if (domainType == null) {
+      return joinPoint.proceed();
+    }
+    Object id = joinPoint.getArgs()[0];
+    return requestScopedLoader.find(domainType, id,
+        () -> (Optional<Object>) proceed(joinPoint, joinPoint.getArgs()));
+  }
+
+  /**
+   * Advice that loads only ids not memoized yet in findAllById.
+   *
+   * @param joinPoint join point for advice
+   * @return list of entities
+   * @throws Throwable exception of repository
+   */
+  @Around("repositoryPointcut() && execution(* findAllById(..))")
+  @SuppressWarnings("unchecked")
+  public Object findAllById(ProceedingJoinPoint joinPoint) throws Throwable {
+    Class<Object> domainType = (Class<Object>) domainTypeOf(joinPoint.getThis());
+    if (domainType == null) {
+      return joinPoint.proceed();
+    }
+    return requestScopedLoader.findAll(domainType, (Iterable<?>) joinPoint.getArgs()[0],
+        missingIds -> (Iterable<Object>) proceed(joinPoint, new Object[]{missingIds}));
+  }
+
+  /**
+   * Advice that forgets memoized entities after writes, also failed ones which may have been
+   * applied.
+   *
+   * @param joinPoint join point for advice
+   */
+  @After("repositoryPointcut() && (execution(* save*(..)) || execution(* insert(..))"
+      + " || execution(* delete*(..)))")
+  public void evictAfterWrite(JoinPoint joinPoint) {
+    Class<?> domainType = domainTypeOf(joinPoint.getThis());
+    if (domainType != null) {
+      requestScopedLoader.evict(domainType);
+    }
+  }
+
+  /**
+   * Find entity type of repository proxy
+   *
+   * @param repository
+   * @return entity type or null when repository is not of application
+   */
+  private Class<?> domainTypeOf(Object repository) {
+    Class<?> domainType = domainTypes.computeIfAbsent(repository.getClass(), repositoryClass -> {
+      for (Class<?> repositoryInterface : repositoryClass.getInterfaces()) {
+        if (Repository.class.isAssignableFrom(repositoryInterface)
+            && repositoryInterface.getPackageName().equals(REPOSITORY_PACKAGE)) {
+          return new DefaultRepositoryMetadata(repositoryInterface).getDomainType();
+        }
+      }
+      return Void.class;
+    });
+    return domainType != Void.class ? domainType : null;
+  }
+
+  private static Object proceed(ProceedingJoinPoint joinPoint, Object[] args) {
+    try {
+      return joinPoint.proceed(args);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package com.nli.probation.cache;
+
+import com.nli.probation.cache.ChangeEventSource.ChangeEventListener;
+import com.nli.probation.config.CacheInvalidationProperties;
+import com.nli.probation.entity.OfficeEntity;
+import com.nli.probation.entity.RoleEntity;
+import com.nli.probation.entity.TeamEntity;
+import com.nli.probation.entity.UserAccountEntity;
+import io.micrometer.core.instrument.Metrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import javax.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Evict local caches when any node writes to a cached collection. Changes of collections without
+ * a local cache only advance the resume token.
+ */
+@Component
+public class CacheInvalidator implements ChangeEventListener {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CacheInvalidator.class);
+
+  private final ChangeEventSource changeEventSource;
+  private final ResumeTokenStore resumeTokenStore;
+  private final ReferenceDataCache referenceDataCache;
+  private final UserAccountCache userAccountCache;
+  private final UserAccountSearchIndex userAccountSearchIndex;
+  private final CacheInvalidationProperties cacheInvalidationProperties;
+  private final Map<String, IntConsumer> evictors = new HashMap<>();
+  private BsonDocument lastToken;
+  private long lastTokenSavedAt;
+
+  public CacheInvalidator(ChangeEventSource changeEventSource,
+      ResumeTokenStore resumeTokenStore,
+      ReferenceDataCache referenceDataCache,
+      UserAccountCache userAccountCache,
+      UserAccountSearchIndex userAccountSearchIndex,
+      CacheInvalidationProperties cacheInvalidationProperties) {
+    this.changeEventSource = changeEventSource;
+    this.resumeTokenStore = resumeTokenStore;
+    this.referenceDataCache = referenceDataCache;
+    this.userAccountCache = userAccountCache;
+    this.userAccountSearchIndex = userAccountSearchIndex;
+    this.cacheInvalidationProperties = cacheInvalidationProperties;
+    evictors.put(OfficeEntity.COLLECTION_NAME, referenceDataCache::evictOffice);
+    evictors.put(RoleEntity.COLLECTION_NAME, referenceDataCache::evictRole);
+    evictors.put(TeamEntity.COLLECTION_NAME, referenceDataCache::evictTeam);
+    evictors.put(UserAccountEntity.COLLECTION_NAME, id -> {
+      userAccountCache.invalidate(id);
+      userAccountSearchIndex.refresh(id);
+    });
+  }
+
+  /**
+   * Start tailing changes from stored resume token when application is ready
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!cacheInvalidationProperties.isEnabled()) {
+      return;
+    }
+    BsonDocument resumeToken = resumeTokenStore.load(cacheInvalidationProperties.getNodeName());
+    String startPoint = "from stored token";
+    if (resumeToken == null) {
+      //New node or renamed one, resume from oldest recent token of any node instead of now
+      Instant since = Instant.now().minus(cacheInvalidationProperties.getResumeTokenMaxAge());
+      resumeTokenStore.removeSavedBefore(since);
+      resumeToken = resumeTokenStore.loadOldestSince(since);
+      startPoint = resumeToken != null ? "from oldest token of other nodes" : "from now";
+    }
+    LOGGER.info("Starting cache invalidation {}", startPoint);
+    changeEventSource.start(cacheInvalidationProperties.getCollections(), resumeToken, this);
+  }
+
+  /**
+   * Stop tailing changes and save last handled token
+   */
+  @PreDestroy
+  public void stop() {
+    changeEventSource.stop();
+    saveResumeToken(true);
+  }
+
+  @Override
+  public void onChange(ChangeEvent changeEvent) {
+    IntConsumer evictor = evictors.get(changeEvent.getCollection());
+    if (evictor != null) {
+      evictor.accept(changeEvent.getId());
+    }
+    Metrics.counter("cache.invalidation.events", "collection", changeEvent.getCollection())
+        .increment();
+    Metrics.timer("cache.invalidation.lag", "collection", changeEvent.getCollection())
+        .record(Math.max(0, System.currentTimeMillis() - changeEvent.getClusterTimeMillis()),
+            TimeUnit.MILLISECONDS);
+    synchronized (this) {
+      lastToken = changeEvent.getResumeToken();
+    }
+    saveResumeToken(false);
+  }
+
+  @Override
+  public void onReset() {
+    LOGGER.warn("Change events may be lost, dropping all cached entries");
+    referenceDataCache.reload();
+    userAccountCache.invalidateAll();
+    userAccountSearchIndex.rebuild();
+    Metrics.counter("cache.invalidation.resets").increment();
+    synchronized (this) {
+      lastToken = null;
+    }
+  }
+
+  /**
+   * Save last handled token at most once per configured interval
+   *
+   * @param force save regardless of interval
+   */
+  private synchronized void saveResumeToken(boolean force) {
+    if (lastToken == null) {
+      return;
+    }
+    long now = System.nanoTime();
+    Duration interval = cacheInvalidationProperties.getResumeTokenSaveInterval();
+    if (!force && lastTokenSavedAt != 0 && now - lastTokenSavedAt < interval.toNanos()) {
+      return;
+    }
+    resumeTokenStore.save(cacheInvalidationProperties.getNodeName(), lastToken);
+    lastTokenSavedAt = now;
+  }
+}
@@ -0,0 +1,22 @@
+package com.nli.probation.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.bson.BsonDocument;
+
+/**
+ * Change of one document observed on the database
+ */
+@AllArgsConstructor
+@Getter
+public class ChangeEvent {
+
+  private final String collection;
+  private final int id;
+  private final BsonDocument resumeToken;
+
+  /**
+   * Time of the write on the database, in epoch millis
+   */
+  private final long clusterTimeMillis;
+}
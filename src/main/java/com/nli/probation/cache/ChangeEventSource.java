@@ -0,0 +1,50 @@
+package com.nli.probation.cache;
+
+import java.util.Set;
+import org.bson.BsonDocument;
+
+/**
+ * Source of document changes made by any node of the cluster
+ */
+public interface ChangeEventSource {
+
+  /**
+   * Start delivering changes of collections to listener
+   *
+   * @param collections
+   * @param resumeToken token of last handled change, null to start from now
+   * @param listener
+   */
+  void start(Set<String> collections, BsonDocument resumeToken, ChangeEventListener listener);
+
+  /**
+   * Stop delivering changes
+   */
+  void stop();
+
+  /**
+   * Whether changes are currently delivered, false before start, after stop and while the
+   * source is failing
+   *
+   * @return true while delivering changes
+   */
+  boolean isHealthy();
+
+  /**
+   * Receiver of changes
+   */
+  interface ChangeEventListener {
+
+    /**
+     * Handle change of one document
+     *
+     * @param changeEvent
+     */
+    void onChange(ChangeEvent changeEvent);
+
+    /**
+     * Handle restart of the source without its resume token, changes in between are lost
+     */
+    void onReset();
+  }
+}
@@ -0,0 +1,86 @@
+package com.nli.probation.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nli.probation.config.CountCacheProperties;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import org.bson.Document;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short lived cache of search totals keyed by collection and normalized filter, so paging through
+ * one search counts its matches once per time to live
+ */
+@Component
+public class CountCache {
+
+  public static final String CACHE_NAME = "search_count";
+
+  private final Cache<String, Long> cache;
+
+  public CountCache(CountCacheProperties countCacheProperties) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(countCacheProperties.getMaximumSize())
+        .expireAfterWrite(countCacheProperties.getExpireAfterWrite())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, CACHE_NAME);
+  }
+
+  /**
+   * Find cached total of filter
+   *
+   * @param collectionName
+   * @param mappedFilter filter with field names of database
+   * @return total or null when not counted recently
+   */
+  public Long find(String collectionName, Document mappedFilter) {
+    return cache.getIfPresent(keyOf(collectionName, mappedFilter));
+  }
+
+  /**
+   * Cache total of filter
+   *
+   * @param collectionName
+   * @param mappedFilter filter with field names of database
+   * @param total
+   */
+  public void put(String collectionName, Document mappedFilter, long total) {
+    cache.put(keyOf(collectionName, mappedFilter), total);
+  }
+
+  /**
+   * Build key of filter, fields of every document are sorted so equal filters written in another
+   * order share the key
+   *
+   * @param collectionName
+   * @param mappedFilter
+   * @return key of cache
+   */
+  private static String keyOf(String collectionName, Document mappedFilter) {
+    return collectionName + ":" + ((Document) normalize(mappedFilter)).toJson();
+  }
+
+  private static Object normalize(Object value) {
+    if (value instanceof Document) {
+      Document document = (Document) value;
+      Document normalized = new Document();
+      for (String key : new TreeSet<>(document.keySet())) {
+        normalized.put(key, normalize(document.get(key)));
+      }
+      return normalized;
+    }
+    if (value instanceof List) {
+      List<Object> normalized = new ArrayList<>();
+      for (Object element : (List<?>) value) {
+        normalized.add(normalize(element));
+      }
+      return normalized;
+    }
+    return value;
+  }
+}
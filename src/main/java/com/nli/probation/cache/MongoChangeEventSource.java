@@ -0,0 +1,168 @@
+package com.nli.probation.cache;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import com.nli.probation.config.CacheInvalidationProperties;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Change event source tailing one database-level change stream filtered by collection
+ */
+@Component
+public class MongoChangeEventSource implements ChangeEventSource {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MongoChangeEventSource.class);
+  private static final String COLLECTION_FIELD = "ns.coll";
+  private static final String ID_FIELD = "_id";
+  private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+  private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+  private static final long MAX_AWAIT_MILLIS = 1000;
+  private static final Set<OperationType> RESET_OPERATIONS = EnumSet.of(OperationType.DROP,
+      OperationType.RENAME, OperationType.DROP_DATABASE, OperationType.INVALIDATE);
+
+  private final MongoTemplate mongoTemplate;
+  private final CacheInvalidationProperties cacheInvalidationProperties;
+  private volatile boolean running;
+  private volatile boolean healthy;
+  private Thread worker;
+
+  public MongoChangeEventSource(MongoTemplate mongoTemplate,
+      CacheInvalidationProperties cacheInvalidationProperties) {
+    this.mongoTemplate = mongoTemplate;
+    this.cacheInvalidationProperties = cacheInvalidationProperties;
+  }
+
+  @Override
+  public synchronized void start(Set<String> collections, BsonDocument resumeToken,
+      ChangeEventListener listener) {
+    if (running) {
+      return;
+    }
+    running = true;
+    worker = new Thread(() -> tail(collections, resumeToken, listener), "change-event-source");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  @Override
+  public synchronized void stop() {
+    running = false;
+    healthy = false;
+    if (worker != null) {
+      worker.interrupt();
+      worker = null;
+    }
+  }
+
+  /**
+   * Read change stream until stopped, reopening it after failures
+   *
+   * @param collections
+   * @param resumeToken
+   * @param listener
+   */
+  private void tail(Set<String> collections, BsonDocument resumeToken,
+      ChangeEventListener listener) {
+    BsonDocument lastToken = resumeToken;
+    while (running) {
+      try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open(collections,
+          lastToken).cursor()) {
+        healthy = true;
+        while (running) {
+          ChangeStreamDocument<Document> changeDocument = cursor.tryNext();
+          if (changeDocument == null) {
+            continue;
+          }
+          if (RESET_OPERATIONS.contains(changeDocument.getOperationType())) {
+            //Collection was dropped or renamed, the stream can not continue
+            lastToken = null;
+            listener.onReset();
+            break;
+          }
+          lastToken = changeDocument.getResumeToken();
+          ChangeEvent changeEvent = toChangeEvent(changeDocument);
+          if (changeEvent != null) {
+            listener.onChange(changeEvent);
+          }
+        }
+      } catch (MongoCommandException e) {
+        healthy = false;
+        if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST
+            || e.getErrorCode() == CHANGE_STREAM_FATAL_ERROR) {
+          LOGGER.warn("Can not resume change stream, restarting from now", e);
+          lastToken = null;
+          listener.onReset();
+        } else {
+          waitBeforeRetry(e);
+        }
+      } catch (RuntimeException e) {
+        healthy = false;
+        waitBeforeRetry(e);
+      }
+    }
+    healthy = false;
+  }
+
+  @Override
+  public boolean isHealthy() {
+    return healthy;
+  }
+
+  private ChangeStreamIterable<Document> open(Set<String> collections, BsonDocument resumeToken) {
+    List<String> collectionNames = new ArrayList<>(collections);
+    ChangeStreamIterable<Document> changeStream = mongoTemplate.getDb()
+        .watch(List.of(Aggregates.match(Filters.in(COLLECTION_FIELD, collectionNames))))
+        .maxAwaitTime(MAX_AWAIT_MILLIS, TimeUnit.MILLISECONDS);
+    return resumeToken != null ? changeStream.resumeAfter(resumeToken) : changeStream;
+  }
+
+  /**
+   * Convert change of a document with int id, changes of other documents are returned as null
+   *
+   * @param changeDocument
+   * @return change event or null
+   */
+  private ChangeEvent toChangeEvent(ChangeStreamDocument<Document> changeDocument) {
+    BsonDocument documentKey = changeDocument.getDocumentKey();
+    if (documentKey == null || changeDocument.getNamespace() == null) {
+      return null;
+    }
+    BsonValue id = documentKey.get(ID_FIELD);
+    if (id == null || !id.isNumber()) {
+      return null;
+    }
+    long clusterTimeMillis = changeDocument.getClusterTime() != null
+        ? changeDocument.getClusterTime().getTime() * 1000L : System.currentTimeMillis();
+    return new ChangeEvent(changeDocument.getNamespace().getCollectionName(),
+        id.asNumber().intValue(), changeDocument.getResumeToken(), clusterTimeMillis);
+  }
+
+  private void waitBeforeRetry(RuntimeException e) {
+    if (!running) {
+      return;
+    }
+    LOGGER.error("Change stream failed, retrying", e);
+    try {
+      Thread.sleep(cacheInvalidationProperties.getRetryDelay().toMillis());
+    } catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package com.nli.probation.cache;
+
+import com.nli.probation.config.CacheInvalidationProperties;
+import com.nli.probation.config.ReferenceDataCacheProperties;
+import com.nli.probation.entity.OfficeEntity;
+import com.nli.probation.entity.RoleEntity;
+import com.nli.probation.entity.TeamEntity;
+import com.nli.probation.repository.OfficeRepository;
+import com.nli.probation.repository.RoleRepository;
+import com.nli.probation.repository.TeamRepository;
+import com.nli.probation.utils.IntObjectHashMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToIntFunction;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory store of offices, roles and teams. Entries are loaded at startup, written through by
+ * the services owning them and read through from the database on miss. Writes of other nodes
+ * evict entries through cache invalidation, or while it is disabled show up on the next periodic
+ * reload.
+ */
+@Component
+public class ReferenceDataCache {
+
+  public static final String OFFICE_TYPE = "office";
+  public static final String ROLE_TYPE = "role";
+  public static final String TEAM_TYPE = "team";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReferenceDataCache.class);
+
+  private final ReferenceDataStore<OfficeEntity> offices;
+  private final ReferenceDataStore<RoleEntity> roles;
+  private final ReferenceDataStore<TeamEntity> teams;
+  private final CacheInvalidationProperties cacheInvalidationProperties;
+  private final ReferenceDataCacheProperties referenceDataCacheProperties;
+  private volatile boolean refreshing;
+  private Thread refresher;
+
+  public ReferenceDataCache(OfficeRepository officeRepository,
+      RoleRepository roleRepository,
+      TeamRepository teamRepository) {
+    this(officeRepository, roleRepository, teamRepository, new CacheInvalidationProperties(),
+        new ReferenceDataCacheProperties());
+  }
+
+  @Autowired
+  public ReferenceDataCache(OfficeRepository officeRepository,
+      RoleRepository roleRepository,
+      TeamRepository teamRepository,
+      CacheInvalidationProperties cacheInvalidationProperties,
+      ReferenceDataCacheProperties referenceDataCacheProperties) {
+    this.cacheInvalidationProperties = cacheInvalidationProperties;
+    this.referenceDataCacheProperties = referenceDataCacheProperties;
+    this.offices = new ReferenceDataStore<>(OFFICE_TYPE, OfficeEntity::getId,
+        officeRepository::findById, officeRepository::findAll);
+    this.roles = new ReferenceDataStore<>(ROLE_TYPE, RoleEntity::getId,
+        roleRepository::findById, roleRepository::findAll);
+    this.teams = new ReferenceDataStore<>(TEAM_TYPE, TeamEntity::getId,
+        teamRepository::findById, teamRepository::findAll);
+  }
+
+  /**
+   * Load all reference data when application is ready
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void reload() {
+    offices.reload();
+    roles.reload();
+    teams.reload();
+    LOGGER.info("Loaded reference data: {}", sizes());
+  }
+
+  /**
+   * Reload all reference data periodically when application is ready, unless cache invalidation
+   * evicts writes of other nodes
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void startRefresh() {
+    if (cacheInvalidationProperties.isEnabled() || refreshing) {
+      return;
+    }
+    refreshing = true;
+    refresher = new Thread(this::refreshUntilStopped, "reference-data-refresh");
+    refresher.setDaemon(true);
+    refresher.start();
+  }
+
+  /**
+   * Stop periodic reload
+   */
+  @PreDestroy
+  public synchronized void stopRefresh() {
+    refreshing = false;
+    if (refresher != null) {
+      LockSupport.unpark(refresher);
+    }
+  }
+
+  public Optional<OfficeEntity> findOffice(int id) {
+    return offices.find(id);
+  }
+
+  public Optional<RoleEntity> findRole(int id) {
+    return roles.find(id);
+  }
+
+  public Optional<TeamEntity> findTeam(int id) {
+    return teams.find(id);
+  }
+
+  public void putOffice(OfficeEntity officeEntity) {
+    offices.put(officeEntity);
+  }
+
+  public void putRole(RoleEntity roleEntity) {
+    roles.put(roleEntity);
+  }
+
+  public void putTeam(TeamEntity teamEntity) {
+    teams.put(teamEntity);
+  }
+
+  public void evictOffice(int id) {
+    offices.evict(id);
+  }
+
+  public void evictRole(int id) {
+    roles.evict(id);
+  }
+
+  public void evictTeam(int id) {
+    teams.evict(id);
+  }
+
+  /**
+   * Number of cached entries by type
+   *
+   * @return map of sizes
+   */
+  public Map<String, Integer> sizes() {
+    return Map.of(OFFICE_TYPE, offices.size(), ROLE_TYPE, roles.size(), TEAM_TYPE, teams.size());
+  }
+
+  private void refreshUntilStopped() {
+    while (refreshing) {
+      LockSupport.parkNanos(this, referenceDataCacheProperties.getRefreshInterval().toNanos());
+      if (!refreshing) {
+        return;
+      }
+      try {
+        reload();
+      } catch (RuntimeException e) {
+        LOGGER.warn("Can not reload reference data, keeping cached entries", e);
+      }
+    }
+  }
+
+  /**
+   * Cached entities of one type. Readers see an immutable snapshot, writers copy the map and swap
+   * it, which suits data that is read on every request and rarely written.
+   *
+   * @param <E> Type of entity
+   */
+  private static final class ReferenceDataStore<E> {
+
+    private final ToIntFunction<E> idGetter;
+    private final IntFunction<Optional<E>> loader;
+    private final Supplier<List<E>> allLoader;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private volatile IntObjectHashMap<E> entries = new IntObjectHashMap<>();
+    private volatile long modifications;
+
+    private ReferenceDataStore(String type, ToIntFunction<E> idGetter,
+        IntFunction<Optional<E>> loader, Supplier<List<E>> allLoader) {
+      this.idGetter = idGetter;
+      this.loader = loader;
+      this.allLoader = allLoader;
+      Tags tags = Tags.of("type", type);
+      this.hitCounter = Metrics.counter("reference.cache.hits", tags);
+      this.missCounter = Metrics.counter("reference.cache.misses", tags);
+      Metrics.gauge("reference.cache.size", tags, this, ReferenceDataStore::size);
+    }
+
+    private Optional<E> find(int id) {
+      if (id <= 0) {
+        return Optional.empty();
+      }
+      E entity = entries.get(id);
+      if (entity != null) {
+        hitCounter.increment();
+        return Optional.of(entity);
+      }
+      missCounter.increment();
+      long seenModifications = modifications;
+      Optional<E> loaded = loader.apply(id);
+      loaded.ifPresent(loadedEntity -> putIfUnchanged(loadedEntity, seenModifications));
+      return loaded;
+    }
+
+    private synchronized void put(E entity) {
+      IntObjectHashMap<E> copy = new IntObjectHashMap<>(entries);
+      copy.put(idGetter.applyAsInt(entity), entity);
+      entries = copy;
+      modifications++;
+    }
+
+    /**
+     * Cache entity read through only when no write of this type happened while it was loaded,
+     * so a loaded row never overwrites a newer written or evicted one
+     *
+     * @param entity
+     * @param seenModifications
+     */
+    private synchronized void putIfUnchanged(E entity, long seenModifications) {
+      if (modifications == seenModifications) {
+        put(entity);
+      }
+    }
+
+    private synchronized void evict(int id) {
+      if (entries.containsKey(id)) {
+        IntObjectHashMap<E> copy = new IntObjectHashMap<>(entries);
+        copy.remove(id);
+        entries = copy;
+      }
+      modifications++;
+    }
+
+    private synchronized void reload() {
+      List<E> allEntities = allLoader.get();
+      IntObjectHashMap<E> loaded = new IntObjectHashMap<>(allEntities.size());
+      for (E entity : allEntities) {
+        loaded.put(idGetter.applyAsInt(entity), entity);
+      }
+      entries = loaded;
+      modifications++;
+    }
+
+    private int size() {
+      return entries.size();
+    }
+  }
+}
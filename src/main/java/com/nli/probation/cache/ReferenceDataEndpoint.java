@@ -0,0 +1,37 @@
+package com.nli.probation.cache;
+
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to inspect and reload reference data cache
+ */
+@Component
+@Endpoint(id = "referencedata")
+public class ReferenceDataEndpoint {
+
+  private final ReferenceDataCache referenceDataCache;
+
+  public ReferenceDataEndpoint(ReferenceDataCache referenceDataCache) {
+    this.referenceDataCache = referenceDataCache;
+  }
+
+  @ReadOperation
+  public Map<String, Integer> sizes() {
+    return referenceDataCache.sizes();
+  }
+
+  /**
+   * Reload all offices, roles and teams from database
+   *
+   * @return sizes after reload
+   */
+  @WriteOperation
+  public Map<String, Integer> reload() {
+    referenceDataCache.reload();
+    return referenceDataCache.sizes();
+  }
+}
@@ -0,0 +1,168 @@
+package com.nli.probation.cache;
+
+import io.micrometer.core.instrument.Metrics;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Memo of entities loaded by id during one HTTP request. Loading a list of ids queries only the
+ * ids not seen yet with one $in query, and every later lookup of those ids is served from memory.
+ * Outside of a request every call goes straight to the loader. Entities are memoized as documents
+ * and every lookup gets its own copy, so callers changing and saving an entity never see changes
+ * of another caller.
+ */
+@Component
+public class RequestScopedLoader {
+
+  private static final String MEMO_ATTRIBUTE = RequestScopedLoader.class.getName() + ".MEMO";
+
+  private final MongoConverter mongoConverter;
+
+  public RequestScopedLoader(MongoConverter mongoConverter) {
+    this.mongoConverter = mongoConverter;
+  }
+
+  /**
+   * Find entity by id, loading it at most once per request
+   *
+   * @param type
+   * @param id
+   * @param loader
+   * @param <E>
+   * @return optional of entity
+   */
+  public <E> Optional<E> find(Class<E> type, Object id, Supplier<Optional<E>> loader) {
+    Map<Object, Optional<Document>> memo = memoOf(type);
+    if (memo == null) {
+      return loader.get();
+    }
+    Optional<Document> memoized = memo.get(id);
+    if (memoized != null) {
+      countHit(type, 1);
+      return memoized.map(document -> mongoConverter.read(type, document));
+    }
+    Optional<E> loaded = loader.get();
+    memo.put(id, loaded.map(this::snapshotOf));
+    return loaded;
+  }
+
+  /**
+   * Find entities by ids, loading ids not seen in this request with one call of loader
+   *
+   * @param type
+   * @param ids
+   * @param loader loader of entities by list of ids
+   * @param <E>
+   * @return found entities in order of ids
+   */
+  public <E> List<E> findAll(Class<E> type, Iterable<?> ids,
+      Function<Collection<Object>, Iterable<E>> loader) {
+    Map<Object, Optional<Document>> memo = memoOf(type);
+    Set<Object> distinctIds = new LinkedHashSet<>();
+    ids.forEach(distinctIds::add);
+    if (memo == null) {
+      List<E> loaded = new ArrayList<>();
+      loader.apply(distinctIds).forEach(loaded::add);
+      return loaded;
+    }
+
+    //Load ids which are not memoized yet
+    List<Object> missingIds = new ArrayList<>();
+    for (Object id : distinctIds) {
+      if (!memo.containsKey(id)) {
+        missingIds.add(id);
+      }
+    }
+    countHit(type, distinctIds.size() - missingIds.size());
+    Map<Object, E> loaded = new HashMap<>();
+    if (!missingIds.isEmpty()) {
+      for (Object id : missingIds) {
+        memo.put(id, Optional.empty());
+      }
+      MongoPersistentEntity<?> persistentEntity = mongoConverter.getMappingContext()
+          .getRequiredPersistentEntity(type);
+      for (E entity : loader.apply(missingIds)) {
+        Object id = persistentEntity.getIdentifierAccessor(entity).getIdentifier();
+        memo.put(id, Optional.of(snapshotOf(entity)));
+        loaded.put(id, entity);
+      }
+    }
+
+    //Collect entities in order of ids, copying memoized ones
+    List<E> entities = new ArrayList<>();
+    for (Object id : distinctIds) {
+      E entity = loaded.get(id);
+      if (entity != null) {
+        entities.add(entity);
+      } else {
+        memo.get(id).ifPresent(document -> entities.add(mongoConverter.read(type, document)));
+      }
+    }
+    return entities;
+  }
+
+  /**
+   * Forget all entities of type loaded in this request, called after writes
+   *
+   * @param type
+   */
+  public void evict(Class<?> type) {
+    Map<Class<?>, Map<Object, Optional<Document>>> memos = memos();
+    if (memos != null) {
+      memos.remove(type);
+    }
+  }
+
+  /**
+   * Write entity to a document, read back for every later lookup
+   *
+   * @param entity
+   * @return document of entity
+   */
+  private Document snapshotOf(Object entity) {
+    Document document = new Document();
+    mongoConverter.write(entity, document);
+    return document;
+  }
+
+  private Map<Object, Optional<Document>> memoOf(Class<?> type) {
+    Map<Class<?>, Map<Object, Optional<Document>>> memos = memos();
+    return memos != null ? memos.computeIfAbsent(type, key -> new HashMap<>()) : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Map<Class<?>, Map<Object, Optional<Document>>> memos() {
+    RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+    if (requestAttributes == null) {
+      return null;
+    }
+    Map<Class<?>, Map<Object, Optional<Document>>> memos =
+        (Map<Class<?>, Map<Object, Optional<Document>>>) requestAttributes.getAttribute(
+            MEMO_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    if (memos == null) {
+      memos = new HashMap<>();
+      requestAttributes.setAttribute(MEMO_ATTRIBUTE, memos, RequestAttributes.SCOPE_REQUEST);
+    }
+    return memos;
+  }
+
+  private void countHit(Class<?> type, int count) {
+    if (count > 0) {
+      Metrics.counter("request.loader.hits", "type", type.getSimpleName()).increment(count);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.nli.probation.cache;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import java.time.Instant;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Store of last handled change stream token per node
+ */
+@Component
+public class ResumeTokenStore {
+
+  public static final String COLLECTION_NAME = "change_stream_resume_token";
+  private static final String ID_FIELD = "_id";
+  private static final String TOKEN_FIELD = "token";
+  private static final String UPDATED_AT_FIELD = "updated_at";
+
+  private final MongoTemplate mongoTemplate;
+
+  public ResumeTokenStore(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Load token of node
+   *
+   * @param nodeName
+   * @return token or null
+   */
+  public BsonDocument load(String nodeName) {
+    BsonDocument stored = collection().find(Filters.eq(ID_FIELD, nodeName)).first();
+    return stored != null && stored.isDocument(TOKEN_FIELD) ? stored.getDocument(TOKEN_FIELD)
+        : null;
+  }
+
+  /**
+   * Load oldest token saved by any node since given time, a node without a token of its own
+   * resumes from it so that changes made while it was down are not missed
+   *
+   * @param since
+   * @return token or null
+   */
+  public BsonDocument loadOldestSince(Instant since) {
+    BsonDocument stored = collection()
+        .find(Filters.gte(UPDATED_AT_FIELD, new BsonDateTime(since.toEpochMilli())))
+        .sort(Sorts.ascending(UPDATED_AT_FIELD))
+        .first();
+    return stored != null && stored.isDocument(TOKEN_FIELD) ? stored.getDocument(TOKEN_FIELD)
+        : null;
+  }
+
+  /**
+   * Remove tokens not saved since given time, left by nodes which are gone
+   *
+   * @param before
+   */
+  public void removeSavedBefore(Instant before) {
+    collection().deleteMany(Filters.lt(UPDATED_AT_FIELD, new BsonDateTime(before.toEpochMilli())));
+  }
+
+  /**
+   * Save token of node
+   *
+   * @param nodeName
+   * @param token
+   */
+  public void save(String nodeName, BsonDocument token) {
+    BsonDocument stored = new BsonDocument(ID_FIELD, new BsonString(nodeName))
+        .append(TOKEN_FIELD, token)
+        .append(UPDATED_AT_FIELD, new BsonDateTime(System.currentTimeMillis()));
+    collection().replaceOne(Filters.eq(ID_FIELD, nodeName), stored,
+        new ReplaceOptions().upsert(true));
+  }
+
+  private MongoCollection<BsonDocument> collection() {
+    return mongoTemplate.getCollection(COLLECTION_NAME).withDocumentClass(BsonDocument.class);
+  }
+}
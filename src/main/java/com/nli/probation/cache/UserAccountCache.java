@@ -0,0 +1,147 @@
+package com.nli.probation.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nli.probation.config.UserAccountCacheProperties;
+import com.nli.probation.entity.UserAccountEntity;
+import com.nli.probation.metamodel.UserAccountEntity_;
+import com.nli.probation.repository.UserAccountRepository;
+import com.nli.probation.utils.IntObjectHashMap;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size bounded near-cache of user accounts. Caffeine admits and evicts entries by W-TinyLFU, so
+ * frequently assigned accounts stay cached while one-off lookups do not flush them. Accounts read
+ * through are cached only when no invalidation happened while they were loaded.
+ */
+@Component
+public class UserAccountCache {
+
+  public static final String CACHE_NAME = "user_account";
+
+  private final UserAccountRepository userAccountRepository;
+  private final MongoTemplate mongoTemplate;
+  private final Cache<Integer, UserAccountEntity> cache;
+  private long invalidations;
+
+  public UserAccountCache(UserAccountRepository userAccountRepository,
+      MongoTemplate mongoTemplate,
+      UserAccountCacheProperties userAccountCacheProperties) {
+    this.userAccountRepository = userAccountRepository;
+    this.mongoTemplate = mongoTemplate;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(userAccountCacheProperties.getMaximumSize())
+        .expireAfterWrite(userAccountCacheProperties.getExpireAfterWrite())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(Metrics.globalRegistry, cache, CACHE_NAME);
+    Metrics.gauge("user.account.cache.hit.ratio", cache, c -> c.stats().hitRate());
+  }
+
+  /**
+   * Find user account by id, loading it from database on miss
+   *
+   * @param id
+   * @return optional of user account
+   */
+  public Optional<UserAccountEntity> findById(int id) {
+    UserAccountEntity cachedEntity = cache.getIfPresent(id);
+    if (cachedEntity != null) {
+      return Optional.of(cachedEntity);
+    }
+    long seenInvalidations = invalidations();
+    Optional<UserAccountEntity> loadedOptional = userAccountRepository.findById(id);
+    loadedOptional.ifPresent(loadedEntity -> putAllIfNotInvalidated(List.of(loadedEntity),
+        seenInvalidations));
+    return loadedOptional;
+  }
+
+  /**
+   * Find distinct user accounts, loading the missing ones with one $in query
+   *
+   * @param ids
+   * @return map of user accounts by id
+   */
+  public IntObjectHashMap<UserAccountEntity> findAllById(IntStream ids) {
+    int[] distinctIds = ids.filter(id -> id > 0).distinct().toArray();
+    IntObjectHashMap<UserAccountEntity> accountMap = new IntObjectHashMap<>(distinctIds.length);
+    List<Integer> missingIds = new ArrayList<>();
+    for (int id : distinctIds) {
+      UserAccountEntity cachedEntity = cache.getIfPresent(id);
+      if (cachedEntity != null) {
+        accountMap.put(id, cachedEntity);
+      } else {
+        missingIds.add(id);
+      }
+    }
+    if (missingIds.isEmpty()) {
+      return accountMap;
+    }
+    long seenInvalidations = invalidations();
+    Query query = new Query(Criteria.where(UserAccountEntity_.ID).in(missingIds));
+    List<UserAccountEntity> loadedEntities = mongoTemplate.find(query, UserAccountEntity.class);
+    for (UserAccountEntity loadedEntity : loadedEntities) {
+      accountMap.put(loadedEntity.getId(), loadedEntity);
+    }
+    putAllIfNotInvalidated(loadedEntities, seenInvalidations);
+    return accountMap;
+  }
+
+  /**
+   * Remove cached user account
+   *
+   * @param id
+   */
+  public synchronized void invalidate(int id) {
+    cache.invalidate(id);
+    invalidations++;
+  }
+
+  /**
+   * Remove cached user accounts
+   *
+   * @param ids
+   */
+  public synchronized void invalidateAll(Iterable<Integer> ids) {
+    cache.invalidateAll(ids);
+    invalidations++;
+  }
+
+  /**
+   * Remove all cached user accounts
+   */
+  public synchronized void invalidateAll() {
+    cache.invalidateAll();
+    invalidations++;
+  }
+
+  private synchronized long invalidations() {
+    return invalidations;
+  }
+
+  /**
+   * Cache accounts read through only when no invalidation happened since they were loaded, so an
+   * account read before a write never replaces the invalidated entry
+   *
+   * @param loadedEntities
+   * @param seenInvalidations
+   */
+  private synchronized void putAllIfNotInvalidated(List<UserAccountEntity> loadedEntities,
+      long seenInvalidations) {
+    if (invalidations != seenInvalidations) {
+      return;
+    }
+    for (UserAccountEntity loadedEntity : loadedEntities) {
+      cache.put(loadedEntity.getId(), loadedEntity);
+    }
+  }
+}
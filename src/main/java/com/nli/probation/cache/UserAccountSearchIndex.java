@@ -0,0 +1,322 @@
+package com.nli.probation.cache;
+
+import com.nli.probation.config.CacheInvalidationProperties;
+import com.nli.probation.config.UserAccountSearchIndexProperties;
+import com.nli.probation.entity.UserAccountEntity;
+import com.nli.probation.metamodel.UserAccountEntity_;
+import com.nli.probation.repository.UserAccountRepository;
+import com.nli.probation.utils.IntObjectHashMap;
+import com.nli.probation.utils.IntPostingList;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inverted index from trigrams of user account name and email to sorted posting lists of account
+ * ids. Trigrams are case folded and hashed to int, so candidates of a search are a superset of the
+ * accounts matching it and must still be filtered by the database query. Writes of other nodes
+ * reach the index only through cache invalidation, so it answers only while change events are
+ * delivered; otherwise searches scan by regex.
+ */
+@Component
+public class UserAccountSearchIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(UserAccountSearchIndex.class);
+  private static final int GRAM_LENGTH = 3;
+  private static final int[] NO_GRAMS = new int[0];
+
+  private final UserAccountRepository userAccountRepository;
+  private final MongoTemplate mongoTemplate;
+  private final UserAccountSearchIndexProperties userAccountSearchIndexProperties;
+  private final CacheInvalidationProperties cacheInvalidationProperties;
+  private final ChangeEventSource changeEventSource;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Timer lookupTimer = Metrics.timer("user.account.search.index.lookup");
+  private IntObjectHashMap<IntPostingList> postings = new IntObjectHashMap<>();
+  private IntObjectHashMap<int[]> accountGrams = new IntObjectHashMap<>();
+  private IntObjectHashMap<UserAccountEntity> pendingChanges;
+  private volatile boolean ready;
+
+  public UserAccountSearchIndex(UserAccountRepository userAccountRepository,
+      MongoTemplate mongoTemplate,
+      UserAccountSearchIndexProperties userAccountSearchIndexProperties,
+      CacheInvalidationProperties cacheInvalidationProperties,
+      ChangeEventSource changeEventSource) {
+    this.userAccountRepository = userAccountRepository;
+    this.mongoTemplate = mongoTemplate;
+    this.userAccountSearchIndexProperties = userAccountSearchIndexProperties;
+    this.cacheInvalidationProperties = cacheInvalidationProperties;
+    this.changeEventSource = changeEventSource;
+    Metrics.gauge("user.account.search.index.size", this, UserAccountSearchIndex::size);
+  }
+
+  /**
+   * Find ids of accounts which may contain search value in name or email
+   *
+   * @param searchValue
+   * @return sorted candidate ids, or null when index can not narrow the search
+   */
+  public int[] findCandidates(String searchValue) {
+    if (!ready || !isEnabled() || !changeEventSource.isHealthy() || searchValue == null
+        || searchValue.length() < GRAM_LENGTH) {
+      return null;
+    }
+    long start = System.nanoTime();
+    int[] grams = gramsOf(searchValue);
+    lock.readLock().lock();
+    try {
+      //Intersect from the shortest posting list
+      List<IntPostingList> gramPostings = new ArrayList<>(grams.length);
+      for (int gram : grams) {
+        IntPostingList postingList = postings.get(gram);
+        if (postingList == null) {
+          return NO_GRAMS;
+        }
+        gramPostings.add(postingList);
+      }
+      gramPostings.sort(Comparator.comparingInt(IntPostingList::size));
+      int[] candidates = gramPostings.get(0).toArray();
+      for (int i = 1; i < gramPostings.size() && candidates.length > 0; i++) {
+        candidates = gramPostings.get(i).intersect(candidates);
+      }
+      return candidates.length <= userAccountSearchIndexProperties.getMaxCandidates()
+          ? candidates : null;
+    } finally {
+      lock.readLock().unlock();
+      lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /**
+   * Index saved account, replacing its previous name and email
+   *
+   * @param userAccountEntity
+   */
+  public void index(UserAccountEntity userAccountEntity) {
+    if (!isEnabled()) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      if (pendingChanges != null) {
+        pendingChanges.put(userAccountEntity.getId(), userAccountEntity);
+      }
+      replace(postings, accountGrams, userAccountEntity.getId(), gramsOf(userAccountEntity));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Index saved accounts
+   *
+   * @param userAccountEntities
+   */
+  public void indexAll(Iterable<UserAccountEntity> userAccountEntities) {
+    for (UserAccountEntity userAccountEntity : userAccountEntities) {
+      index(userAccountEntity);
+    }
+  }
+
+  /**
+   * Reload account from database after it was changed by another node
+   *
+   * @param id
+   */
+  public void refresh(int id) {
+    userAccountRepository.findById(id).ifPresent(this::index);
+  }
+
+  /**
+   * Build index of all accounts, trigrams of each partition of ids are collected in parallel
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    if (!isEnabled()) {
+      return;
+    }
+    long start = System.nanoTime();
+    lock.writeLock().lock();
+    try {
+      pendingChanges = new IntObjectHashMap<>();
+    } finally {
+      lock.writeLock().unlock();
+    }
+
+    //Load name and email of all accounts in order of id
+    Query query = new Query().with(Sort.by(UserAccountEntity_.ID));
+    query.fields().include(UserAccountEntity_.NAME).include(UserAccountEntity_.EMAIL);
+    List<UserAccountEntity> userAccountEntities = mongoTemplate.find(query,
+        UserAccountEntity.class);
+
+    //Collect trigrams of accounts, then build partial indexes of consecutive id ranges in
+    //parallel and append them in order
+    int[][] grams = userAccountEntities.parallelStream()
+        .map(UserAccountSearchIndex::gramsOf)
+        .toArray(int[][]::new);
+    int partitionCount = Math.max(1, Runtime.getRuntime().availableProcessors());
+    int partitionSize = (grams.length + partitionCount - 1) / partitionCount;
+    List<IntObjectHashMap<IntPostingList>> partitions = IntStream.range(0, partitionCount)
+        .parallel()
+        .mapToObj(partition -> buildPartition(userAccountEntities, grams,
+            Math.min(partition * partitionSize, grams.length),
+            Math.min((partition + 1) * partitionSize, grams.length)))
+        .collect(Collectors.toList());
+    IntObjectHashMap<IntPostingList> builtPostings = new IntObjectHashMap<>();
+    for (IntObjectHashMap<IntPostingList> partition : partitions) {
+      for (int gram : partition.keys()) {
+        IntPostingList postingList = builtPostings.get(gram);
+        if (postingList == null) {
+          builtPostings.put(gram, partition.get(gram));
+        } else {
+          for (int id : partition.get(gram).toArray()) {
+            postingList.add(id);
+          }
+        }
+      }
+    }
+    IntObjectHashMap<int[]> builtAccountGrams = new IntObjectHashMap<>(grams.length);
+    for (int i = 0; i < grams.length; i++) {
+      builtAccountGrams.put(userAccountEntities.get(i).getId(), grams[i]);
+    }
+    for (IntPostingList postingList : builtPostings.values()) {
+      postingList.trim();
+    }
+
+    //Swap index and apply writes made while building
+    lock.writeLock().lock();
+    try {
+      for (UserAccountEntity pendingEntity : pendingChanges.values()) {
+        replace(builtPostings, builtAccountGrams, pendingEntity.getId(),
+            gramsOf(pendingEntity));
+      }
+      postings = builtPostings;
+      accountGrams = builtAccountGrams;
+      pendingChanges = null;
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    LOGGER.info("Indexed {} user accounts with {} trigrams in {} ms", builtAccountGrams.size(),
+        builtPostings.size(), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Index is kept only when cache invalidation delivers writes of other nodes to it
+   *
+   * @return true when enabled
+   */
+  public boolean isEnabled() {
+    return userAccountSearchIndexProperties.isEnabled() && cacheInvalidationProperties.isEnabled();
+  }
+
+  /**
+   * Count indexed accounts
+   *
+   * @return number of accounts
+   */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return accountGrams.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static IntObjectHashMap<IntPostingList> buildPartition(
+      List<UserAccountEntity> userAccountEntities, int[][] grams, int from, int to) {
+    IntObjectHashMap<IntPostingList> partition = new IntObjectHashMap<>();
+    for (int i = from; i < to; i++) {
+      for (int gram : grams[i]) {
+        IntPostingList postingList = partition.get(gram);
+        if (postingList == null) {
+          postingList = new IntPostingList();
+          partition.put(gram, postingList);
+        }
+        postingList.add(userAccountEntities.get(i).getId());
+      }
+    }
+    return partition;
+  }
+
+  private static void replace(IntObjectHashMap<IntPostingList> postings,
+      IntObjectHashMap<int[]> accountGrams, int id, int[] grams) {
+    int[] previousGrams = accountGrams.put(id, grams);
+    if (previousGrams != null) {
+      for (int gram : previousGrams) {
+        IntPostingList postingList = postings.get(gram);
+        if (postingList != null && postingList.remove(id) && postingList.isEmpty()) {
+          postings.remove(gram);
+        }
+      }
+    }
+    for (int gram : grams) {
+      IntPostingList postingList = postings.get(gram);
+      if (postingList == null) {
+        postingList = new IntPostingList();
+        postings.put(gram, postingList);
+      }
+      postingList.add(id);
+    }
+  }
+
+  private static int[] gramsOf(UserAccountEntity userAccountEntity) {
+    int[] nameGrams = gramsOf(userAccountEntity.getName());
+    int[] emailGrams = gramsOf(userAccountEntity.getEmail());
+    int[] grams = Arrays.copyOf(nameGrams, nameGrams.length + emailGrams.length);
+    System.arraycopy(emailGrams, 0, grams, nameGrams.length, emailGrams.length);
+    return distinct(grams);
+  }
+
+  /**
+   * Hash every case folded trigram of text. Each char is folded on its own, so a substring of text
+   * always has a subset of its trigrams.
+   *
+   * @param text
+   * @return distinct sorted trigram hashes
+   */
+  private static int[] gramsOf(String text) {
+    if (text == null || text.length() < GRAM_LENGTH) {
+      return NO_GRAMS;
+    }
+    int[] grams = new int[text.length() - GRAM_LENGTH + 1];
+    for (int i = 0; i < grams.length; i++) {
+      long packed = ((long) Character.toLowerCase(text.charAt(i)) << 32)
+          | ((long) Character.toLowerCase(text.charAt(i + 1)) << 16)
+          | Character.toLowerCase(text.charAt(i + 2));
+      grams[i] = (int) ((packed * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+    return distinct(grams);
+  }
+
+  private static int[] distinct(int[] grams) {
+    if (grams.length == 0) {
+      return grams;
+    }
+    Arrays.sort(grams);
+    int count = 1;
+    for (int i = 1; i < grams.length; i++) {
+      if (grams[i] != grams[count - 1]) {
+        grams[count++] = grams[i];
+      }
+    }
+    return Arrays.copyOf(grams, count);
+  }
+}
@@ -1,12 +1,20 @@
 package com.nli.probation.config;
 
+import com.nli.probation.constant.LogWorkStorageModeEnum;
+import com.nli.probation.diagnostics.QueryShapeListener;
+import com.nli.probation.repository.BucketLogWorkStore;
+import com.nli.probation.repository.EmbeddedLogWorkStore;
+import com.nli.probation.repository.LogWorkStore;
+import com.nli.probation.resolver.RequestFieldsResolver;
 import com.nli.probation.resolver.RequestPaginationResolver;
 import java.util.Collections;
 import java.util.List;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import springfox.documentation.builders.PathSelectors;
@@ -30,6 +38,7 @@ public class AppConfig implements WebMvcConfigurer {
   @Override
   public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
     resolvers.add(new RequestPaginationResolver());
+    resolvers.add(new RequestFieldsResolver());
   }
 
   /**
@@ -64,6 +73,34 @@ public class AppConfig implements WebMvcConfigurer {
         .build();
   }
 
+  /**
+   * Add listener capturing query shapes to mongo client
+   *
+   * @param queryShapeListener
+   * @return customizer of mongo client settings
+   */
+  @Bean
+  public MongoClientSettingsBuilderCustomizer queryShapeCustomizer(
+      QueryShapeListener queryShapeListener) {
+    return builder -> builder.addCommandListener(queryShapeListener);
+  }
+
+  /**
+   * Storage of log works of configured mode
+   *
+   * @param mongoTemplate
+   * @param logWorkStorageProperties
+   * @return log work store
+   */
+  @Bean
+  public LogWorkStore logWorkStore(MongoTemplate mongoTemplate,
+      LogWorkStorageProperties logWorkStorageProperties) {
+    if (logWorkStorageProperties.getMode() == LogWorkStorageModeEnum.BUCKET) {
+      return new BucketLogWorkStore(mongoTemplate, logWorkStorageProperties.getBucketCapacity());
+    }
+    return new EmbeddedLogWorkStore(mongoTemplate);
+  }
+
   /**
    * config for model mapper
    *
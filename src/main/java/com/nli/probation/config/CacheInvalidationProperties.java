@@ -0,0 +1,56 @@
+package com.nli.probation.config;
+
+import com.nli.probation.entity.OfficeEntity;
+import com.nli.probation.entity.RoleEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.entity.TeamEntity;
+import com.nli.probation.entity.UserAccountEntity;
+import java.time.Duration;
+import java.util.Set;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of cache invalidation by change streams
+ */
+@Component
+@ConfigurationProperties(prefix = "cache-invalidation")
+@Getter
+@Setter
+public class CacheInvalidationProperties {
+
+  /**
+   * Tail change streams, requires database running as replica set
+   */
+  private boolean enabled = false;
+
+  /**
+   * Name of this node, key of its stored resume token. Must stay the same across restarts of
+   * the node, such as the pod name of a StatefulSet, never a generated hostname
+   */
+  private String nodeName = "local";
+
+  /**
+   * Age of tokens saved by other nodes which a node without a token of its own resumes from,
+   * older tokens are removed
+   */
+  private Duration resumeTokenMaxAge = Duration.ofHours(1);
+
+  /**
+   * Collections to watch
+   */
+  private Set<String> collections = Set.of(OfficeEntity.COLLECTION_NAME, RoleEntity.COLLECTION_NAME,
+      TeamEntity.COLLECTION_NAME, UserAccountEntity.COLLECTION_NAME, TaskEntity.COLLECTION_NAME);
+
+  /**
+   * Minimum time between two saves of the resume token
+   */
+  private Duration resumeTokenSaveInterval = Duration.ofSeconds(1);
+
+  /**
+   * Wait before reopening a failed change stream
+   */
+  private Duration retryDelay = Duration.ofSeconds(5);
+}
@@ -0,0 +1,27 @@
+package com.nli.probation.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of cached totals of searches in estimated count mode
+ */
+@Component
+@ConfigurationProperties(prefix = "count-cache")
+@Getter
+@Setter
+public class CountCacheProperties {
+
+  /**
+   * Maximum number of cached filters, the least valuable ones are evicted beyond it
+   */
+  private long maximumSize = 10000;
+
+  /**
+   * Time after counting before a filter is counted again
+   */
+  private Duration expireAfterWrite = Duration.ofSeconds(30);
+}
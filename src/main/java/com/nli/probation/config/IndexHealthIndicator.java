@@ -0,0 +1,32 @@
+package com.nli.probation.config;
+
+import java.util.Map;
+import java.util.Set;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health.Builder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Health of declared indexes, included in readiness group so traffic waits for critical indexes
+ */
+@Component
+public class IndexHealthIndicator extends AbstractHealthIndicator {
+
+  private final IndexRegistry indexRegistry;
+
+  public IndexHealthIndicator(IndexRegistry indexRegistry) {
+    this.indexRegistry = indexRegistry;
+  }
+
+  @Override
+  protected void doHealthCheck(Builder builder) {
+    Map<String, Set<String>> missingIndexes = indexRegistry.findMissingCriticalIndexes();
+    if (missingIndexes.isEmpty()) {
+      builder.up();
+    } else {
+      builder.down().withDetail("missingCriticalIndexes", missingIndexes);
+    }
+    builder.withDetail("verified", indexRegistry.getLastDrift() != null)
+        .withDetail("building", indexRegistry.isBuilding());
+  }
+}
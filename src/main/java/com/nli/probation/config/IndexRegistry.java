@@ -0,0 +1,269 @@
+package com.nli.probation.config;
+
+import com.nli.probation.entity.LogWorkBucketEntity;
+import com.nli.probation.entity.OfficeEntity;
+import com.nli.probation.entity.RoleEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.entity.TeamEntity;
+import com.nli.probation.entity.UserAccountEntity;
+import com.nli.probation.model.IndexDriftModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registry of indexes declared by annotations of entities, since automatic index creation is
+ * disabled. Missing indexes are built in background when application is ready, and drift between
+ * declared and found indexes is kept for readiness and the indexes endpoint.
+ */
+@Component
+public class IndexRegistry {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(IndexRegistry.class);
+  private static final List<Class<?>> INDEXED_ENTITIES = List.of(OfficeEntity.class,
+      RoleEntity.class, TeamEntity.class, UserAccountEntity.class, TaskEntity.class,
+      LogWorkBucketEntity.class);
+  private static final String ID_INDEX = "_id_";
+  private static final String NAME = "name";
+  private static final String KEY = "key";
+  private static final String WEIGHTS = "weights";
+  private static final String TEXT = "text";
+  private static final List<String> COMPARED_OPTIONS = List.of("unique", "sparse",
+      "partialFilterExpression", "expireAfterSeconds");
+
+  private final MongoTemplate mongoTemplate;
+  private final IndexRegistryProperties indexRegistryProperties;
+  private final Map<String, Map<String, IndexDefinition>> declaredIndexes;
+  private volatile Map<String, IndexDriftModel> lastDrift;
+  private volatile boolean building;
+
+  public IndexRegistry(MongoTemplate mongoTemplate,
+      MongoMappingContext mongoMappingContext,
+      IndexRegistryProperties indexRegistryProperties) {
+    this.mongoTemplate = mongoTemplate;
+    this.indexRegistryProperties = indexRegistryProperties;
+    this.declaredIndexes = resolveDeclaredIndexes(mongoMappingContext);
+  }
+
+  /**
+   * Build missing indexes in background when application is ready, so startup is not blocked by
+   * builds of large collections
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!indexRegistryProperties.isBuildOnStartup()) {
+      verify();
+      return;
+    }
+    Thread worker = new Thread(this::buildMissingIndexes, "index-registry");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  /**
+   * Build declared indexes missing in database. Changed and undeclared indexes are only reported,
+   * dropping them is left to operators.
+   */
+  public void buildMissingIndexes() {
+    building = true;
+    try {
+      for (IndexDriftModel drift : verify().values()) {
+        for (String indexName : drift.getMissing()) {
+          IndexDefinition indexDefinition = declaredIndexes.get(drift.getCollection())
+              .get(indexName);
+          mongoTemplate.indexOps(drift.getCollection()).ensureIndex(indexDefinition);
+          LOGGER.info("Built index {} of {}", indexName, drift.getCollection());
+        }
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Can not build missing indexes", e);
+    } finally {
+      building = false;
+    }
+    verify().values().stream().filter(drift -> !drift.isInSync()).forEach(
+        drift -> LOGGER.warn("Index drift of {}: missing {}, changed {}, undeclared {}",
+            drift.getCollection(), drift.getMissing(), drift.getChanged(),
+            drift.getUndeclared()));
+  }
+
+  /**
+   * Compare declared indexes with indexes found in database
+   *
+   * @return drift per collection
+   */
+  public Map<String, IndexDriftModel> verify() {
+    Map<String, IndexDriftModel> driftMap = new LinkedHashMap<>();
+    for (Entry<String, Map<String, IndexDefinition>> entry : declaredIndexes.entrySet()) {
+      IndexDriftModel drift = new IndexDriftModel(entry.getKey());
+      Map<String, Document> foundIndexes = new LinkedHashMap<>();
+      for (Document index : mongoTemplate.getCollection(entry.getKey()).listIndexes()
+          .into(new ArrayList<>())) {
+        foundIndexes.put(index.getString(NAME), index);
+      }
+      entry.getValue().forEach((indexName, indexDefinition) -> {
+        Document foundIndex = foundIndexes.get(indexName);
+        if (foundIndex == null) {
+          drift.getMissing().add(indexName);
+        } else if (!isSameIndex(indexDefinition, foundIndex)) {
+          drift.getChanged().add(indexName);
+        }
+      });
+      foundIndexes.keySet().stream()
+          .filter(indexName -> !indexName.equals(ID_INDEX)
+              && !entry.getValue().containsKey(indexName))
+          .forEach(drift.getUndeclared()::add);
+      driftMap.put(entry.getKey(), drift);
+    }
+    lastDrift = Collections.unmodifiableMap(driftMap);
+    return lastDrift;
+  }
+
+  /**
+   * Get drift of the last verification
+   *
+   * @return drift per collection, null before first verification
+   */
+  public Map<String, IndexDriftModel> getLastDrift() {
+    return lastDrift;
+  }
+
+  public boolean isBuilding() {
+    return building;
+  }
+
+  /**
+   * Find critical indexes missing at last verification, all of them are missing before it
+   *
+   * @return names of indexes per collection
+   */
+  public Map<String, Set<String>> findMissingCriticalIndexes() {
+    Map<String, IndexDriftModel> driftMap = lastDrift;
+    Map<String, Set<String>> missingIndexes = new LinkedHashMap<>();
+    indexRegistryProperties.getCriticalIndexes().forEach((collection, indexNames) -> {
+      Set<String> missing = new TreeSet<>(indexNames);
+      if (driftMap != null && driftMap.containsKey(collection)) {
+        missing.retainAll(driftMap.get(collection).getMissing());
+      }
+      if (!missing.isEmpty()) {
+        missingIndexes.put(collection, missing);
+      }
+    });
+    return missingIndexes;
+  }
+
+  /**
+   * Resolve indexes of annotations of entities by collection and index name
+   *
+   * @param mongoMappingContext
+   * @return declared indexes
+   */
+  private static Map<String, Map<String, IndexDefinition>> resolveDeclaredIndexes(
+      MongoMappingContext mongoMappingContext) {
+    IndexResolver indexResolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+    Map<String, Map<String, IndexDefinition>> indexes = new LinkedHashMap<>();
+    for (Class<?> entityClass : INDEXED_ENTITIES) {
+      String collection = mongoMappingContext.getRequiredPersistentEntity(entityClass)
+          .getCollection();
+      Map<String, IndexDefinition> collectionIndexes = indexes.computeIfAbsent(collection,
+          key -> new LinkedHashMap<>());
+      indexResolver.resolveIndexFor(entityClass).forEach(indexDefinition -> collectionIndexes.put(
+          nameOf(indexDefinition), indexDefinition));
+    }
+    return indexes;
+  }
+
+  /**
+   * Get name of index, or the name database generates of its keys
+   *
+   * @param indexDefinition
+   * @return index name
+   */
+  private static String nameOf(IndexDefinition indexDefinition) {
+    String name = indexDefinition.getIndexOptions().getString(NAME);
+    if (name != null) {
+      return name;
+    }
+    List<String> parts = new ArrayList<>();
+    indexDefinition.getIndexKeys().forEach((field, direction) -> {
+      parts.add(field);
+      parts.add(String.valueOf(direction));
+    });
+    return String.join("_", parts);
+  }
+
+  /**
+   * Check index found in database has declared keys and options. Text indexes are stored with
+   * internal keys, so only their weighted fields are compared.
+   *
+   * @param indexDefinition
+   * @param foundIndex
+   * @return true or false
+   */
+  private static boolean isSameIndex(IndexDefinition indexDefinition, Document foundIndex) {
+    Document declaredKeys = indexDefinition.getIndexKeys();
+    Document foundKeys = foundIndex.get(KEY, new Document());
+    boolean sameKeys = declaredKeys.containsValue(TEXT)
+        ? declaredKeys.keySet().equals(foundIndex.get(WEIGHTS, new Document()).keySet())
+        : isSameKeys(declaredKeys, foundKeys);
+    if (!sameKeys) {
+      return false;
+    }
+    Document declaredOptions = indexDefinition.getIndexOptions();
+    return COMPARED_OPTIONS.stream().allMatch(option -> Objects.equals(
+        normalize(declaredOptions.get(option)), normalize(foundIndex.get(option))));
+  }
+
+  /**
+   * Check keys have the same fields in the same order and direction
+   *
+   * @param declaredKeys
+   * @param foundKeys
+   * @return true or false
+   */
+  private static boolean isSameKeys(Document declaredKeys, Document foundKeys) {
+    if (declaredKeys.size() != foundKeys.size()) {
+      return false;
+    }
+    Iterator<Entry<String, Object>> foundIterator = foundKeys.entrySet().iterator();
+    for (Entry<String, Object> declaredKey : declaredKeys.entrySet()) {
+      Entry<String, Object> foundKey = foundIterator.next();
+      if (!declaredKey.getKey().equals(foundKey.getKey())
+          || !Objects.equals(normalize(declaredKey.getValue()), normalize(foundKey.getValue()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Normalize option value, numbers may be stored as other number types and false flags may not
+   * be stored at all
+   *
+   * @param value
+   * @return normalized value
+   */
+  private static Object normalize(Object value) {
+    if (value instanceof Number) {
+      return ((Number) value).longValue();
+    }
+    return Boolean.FALSE.equals(value) ? null : value;
+  }
+}
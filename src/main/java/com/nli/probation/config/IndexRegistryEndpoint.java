@@ -0,0 +1,26 @@
+package com.nli.probation.config;
+
+import com.nli.probation.model.IndexDriftModel;
+import java.util.Map;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to report drift between declared indexes and indexes in database
+ */
+@Component
+@Endpoint(id = "indexes")
+public class IndexRegistryEndpoint {
+
+  private final IndexRegistry indexRegistry;
+
+  public IndexRegistryEndpoint(IndexRegistry indexRegistry) {
+    this.indexRegistry = indexRegistry;
+  }
+
+  @ReadOperation
+  public Map<String, IndexDriftModel> drift() {
+    return indexRegistry.verify();
+  }
+}
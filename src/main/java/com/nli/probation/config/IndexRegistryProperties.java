@@ -0,0 +1,37 @@
+package com.nli.probation.config;
+
+import com.nli.probation.entity.LogWorkBucketEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.entity.UserAccountEntity;
+import java.util.Map;
+import java.util.Set;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of indexes declared by entities
+ */
+@Component
+@ConfigurationProperties(prefix = "index-registry")
+@Getter
+@Setter
+public class IndexRegistryProperties {
+
+  /**
+   * Build declared indexes missing in database when application is ready
+   */
+  private boolean buildOnStartup = true;
+
+  /**
+   * Names of indexes per collection, the application is not ready while one of them is missing
+   */
+  private Map<String, Set<String>> criticalIndexes = Map.of(
+      TaskEntity.COLLECTION_NAME, Set.of(TaskEntity.START_TIME_INDEX,
+          TaskEntity.ASSIGNEE_START_TIME_INDEX, TaskEntity.LOG_WORK_ID_INDEX),
+      UserAccountEntity.COLLECTION_NAME, Set.of(UserAccountEntity.EMAIL_INDEX,
+          UserAccountEntity.PHONE_INDEX, UserAccountEntity.TEAM_ID_INDEX),
+      LogWorkBucketEntity.COLLECTION_NAME, Set.of(LogWorkBucketEntity.TASK_ID_DAY_INDEX,
+          LogWorkBucketEntity.TASK_ID_LOG_WORK_ID_INDEX, LogWorkBucketEntity.LOG_WORK_ID_INDEX));
+}
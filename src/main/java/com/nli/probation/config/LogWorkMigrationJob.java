@@ -0,0 +1,196 @@
+package com.nli.probation.config;
+
+import static com.nli.probation.constant.ErrorMessageConst.CONCURRENT_TASK_UPDATE;
+
+import com.mongodb.client.result.UpdateResult;
+import com.nli.probation.constant.LogWorkStorageModeEnum;
+import com.nli.probation.customexception.ConcurrentUpdateException;
+import com.nli.probation.entity.LogWorkBucketEntity;
+import com.nli.probation.entity.LogWorkEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.metamodel.LogWorkBucketEntity_;
+import com.nli.probation.metamodel.TaskEntity_;
+import com.nli.probation.repository.LogWorkStore;
+import com.nli.probation.utils.OptimisticRetryUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Online migration of log works embedded in tasks to buckets, in batches of tasks. Per task, log
+ * works are copied to buckets marked as migrated, then the embedded list is removed only if the
+ * version of task is still the one read, then the buckets are unmarked. Writers keep using the
+ * embedded list until it is removed, so a conflicting write just makes the task be copied again.
+ * Buckets are cut by position in the list with ids made of task id and position, so copying again
+ * replaces the same buckets, also after a crash between the steps.
+ */
+@Component
+public class LogWorkMigrationJob {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LogWorkMigrationJob.class);
+  private static final String MIGRATE_LOG_WORKS_OPERATION = "migrate_log_works";
+  private static final String MIGRATED_BUCKET_ID_FORMAT = "%d_migrated_%d";
+
+  private final MongoTemplate mongoTemplate;
+  private final LogWorkStorageProperties logWorkStorageProperties;
+
+  public LogWorkMigrationJob(MongoTemplate mongoTemplate,
+      LogWorkStorageProperties logWorkStorageProperties) {
+    this.mongoTemplate = mongoTemplate;
+    this.logWorkStorageProperties = logWorkStorageProperties;
+  }
+
+  /**
+   * Migrate in background when application is ready in bucket mode
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (logWorkStorageProperties.getMode() != LogWorkStorageModeEnum.BUCKET
+        || !logWorkStorageProperties.isMigrateOnStartup()) {
+      return;
+    }
+    Thread worker = new Thread(this::migrate, "log-work-migration");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  /**
+   * Move embedded log works of all tasks to buckets. Tasks failing on conflicts are left
+   * embedded for the next run.
+   *
+   * @return number of migrated tasks
+   */
+  public int migrate() {
+    int migratedTasks = 0;
+    int lastTaskId = Integer.MIN_VALUE;
+    try {
+      List<TaskEntity> taskEntities;
+      do {
+        //Find next batch of tasks with embedded log works
+        Query query = new Query(Criteria.where(TaskEntity_.ID).gt(lastTaskId)
+            .and(TaskEntity_.LOG_WORKS_LIST).exists(true))
+            .with(Sort.by(TaskEntity_.ID))
+            .limit(logWorkStorageProperties.getMigrationBatchSize());
+        query.fields().include(TaskEntity_.ID);
+        taskEntities = mongoTemplate.find(query, TaskEntity.class);
+
+        for (TaskEntity taskEntity : taskEntities) {
+          lastTaskId = taskEntity.getId();
+          try {
+            migrateTask(taskEntity.getId());
+            migratedTasks++;
+          } catch (ConcurrentUpdateException e) {
+            LOGGER.warn("Log works of task {} are left embedded, task keeps changing",
+                taskEntity.getId());
+          }
+        }
+      } while (!taskEntities.isEmpty());
+      unmarkMigratedBuckets();
+    } catch (RuntimeException e) {
+      LOGGER.error("Can not migrate log works after task {}", lastTaskId, e);
+    }
+    LOGGER.info("Migrated log works of {} tasks to buckets", migratedTasks);
+    return migratedTasks;
+  }
+
+  /**
+   * Copy log works of task to buckets and remove them from task if it was not changed meanwhile
+   *
+   * @param taskId
+   */
+  public void migrateTask(int taskId) {
+    OptimisticRetryUtils.retry(MIGRATE_LOG_WORKS_OPERATION, CONCURRENT_TASK_UPDATE, () -> {
+      //Read embedded log works with version
+      Query taskQuery = new Query(Criteria.where(TaskEntity_.ID).is(taskId));
+      taskQuery.fields().include(TaskEntity_.ID).include(TaskEntity_.LOG_WORKS_LIST)
+          .include(TaskEntity_.VERSION);
+      TaskEntity taskEntity = mongoTemplate.findOne(taskQuery, TaskEntity.class);
+      if (taskEntity == null || taskEntity.getLogWorkList() == null) {
+        return Optional.of(taskId);
+      }
+
+      //Copy to buckets, replacing copies of an earlier attempt
+      List<LogWorkBucketEntity> bucketEntities = toBuckets(taskEntity);
+      if (!bucketEntities.isEmpty()) {
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkMode.UNORDERED,
+            LogWorkBucketEntity.class);
+        for (LogWorkBucketEntity bucketEntity : bucketEntities) {
+          bulkOperations.replaceOne(
+              new Query(Criteria.where(LogWorkBucketEntity_.ID).is(bucketEntity.getId())),
+              bucketEntity, FindAndReplaceOptions.options().upsert());
+        }
+        bulkOperations.execute();
+      }
+
+      //Remove embedded list if task is unchanged since read
+      UpdateResult result = mongoTemplate.updateFirst(
+          new Query(Criteria.where(TaskEntity_.ID).is(taskId)
+              .and(TaskEntity_.VERSION).is(taskEntity.getVersion())),
+          new Update().unset(TaskEntity_.LOG_WORKS_LIST).inc(TaskEntity_.VERSION, 1),
+          TaskEntity.class);
+      if (result.getMatchedCount() == 0) {
+        return Optional.empty();
+      }
+
+      //Let buckets be read and written
+      mongoTemplate.updateMulti(
+          new Query(Criteria.where(LogWorkBucketEntity_.TASK_ID).is(taskId)
+              .and(LogWorkBucketEntity_.MIGRATED).is(true)),
+          new Update().set(LogWorkBucketEntity_.MIGRATED, false), LogWorkBucketEntity.class);
+      return Optional.of(taskId);
+    });
+  }
+
+  /**
+   * Unmark buckets left marked by a crash after their task lost its embedded list
+   */
+  private void unmarkMigratedBuckets() {
+    List<Integer> taskIds = mongoTemplate.findDistinct(
+        new Query(Criteria.where(LogWorkBucketEntity_.MIGRATED).is(true)),
+        LogWorkBucketEntity_.TASK_ID, LogWorkBucketEntity.class, Integer.class);
+    for (int taskId : taskIds) {
+      if (!mongoTemplate.exists(new Query(Criteria.where(TaskEntity_.ID).is(taskId)
+          .and(TaskEntity_.LOG_WORKS_LIST).exists(true)), TaskEntity.class)) {
+        mongoTemplate.updateMulti(
+            new Query(Criteria.where(LogWorkBucketEntity_.TASK_ID).is(taskId)
+                .and(LogWorkBucketEntity_.MIGRATED).is(true)),
+            new Update().set(LogWorkBucketEntity_.MIGRATED, false), LogWorkBucketEntity.class);
+      }
+    }
+  }
+
+  /**
+   * Cut log works of task into buckets of capacity by position, each dated by its first log work
+   *
+   * @param taskEntity
+   * @return migrated buckets
+   */
+  private List<LogWorkBucketEntity> toBuckets(TaskEntity taskEntity) {
+    List<LogWorkEntity> logWorkEntities = taskEntity.getLogWorkList();
+    int bucketCapacity = logWorkStorageProperties.getBucketCapacity();
+    List<LogWorkBucketEntity> bucketEntities = new ArrayList<>();
+    for (int from = 0; from < logWorkEntities.size(); from += bucketCapacity) {
+      List<LogWorkEntity> bucketLogWorks = new ArrayList<>(logWorkEntities.subList(from,
+          Math.min(from + bucketCapacity, logWorkEntities.size())));
+      double totalHours = bucketLogWorks.stream().mapToDouble(LogWorkStore::activeHoursOf).sum();
+      bucketEntities.add(new LogWorkBucketEntity(
+          String.format(MIGRATED_BUCKET_ID_FORMAT, taskEntity.getId(), from / bucketCapacity),
+          taskEntity.getId(), bucketLogWorks.get(0).getStartTime().toLocalDate(),
+          bucketLogWorks.size(), totalHours, true, bucketLogWorks, null));
+    }
+    return bucketEntities;
+  }
+}
@@ -0,0 +1,120 @@
+package com.nli.probation.config;
+
+import com.nli.probation.constant.LogWorkStorageModeEnum;
+import com.nli.probation.entity.LogWorkBucketEntity;
+import com.nli.probation.entity.PendingHoursEntity;
+import com.nli.probation.metamodel.LogWorkBucketEntity_;
+import com.nli.probation.metamodel.PendingHoursEntity_;
+import com.nli.probation.repository.BucketLogWorkStore;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Add hours left pending in buckets to actual time of their tasks. A write of a bucket adds its
+ * hours to the task in a second update, which a crash or an error may prevent; the bucket keeps
+ * them pending until this job or a retry of the write adds them, once.
+ */
+@Component
+public class LogWorkReconciliationJob {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LogWorkReconciliationJob.class);
+
+  private final MongoTemplate mongoTemplate;
+  private final LogWorkStorageProperties logWorkStorageProperties;
+  private final BucketLogWorkStore bucketLogWorkStore;
+  private volatile boolean running;
+  private Thread worker;
+
+  public LogWorkReconciliationJob(MongoTemplate mongoTemplate,
+      LogWorkStorageProperties logWorkStorageProperties) {
+    this.mongoTemplate = mongoTemplate;
+    this.logWorkStorageProperties = logWorkStorageProperties;
+    this.bucketLogWorkStore = new BucketLogWorkStore(mongoTemplate,
+        logWorkStorageProperties.getBucketCapacity());
+  }
+
+  /**
+   * Reconcile in background when application is ready in bucket mode
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void start() {
+    if (logWorkStorageProperties.getMode() != LogWorkStorageModeEnum.BUCKET) {
+      return;
+    }
+    running = true;
+    worker = new Thread(this::reconcileUntilStopped, "log-work-reconciliation");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  /**
+   * Stop reconciling
+   */
+  @PreDestroy
+  public synchronized void stop() {
+    running = false;
+    if (worker != null) {
+      LockSupport.unpark(worker);
+    }
+  }
+
+  /**
+   * Add pending hours of all buckets to their tasks
+   *
+   * @return number of pending hours added or found added before
+   */
+  public int reconcile() {
+    //Collect pending hours per task, through sparse index of pending hours
+    Query query = new Query(Criteria.where(
+        LogWorkBucketEntity_.PENDING_HOURS_LIST + "." + PendingHoursEntity_.ID).exists(true));
+    query.fields().include(LogWorkBucketEntity_.TASK_ID)
+        .include(LogWorkBucketEntity_.PENDING_HOURS_LIST);
+    Map<Integer, List<PendingHoursEntity>> pendingHoursByTask = new LinkedHashMap<>();
+    for (LogWorkBucketEntity bucketEntity : mongoTemplate.find(query,
+        LogWorkBucketEntity.class)) {
+      pendingHoursByTask.computeIfAbsent(bucketEntity.getTaskId(), taskId -> new ArrayList<>())
+          .addAll(bucketEntity.getPendingHoursList());
+    }
+
+    //Add them task by task, a failing task is left for the next run
+    int reconciled = 0;
+    for (Map.Entry<Integer, List<PendingHoursEntity>> entry : pendingHoursByTask.entrySet()) {
+      try {
+        bucketLogWorkStore.applyPendingHours(entry.getKey(), entry.getValue());
+        reconciled += entry.getValue().size();
+      } catch (RuntimeException e) {
+        LOGGER.warn("Can not add pending hours to task {}", entry.getKey(), e);
+      }
+    }
+    if (reconciled > 0) {
+      LOGGER.info("Added {} pending hours of buckets to tasks", reconciled);
+    }
+    return reconciled;
+  }
+
+  private void reconcileUntilStopped() {
+    while (running) {
+      LockSupport.parkNanos(this, logWorkStorageProperties.getReconcileInterval().toNanos());
+      if (!running) {
+        return;
+      }
+      try {
+        reconcile();
+      } catch (RuntimeException e) {
+        LOGGER.error("Can not reconcile actual time of tasks", e);
+      }
+    }
+  }
+}
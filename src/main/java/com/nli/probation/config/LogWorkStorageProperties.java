@@ -0,0 +1,43 @@
+package com.nli.probation.config;
+
+import com.nli.probation.constant.LogWorkStorageModeEnum;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of storage of log works
+ */
+@Component
+@ConfigurationProperties(prefix = "log-work-storage")
+@Getter
+@Setter
+public class LogWorkStorageProperties {
+
+  /**
+   * Store log works embedded in tasks or in buckets of their own collection
+   */
+  private LogWorkStorageModeEnum mode = LogWorkStorageModeEnum.EMBEDDED;
+
+  /**
+   * Maximum number of log works of one bucket
+   */
+  private int bucketCapacity = 200;
+
+  /**
+   * Move log works embedded in tasks to buckets when application is ready, in bucket mode only
+   */
+  private boolean migrateOnStartup = true;
+
+  /**
+   * Number of tasks read per batch of migration
+   */
+  private int migrationBatchSize = 100;
+
+  /**
+   * Time between runs adding hours left pending in buckets to their tasks, in bucket mode only
+   */
+  private Duration reconcileInterval = Duration.ofMinutes(1);
+}
@@ -0,0 +1,65 @@
+package com.nli.probation.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuration of write-behind of created log works
+ */
+@Component
+@ConfigurationProperties(prefix = "log-work-write-behind")
+@Getter
+@Setter
+public class LogWorkWriteBehindProperties {
+
+  /**
+   * Acknowledge created log works once queued and write them in batches. A log work can not be
+   * read or updated until its batch is flushed.
+   */
+  private boolean enabled = false;
+
+  /**
+   * Number of queued log works, rounded up to a power of two
+   */
+  private int capacity = 8192;
+
+  /**
+   * Longest time a log work waits in queue when fewer than a batch are queued
+   */
+  private Duration flushInterval = Duration.ofMillis(5);
+
+  /**
+   * Number of queued log works flushing a batch at once, also the largest batch
+   */
+  private int flushBatchSize = 500;
+
+  /**
+   * Time a request waits for room in a full queue before it is rejected
+   */
+  private Duration offerTimeout = Duration.ofMillis(20);
+
+  /**
+   * Time shutdown waits for the flusher before flushing the rest itself
+   */
+  private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+  /**
+   * Journal queued log works to local files before acknowledging them, so they are written after
+   * a restart. The directory must outlive the process, like a persistent volume of the pod.
+   */
+  private boolean journalEnabled = false;
+
+  /**
+   * Directory of journal segment files
+   */
+  private String journalDirectory = "log-work-journal";
+
+  /**
+   * Size of one memory-mapped journal segment file
+   */
+  private DataSize journalSegmentSize = DataSize.ofMegabytes(16);
+}
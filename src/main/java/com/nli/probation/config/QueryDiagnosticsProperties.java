@@ -0,0 +1,42 @@
+package com.nli.probation.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of query shape capture and explain sampling
+ */
+@Component
+@ConfigurationProperties(prefix = "query-diagnostics")
+@Getter
+@Setter
+public class QueryDiagnosticsProperties {
+
+  /**
+   * Capture shapes of find, count and aggregate commands
+   */
+  private boolean enabled = true;
+
+  /**
+   * Maximum number of captured shapes, new shapes beyond it are not captured
+   */
+  private int maxShapes = 1000;
+
+  /**
+   * Duration from which a query is slow, slow queries of a shape are explained again
+   */
+  private Duration slowThreshold = Duration.ofMillis(100);
+
+  /**
+   * Minimum time between two explains of one shape
+   */
+  private Duration explainInterval = Duration.ofMinutes(10);
+
+  /**
+   * Documents or keys examined per returned document from which a shape is reported as poor
+   */
+  private double poorExaminedRatio = 10;
+}
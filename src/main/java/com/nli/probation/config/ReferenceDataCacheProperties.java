@@ -0,0 +1,23 @@
+package com.nli.probation.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of in-memory offices, roles and teams
+ */
+@Component
+@ConfigurationProperties(prefix = "reference-data-cache")
+@Getter
+@Setter
+public class ReferenceDataCacheProperties {
+
+  /**
+   * Time between two reloads of all reference data while cache invalidation is disabled, bounding
+   * how long writes of other nodes stay unseen
+   */
+  private Duration refreshInterval = Duration.ofSeconds(30);
+}
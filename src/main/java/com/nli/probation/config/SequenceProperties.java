@@ -0,0 +1,42 @@
+package com.nli.probation.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of sequence generation
+ */
+@Component
+@ConfigurationProperties(prefix = "sequence")
+@Getter
+@Setter
+public class SequenceProperties {
+
+  /**
+   * Reserve a block of ids per sequence name and hand them out locally
+   */
+  private boolean leaseEnabled = false;
+
+  /**
+   * Size of the first block leased for a sequence name
+   */
+  private int initialBlockSize = 20;
+
+  /**
+   * Lower bound of the adaptive block size
+   */
+  private int minBlockSize = 10;
+
+  /**
+   * Upper bound of the adaptive block size
+   */
+  private int maxBlockSize = 1000;
+
+  /**
+   * Expected time between two leases of the same sequence name, used to adapt the block size
+   */
+  private Duration targetLeaseInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,49 @@
+package com.nli.probation.config;
+
+import com.mongodb.client.result.UpdateResult;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.metamodel.TaskEntity_;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Set version of tasks saved before tasks were versioned. A task without version is taken as new
+ * by repository, so saving it would insert instead of update. Nodes of an older release may still
+ * write tasks without version during a rolling deploy, updates of task service version those
+ * tasks on their own.
+ */
+@Component
+public class TaskVersionBackfill {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TaskVersionBackfill.class);
+
+  private final MongoTemplate mongoTemplate;
+
+  public TaskVersionBackfill(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  /**
+   * Set initial version of unversioned tasks when application is ready
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfill() {
+    try {
+      UpdateResult result = mongoTemplate.updateMulti(
+          new Query(Criteria.where(TaskEntity_.VERSION).exists(false)),
+          new Update().set(TaskEntity_.VERSION, 0L), TaskEntity.class);
+      if (result.getModifiedCount() > 0) {
+        LOGGER.info("Set version of {} tasks", result.getModifiedCount());
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Can not set version of tasks", e);
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.nli.probation.config;
+
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of user account near-cache
+ */
+@Component
+@ConfigurationProperties(prefix = "user-account-cache")
+@Getter
+@Setter
+public class UserAccountCacheProperties {
+
+  /**
+   * Maximum number of cached accounts, the least valuable ones are evicted beyond it
+   */
+  private long maximumSize = 20000;
+
+  /**
+   * Time after write before a cached account is reloaded from database
+   */
+  private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
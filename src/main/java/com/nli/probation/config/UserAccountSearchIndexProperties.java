@@ -0,0 +1,28 @@
+package com.nli.probation.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration of in-memory trigram index of user account name and email
+ */
+@Component
+@ConfigurationProperties(prefix = "user-account-search-index")
+@Getter
+@Setter
+public class UserAccountSearchIndexProperties {
+
+  /**
+   * Answer account search with candidates of the index, otherwise always scan by regex. Takes
+   * effect only with cache invalidation enabled, which keeps the index current with writes of
+   * other nodes
+   */
+  private boolean enabled = true;
+
+  /**
+   * Maximum number of candidate ids sent in one $in query, broader searches scan by regex
+   */
+  private int maxCandidates = 5000;
+}
@@ -0,0 +1,10 @@
+package com.nli.probation.constant;
+
+/**
+ * Mode of counting total results of search
+ */
+public enum CountModeEnum {
+  EXACT, //Count every matching document
+  ESTIMATED, //Collection metadata when unfiltered, otherwise a recent count of the same filter
+  NONE, //No count, for clients only scrolling forward
+}
@@ -27,4 +27,13 @@ public class ErrorMessageConst {
   public static final String LOG_WORK_TIME = "Check time of log work again";
   public static final String NOT_FOUND_LOG_WORK = "Not found log work";
   public static final String DELETED_LOG_WORK = "This log work was deleted";
+  public static final String CONCURRENT_TASK_UPDATE =
+      "Task was changed by other requests, try again";
+  public static final String CONCURRENT_LOG_WORK_UPDATE =
+      "Log work was changed by other requests, try again";
+  public static final String LOG_WORK_QUEUE_FULL =
+      "Too many log works are being submitted, try again later";
+  public static final String INVALID_CURSOR = "Cursor is invalid or does not match sort";
+  public static final String INVALID_COUNT_MODE = "Count mode must be exact, estimated or none";
+  public static final String INVALID_FIELDS = "Can not request field ";
 }
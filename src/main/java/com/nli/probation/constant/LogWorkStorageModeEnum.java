@@ -0,0 +1,9 @@
+package com.nli.probation.constant;
+
+/**
+ * Where log works of tasks are stored
+ */
+public enum LogWorkStorageModeEnum {
+  EMBEDDED, //Array log_works inside the task document
+  BUCKET, //Collection log_work_bucket, one document per task per day and bucket capacity
+}
@@ -0,0 +1,10 @@
+package com.nli.probation.constant;
+
+/**
+ * Mode of matching search text
+ */
+public enum SearchModeEnum {
+  TEXT, //Words matched by text index, sorted by relevance
+  REGEX, //Substring matched by escaped regex, scans all documents
+  PREFIX, //Prefix of lowercase search fields, scans a range of their indexes
+}
@@ -1,6 +1,8 @@
 package com.nli.probation.controller;
 
+import com.nli.probation.customexception.ConcurrentUpdateException;
 import com.nli.probation.customexception.SQLCustomException;
+import com.nli.probation.customexception.ServiceBusyException;
 import com.nli.probation.customexception.TimeCustomException;
 import com.nli.probation.model.APIErrorModel;
 import java.sql.SQLIntegrityConstraintViolationException;
@@ -248,4 +250,35 @@ public class ExceptionHandlerController extends ResponseEntityExceptionHandler {
     return new ResponseEntity<>(apiErrorModel, HttpStatus.BAD_REQUEST);
   }
 
+  /**
+   * Handle concurrent update exception
+   *
+   * @param ex
+   * @return response entity
+   */
+  @ExceptionHandler({ConcurrentUpdateException.class})
+  public ResponseEntity<Object> handleConcurrentUpdateException(
+      ConcurrentUpdateException ex) {
+    initMap();
+    invalidMap.put("Concurrent update exception", ex.getMessage());
+    APIErrorModel apiErrorModel = new APIErrorModel(LocalDateTime.now(),
+        HttpStatus.CONFLICT.name(), invalidMap);
+    return new ResponseEntity<>(apiErrorModel, HttpStatus.CONFLICT);
+  }
+
+  /**
+   * Handle service busy exception
+   *
+   * @param ex
+   * @return response entity
+   */
+  @ExceptionHandler({ServiceBusyException.class})
+  public ResponseEntity<Object> handleServiceBusyException(
+      ServiceBusyException ex) {
+    initMap();
+    invalidMap.put("Service busy exception", ex.getMessage());
+    APIErrorModel apiErrorModel = new APIErrorModel(LocalDateTime.now(),
+        HttpStatus.SERVICE_UNAVAILABLE.name(), invalidMap);
+    return new ResponseEntity<>(apiErrorModel, HttpStatus.SERVICE_UNAVAILABLE);
+  }
 }
@@ -9,6 +9,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -41,5 +43,20 @@ public class LogWorkController {
     return new ResponseEntity<>(responseModel, HttpStatus.OK);
   }
 
+  /**
+   * Find log work by id
+   *
+   * @param id
+   * @return response entity contains found model
+   */
+  @GetMapping(path = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<ResponseModel> findLogWorkById(@PathVariable String id) {
+    LogWorkModel foundModel = logWorkService.findLogWorkById(id);
+    ResponseModel responseModel = new ResponseModel().statusCode(HttpStatus.OK.value())
+        .data(foundModel)
+        .message("OK");
+    return new ResponseEntity<>(responseModel, HttpStatus.OK);
+  }
+
 
 }
@@ -1,11 +1,15 @@
 package com.nli.probation.controller;
 
+import com.nli.probation.constant.SearchModeEnum;
+import com.nli.probation.metamodel.OfficeEntity_;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
 import com.nli.probation.model.ResponseModel;
 import com.nli.probation.model.office.CreateOfficeModel;
 import com.nli.probation.model.office.OfficeModel;
 import com.nli.probation.model.office.UpdateOfficeModel;
+import com.nli.probation.resolver.annotation.RequestFieldsParam;
 import com.nli.probation.resolver.annotation.RequestPagingParam;
 import com.nli.probation.service.OfficeService;
 import javax.validation.Valid;
@@ -54,11 +58,13 @@ public class OfficeController {
    * Find office by id
    *
    * @param id
+   * @param requestFieldsModel
    * @return response entity contains model
    */
   @GetMapping(path = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE})
-  public ResponseEntity<ResponseModel> findOfficeById(@PathVariable int id) {
-    OfficeModel foundOffice = officeService.findOfficeById(id);
+  public ResponseEntity<ResponseModel> findOfficeById(@PathVariable int id,
+      @RequestFieldsParam(OfficeEntity_.class) RequestFieldsModel requestFieldsModel) {
+    OfficeModel foundOffice = officeService.findOfficeById(id, requestFieldsModel);
     ResponseModel responseModel = new ResponseModel().statusCode(HttpStatus.OK.value())
         .data(foundOffice)
         .message("OK");
@@ -101,15 +107,19 @@ public class OfficeController {
    * Search offices
    *
    * @param requestPaginationModel
+   * @param requestFieldsModel
    * @param searchText
+   * @param searchMode
    * @return response entity contains data resource
    */
   @GetMapping(path = "", produces = {MediaType.APPLICATION_JSON_VALUE})
   public ResponseEntity<Object> searchOffices(
       @RequestPagingParam RequestPaginationModel requestPaginationModel,
-      @RequestParam(value = "searchText", defaultValue = "") String searchText) {
-    ResourceModel<OfficeModel> officeList = officeService.searchOffices(searchText,
-        requestPaginationModel);
+      @RequestFieldsParam(OfficeEntity_.class) RequestFieldsModel requestFieldsModel,
+      @RequestParam(value = "searchText", defaultValue = "") String searchText,
+      @RequestParam(value = "searchMode", defaultValue = "REGEX") SearchModeEnum searchMode) {
+    ResourceModel<OfficeModel> officeList = officeService.searchOffices(searchText, searchMode,
+        requestPaginationModel, requestFieldsModel);
     return new ResponseEntity<>(officeList, HttpStatus.OK);
   }
 }
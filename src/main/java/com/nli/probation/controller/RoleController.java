@@ -1,11 +1,15 @@
 package com.nli.probation.controller;
 
+import com.nli.probation.constant.SearchModeEnum;
+import com.nli.probation.metamodel.RoleEntity_;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
 import com.nli.probation.model.ResponseModel;
 import com.nli.probation.model.role.CreateRoleModel;
 import com.nli.probation.model.role.RoleModel;
 import com.nli.probation.model.role.UpdateRoleModel;
+import com.nli.probation.resolver.annotation.RequestFieldsParam;
 import com.nli.probation.resolver.annotation.RequestPagingParam;
 import com.nli.probation.service.RoleService;
 import javax.validation.Valid;
@@ -53,11 +57,13 @@ public class RoleController {
    * Find role by id
    *
    * @param id
+   * @param requestFieldsModel
    * @return response entity contains model
    */
   @GetMapping(path = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE})
-  public ResponseEntity<ResponseModel> findRoleById(@PathVariable int id) {
-    RoleModel foundRole = roleService.findRoleById(id);
+  public ResponseEntity<ResponseModel> findRoleById(@PathVariable int id,
+      @RequestFieldsParam(RoleEntity_.class) RequestFieldsModel requestFieldsModel) {
+    RoleModel foundRole = roleService.findRoleById(id, requestFieldsModel);
     ResponseModel responseModel = new ResponseModel().statusCode(HttpStatus.OK.value())
         .data(foundRole)
         .message("OK");
@@ -100,14 +106,19 @@ public class RoleController {
    * Search roles
    *
    * @param requestPaginationModel
+   * @param requestFieldsModel
    * @param searchText
+   * @param searchMode
    * @return response entity contains data resource
    */
   @GetMapping(path = "", produces = {MediaType.APPLICATION_JSON_VALUE})
   public ResponseEntity<Object> searchRoles(
       @RequestPagingParam RequestPaginationModel requestPaginationModel,
-      @RequestParam(value = "searchText", defaultValue = "") String searchText) {
-    ResourceModel<RoleModel> roleList = roleService.searchRoles(searchText, requestPaginationModel);
+      @RequestFieldsParam(RoleEntity_.class) RequestFieldsModel requestFieldsModel,
+      @RequestParam(value = "searchText", defaultValue = "") String searchText,
+      @RequestParam(value = "searchMode", defaultValue = "REGEX") SearchModeEnum searchMode) {
+    ResourceModel<RoleModel> roleList = roleService.searchRoles(searchText, searchMode,
+        requestPaginationModel, requestFieldsModel);
     return new ResponseEntity<>(roleList, HttpStatus.OK);
   }
 }
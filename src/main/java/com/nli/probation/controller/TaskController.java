@@ -1,5 +1,8 @@
 package com.nli.probation.controller;
 
+import com.nli.probation.constant.SearchModeEnum;
+import com.nli.probation.metamodel.TaskEntity_;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
 import com.nli.probation.model.ResponseModel;
@@ -8,6 +11,7 @@ import com.nli.probation.model.logwork.UpdateLogWorkModel;
 import com.nli.probation.model.task.CreateTaskModel;
 import com.nli.probation.model.task.TaskModel;
 import com.nli.probation.model.task.UpdateTaskModel;
+import com.nli.probation.resolver.annotation.RequestFieldsParam;
 import com.nli.probation.resolver.annotation.RequestPagingParam;
 import com.nli.probation.service.LogWorkService;
 import com.nli.probation.service.TaskService;
@@ -58,15 +62,33 @@ public class TaskController {
     return new ResponseEntity<>(responseModel, HttpStatus.OK);
   }
 
+  /**
+   * Create list of tasks
+   *
+   * @param createModels
+   * @return response entity contains created models
+   */
+  @PostMapping(path = "/bulk", produces = {MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<ResponseModel> createTasks(
+      @RequestBody List<@Valid CreateTaskModel> createModels) {
+    List<TaskModel> savedModels = taskService.createTasks(createModels);
+    ResponseModel responseModel = new ResponseModel().statusCode(HttpStatus.OK.value())
+        .data(savedModels)
+        .message("OK");
+    return new ResponseEntity<>(responseModel, HttpStatus.OK);
+  }
+
   /**
    * Find task by id
    *
    * @param id
+   * @param requestFieldsModel
    * @return response entity contains model
    */
   @GetMapping(path = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE})
-  public ResponseEntity<ResponseModel> findTaskById(@PathVariable int id) {
-    TaskModel foundTask = taskService.findTaskById(id);
+  public ResponseEntity<ResponseModel> findTaskById(@PathVariable int id,
+      @RequestFieldsParam(TaskEntity_.class) RequestFieldsModel requestFieldsModel) {
+    TaskModel foundTask = taskService.findTaskById(id, requestFieldsModel);
     ResponseModel responseModel = new ResponseModel().statusCode(HttpStatus.OK.value())
         .data(foundTask)
         .message("OK");
@@ -109,14 +131,19 @@ public class TaskController {
    * Search tasks
    *
    * @param requestPaginationModel
+   * @param requestFieldsModel
    * @param searchText
+   * @param searchMode
    * @return response entity contains data resource
    */
   @GetMapping(path = "", produces = {MediaType.APPLICATION_JSON_VALUE})
   public ResponseEntity<Object> searchTasks(
       @RequestPagingParam RequestPaginationModel requestPaginationModel,
-      @RequestParam(value = "searchText", defaultValue = "") String searchText) {
-    ResourceModel<TaskModel> taskList = taskService.searchTasks(searchText, requestPaginationModel);
+      @RequestFieldsParam(TaskEntity_.class) RequestFieldsModel requestFieldsModel,
+      @RequestParam(value = "searchText", defaultValue = "") String searchText,
+      @RequestParam(value = "searchMode", defaultValue = "TEXT") SearchModeEnum searchMode) {
+    ResourceModel<TaskModel> taskList = taskService.searchTasks(searchText, searchMode,
+        requestPaginationModel, requestFieldsModel);
     return new ResponseEntity<>(taskList, HttpStatus.OK);
   }
 
@@ -138,14 +165,17 @@ public class TaskController {
   }
 
   /**
-   * Find all log works of a task
+   * Find log works of a task in requested page
    *
    * @param id
-   * @return all log work of a task
+   * @param requestPaginationModel
+   * @return response entity contains data resource
    */
   @GetMapping(path = "{id}/log-works", produces = {MediaType.APPLICATION_JSON_VALUE})
-  public ResponseEntity<Object> searchLogWorkOfTask(@PathVariable int id) {
-    List<LogWorkModel> logList = logWorkService.findAllLogWorkOfTask(id);
+  public ResponseEntity<Object> searchLogWorkOfTask(@PathVariable int id,
+      @RequestPagingParam RequestPaginationModel requestPaginationModel) {
+    ResourceModel<LogWorkModel> logList = logWorkService.findAllLogWorkOfTask(id,
+        requestPaginationModel);
     return new ResponseEntity<>(logList, HttpStatus.OK);
   }
 
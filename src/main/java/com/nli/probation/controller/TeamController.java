@@ -1,5 +1,9 @@
 package com.nli.probation.controller;
 
+import com.nli.probation.constant.SearchModeEnum;
+import com.nli.probation.metamodel.TeamEntity_;
+import com.nli.probation.metamodel.UserAccountEntity_;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
 import com.nli.probation.model.ResponseModel;
@@ -7,6 +11,7 @@ import com.nli.probation.model.team.CreateTeamModel;
 import com.nli.probation.model.team.TeamModel;
 import com.nli.probation.model.team.UpdateTeamModel;
 import com.nli.probation.model.useraccount.UserAccountModel;
+import com.nli.probation.resolver.annotation.RequestFieldsParam;
 import com.nli.probation.resolver.annotation.RequestPagingParam;
 import com.nli.probation.service.TeamService;
 import com.nli.probation.service.UserAccountService;
@@ -59,11 +64,13 @@ public class TeamController {
    * Find team by id
    *
    * @param id
+   * @param requestFieldsModel
    * @return response entity contains model
    */
   @GetMapping(path = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE})
-  public ResponseEntity<ResponseModel> findTeamById(@PathVariable int id) {
-    TeamModel foundTeam = teamService.findTeamById(id);
+  public ResponseEntity<ResponseModel> findTeamById(@PathVariable int id,
+      @RequestFieldsParam(TeamEntity_.class) RequestFieldsModel requestFieldsModel) {
+    TeamModel foundTeam = teamService.findTeamById(id, requestFieldsModel);
     ResponseModel responseModel = new ResponseModel().statusCode(HttpStatus.OK.value())
         .data(foundTeam)
         .message("OK");
@@ -106,14 +113,19 @@ public class TeamController {
    * Search teams
    *
    * @param requestPaginationModel
+   * @param requestFieldsModel
    * @param searchText
+   * @param searchMode
    * @return response entity contains data resource
    */
   @GetMapping(path = "", produces = {MediaType.APPLICATION_JSON_VALUE})
   public ResponseEntity<Object> searchTeams(
       @RequestPagingParam RequestPaginationModel requestPaginationModel,
-      @RequestParam(value = "searchText", defaultValue = "") String searchText) {
-    ResourceModel<TeamModel> teamList = teamService.searchTeams(searchText, requestPaginationModel);
+      @RequestFieldsParam(TeamEntity_.class) RequestFieldsModel requestFieldsModel,
+      @RequestParam(value = "searchText", defaultValue = "") String searchText,
+      @RequestParam(value = "searchMode", defaultValue = "REGEX") SearchModeEnum searchMode) {
+    ResourceModel<TeamModel> teamList = teamService.searchTeams(searchText, searchMode,
+        requestPaginationModel, requestFieldsModel);
     return new ResponseEntity<>(teamList, HttpStatus.OK);
   }
 
@@ -138,16 +150,18 @@ public class TeamController {
    * Search user accounts of a team
    *
    * @param requestPaginationModel
+   * @param requestFieldsModel
    * @param searchText
    * @return response entity contains data resource
    */
   @GetMapping(path = "{id}/user-accounts", produces = {MediaType.APPLICATION_JSON_VALUE})
   public ResponseEntity<Object> searchUsersOfTeam(
       @RequestPagingParam RequestPaginationModel requestPaginationModel,
+      @RequestFieldsParam(UserAccountEntity_.class) RequestFieldsModel requestFieldsModel,
       @PathVariable int id,
       @RequestParam(value = "searchText", defaultValue = "") String searchText) {
     ResourceModel<UserAccountModel> accountList = userAccountService
-        .searchAccounts(searchText, requestPaginationModel, id);
+        .searchAccounts(searchText, requestPaginationModel, requestFieldsModel, id);
     return new ResponseEntity<>(accountList, HttpStatus.OK);
   }
 
@@ -1,5 +1,9 @@
 package com.nli.probation.controller;
 
+import com.nli.probation.constant.SearchModeEnum;
+import com.nli.probation.metamodel.TaskEntity_;
+import com.nli.probation.metamodel.UserAccountEntity_;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
 import com.nli.probation.model.ResponseModel;
@@ -7,9 +11,11 @@ import com.nli.probation.model.task.TaskModel;
 import com.nli.probation.model.useraccount.CreateUserAccountModel;
 import com.nli.probation.model.useraccount.UpdateUserAccountModel;
 import com.nli.probation.model.useraccount.UserAccountModel;
+import com.nli.probation.resolver.annotation.RequestFieldsParam;
 import com.nli.probation.resolver.annotation.RequestPagingParam;
 import com.nli.probation.service.TaskService;
 import com.nli.probation.service.UserAccountService;
+import java.util.List;
 import javax.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -55,15 +61,34 @@ public class UserAccountController {
     return new ResponseEntity<>(responseModel, HttpStatus.OK);
   }
 
+  /**
+   * Create list of user accounts
+   *
+   * @param createModels
+   * @return created user accounts
+   */
+  @PostMapping(path = "/bulk", produces = {MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<ResponseModel> createUserAccounts(
+      @RequestBody List<@Valid CreateUserAccountModel> createModels) {
+    List<UserAccountModel> savedModels = userAccountService.createUserAccounts(createModels);
+    ResponseModel responseModel = new ResponseModel().statusCode(HttpStatus.OK.value())
+        .data(savedModels)
+        .message("OK");
+    return new ResponseEntity<>(responseModel, HttpStatus.OK);
+  }
+
   /**
    * Find user account by id
    *
    * @param id
+   * @param requestFieldsModel
    * @return response entity contains model
    */
   @GetMapping(path = "/{id}", produces = {MediaType.APPLICATION_JSON_VALUE})
-  public ResponseEntity<ResponseModel> findUserAccountById(@PathVariable int id) {
-    UserAccountModel foundUserAccount = userAccountService.findUserAccountById(id);
+  public ResponseEntity<ResponseModel> findUserAccountById(@PathVariable int id,
+      @RequestFieldsParam(UserAccountEntity_.class) RequestFieldsModel requestFieldsModel) {
+    UserAccountModel foundUserAccount = userAccountService.findUserAccountById(id,
+        requestFieldsModel);
     ResponseModel responseModel = new ResponseModel().statusCode(HttpStatus.OK.value())
         .data(foundUserAccount)
         .message("OK");
@@ -106,15 +131,17 @@ public class UserAccountController {
    * Search user accounts
    *
    * @param requestPaginationModel
+   * @param requestFieldsModel
    * @param searchText
    * @return response entity contains data resource
    */
   @GetMapping(path = "", produces = {MediaType.APPLICATION_JSON_VALUE})
   public ResponseEntity<Object> searchUserAccounts(
       @RequestPagingParam RequestPaginationModel requestPaginationModel,
+      @RequestFieldsParam(UserAccountEntity_.class) RequestFieldsModel requestFieldsModel,
       @RequestParam(value = "searchText", defaultValue = "") String searchText) {
     ResourceModel<UserAccountModel> accountList = userAccountService
-        .searchAccounts(searchText, requestPaginationModel, 0);
+        .searchAccounts(searchText, requestPaginationModel, requestFieldsModel, 0);
     return new ResponseEntity<>(accountList, HttpStatus.OK);
   }
 
@@ -122,17 +149,21 @@ public class UserAccountController {
    * Search task of an user account
    *
    * @param requestPaginationModel
+   * @param requestFieldsModel
    * @param id
    * @param searchText
+   * @param searchMode
    * @return response entity contains list of tasks
    */
   @GetMapping(path = "{id}/tasks", produces = {MediaType.APPLICATION_JSON_VALUE})
   public ResponseEntity<Object> searchTasksOfUser(
       @RequestPagingParam RequestPaginationModel requestPaginationModel,
+      @RequestFieldsParam(TaskEntity_.class) RequestFieldsModel requestFieldsModel,
       @PathVariable int id,
-      @RequestParam(value = "searchText", defaultValue = "") String searchText) {
-    ResourceModel<TaskModel> taskList = taskService.searchTasksOfUserId(searchText,
-        requestPaginationModel, id);
+      @RequestParam(value = "searchText", defaultValue = "") String searchText,
+      @RequestParam(value = "searchMode", defaultValue = "TEXT") SearchModeEnum searchMode) {
+    ResourceModel<TaskModel> taskList = taskService.searchTasksOfUserId(searchText, searchMode,
+        requestPaginationModel, requestFieldsModel, id);
     return new ResponseEntity<>(taskList, HttpStatus.OK);
   }
 }
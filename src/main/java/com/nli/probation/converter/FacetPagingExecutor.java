@@ -0,0 +1,174 @@
+package com.nli.probation.converter;
+
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.constant.CountModeEnum;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.query.CriteriaDefinition;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Run a search as one aggregation, matching once and returning page and total count together:
+ * $match, $sort then $facet { data: [$skip, $limit, ...], total: [$count] }. Sort stays out of the
+ * facet, because stages of a facet can not use indexes. Without exact count, only the page is
+ * read and total comes from collection metadata or count cache. Sort by a field no index backs
+ * sorts every matched document in memory, so aggregations may spill to disk past its limit.
+ *
+ * @param <E> Type of entity
+ */
+public class FacetPagingExecutor<E> {
+
+  private static final String DATA_FACET = "data";
+  private static final String TOTAL_FACET = "total";
+  private static final String SORT_STAGE = "$sort";
+
+  private final MongoTemplate mongoTemplate;
+  private final CountCache countCache;
+  private final Class<E> classType;
+
+  public FacetPagingExecutor(MongoTemplate mongoTemplate, CountCache countCache,
+      Class<E> classType) {
+    this.mongoTemplate = mongoTemplate;
+    this.countCache = countCache;
+    this.classType = classType;
+  }
+
+  /**
+   * Find page of entities matching query and total of them
+   *
+   * @param query
+   * @param pageable
+   * @param countMode
+   * @return page of entities
+   */
+  public Page<E> findPage(Query query, Pageable pageable, CountModeEnum countMode) {
+    Page<Document> documentPage = findDocumentPage(query, pageable, countMode, List.of());
+    MongoConverter mongoConverter = mongoTemplate.getConverter();
+    List<E> entities = new ArrayList<>();
+    for (Document document : documentPage) {
+      entities.add(mongoConverter.read(classType, document));
+    }
+    return new PageImpl<>(entities, pageable, documentPage.getTotalElements());
+  }
+
+  /**
+   * Find page of documents matching query and total of them
+   *
+   * @param query filter, sort and fields of search, sort of pageable is added after it
+   * @param pageable
+   * @param countMode
+   * @param pageOperations stages run on documents of page only, like $lookup
+   * @return page of documents, total is zero when not counted
+   */
+  public Page<Document> findDocumentPage(Query query, Pageable pageable,
+      CountModeEnum countMode, List<AggregationOperation> pageOperations) {
+    //Sort by query first, so sort by text score stays before sort of pageable
+    Query pageQuery = Query.of(query).with(pageable);
+    Document sortObject = pageQuery.getSortObject();
+    Document queryObject = query.getQueryObject();
+    List<AggregationOperation> operations = new ArrayList<>();
+    operations.add(Aggregation.match(criteriaOf(queryObject)));
+    if (!sortObject.isEmpty()) {
+      operations.add(context -> new Document(SORT_STAGE,
+          context.getMappedObject(sortObject, classType)));
+    }
+
+    //Read only requested fields of page
+    List<AggregationOperation> dataOperations = new ArrayList<>();
+    dataOperations.add(Aggregation.skip(pageable.getOffset()));
+    dataOperations.add(Aggregation.limit(pageable.getPageSize()));
+    AggregationOperation projectStage = ProjectionConverter.toProjectStage(query, classType);
+    if (projectStage != null) {
+      dataOperations.add(projectStage);
+    }
+    dataOperations.addAll(pageOperations);
+
+    //Read page only when total is not counted or already known
+    Long knownTotal = null;
+    Document mappedFilter = null;
+    if (countMode == CountModeEnum.NONE) {
+      knownTotal = 0L;
+    } else if (countMode == CountModeEnum.ESTIMATED) {
+      if (queryObject.isEmpty()) {
+        knownTotal = mongoTemplate.estimatedCount(mongoTemplate.getCollectionName(classType));
+      } else {
+        mappedFilter = mapFilter(queryObject);
+        knownTotal = countCache.find(mongoTemplate.getCollectionName(classType), mappedFilter);
+      }
+    }
+    if (knownTotal != null) {
+      operations.addAll(dataOperations);
+      List<Document> documents = mongoTemplate.aggregate(newAggregation(operations),
+          Document.class).getMappedResults();
+      return new PageImpl<>(documents, pageable, knownTotal);
+    }
+
+    //Split matched documents into page and total
+    operations.add(Aggregation.facet(dataOperations.toArray(new AggregationOperation[0]))
+        .as(DATA_FACET)
+        .and(Aggregation.count().as(TOTAL_FACET)).as(TOTAL_FACET));
+    Document result = mongoTemplate.aggregate(newAggregation(operations), Document.class)
+        .getUniqueMappedResult();
+    long total = 0;
+    List<Document> documents = List.of();
+    if (result != null) {
+      List<Document> totalDocuments = result.getList(TOTAL_FACET, Document.class);
+      if (!totalDocuments.isEmpty()) {
+        total = ((Number) totalDocuments.get(0).get(TOTAL_FACET)).longValue();
+      }
+      documents = result.getList(DATA_FACET, Document.class);
+    }
+    if (mappedFilter != null) {
+      countCache.put(mongoTemplate.getCollectionName(classType), mappedFilter, total);
+    }
+    return new PageImpl<>(documents, pageable, total);
+  }
+
+  /**
+   * Create aggregation allowed to use disk for sorts larger than memory limit of a stage
+   *
+   * @param operations
+   * @return aggregation
+   */
+  private TypedAggregation<E> newAggregation(List<AggregationOperation> operations) {
+    return Aggregation.newAggregation(classType, operations)
+        .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+  }
+
+  /**
+   * Map filter to field names and values stored in database
+   *
+   * @param queryObject
+   * @return mapped filter
+   */
+  private Document mapFilter(Document queryObject) {
+    MongoConverter mongoConverter = mongoTemplate.getConverter();
+    return new QueryMapper(mongoConverter).getMappedObject(queryObject,
+        mongoConverter.getMappingContext().getPersistentEntity(classType));
+  }
+
+  private static CriteriaDefinition criteriaOf(Document queryObject) {
+    return new CriteriaDefinition() {
+      @Override
+      public Document getCriteriaObject() {
+        return queryObject;
+      }
+
+      @Override
+      public String getKey() {
+        return null;
+      }
+    };
+  }
+}
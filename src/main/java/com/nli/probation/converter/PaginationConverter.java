@@ -1,14 +1,35 @@
 package com.nli.probation.converter;
 
+import static com.nli.probation.constant.ErrorMessageConst.INVALID_CURSOR;
 import static com.nli.probation.utils.ValidatorUtils.checkExistFieldOfClass;
 
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.constant.CountModeEnum;
 import com.nli.probation.customexception.NoSuchFieldOfClassException;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Direction;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 
 /**
  * Class for supporting pagination
@@ -18,6 +39,15 @@ import org.springframework.data.domain.Sort;
  */
 public class PaginationConverter<M, E> {
 
+  private static final String ID_PROPERTY = "id";
+  private static final String AND_OPERATOR = "$and";
+  private static final String CURSOR_SORT_BY = "s";
+  private static final String CURSOR_DIRECTION = "d";
+  private static final String CURSOR_VALUE = "v";
+  private static final String CURSOR_ID = "i";
+  private static final JsonWriterSettings CURSOR_JSON_SETTINGS = JsonWriterSettings.builder()
+      .outputMode(JsonMode.EXTENDED).build();
+
   /**
    * Create pageable for sort
    *
@@ -27,29 +57,81 @@ public class PaginationConverter<M, E> {
    */
   public Pageable convertToPageable(RequestPaginationModel paginationModel, String defaultSortBy,
       Class<E> classType) {
-    //Define sort by field for paging
-    String sortBy = defaultSortBy;
-    if (paginationModel.getSortBy() != null) {
-      if (!checkExistFieldOfClass(classType, paginationModel.getSortBy())) {
-        throw new NoSuchFieldOfClassException("Can not define sortBy");
-      }
-      sortBy = paginationModel.getSortBy();
+    return PageRequest.of(paginationModel.getIndex(), paginationModel.getLimit(),
+        convertToSort(paginationModel, defaultSortBy, classType));
+  }
+
+  /**
+   * Create pageable of the page after cursor. Id is added as last sort key so every position is
+   * unique, and one more entity than limit is fetched to know whether a next page exists.
+   *
+   * @param paginationModel
+   * @param defaultSortBy
+   * @param classType
+   * @return pageable of first page
+   */
+  public Pageable convertToSeekPageable(RequestPaginationModel paginationModel,
+      String defaultSortBy, Class<E> classType) {
+    Sort sort = convertToSort(paginationModel, defaultSortBy, classType);
+    Order order = sort.iterator().next();
+    if (!order.getProperty().equals(ID_PROPERTY)) {
+      sort = sort.and(Sort.by(order.getDirection(), ID_PROPERTY));
     }
+    return PageRequest.of(0, paginationModel.getLimit() + 1, sort);
+  }
 
-    //Build Pageable
-    Pageable pageable;
-    if (paginationModel.getSortType() != null && paginationModel.getSortType().equals("dsc")) {
-      pageable = PageRequest.of(paginationModel.getIndex(), paginationModel.getLimit(),
-          Sort.by(sortBy).descending());
-    } else {
-      pageable = PageRequest.of(paginationModel.getIndex(), paginationModel.getLimit(),
-          Sort.by(sortBy).ascending());
+  /**
+   * Create criteria of entities after cursor: sort field past last value, or equal to it with id
+   * past last id
+   *
+   * @param paginationModel
+   * @param seekPageable
+   * @return criteria, empty for the first page
+   */
+  public Criteria convertToSeekCriteria(RequestPaginationModel paginationModel,
+      Pageable seekPageable) {
+    if (paginationModel.getCursor().isEmpty()) {
+      return new Criteria();
     }
-    return pageable;
+
+    //Decode cursor and check it was built for the same sort
+    Order order = seekPageable.getSort().iterator().next();
+    Document cursor = decodeCursor(paginationModel.getCursor());
+    if (!order.getProperty().equals(cursor.get(CURSOR_SORT_BY))
+        || !order.getDirection().name().equals(cursor.get(CURSOR_DIRECTION))
+        || !cursor.containsKey(CURSOR_ID)) {
+      throw new IllegalArgumentException(INVALID_CURSOR);
+    }
+
+    //Cursor comes from client, only values a cursor is built of are allowed, never operators
+    Object lastId = cursor.get(CURSOR_ID);
+    Object lastValue = cursor.get(CURSOR_VALUE);
+    if (lastId == null || !isCursorValue(lastId) || !isCursorValue(lastValue)) {
+      throw new IllegalArgumentException(INVALID_CURSOR);
+    }
+    boolean ascending = order.isAscending();
+    if (order.getProperty().equals(ID_PROPERTY)) {
+      return after(Criteria.where(ID_PROPERTY), lastId, ascending);
+    }
+
+    //Null sorts before every value
+    String sortBy = order.getProperty();
+    Criteria sameValueAfterId = new Criteria().andOperator(Criteria.where(sortBy).is(lastValue),
+        after(Criteria.where(ID_PROPERTY), lastId, ascending));
+    if (lastValue == null) {
+      return ascending
+          ? new Criteria().orOperator(Criteria.where(sortBy).ne(null), sameValueAfterId)
+          : sameValueAfterId;
+    }
+    Criteria afterValue = after(Criteria.where(sortBy), lastValue, ascending);
+    return ascending
+        ? new Criteria().orOperator(afterValue, sameValueAfterId)
+        : new Criteria().orOperator(afterValue, sameValueAfterId,
+            Criteria.where(sortBy).is(null));
   }
 
   /**
-   * Build pagination
+   * Build pagination, totals are only set when counted
    *
    * @param pagination
    * @param page
@@ -58,10 +140,149 @@ public class PaginationConverter<M, E> {
    */
   public ResourceModel<M> buildPagination(RequestPaginationModel pagination, Page<E> page,
       ResourceModel<M> resource) {
-    resource.setTotalPage(page.getTotalPages());
-    resource.setTotalResult((int) page.getTotalElements());
+    CountModeEnum countMode = pagination.getCountMode();
+    if (countMode != CountModeEnum.NONE) {
+      resource.setTotalPage(page.getTotalPages());
+      resource.setTotalResult((int) page.getTotalElements());
+    }
+    resource.setCountMode(countMode.name().toLowerCase(Locale.ROOT));
     resource.setIndex(pagination.getIndex());
     resource.setLimit(pagination.getLimit());
     return resource;
   }
+
+  /**
+   * Build seek pagination, cutting the extra entity fetched and setting cursor of next page
+   *
+   * @param pagination
+   * @param seekPageable
+   * @param entities
+   * @param resource
+   * @return entities of page
+   */
+  public List<E> buildSeekPagination(RequestPaginationModel pagination, Pageable seekPageable,
+      List<E> entities, ResourceModel<M> resource) {
+    resource.setCountMode(CountModeEnum.NONE.name().toLowerCase(Locale.ROOT));
+    resource.setIndex(pagination.getIndex());
+    resource.setLimit(pagination.getLimit());
+    if (entities.size() <= pagination.getLimit()) {
+      return entities;
+    }
+    List<E> pageEntities = entities.subList(0, pagination.getLimit());
+    E lastEntity = pageEntities.get(pageEntities.size() - 1);
+    Order order = seekPageable.getSort().iterator().next();
+    BeanWrapperImpl lastEntityWrapper = new BeanWrapperImpl(lastEntity);
+    Document cursor = new Document(CURSOR_SORT_BY, order.getProperty())
+        .append(CURSOR_DIRECTION, order.getDirection().name())
+        .append(CURSOR_VALUE, toCursorValue(lastEntityWrapper.getPropertyValue(
+            order.getProperty())))
+        .append(CURSOR_ID, toCursorValue(lastEntityWrapper.getPropertyValue(ID_PROPERTY)));
+    resource.setNextCursor(Base64.getUrlEncoder().withoutPadding().encodeToString(
+        cursor.toJson(CURSOR_JSON_SETTINGS).getBytes(StandardCharsets.UTF_8)));
+    return pageEntities;
+  }
+
+  /**
+   * Find entities of requested page, after cursor in seek mode or at page index otherwise. Total
+   * is only counted for page index, in requested count mode.
+   *
+   * @param mongoTemplate
+   * @param countCache
+   * @param query query of search without pagination
+   * @param paginationModel
+   * @param defaultSortBy
+   * @param classType
+   * @param resource
+   * @return entities of page
+   */
+  public List<E> findPage(MongoTemplate mongoTemplate, CountCache countCache, Query query,
+      RequestPaginationModel paginationModel, String defaultSortBy, Class<E> classType,
+      ResourceModel<M> resource) {
+    if (!paginationModel.isSeekMode()) {
+      Pageable pageable = convertToPageable(paginationModel, defaultSortBy, classType);
+      Page<E> page = new FacetPagingExecutor<>(mongoTemplate, countCache, classType)
+          .findPage(query, pageable, paginationModel.getCountMode());
+      buildPagination(paginationModel, page, resource);
+      return page.getContent();
+    }
+
+    //Add seek criteria beside search criteria, nesting both when their operators clash
+    Pageable pageable = convertToSeekPageable(paginationModel, defaultSortBy, classType);
+    Document filter = query.getQueryObject();
+    Document seekFilter = convertToSeekCriteria(paginationModel, pageable).getCriteriaObject();
+    if (Collections.disjoint(filter.keySet(), seekFilter.keySet())) {
+      filter.putAll(seekFilter);
+    } else {
+      filter = new Document(AND_OPERATOR, List.of(filter, seekFilter));
+    }
+    Query seekQuery = new BasicQuery(filter,
+        ProjectionConverter.includeSort(query, pageable.getSort()).getFieldsObject())
+        .with(pageable);
+    return buildSeekPagination(paginationModel, pageable,
+        mongoTemplate.find(seekQuery, classType), resource);
+  }
+
+  /**
+   * Create sort of requested field and direction
+   *
+   * @param paginationModel
+   * @param defaultSortBy
+   * @param classType
+   * @return sort
+   */
+  private Sort convertToSort(RequestPaginationModel paginationModel, String defaultSortBy,
+      Class<E> classType) {
+    //Define sort by field for paging
+    String sortBy = defaultSortBy;
+    if (paginationModel.getSortBy() != null) {
+      if (!checkExistFieldOfClass(classType, paginationModel.getSortBy())) {
+        throw new NoSuchFieldOfClassException("Can not define sortBy");
+      }
+      sortBy = paginationModel.getSortBy();
+    }
+    if (paginationModel.getSortType() != null && paginationModel.getSortType().equals("dsc")) {
+      return Sort.by(Direction.DESC, sortBy);
+    }
+    return Sort.by(Direction.ASC, sortBy);
+  }
+
+  private static Criteria after(Criteria criteria, Object value, boolean ascending) {
+    return ascending ? criteria.gt(value) : criteria.lt(value);
+  }
+
+  /**
+   * Convert sort value to type stored in database, local date time is stored as date
+   *
+   * @param value
+   * @return value of cursor
+   */
+  private static Object toCursorValue(Object value) {
+    if (value instanceof LocalDateTime) {
+      return Date.from(((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant());
+    }
+    if (isCursorValue(value)) {
+      return value;
+    }
+    throw new NoSuchFieldOfClassException("Can not define cursor of sortBy");
+  }
+
+  /**
+   * Check value is null or a scalar stored in cursor
+   *
+   * @param value
+   * @return true when value can be in cursor
+   */
+  private static boolean isCursorValue(Object value) {
+    return value == null || value instanceof String || value instanceof Number
+        || value instanceof Boolean || value instanceof Date;
+  }
+
+  private static Document decodeCursor(String cursor) {
+    try {
+      return Document.parse(
+          new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException(INVALID_CURSOR, e);
+    }
+  }
 }
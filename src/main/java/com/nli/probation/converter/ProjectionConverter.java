@@ -0,0 +1,118 @@
+package com.nli.probation.converter;
+
+import com.nli.probation.model.RequestFieldsModel;
+import java.util.Optional;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Sort.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Class for reading only requested fields of entities
+ */
+public class ProjectionConverter {
+
+  private static final String ID_PROPERTY = "id";
+  private static final String PROJECT_STAGE = "$project";
+
+  private ProjectionConverter() {
+  }
+
+  /**
+   * Include requested fields and id in projection of query. When no field is requested, only
+   * fields excluded by default are left out.
+   *
+   * @param query
+   * @param fieldsModel
+   * @param defaultExcludedFields fields only read when requested, like large embedded lists
+   * @return query
+   */
+  public static Query project(Query query, RequestFieldsModel fieldsModel,
+      String... defaultExcludedFields) {
+    if (fieldsModel.isAllFields()) {
+      for (String field : defaultExcludedFields) {
+        query.fields().exclude(field);
+      }
+      return query;
+    }
+    query.fields().include(ID_PROPERTY);
+    fieldsModel.getFields().forEach(query.fields()::include);
+    return query;
+  }
+
+  /**
+   * Include sort fields in projection of query, so cursor of the last entity can be built
+   *
+   * @param query
+   * @param sort
+   * @return query
+   */
+  public static Query includeSort(Query query, Sort sort) {
+    if (isIncluding(query.getFieldsObject())) {
+      for (Order order : sort) {
+        query.fields().include(order.getProperty());
+      }
+    }
+    return query;
+  }
+
+  /**
+   * Find entity by id, reading only requested fields
+   *
+   * @param mongoTemplate
+   * @param repository repository used when all fields are requested
+   * @param id
+   * @param fieldsModel
+   * @param classType
+   * @param defaultExcludedFields
+   * @return optional of entity
+   */
+  public static <E> Optional<E> findById(MongoTemplate mongoTemplate,
+      CrudRepository<E, Integer> repository, int id, RequestFieldsModel fieldsModel,
+      Class<E> classType, String... defaultExcludedFields) {
+    if (fieldsModel.isAllFields() && defaultExcludedFields.length == 0) {
+      return repository.findById(id);
+    }
+    Query query = project(new Query(Criteria.where(ID_PROPERTY).is(id)), fieldsModel,
+        defaultExcludedFields);
+    return Optional.ofNullable(mongoTemplate.findOne(query, classType));
+  }
+
+  /**
+   * Create $project stage of fields of query. $meta fields, like text score, are only sorted on
+   * before the stage so they are left out.
+   *
+   * @param query
+   * @param classType
+   * @return stage, or null when every field is read
+   */
+  public static AggregationOperation toProjectStage(Query query, Class<?> classType) {
+    Document storedFields = new Document();
+    query.getFieldsObject().forEach((field, value) -> {
+      if (!(value instanceof Document)) {
+        storedFields.append(field, value);
+      }
+    });
+    if (storedFields.isEmpty()) {
+      return null;
+    }
+    return context -> new Document(PROJECT_STAGE,
+        context.getMappedObject(storedFields, classType));
+  }
+
+  /**
+   * Check fields include some stored field. Exclusions and fields of only $meta, like text score,
+   * keep every other field.
+   *
+   * @param fieldsObject
+   * @return true or false
+   */
+  private static boolean isIncluding(Document fieldsObject) {
+    return fieldsObject.values().stream().anyMatch(
+        value -> !(value instanceof Document) && !Integer.valueOf(0).equals(value));
+  }
+}
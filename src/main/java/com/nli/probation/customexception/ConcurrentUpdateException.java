@@ -0,0 +1,15 @@
+package com.nli.probation.customexception;
+
+/**
+ * Custom exception about an entity changed by other requests during an update
+ */
+public class ConcurrentUpdateException extends RuntimeException {
+
+  public ConcurrentUpdateException(String message) {
+    super(message);
+  }
+
+  public ConcurrentUpdateException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
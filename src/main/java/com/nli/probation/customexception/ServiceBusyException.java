@@ -0,0 +1,11 @@
+package com.nli.probation.customexception;
+
+/**
+ * Custom exception about a request rejected while the service is saturated
+ */
+public class ServiceBusyException extends RuntimeException {
+
+  public ServiceBusyException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,27 @@
+package com.nli.probation.diagnostics;
+
+import com.nli.probation.model.QueryShapeModel;
+import java.util.List;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to list query shapes scanning collections or examining many more documents
+ * than returned, with suggested index of each
+ */
+@Component
+@Endpoint(id = "queryshapes")
+public class QueryDiagnosticsEndpoint {
+
+  private final QueryShapeRegistry queryShapeRegistry;
+
+  public QueryDiagnosticsEndpoint(QueryShapeRegistry queryShapeRegistry) {
+    this.queryShapeRegistry = queryShapeRegistry;
+  }
+
+  @ReadOperation
+  public List<QueryShapeModel> poorShapes() {
+    return queryShapeRegistry.findPoorShapes();
+  }
+}
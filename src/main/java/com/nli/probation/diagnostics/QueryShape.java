@@ -0,0 +1,211 @@
+package com.nli.probation.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import lombok.Getter;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+
+/**
+ * Shape of a query: collection, filter keys with operators, sort and projection, without the
+ * values. Queries differing only in values share one shape.
+ */
+@Getter
+public class QueryShape {
+
+  private static final String VALUE_PLACEHOLDER = "?";
+  private static final String FIND = "find";
+  private static final String COUNT = "count";
+  private static final String AGGREGATE = "aggregate";
+  private static final String MATCH_STAGE = "$match";
+  private static final String SORT_STAGE = "$sort";
+  private static final String PROJECT_STAGE = "$project";
+  private static final String AND_OPERATOR = "$and";
+  private static final String EQ_OPERATOR = "$eq";
+  private static final String IN_OPERATOR = "$in";
+  private static final String ELEM_MATCH_OPERATOR = "$elemMatch";
+  private static final String REGEX_OPERATOR = "$regex";
+  private static final String ID_FIELD = "_id";
+
+  private final String command;
+  private final String collection;
+  private final Document filter;
+  private final Document sort;
+  private final Document projection;
+  private final List<String> stages;
+  private final String key;
+
+  private QueryShape(String command, String collection, Document filter, Document sort,
+      Document projection, List<String> stages) {
+    this.command = command;
+    this.collection = collection;
+    this.filter = filter;
+    this.sort = sort;
+    this.projection = projection;
+    this.stages = stages;
+    this.key = String.join("|", command, collection, filter.toJson(), sort.toJson(),
+        projection.toJson(), String.join(",", stages));
+  }
+
+  /**
+   * Create shape of a read command. Find, count and aggregate are read commands, the filter of an
+   * aggregate is its leading $match and its sort the $sort right after.
+   *
+   * @param commandName
+   * @param command
+   * @return shape, or null when command is not a read command
+   */
+  public static QueryShape of(String commandName, BsonDocument command) {
+    if (!command.isString(commandName)) {
+      return null;
+    }
+    String collection = command.getString(commandName).getValue();
+    switch (commandName) {
+      case FIND:
+        return new QueryShape(commandName, collection,
+            normalize(command.getDocument("filter", new BsonDocument())),
+            directions(command.getDocument("sort", new BsonDocument())),
+            directions(command.getDocument("projection", new BsonDocument())), List.of());
+      case COUNT:
+        return new QueryShape(commandName, collection,
+            normalize(command.getDocument("query", new BsonDocument())), new Document(),
+            new Document(), List.of());
+      case AGGREGATE:
+        return ofPipeline(collection, command.getArray("pipeline", new BsonArray()));
+      default:
+        return null;
+    }
+  }
+
+  /**
+   * Suggest index of the shape by equality, sort, range rule: fields matched by equality first,
+   * then sort fields, then fields matched by range
+   *
+   * @return keys of index, or null when no index helps
+   */
+  public Document suggestIndex() {
+    Document equalityKeys = new Document();
+    Document rangeKeys = new Document();
+    if (!collectFilterKeys(filter, equalityKeys, rangeKeys)) {
+      return null;
+    }
+    Document index = new Document(equalityKeys);
+    sort.forEach((field, direction) -> index.putIfAbsent(field, direction));
+    rangeKeys.forEach(index::putIfAbsent);
+    if (index.isEmpty() || index.keySet().iterator().next().equals(ID_FIELD)) {
+      return null;
+    }
+    return index;
+  }
+
+  private static QueryShape ofPipeline(String collection, BsonArray pipeline) {
+    Document filter = new Document();
+    Document sort = new Document();
+    Document projection = new Document();
+    List<String> stages = new ArrayList<>();
+    for (int i = 0; i < pipeline.size(); i++) {
+      BsonDocument stage = pipeline.get(i).asDocument();
+      String stageName = stage.getFirstKey();
+      stages.add(stageName);
+      if (i == 0 && stageName.equals(MATCH_STAGE)) {
+        filter = normalize(stage.getDocument(MATCH_STAGE));
+      } else if (i == stages.indexOf(MATCH_STAGE) + 1 && stageName.equals(SORT_STAGE)) {
+        sort = directions(stage.getDocument(SORT_STAGE));
+      } else if (stageName.equals(PROJECT_STAGE) && projection.isEmpty()) {
+        projection = directions(stage.getDocument(PROJECT_STAGE));
+      }
+    }
+    return new QueryShape(AGGREGATE, collection, filter, sort, projection, stages);
+  }
+
+  /**
+   * Replace values of filter by placeholder, keeping fields and operators
+   *
+   * @param filter
+   * @return normalized filter
+   */
+  private static Document normalize(BsonDocument filter) {
+    Document normalized = new Document();
+    for (Entry<String, BsonValue> entry : filter.entrySet()) {
+      normalized.put(entry.getKey(), normalizeValue(entry.getKey(), entry.getValue()));
+    }
+    return normalized;
+  }
+
+  private static Object normalizeValue(String key, BsonValue value) {
+    if (value.isArray() && key.startsWith("$") && !key.equals(IN_OPERATOR)) {
+      List<Object> normalized = new ArrayList<>();
+      for (BsonValue element : value.asArray()) {
+        normalized.add(
+            element.isDocument() ? normalize(element.asDocument()) : VALUE_PLACEHOLDER);
+      }
+      return normalized;
+    }
+    if (value.isDocument() && (key.equals(ELEM_MATCH_OPERATOR) || isOperatorDocument(value))) {
+      return normalize(value.asDocument());
+    }
+    if (value.isRegularExpression()) {
+      return new Document(REGEX_OPERATOR, VALUE_PLACEHOLDER);
+    }
+    return VALUE_PLACEHOLDER;
+  }
+
+  private static boolean isOperatorDocument(BsonValue value) {
+    BsonDocument document = value.asDocument();
+    return !document.isEmpty() && document.getFirstKey().startsWith("$");
+  }
+
+  /**
+   * Keep fields of sort or projection, with numeric directions and other values replaced
+   *
+   * @param document
+   * @return fields
+   */
+  private static Document directions(BsonDocument document) {
+    Document fields = new Document();
+    document.forEach((field, value) -> fields.put(field,
+        value.isNumber() ? value.asNumber().intValue() : VALUE_PLACEHOLDER));
+    return fields;
+  }
+
+  /**
+   * Split fields of filter into equality and range keys
+   *
+   * @param filter
+   * @param equalityKeys
+   * @param rangeKeys
+   * @return false when filter can not be served by one regular index, like $or or $text
+   */
+  private static boolean collectFilterKeys(Document filter, Document equalityKeys,
+      Document rangeKeys) {
+    for (Entry<String, Object> entry : filter.entrySet()) {
+      if (entry.getKey().equals(AND_OPERATOR)) {
+        for (Object condition : (List<?>) entry.getValue()) {
+          if (!(condition instanceof Document)
+              || !collectFilterKeys((Document) condition, equalityKeys, rangeKeys)) {
+            return false;
+          }
+        }
+      } else if (entry.getKey().startsWith("$")) {
+        return false;
+      } else if (isEquality(entry.getValue())) {
+        equalityKeys.putIfAbsent(entry.getKey(), 1);
+      } else {
+        rangeKeys.putIfAbsent(entry.getKey(), 1);
+      }
+    }
+    return true;
+  }
+
+  private static boolean isEquality(Object value) {
+    if (!(value instanceof Document)) {
+      return true;
+    }
+    Document operators = (Document) value;
+    return operators.keySet().stream().allMatch(
+        operator -> operator.equals(EQ_OPERATOR) || operator.equals(IN_OPERATOR));
+  }
+}
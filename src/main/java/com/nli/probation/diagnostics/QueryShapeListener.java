@@ -0,0 +1,84 @@
+package com.nli.probation.diagnostics;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.nli.probation.config.QueryDiagnosticsProperties;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor.DiscardPolicy;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import org.bson.BsonDocument;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener of commands sent by mongo client, so queries of templates and repositories alike are
+ * captured by shape. Explains run on their own thread, never on threads of the driver.
+ */
+@Component
+public class QueryShapeListener implements CommandListener {
+
+  private static final int EXPLAIN_QUEUE_SIZE = 100;
+
+  private final QueryShapeRegistry queryShapeRegistry;
+  private final QueryDiagnosticsProperties queryDiagnosticsProperties;
+  private final Map<Integer, StartedQuery> startedQueries = new ConcurrentHashMap<>();
+  private final ExecutorService explainExecutor = new ThreadPoolExecutor(1, 1, 0,
+      TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(EXPLAIN_QUEUE_SIZE), runnable -> {
+        Thread thread = new Thread(runnable, "query-explain");
+        thread.setDaemon(true);
+        return thread;
+      }, new DiscardPolicy());
+
+  public QueryShapeListener(QueryShapeRegistry queryShapeRegistry,
+      QueryDiagnosticsProperties queryDiagnosticsProperties) {
+    this.queryShapeRegistry = queryShapeRegistry;
+    this.queryDiagnosticsProperties = queryDiagnosticsProperties;
+  }
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+    if (!queryDiagnosticsProperties.isEnabled()) {
+      return;
+    }
+    QueryShape shape = QueryShape.of(event.getCommandName(), event.getCommand());
+    if (shape != null) {
+      //Command is only valid during the event, copy it only when it may be explained
+      BsonDocument command = queryShapeRegistry.needsSample(shape)
+          ? event.getCommand().clone() : null;
+      startedQueries.put(event.getRequestId(), new StartedQuery(shape, command));
+    }
+  }
+
+  @Override
+  public void commandSucceeded(CommandSucceededEvent event) {
+    StartedQuery startedQuery = startedQueries.remove(event.getRequestId());
+    if (startedQuery != null && queryShapeRegistry.record(startedQuery.shape,
+        startedQuery.command, event.getElapsedTime(TimeUnit.MILLISECONDS))) {
+      explainExecutor.execute(() -> queryShapeRegistry.explain(startedQuery.shape));
+    }
+  }
+
+  @Override
+  public void commandFailed(CommandFailedEvent event) {
+    startedQueries.remove(event.getRequestId());
+  }
+
+  @PreDestroy
+  public void stop() {
+    explainExecutor.shutdownNow();
+  }
+
+  @AllArgsConstructor
+  private static class StartedQuery {
+
+    private final QueryShape shape;
+    private final BsonDocument command;
+  }
+}
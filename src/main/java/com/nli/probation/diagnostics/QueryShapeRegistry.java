@@ -0,0 +1,177 @@
+package com.nli.probation.diagnostics;
+
+import com.nli.probation.config.QueryDiagnosticsProperties;
+import com.nli.probation.model.QueryShapeModel;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Store of captured query shapes. New and slow shapes are sampled with explain to find
+ * collection scans and queries examining many more documents than they return.
+ */
+@Component
+public class QueryShapeRegistry {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryShapeRegistry.class);
+  private static final String STAGE = "stage";
+  private static final String COLLECTION_SCAN = "COLLSCAN";
+  private static final String EXECUTION_STATS = "executionStats";
+  private static final Set<String> SESSION_FIELDS = Set.of("lsid", "txnNumber", "autocommit",
+      "startTransaction");
+
+  private final ObjectProvider<MongoTemplate> mongoTemplateProvider;
+  private final QueryDiagnosticsProperties queryDiagnosticsProperties;
+  private final Map<String, QueryShapeStats> shapes = new ConcurrentHashMap<>();
+
+  public QueryShapeRegistry(ObjectProvider<MongoTemplate> mongoTemplateProvider,
+      QueryDiagnosticsProperties queryDiagnosticsProperties) {
+    this.mongoTemplateProvider = mongoTemplateProvider;
+    this.queryDiagnosticsProperties = queryDiagnosticsProperties;
+  }
+
+  /**
+   * Check a started execution of a shape should keep a copy of its command for explain
+   *
+   * @param shape
+   * @return true when command should be kept
+   */
+  public boolean needsSample(QueryShape shape) {
+    QueryShapeStats stats = shapes.get(shape.getKey());
+    if (stats == null) {
+      return shapes.size() < queryDiagnosticsProperties.getMaxShapes();
+    }
+    return stats.needsSample(queryDiagnosticsProperties.getSlowThreshold().toMillis(),
+        queryDiagnosticsProperties.getExplainInterval().toNanos());
+  }
+
+  /**
+   * Record an execution of a shape
+   *
+   * @param shape
+   * @param command command of execution, null when it was not kept
+   * @param elapsedMillis
+   * @return true when the shape should be explained
+   */
+  public boolean record(QueryShape shape, BsonDocument command, long elapsedMillis) {
+    QueryShapeStats stats = shapes.get(shape.getKey());
+    if (stats == null) {
+      if (shapes.size() >= queryDiagnosticsProperties.getMaxShapes()) {
+        return false;
+      }
+      stats = shapes.computeIfAbsent(shape.getKey(), key -> new QueryShapeStats(shape));
+    }
+    return stats.record(command, elapsedMillis,
+        elapsedMillis >= queryDiagnosticsProperties.getSlowThreshold().toMillis(),
+        queryDiagnosticsProperties.getExplainInterval().toNanos());
+  }
+
+  /**
+   * Explain sample command of a shape with execution statistics
+   *
+   * @param shape
+   */
+  public void explain(QueryShape shape) {
+    QueryShapeStats stats = shapes.get(shape.getKey());
+    if (stats == null || stats.getSampleCommand() == null) {
+      return;
+    }
+
+    //Remove fields added by driver, which explain does not accept
+    BsonDocument explainedCommand = new BsonDocument();
+    stats.getSampleCommand().forEach((field, value) -> {
+      if (!field.startsWith("$") && !SESSION_FIELDS.contains(field)) {
+        explainedCommand.put(field, value);
+      }
+    });
+
+    //Keep statistics of explain
+    try {
+      Document explain = mongoTemplateProvider.getObject().getDb().runCommand(
+          new Document("explain", explainedCommand).append("verbosity", EXECUTION_STATS));
+      Document executionStats = findDocument(explain, EXECUTION_STATS);
+      if (executionStats == null) {
+        executionStats = new Document();
+      }
+      stats.explained(containsStage(explain, COLLECTION_SCAN),
+          toLong(executionStats.get("totalDocsExamined")),
+          toLong(executionStats.get("totalKeysExamined")),
+          toLong(executionStats.get("nReturned")));
+    } catch (RuntimeException e) {
+      LOGGER.warn("Can not explain query shape {}", shape.getKey(), e);
+    }
+  }
+
+  /**
+   * Find shapes scanning collection or with poor examined to returned ratio, slowest first
+   *
+   * @return list of shapes with suggested index
+   */
+  public List<QueryShapeModel> findPoorShapes() {
+    return shapes.values().stream()
+        .filter(stats -> stats.isPoor(queryDiagnosticsProperties.getPoorExaminedRatio()))
+        .map(QueryShapeStats::toModel)
+        .sorted(Comparator.comparingDouble(
+            (QueryShapeModel model) -> model.getAverageMillis() * model.getExecutions())
+            .reversed())
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Find first document of a field in explain output, nested plans of aggregations included
+   *
+   * @param value
+   * @param field
+   * @return document, or null when not found
+   */
+  private static Document findDocument(Object value, String field) {
+    if (value instanceof Document) {
+      Document document = (Document) value;
+      if (document.get(field) instanceof Document) {
+        return (Document) document.get(field);
+      }
+      value = document.values();
+    }
+    if (value instanceof Iterable) {
+      for (Object element : (Iterable<?>) value) {
+        Document found = findDocument(element, field);
+        if (found != null) {
+          return found;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static boolean containsStage(Object value, String stage) {
+    if (value instanceof Document) {
+      Document document = (Document) value;
+      if (stage.equals(document.get(STAGE))) {
+        return true;
+      }
+      value = document.values();
+    }
+    if (value instanceof Iterable) {
+      for (Object element : (Iterable<?>) value) {
+        if (containsStage(element, stage)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static long toLong(Object value) {
+    return value instanceof Number ? ((Number) value).longValue() : 0;
+  }
+}
@@ -0,0 +1,116 @@
+package com.nli.probation.diagnostics;
+
+import com.nli.probation.model.QueryShapeModel;
+import org.bson.BsonDocument;
+import org.bson.Document;
+
+/**
+ * Executions of a query shape and statistics of its last explain
+ */
+public class QueryShapeStats {
+
+  private final QueryShape shape;
+  private BsonDocument sampleCommand;
+  private long executions;
+  private long totalMillis;
+  private long maxMillis;
+  private long lastExplainNanos;
+  private boolean explained;
+  private boolean collectionScan;
+  private long docsExamined;
+  private long keysExamined;
+  private long returned;
+
+  public QueryShapeStats(QueryShape shape) {
+    this.shape = shape;
+  }
+
+  /**
+   * Check a started execution should keep its command, as it may be explained: the shape has no
+   * sample yet, or it was slow before and the last explain is older than interval
+   *
+   * @param slowThresholdMillis
+   * @param explainIntervalNanos
+   * @return true when command should be kept
+   */
+  public synchronized boolean needsSample(long slowThresholdMillis, long explainIntervalNanos) {
+    return sampleCommand == null || maxMillis >= slowThresholdMillis
+        && System.nanoTime() - lastExplainNanos >= explainIntervalNanos;
+  }
+
+  /**
+   * Record an execution and claim an explain of it when the shape has no sample yet, or when it
+   * is slow and the last explain is older than interval. Slow samples replace the kept command.
+   *
+   * @param command command of execution, null when it was not kept
+   * @param elapsedMillis
+   * @param slow
+   * @param explainIntervalNanos
+   * @return true when the caller should explain the shape
+   */
+  public synchronized boolean record(BsonDocument command, long elapsedMillis, boolean slow,
+      long explainIntervalNanos) {
+    executions++;
+    totalMillis += elapsedMillis;
+    maxMillis = Math.max(maxMillis, elapsedMillis);
+    long now = System.nanoTime();
+    boolean explainDue = command != null && (sampleCommand == null
+        || slow && now - lastExplainNanos >= explainIntervalNanos);
+    if (explainDue) {
+      sampleCommand = command;
+      lastExplainNanos = now;
+    }
+    return explainDue;
+  }
+
+  /**
+   * Keep statistics of an explain
+   *
+   * @param collectionScan
+   * @param docsExamined
+   * @param keysExamined
+   * @param returned
+   */
+  public synchronized void explained(boolean collectionScan, long docsExamined,
+      long keysExamined, long returned) {
+    this.explained = true;
+    this.collectionScan = collectionScan;
+    this.docsExamined = docsExamined;
+    this.keysExamined = keysExamined;
+    this.returned = returned;
+  }
+
+  /**
+   * Check the shape scanned a collection or examined many more documents or keys than returned
+   *
+   * @param poorExaminedRatio
+   * @return true or false
+   */
+  public synchronized boolean isPoor(double poorExaminedRatio) {
+    long examined = Math.max(docsExamined, keysExamined);
+    return explained
+        && (collectionScan || examined > poorExaminedRatio * Math.max(returned, 1));
+  }
+
+  public QueryShape getShape() {
+    return shape;
+  }
+
+  public synchronized BsonDocument getSampleCommand() {
+    return sampleCommand;
+  }
+
+  /**
+   * Convert to model with suggested index
+   *
+   * @return query shape model
+   */
+  public synchronized QueryShapeModel toModel() {
+    Document suggestedIndex = shape.suggestIndex();
+    return new QueryShapeModel(shape.getCommand(), shape.getCollection(),
+        shape.getFilter().toJson(), shape.getSort().toJson(), shape.getProjection().toJson(),
+        shape.getStages(), executions, executions == 0 ? 0 : (double) totalMillis / executions,
+        maxMillis, collectionScan, docsExamined, keysExamined, returned,
+        suggestedIndex == null ? null : suggestedIndex.toJson());
+  }
+}
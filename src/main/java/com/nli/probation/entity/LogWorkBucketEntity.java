@@ -0,0 +1,72 @@
+package com.nli.probation.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Bucket of log works of one task logged on one day, holding at most a fixed number of entries
+ * and the running total of hours of its active entries, with hours of its writes not added to
+ * the task yet
+ */
+@NoArgsConstructor @AllArgsConstructor @Getter @Setter
+@Document(collection = LogWorkBucketEntity.COLLECTION_NAME)
+@CompoundIndexes({
+        @CompoundIndex(name = LogWorkBucketEntity.TASK_ID_DAY_INDEX,
+                def = "{'task_id': 1, 'day': 1}"),
+        @CompoundIndex(name = LogWorkBucketEntity.TASK_ID_LOG_WORK_ID_INDEX,
+                def = "{'task_id': 1, 'log_works._id': 1}"),
+        @CompoundIndex(name = LogWorkBucketEntity.LOG_WORK_ID_INDEX,
+                def = "{'log_works._id': 1}"),
+        @CompoundIndex(name = LogWorkBucketEntity.PENDING_HOURS_INDEX,
+                def = "{'pending_hours._id': 1}", sparse = true)
+})
+@Data
+public class LogWorkBucketEntity {
+
+    @Transient
+    public static final String COLLECTION_NAME = "log_work_bucket";
+
+    @Transient
+    public static final String TASK_ID_DAY_INDEX = "task_id_day";
+
+    @Transient
+    public static final String TASK_ID_LOG_WORK_ID_INDEX = "task_id_log_work_id";
+
+    @Transient
+    public static final String LOG_WORK_ID_INDEX = "log_work_id";
+
+    @Transient
+    public static final String PENDING_HOURS_INDEX = "pending_hours";
+
+    @Id
+    private String id;
+
+    @Field("task_id")
+    private int taskId;
+
+    @Field("day")
+    private LocalDate day;
+
+    @Field("count")
+    private int count;
+
+    @Field("total_hours")
+    private double totalHours;
+
+    @Field("migrated")
+    private boolean migrated;
+
+    @Field("log_works")
+    private List<LogWorkEntity> logWorkList;
+
+    @Field("pending_hours")
+    private List<PendingHoursEntity> pendingHoursList;
+}
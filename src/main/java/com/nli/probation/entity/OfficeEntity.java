@@ -3,14 +3,18 @@ package com.nli.probation.entity;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 @NoArgsConstructor @AllArgsConstructor @Getter  @Setter
-@Document(collection = "office")
+@Document(collection = OfficeEntity.COLLECTION_NAME)
 @Data
 public class OfficeEntity {
 
+    @Transient
+    public static final String COLLECTION_NAME = "office";
+
     @Transient
     public static final String SEQUENCE_NAME = "office_sequence";
 
@@ -26,4 +30,11 @@ public class OfficeEntity {
     @Field("status")
     private int status;
 
+    @Indexed
+    @Field("search_name")
+    private String searchName;
+
+    @Indexed
+    @Field("search_location")
+    private String searchLocation;
 }
@@ -0,0 +1,19 @@
+package com.nli.probation.entity;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * Hours written to a bucket and not added to actual time of its task yet. Its id is recorded on
+ * the task once added, so adding it again is skipped.
+ */
+@NoArgsConstructor @AllArgsConstructor @Getter @Setter
+@Data
+public class PendingHoursEntity {
+    @Id
+    private String id;
+
+    @Field("hours")
+    private double hours;
+}
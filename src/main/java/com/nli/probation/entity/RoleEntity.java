@@ -3,15 +3,19 @@ package com.nli.probation.entity;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.util.Set;
 
 @NoArgsConstructor @AllArgsConstructor @Getter @Setter
-@Document(collection = "role")
+@Document(collection = RoleEntity.COLLECTION_NAME)
 @Data
 public class RoleEntity {
+    @Transient
+    public static final String COLLECTION_NAME = "role";
+
     @Transient
     public static final String SEQUENCE_NAME = "role_sequence";
 
@@ -26,5 +30,12 @@ public class RoleEntity {
 
     @Field("status")
     private int status;
-    
+
+    @Indexed
+    @Field("search_name")
+    private String searchName;
+
+    @Indexed
+    @Field("search_short_name")
+    private String searchShortName;
 }
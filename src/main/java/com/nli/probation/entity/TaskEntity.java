@@ -3,6 +3,11 @@ package com.nli.probation.entity;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -11,22 +16,43 @@ import java.util.List;
 import java.util.Set;
 
 @NoArgsConstructor @AllArgsConstructor @Getter @Setter
-@Document(collection = "task")
+@Document(collection = TaskEntity.COLLECTION_NAME)
+@CompoundIndexes({
+        @CompoundIndex(name = TaskEntity.ASSIGNEE_START_TIME_INDEX,
+                def = "{'assignee': 1, 'start_time': 1}",
+                partialFilter = "{'assignee': {$gt: 0}}"),
+        @CompoundIndex(name = TaskEntity.LOG_WORK_ID_INDEX, def = "{'log_works._id': 1}")
+})
 @Data
 public class TaskEntity {
 
+    @Transient
+    public static final String COLLECTION_NAME = "task";
+
     @Transient
     public static final String SEQUENCE_NAME = "task_sequence";
 
+    @Transient
+    public static final String START_TIME_INDEX = "start_time";
+
+    @Transient
+    public static final String ASSIGNEE_START_TIME_INDEX = "assignee_start_time";
+
+    @Transient
+    public static final String LOG_WORK_ID_INDEX = "log_work_id";
+
     @Id
     private int id;
 
+    @TextIndexed(weight = 2)
     @Field("title")
     private String title;
 
+    @TextIndexed
     @Field("description")
     private String description;
 
+    @Indexed(name = START_TIME_INDEX)
     @Field("start_time")
     private LocalDateTime startTime;
 
@@ -44,4 +70,11 @@ public class TaskEntity {
 
     @Field("log_works")
     private List<LogWorkEntity> logWorkList;
+
+    @Field("applied_hours")
+    private List<String> appliedHoursIds;
+
+    @Version
+    @Field("version")
+    private Long version;
 }
@@ -3,13 +3,17 @@ package com.nli.probation.entity;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 @NoArgsConstructor @AllArgsConstructor @Getter @Setter
-@Document(collection = "team")
+@Document(collection = TeamEntity.COLLECTION_NAME)
 @Data
 public class TeamEntity {
+    @Transient
+    public static final String COLLECTION_NAME = "team";
+
     @Transient
     public static final String SEQUENCE_NAME = "team_sequence";
 
@@ -25,4 +29,11 @@ public class TeamEntity {
     @Field("status")
     private int status;
 
+    @Indexed
+    @Field("search_name")
+    private String searchName;
+
+    @Indexed
+    @Field("search_short_name")
+    private String searchShortName;
 }
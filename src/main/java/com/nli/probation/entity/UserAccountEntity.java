@@ -3,26 +3,44 @@ package com.nli.probation.entity;
 import lombok.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 @NoArgsConstructor @AllArgsConstructor @Getter @Setter
-@Document(collection = "user_account")
+@Document(collection = UserAccountEntity.COLLECTION_NAME)
+@CompoundIndex(name = UserAccountEntity.TEAM_ID_INDEX, def = "{'team_id': 1, '_id': 1}",
+        partialFilter = "{'team_id': {$gt: 0}}")
 @Data
 public class UserAccountEntity {
 
+    @Transient
+    public static final String COLLECTION_NAME = "user_account";
+
     @Transient
     public static final String SEQUENCE_NAME = "account_sequence";
 
+    @Transient
+    public static final String EMAIL_INDEX = "email";
+
+    @Transient
+    public static final String PHONE_INDEX = "phone";
+
+    @Transient
+    public static final String TEAM_ID_INDEX = "team_id_id";
+
     @Id
     private int id;
 
     @Field("name")
     private String name;
 
+    @Indexed(name = EMAIL_INDEX)
     @Field("email")
     private String email;
 
+    @Indexed(name = PHONE_INDEX)
     @Field("phone")
     private String phone;
 
@@ -0,0 +1,13 @@
+package com.nli.probation.metamodel;
+
+public class LogWorkBucketEntity_ {
+    private LogWorkBucketEntity_(){}
+    public static final String ID = "id";
+    public static final String TASK_ID = "taskId";
+    public static final String DAY = "day";
+    public static final String COUNT = "count";
+    public static final String TOTAL_HOURS = "totalHours";
+    public static final String MIGRATED = "migrated";
+    public static final String LOG_WORKS_LIST = "logWorkList";
+    public static final String PENDING_HOURS_LIST = "pendingHoursList";
+}
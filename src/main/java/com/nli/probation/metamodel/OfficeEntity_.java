@@ -6,4 +6,6 @@ public class OfficeEntity_ {
     public static final String NAME = "name";
     public static final String LOCATION = "location";
     public static final String STATUS = "status";
+    public static final String SEARCH_NAME = "searchName";
+    public static final String SEARCH_LOCATION = "searchLocation";
 }
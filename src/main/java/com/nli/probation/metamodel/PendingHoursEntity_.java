@@ -0,0 +1,7 @@
+package com.nli.probation.metamodel;
+
+public class PendingHoursEntity_ {
+    private PendingHoursEntity_(){}
+    public static final String ID = "id";
+    public static final String HOURS = "hours";
+}
@@ -1,5 +1,7 @@
 package com.nli.probation.metamodel;
 
+import com.nli.probation.resolver.annotation.NotRequestable;
+
 public class TaskEntity_ {
     private TaskEntity_(){}
     public static final String ID = "id";
@@ -11,4 +13,8 @@ public class TaskEntity_ {
     public static final String ACTUAL_TIME = "actualTime";
     public static final String STATUS = "status";
     public static final String LOG_WORKS_LIST = "logWorkList";
+    @NotRequestable
+    public static final String APPLIED_HOURS_IDS = "appliedHoursIds";
+    @NotRequestable
+    public static final String VERSION = "version";
 }
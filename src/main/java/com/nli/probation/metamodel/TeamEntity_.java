@@ -6,4 +6,6 @@ public class TeamEntity_ {
     public static final String NAME = "name";
     public static final String SHORT_NAME = "shortName";
     public static final String STATUS = "status";
+    public static final String SEARCH_NAME = "searchName";
+    public static final String SEARCH_SHORT_NAME = "searchShortName";
 }
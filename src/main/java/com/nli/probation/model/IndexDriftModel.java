@@ -0,0 +1,36 @@
+package com.nli.probation.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Difference between indexes declared for a collection and indexes found in database
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class IndexDriftModel {
+
+  private String collection;
+  private List<String> missing = new ArrayList<>();
+  private List<String> changed = new ArrayList<>();
+  private List<String> undeclared = new ArrayList<>();
+
+  public IndexDriftModel(String collection) {
+    this.collection = collection;
+  }
+
+  /**
+   * Check declared and found indexes are the same
+   *
+   * @return true when nothing is missing, changed or undeclared
+   */
+  public boolean isInSync() {
+    return missing.isEmpty() && changed.isEmpty() && undeclared.isEmpty();
+  }
+}
@@ -0,0 +1,32 @@
+package com.nli.probation.model;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Model of a captured query shape with statistics of its last explain
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class QueryShapeModel {
+
+  private String command;
+  private String collection;
+  private String filter;
+  private String sort;
+  private String projection;
+  private List<String> stages;
+  private long executions;
+  private double averageMillis;
+  private long maxMillis;
+  private boolean collectionScan;
+  private long docsExamined;
+  private long keysExamined;
+  private long returned;
+  private String suggestedIndex;
+}
@@ -0,0 +1,26 @@
+package com.nli.probation.model;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class RequestFieldsModel {
+
+  private Set<String> fields = new LinkedHashSet<>();
+
+  /**
+   * Check every field is requested
+   *
+   * @return true when no field is listed
+   */
+  public boolean isAllFields() {
+    return fields.isEmpty();
+  }
+}
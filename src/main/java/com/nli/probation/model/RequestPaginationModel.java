@@ -1,5 +1,6 @@
 package com.nli.probation.model;
 
+import com.nli.probation.constant.CountModeEnum;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -15,4 +16,24 @@ public class RequestPaginationModel {
   private int limit;
   private String sortBy;
   private String sortType;
+  private String cursor;
+  private CountModeEnum countMode;
+
+  public RequestPaginationModel(int index, int limit, String sortBy, String sortType) {
+    this(index, limit, sortBy, sortType, null);
+  }
+
+  public RequestPaginationModel(int index, int limit, String sortBy, String sortType,
+      String cursor) {
+    this(index, limit, sortBy, sortType, cursor, CountModeEnum.EXACT);
+  }
+
+  /**
+   * Check pagination by cursor instead of page index
+   *
+   * @return true when cursor is requested
+   */
+  public boolean isSeekMode() {
+    return cursor != null;
+  }
 }
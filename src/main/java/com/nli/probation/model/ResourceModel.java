@@ -23,4 +23,6 @@ public class ResourceModel<T> {
   private int totalResult;
   private int totalPage;
   private List<T> data;
+  private String nextCursor;
+  private String countMode;
 }
@@ -0,0 +1,37 @@
+package com.nli.probation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Contiguous range of reserved sequence numbers, both bounds are inclusive
+ */
+@AllArgsConstructor
+@Getter
+public class SequenceRangeModel {
+
+  private final int first;
+  private final int last;
+
+  /**
+   * Number of sequence numbers in range
+   *
+   * @return size of range
+   */
+  public int size() {
+    return last - first + 1;
+  }
+
+  /**
+   * Get sequence number at an offset of range
+   *
+   * @param offset
+   * @return sequence number
+   */
+  public int get(int offset) {
+    if (offset < 0 || offset >= size()) {
+      throw new IndexOutOfBoundsException("Offset " + offset + " is out of sequence range");
+    }
+    return first + offset;
+  }
+}
@@ -0,0 +1,355 @@
+package com.nli.probation.repository;
+
+import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_LOG_WORK;
+import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_TASK;
+
+import com.mongodb.client.result.UpdateResult;
+import com.nli.probation.customexception.NoSuchEntityException;
+import com.nli.probation.entity.LogWorkBucketEntity;
+import com.nli.probation.entity.LogWorkEntity;
+import com.nli.probation.entity.PendingHoursEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.metamodel.LogWorkBucketEntity_;
+import com.nli.probation.metamodel.LogWorkEntity_;
+import com.nli.probation.metamodel.PendingHoursEntity_;
+import com.nli.probation.metamodel.TaskEntity_;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Log works stored in buckets of collection log_work_bucket, one bucket per task per day of start
+ * time holding at most bucket capacity entries. Writes touch one bucket and add hours to actual
+ * time of task in a second update, so task documents stay small however many log works are
+ * logged. The bucket update also records the hours as pending; the task update adds them only if
+ * the task does not record their id as added yet, so hours a failure left pending are added once
+ * by a retry or by the reconciliation job.
+ *
+ * <p>Log works still embedded in tasks are read and written in place until the migration job
+ * moves them. While a task has embedded log works, buckets copied by migration are ignored.
+ */
+public class BucketLogWorkStore implements LogWorkStore {
+
+  private static final String LOG_WORKS_PAGE = "page";
+  private static final String LOG_WORKS_TOTAL = "total";
+  private static final String LOG_WORK_PATH = LogWorkBucketEntity_.LOG_WORKS_LIST + ".$.";
+  private static final String PENDING_HOURS_ID = "_id";
+  private static final String IN_OPERATOR = "$in";
+  private static final int APPLIED_HOURS_KEPT = 1000;
+
+  private final MongoTemplate mongoTemplate;
+  private final EmbeddedLogWorkStore embeddedLogWorkStore;
+  private final int bucketCapacity;
+
+  public BucketLogWorkStore(MongoTemplate mongoTemplate, int bucketCapacity) {
+    this.mongoTemplate = mongoTemplate;
+    this.embeddedLogWorkStore = new EmbeddedLogWorkStore(mongoTemplate);
+    this.bucketCapacity = bucketCapacity;
+  }
+
+  /**
+   * Push log work to a bucket of its task and day with room left, creating the bucket when there
+   * is none, then add its pending hours to actual time of task
+   *
+   * @param taskId
+   * @param logWorkEntity
+   */
+  @Override
+  public void insert(int taskId, LogWorkEntity logWorkEntity) {
+    //Check task
+    if (!mongoTemplate.exists(new Query(Criteria.where(TaskEntity_.ID).is(taskId)),
+        TaskEntity.class)) {
+      throw new NoSuchEntityException(NOT_FOUND_TASK);
+    }
+
+    //Push to bucket with room left
+    double hours = LogWorkStore.activeHoursOf(logWorkEntity);
+    PendingHoursEntity pendingHours = newPendingHours(hours);
+    mongoTemplate.upsert(matchBucketWithRoom(taskId, logWorkEntity.getStartTime().toLocalDate()),
+        new Update().push(LogWorkBucketEntity_.LOG_WORKS_LIST, logWorkEntity)
+            .inc(LogWorkBucketEntity_.COUNT, 1)
+            .inc(LogWorkBucketEntity_.TOTAL_HOURS, hours)
+            .push(LogWorkBucketEntity_.PENDING_HOURS_LIST, pendingHours),
+        LogWorkBucketEntity.class);
+
+    //Add hours to task
+    applyPendingHours(taskId, List.of(pendingHours));
+  }
+
+  /**
+   * Push log works of each task and day to a bucket with room left in one update, then add their
+   * hours to task. Log works of a day already in a bucket are not pushed again, but hours still
+   * pending in that bucket are added, so a batch run again after a failure of the task update
+   * adds the hours once. A bucket may exceed its capacity by the log works of one day of a batch.
+   *
+   * @param logWorksByTask log works per task id
+   */
+  @Override
+  public void insertAll(Map<Integer, List<LogWorkEntity>> logWorksByTask) {
+    logWorksByTask.forEach((taskId, logWorkEntities) -> {
+      Map<LocalDate, List<LogWorkEntity>> logWorksByDay = new LinkedHashMap<>();
+      logWorkEntities.forEach(logWorkEntity -> logWorksByDay.computeIfAbsent(
+          logWorkEntity.getStartTime().toLocalDate(), day -> new ArrayList<>())
+          .add(logWorkEntity));
+
+      List<PendingHoursEntity> pendingHoursList = new ArrayList<>();
+      for (Entry<LocalDate, List<LogWorkEntity>> entry : logWorksByDay.entrySet()) {
+        List<LogWorkEntity> dayLogWorks = entry.getValue();
+        Query insertedQuery = new Query(Criteria.where(LogWorkBucketEntity_.TASK_ID).is(taskId)
+            .and(LogWorkBucketEntity_.LOG_WORKS_LIST + "." + LogWorkEntity_.ID)
+            .is(dayLogWorks.get(0).getId()));
+        insertedQuery.fields().include(LogWorkBucketEntity_.PENDING_HOURS_LIST);
+        LogWorkBucketEntity insertedBucket = mongoTemplate.findOne(insertedQuery,
+            LogWorkBucketEntity.class);
+        if (insertedBucket != null) {
+          if (insertedBucket.getPendingHoursList() != null) {
+            pendingHoursList.addAll(insertedBucket.getPendingHoursList());
+          }
+          continue;
+        }
+        double dayHours = dayLogWorks.stream().mapToDouble(LogWorkStore::activeHoursOf).sum();
+        PendingHoursEntity pendingHours = newPendingHours(dayHours);
+        mongoTemplate.upsert(matchBucketWithRoom(taskId, entry.getKey()),
+            new Update().push(LogWorkBucketEntity_.LOG_WORKS_LIST).each(dayLogWorks.toArray())
+                .inc(LogWorkBucketEntity_.COUNT, dayLogWorks.size())
+                .inc(LogWorkBucketEntity_.TOTAL_HOURS, dayHours)
+                .push(LogWorkBucketEntity_.PENDING_HOURS_LIST, pendingHours),
+            LogWorkBucketEntity.class);
+        pendingHoursList.add(pendingHours);
+      }
+      applyPendingHours(taskId, pendingHoursList);
+    });
+  }
+
+  /**
+   * Add pending hours of buckets of task to its actual time, except those the task records as
+   * added, then remove them from buckets. All are added in one update, or one by one when some
+   * of them were added before. Running it again or from several nodes adds each of them once.
+   *
+   * @param taskId
+   * @param pendingHoursList
+   */
+  public void applyPendingHours(int taskId, List<PendingHoursEntity> pendingHoursList) {
+    if (pendingHoursList.isEmpty()) {
+      return;
+    }
+    List<String> pendingHoursIds = new ArrayList<>();
+    double hours = 0;
+    for (PendingHoursEntity pendingHours : pendingHoursList) {
+      pendingHoursIds.add(pendingHours.getId());
+      hours += pendingHours.getHours();
+    }
+
+    //Add hours none of which were added yet, or else each one not added yet
+    UpdateResult result = mongoTemplate.updateFirst(
+        new Query(Criteria.where(TaskEntity_.ID).is(taskId)
+            .and(TaskEntity_.APPLIED_HOURS_IDS).nin(pendingHoursIds)),
+        addHours(hours, pendingHoursIds), TaskEntity.class);
+    if (result.getMatchedCount() == 0 && pendingHoursList.size() > 1) {
+      for (PendingHoursEntity pendingHours : pendingHoursList) {
+        mongoTemplate.updateFirst(new Query(Criteria.where(TaskEntity_.ID).is(taskId)
+                .and(TaskEntity_.APPLIED_HOURS_IDS).ne(pendingHours.getId())),
+            addHours(pendingHours.getHours(), List.of(pendingHours.getId())), TaskEntity.class);
+      }
+    }
+
+    //Hours are added, remove them from buckets
+    mongoTemplate.updateMulti(new Query(Criteria.where(LogWorkBucketEntity_.TASK_ID).is(taskId)
+            .and(LogWorkBucketEntity_.PENDING_HOURS_LIST + "." + PendingHoursEntity_.ID)
+            .in(pendingHoursIds)),
+        new Update().pull(LogWorkBucketEntity_.PENDING_HOURS_LIST,
+            new Document(PENDING_HOURS_ID, new Document(IN_OPERATOR, pendingHoursIds))),
+        LogWorkBucketEntity.class);
+  }
+
+  /**
+   * Find log work embedded in task, or else in buckets of task
+   *
+   * @param taskId
+   * @param logWorkId
+   * @return log work
+   */
+  @Override
+  public LogWorkEntity findById(int taskId, String logWorkId) {
+    LogWorkEntity embeddedLogWork = embeddedLogWorkStore.findEmbedded(taskId, logWorkId);
+    if (embeddedLogWork != null) {
+      return embeddedLogWork;
+    }
+
+    Query query = new Query(Criteria.where(LogWorkBucketEntity_.TASK_ID).is(taskId)
+        .and(LogWorkBucketEntity_.LOG_WORKS_LIST + "." + LogWorkEntity_.ID).is(logWorkId));
+    query.fields().elemMatch(LogWorkBucketEntity_.LOG_WORKS_LIST,
+        Criteria.where(LogWorkEntity_.ID).is(logWorkId));
+    LogWorkBucketEntity bucketEntity = mongoTemplate.findOne(query, LogWorkBucketEntity.class);
+    if (bucketEntity == null || bucketEntity.getLogWorkList() == null
+        || bucketEntity.getLogWorkList().isEmpty()) {
+      throw new NoSuchEntityException(NOT_FOUND_LOG_WORK);
+    }
+    return bucketEntity.getLogWorkList().get(0);
+  }
+
+  /**
+   * Find log work embedded in any task, or else in any bucket
+   *
+   * @param logWorkId
+   * @return log work
+   */
+  @Override
+  public LogWorkEntity findById(String logWorkId) {
+    LogWorkEntity embeddedLogWork = embeddedLogWorkStore.findEmbedded(logWorkId);
+    if (embeddedLogWork != null) {
+      return embeddedLogWork;
+    }
+
+    Query query = new Query(Criteria.where(
+        LogWorkBucketEntity_.LOG_WORKS_LIST + "." + LogWorkEntity_.ID).is(logWorkId));
+    query.fields().elemMatch(LogWorkBucketEntity_.LOG_WORKS_LIST,
+        Criteria.where(LogWorkEntity_.ID).is(logWorkId));
+    LogWorkBucketEntity bucketEntity = mongoTemplate.findOne(query, LogWorkBucketEntity.class);
+    if (bucketEntity == null || bucketEntity.getLogWorkList() == null
+        || bucketEntity.getLogWorkList().isEmpty()) {
+      throw new NoSuchEntityException(NOT_FOUND_LOG_WORK);
+    }
+    return bucketEntity.getLogWorkList().get(0);
+  }
+
+  /**
+   * Set log work embedded in task, or else in its bucket together with running total of bucket.
+   * Buckets copied by migration are written only after migration of their task completed.
+   *
+   * @param taskId
+   * @param foundLogWork
+   * @param updatedLogWork
+   * @return false when log work was changed since found
+   */
+  @Override
+  public boolean compareAndSet(int taskId, LogWorkEntity foundLogWork,
+      LogWorkEntity updatedLogWork) {
+    if (embeddedLogWorkStore.compareAndSet(taskId, foundLogWork, updatedLogWork)) {
+      return true;
+    }
+
+    //Set log work in bucket
+    double difference = LogWorkStore.activeHoursOf(updatedLogWork)
+        - LogWorkStore.activeHoursOf(foundLogWork);
+    PendingHoursEntity pendingHours = newPendingHours(difference);
+    UpdateResult result = mongoTemplate.updateFirst(
+        new Query(EmbeddedLogWorkStore.matchUnchanged(
+            Criteria.where(LogWorkBucketEntity_.TASK_ID).is(taskId)
+                .and(LogWorkBucketEntity_.MIGRATED).is(false), foundLogWork)),
+        EmbeddedLogWorkStore.setLogWork(LOG_WORK_PATH, updatedLogWork)
+            .inc(LogWorkBucketEntity_.TOTAL_HOURS, difference)
+            .push(LogWorkBucketEntity_.PENDING_HOURS_LIST, pendingHours),
+        LogWorkBucketEntity.class);
+    if (result.getMatchedCount() == 0) {
+      return false;
+    }
+
+    //Add difference of hours to task
+    applyPendingHours(taskId, List.of(pendingHours));
+    return true;
+  }
+
+  /**
+   * Find page of log works of task, embedded log works first then log works of buckets by day.
+   * Entries of buckets are unwound, skipped and counted on server in one aggregation.
+   *
+   * @param taskId
+   * @param pageable
+   * @return page of log works
+   */
+  @Override
+  public Page<LogWorkEntity> findPage(int taskId, Pageable pageable) {
+    //Page of log works still embedded in task
+    Page<LogWorkEntity> embeddedPage = embeddedLogWorkStore.findPage(taskId, pageable);
+    long embeddedTotal = embeddedPage.getTotalElements();
+    List<LogWorkEntity> logWorkEntities = new ArrayList<>(embeddedPage.getContent());
+
+    //Rest of page from buckets and total of them
+    Criteria criteria = Criteria.where(LogWorkBucketEntity_.TASK_ID).is(taskId);
+    if (embeddedTotal > 0) {
+      criteria.and(LogWorkBucketEntity_.MIGRATED).is(false);
+    }
+    List<AggregationOperation> pageOperations = new ArrayList<>();
+    pageOperations.add(Aggregation.unwind(LogWorkBucketEntity_.LOG_WORKS_LIST));
+    pageOperations.add(Aggregation.skip(Math.max(0, pageable.getOffset() - embeddedTotal)));
+    pageOperations.add(Aggregation.limit(
+        Math.max(1, pageable.getPageSize() - logWorkEntities.size())));
+    pageOperations.add(Aggregation.replaceRoot(LogWorkBucketEntity_.LOG_WORKS_LIST));
+    TypedAggregation<LogWorkBucketEntity> aggregation = Aggregation.newAggregation(
+        LogWorkBucketEntity.class,
+        Aggregation.match(criteria),
+        Aggregation.sort(Sort.by(LogWorkBucketEntity_.DAY, LogWorkBucketEntity_.ID)),
+        Aggregation.facet(pageOperations.toArray(new AggregationOperation[0]))
+            .as(LOG_WORKS_PAGE)
+            .and(Aggregation.group().sum(LogWorkBucketEntity_.COUNT).as(LOG_WORKS_TOTAL))
+            .as(LOG_WORKS_TOTAL));
+    Document result = mongoTemplate.aggregate(aggregation, Document.class)
+        .getUniqueMappedResult();
+    long bucketTotal = 0;
+    if (result != null) {
+      List<Document> totals = result.getList(LOG_WORKS_TOTAL, Document.class,
+          Collections.emptyList());
+      bucketTotal = totals.isEmpty() ? 0 : totals.get(0).get(LOG_WORKS_TOTAL, Number.class)
+          .longValue();
+      for (Document logWorkDocument : result.getList(LOG_WORKS_PAGE, Document.class,
+          Collections.emptyList())) {
+        if (logWorkEntities.size() < pageable.getPageSize()) {
+          logWorkEntities.add(mongoTemplate.getConverter().read(LogWorkEntity.class,
+              logWorkDocument));
+        }
+      }
+    }
+    return new PageImpl<>(logWorkEntities, pageable, embeddedTotal + bucketTotal);
+  }
+
+  /**
+   * Create update adding hours to task and recording their ids as added, keeping only the last
+   * ids, far more than may be pending at a time
+   *
+   * @param hours
+   * @param pendingHoursIds
+   * @return update
+   */
+  private static Update addHours(double hours, List<String> pendingHoursIds) {
+    return new Update().inc(TaskEntity_.ACTUAL_TIME, hours).inc(TaskEntity_.VERSION, 1)
+        .push(TaskEntity_.APPLIED_HOURS_IDS).slice(-APPLIED_HOURS_KEPT)
+        .each(pendingHoursIds.toArray());
+  }
+
+  private static PendingHoursEntity newPendingHours(double hours) {
+    return new PendingHoursEntity(UUID.randomUUID().toString(), hours);
+  }
+
+  /**
+   * Create query of bucket of task and day with room left, which upsert creates when there is
+   * none
+   *
+   * @param taskId
+   * @param day
+   * @return query
+   */
+  private Query matchBucketWithRoom(int taskId, LocalDate day) {
+    return new Query(Criteria.where(LogWorkBucketEntity_.TASK_ID).is(taskId)
+        .and(LogWorkBucketEntity_.DAY).is(day)
+        .and(LogWorkBucketEntity_.MIGRATED).is(false)
+        .and(LogWorkBucketEntity_.COUNT).lt(bucketCapacity));
+  }
+}
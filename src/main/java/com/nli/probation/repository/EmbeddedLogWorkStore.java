@@ -0,0 +1,220 @@
+package com.nli.probation.repository;
+
+import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_LOG_WORK;
+import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_TASK;
+
+import com.mongodb.client.result.UpdateResult;
+import com.nli.probation.customexception.NoSuchEntityException;
+import com.nli.probation.entity.LogWorkEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.metamodel.LogWorkEntity_;
+import com.nli.probation.metamodel.TaskEntity_;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ArrayOperators;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Log works stored in array log_works of their task. Each write is one atomic update of the task,
+ * pushing or setting the log work and adding its hours to actual time together.
+ */
+public class EmbeddedLogWorkStore implements LogWorkStore {
+
+  private static final String LOG_WORKS_PAGE = "page";
+  private static final String LOG_WORKS_TOTAL = "total";
+  private static final String LOG_WORK_PATH = TaskEntity_.LOG_WORKS_LIST + ".$.";
+
+  private final MongoTemplate mongoTemplate;
+
+  public EmbeddedLogWorkStore(MongoTemplate mongoTemplate) {
+    this.mongoTemplate = mongoTemplate;
+  }
+
+  @Override
+  public void insert(int taskId, LogWorkEntity logWorkEntity) {
+    UpdateResult result = mongoTemplate.updateFirst(
+        new Query(Criteria.where(TaskEntity_.ID).is(taskId)),
+        new Update().push(TaskEntity_.LOG_WORKS_LIST, logWorkEntity)
+            .inc(TaskEntity_.ACTUAL_TIME, LogWorkStore.activeHoursOf(logWorkEntity))
+            .inc(TaskEntity_.VERSION, 1),
+        TaskEntity.class);
+    if (result.getMatchedCount() == 0) {
+      throw new NoSuchEntityException(NOT_FOUND_TASK);
+    }
+  }
+
+  /**
+   * Push log works of each task with sum of their hours, as one unordered bulk write of one
+   * update per task. An update matches only while its first log work is not in the task, so a
+   * batch run again skips tasks already updated.
+   *
+   * @param logWorksByTask log works per task id
+   */
+  @Override
+  public void insertAll(Map<Integer, List<LogWorkEntity>> logWorksByTask) {
+    if (logWorksByTask.isEmpty()) {
+      return;
+    }
+    BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkMode.UNORDERED, TaskEntity.class);
+    logWorksByTask.forEach((taskId, logWorkEntities) -> bulkOperations.updateOne(
+        new Query(Criteria.where(TaskEntity_.ID).is(taskId)
+            .and(TaskEntity_.LOG_WORKS_LIST + "." + LogWorkEntity_.ID)
+            .ne(logWorkEntities.get(0).getId())),
+        new Update().push(TaskEntity_.LOG_WORKS_LIST).each(logWorkEntities.toArray())
+            .inc(TaskEntity_.ACTUAL_TIME, logWorkEntities.stream()
+                .mapToDouble(LogWorkStore::activeHoursOf).sum())
+            .inc(TaskEntity_.VERSION, 1)));
+    bulkOperations.execute();
+  }
+
+  @Override
+  public LogWorkEntity findById(int taskId, String logWorkId) {
+    LogWorkEntity logWorkEntity = findEmbedded(taskId, logWorkId);
+    if (logWorkEntity == null) {
+      throw new NoSuchEntityException(NOT_FOUND_LOG_WORK);
+    }
+    return logWorkEntity;
+  }
+
+  @Override
+  public LogWorkEntity findById(String logWorkId) {
+    LogWorkEntity logWorkEntity = findEmbedded(logWorkId);
+    if (logWorkEntity == null) {
+      throw new NoSuchEntityException(NOT_FOUND_LOG_WORK);
+    }
+    return logWorkEntity;
+  }
+
+  @Override
+  public boolean compareAndSet(int taskId, LogWorkEntity foundLogWork,
+      LogWorkEntity updatedLogWork) {
+    UpdateResult result = mongoTemplate.updateFirst(
+        new Query(matchUnchanged(Criteria.where(TaskEntity_.ID).is(taskId), foundLogWork)),
+        setLogWork(LOG_WORK_PATH, updatedLogWork)
+            .inc(TaskEntity_.ACTUAL_TIME, LogWorkStore.activeHoursOf(updatedLogWork)
+                - LogWorkStore.activeHoursOf(foundLogWork))
+            .inc(TaskEntity_.VERSION, 1),
+        TaskEntity.class);
+    return result.getMatchedCount() > 0;
+  }
+
+  /**
+   * Find page of log works of task. Only the page is sliced out of the embedded list and the list
+   * is counted on server, in the order log works were created.
+   *
+   * @param taskId
+   * @param pageable
+   * @return page of log works
+   */
+  @Override
+  public Page<LogWorkEntity> findPage(int taskId, Pageable pageable) {
+    TypedAggregation<TaskEntity> aggregation = Aggregation.newAggregation(TaskEntity.class,
+        Aggregation.match(Criteria.where(TaskEntity_.ID).is(taskId)),
+        Aggregation.project()
+            .and(ArrayOperators.Slice.sliceArrayOf(TaskEntity_.LOG_WORKS_LIST)
+                .offset((int) pageable.getOffset()).itemCount(pageable.getPageSize()))
+            .as(LOG_WORKS_PAGE)
+            .and(ArrayOperators.Size.lengthOfArray(
+                ConditionalOperators.ifNull(TaskEntity_.LOG_WORKS_LIST)
+                    .then(Collections.emptyList())))
+            .as(LOG_WORKS_TOTAL));
+    Document taskDocument = mongoTemplate.aggregate(aggregation, Document.class)
+        .getUniqueMappedResult();
+    if (taskDocument == null) {
+      throw new NoSuchEntityException(NOT_FOUND_TASK);
+    }
+
+    List<LogWorkEntity> logWorkEntities = new ArrayList<>();
+    for (Document logWorkDocument : taskDocument.getList(LOG_WORKS_PAGE, Document.class,
+        Collections.emptyList())) {
+      logWorkEntities.add(mongoTemplate.getConverter().read(LogWorkEntity.class,
+          logWorkDocument));
+    }
+    return new PageImpl<>(logWorkEntities, pageable, taskDocument.getInteger(LOG_WORKS_TOTAL));
+  }
+
+  /**
+   * Find log work of task, reading only that element of the embedded list
+   *
+   * @param taskId
+   * @param logWorkId
+   * @return log work, null when not embedded in task
+   */
+  LogWorkEntity findEmbedded(int taskId, String logWorkId) {
+    Query query = new Query(Criteria.where(TaskEntity_.ID).is(taskId));
+    query.fields().elemMatch(TaskEntity_.LOG_WORKS_LIST,
+        Criteria.where(LogWorkEntity_.ID).is(logWorkId));
+    TaskEntity taskEntity = mongoTemplate.findOne(query, TaskEntity.class);
+    if (taskEntity == null) {
+      throw new NoSuchEntityException(NOT_FOUND_TASK);
+    }
+    if (taskEntity.getLogWorkList() == null || taskEntity.getLogWorkList().isEmpty()) {
+      return null;
+    }
+    return taskEntity.getLogWorkList().get(0);
+  }
+
+  /**
+   * Find log work embedded in any task, only the matched log work is projected
+   *
+   * @param logWorkId
+   * @return log work, null when no task embeds it
+   */
+  LogWorkEntity findEmbedded(String logWorkId) {
+    Query query = new Query(Criteria.where(TaskEntity_.LOG_WORKS_LIST + "." + LogWorkEntity_.ID)
+        .is(logWorkId));
+    query.fields().elemMatch(TaskEntity_.LOG_WORKS_LIST,
+        Criteria.where(LogWorkEntity_.ID).is(logWorkId));
+    TaskEntity taskEntity = mongoTemplate.findOne(query, TaskEntity.class);
+    if (taskEntity == null || taskEntity.getLogWorkList() == null
+        || taskEntity.getLogWorkList().isEmpty()) {
+      return null;
+    }
+    return taskEntity.getLogWorkList().get(0);
+  }
+
+  /**
+   * Add condition of list holding log work with the found values, so an update matches nothing
+   * when another request changed the log work in between. The positional operator of the update
+   * targets the matched log work.
+   *
+   * @param criteria
+   * @param foundLogWork
+   * @return criteria
+   */
+  static Criteria matchUnchanged(Criteria criteria, LogWorkEntity foundLogWork) {
+    return criteria.and(TaskEntity_.LOG_WORKS_LIST).elemMatch(
+        Criteria.where(LogWorkEntity_.ID).is(foundLogWork.getId())
+            .and(LogWorkEntity_.START_TIME).is(foundLogWork.getStartTime())
+            .and(LogWorkEntity_.END_TIME).is(foundLogWork.getEndTime())
+            .and(LogWorkEntity_.STATUS).is(foundLogWork.getStatus()));
+  }
+
+  /**
+   * Create update setting time and status of log work matched by positional operator
+   *
+   * @param path
+   * @param logWorkEntity
+   * @return update
+   */
+  static Update setLogWork(String path, LogWorkEntity logWorkEntity) {
+    return new Update()
+        .set(path + LogWorkEntity_.START_TIME, logWorkEntity.getStartTime())
+        .set(path + LogWorkEntity_.END_TIME, logWorkEntity.getEndTime())
+        .set(path + LogWorkEntity_.STATUS, logWorkEntity.getStatus());
+  }
+}
@@ -0,0 +1,84 @@
+package com.nli.probation.repository;
+
+import com.nli.probation.constant.EntityStatusEnum;
+import com.nli.probation.entity.LogWorkEntity;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Storage of log works of tasks, with actual time of the task summing hours of its active log
+ * works. Embedded log works and actual time are written in one update. Buckets are written apart
+ * from the task, so after a failure between the two writes actual time lacks the hours until the
+ * write is retried or the reconciliation job adds them.
+ */
+public interface LogWorkStore {
+
+  /**
+   * Add new log work to task
+   *
+   * @param taskId
+   * @param logWorkEntity
+   */
+  void insert(int taskId, LogWorkEntity logWorkEntity);
+
+  /**
+   * Add log works of many tasks in one batch. Running a batch again after a failure adds only
+   * the log works and hours it did not add.
+   *
+   * @param logWorksByTask log works per task id
+   */
+  void insertAll(Map<Integer, List<LogWorkEntity>> logWorksByTask);
+
+  /**
+   * Find log work of task by id
+   *
+   * @param taskId
+   * @param logWorkId
+   * @return log work
+   */
+  LogWorkEntity findById(int taskId, String logWorkId);
+
+  /**
+   * Find log work by id in any task, through the multikey index on log work ids
+   *
+   * @param logWorkId
+   * @return log work
+   */
+  LogWorkEntity findById(String logWorkId);
+
+  /**
+   * Replace time and status of log work when it still has the found values
+   *
+   * @param taskId
+   * @param foundLogWork
+   * @param updatedLogWork
+   * @return false when log work was changed since found
+   */
+  boolean compareAndSet(int taskId, LogWorkEntity foundLogWork, LogWorkEntity updatedLogWork);
+
+  /**
+   * Find page of log works of task and total of them
+   *
+   * @param taskId
+   * @param pageable
+   * @return page of log works
+   */
+  Page<LogWorkEntity> findPage(int taskId, Pageable pageable);
+
+  /**
+   * Get hours counted in actual time of task, zero for disabled log work
+   *
+   * @param logWorkEntity
+   * @return hours
+   */
+  static double activeHoursOf(LogWorkEntity logWorkEntity) {
+    if (logWorkEntity.getStatus() != EntityStatusEnum.LogWorkStatusEnum.ACTIVE.ordinal()) {
+      return 0;
+    }
+    return Duration.between(logWorkEntity.getStartTime(), logWorkEntity.getEndTime()).toMinutes()
+        / 60.0;
+  }
+}
@@ -0,0 +1,76 @@
+package com.nli.probation.resolver;
+
+import static com.nli.probation.constant.ErrorMessageConst.INVALID_FIELDS;
+
+import com.nli.probation.model.RequestFieldsModel;
+import com.nli.probation.resolver.annotation.NotRequestable;
+import com.nli.probation.resolver.annotation.RequestFieldsParam;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+public class RequestFieldsResolver implements HandlerMethodArgumentResolver {
+
+  private final Map<Class<?>, Set<String>> metamodelFields = new ConcurrentHashMap<>();
+
+  @Override
+  public boolean supportsParameter(MethodParameter parameter) {
+    return parameter.getParameterAnnotation(RequestFieldsParam.class) != null;
+  }
+
+  @Override
+  public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+      NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
+    HttpServletRequest request = (HttpServletRequest) webRequest.getNativeRequest();
+    String fields = request.getParameter("fields");
+    Set<String> fieldSet = new LinkedHashSet<>();
+    if (fields == null || fields.isBlank()) {
+      return new RequestFieldsModel(fieldSet);
+    }
+
+    //Check every field is declared in metamodel of entity
+    Class<?> metamodel = parameter.getParameterAnnotation(RequestFieldsParam.class).value();
+    Set<String> allowedFields = metamodelFields.computeIfAbsent(metamodel,
+        RequestFieldsResolver::findMetamodelFields);
+    for (String field : fields.split(",")) {
+      String trimmedField = field.trim();
+      if (!allowedFields.contains(trimmedField)) {
+        throw new IllegalArgumentException(INVALID_FIELDS + trimmedField);
+      }
+      fieldSet.add(trimmedField);
+    }
+    return new RequestFieldsModel(fieldSet);
+  }
+
+  /**
+   * Find names of fields declared as constants of metamodel, except internal ones
+   *
+   * @param metamodel
+   * @return set of field names
+   */
+  private static Set<String> findMetamodelFields(Class<?> metamodel) {
+    Set<String> fields = new HashSet<>();
+    for (Field field : metamodel.getDeclaredFields()) {
+      int modifiers = field.getModifiers();
+      if (Modifier.isStatic(modifiers) && Modifier.isPublic(modifiers)
+          && field.getType() == String.class && !field.isAnnotationPresent(NotRequestable.class)) {
+        try {
+          fields.add((String) field.get(null));
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    }
+    return fields;
+  }
+}
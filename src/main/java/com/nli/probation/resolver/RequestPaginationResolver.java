@@ -1,7 +1,11 @@
 package com.nli.probation.resolver;
 
+import static com.nli.probation.constant.ErrorMessageConst.INVALID_COUNT_MODE;
+
+import com.nli.probation.constant.CountModeEnum;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.resolver.annotation.RequestPagingParam;
+import java.util.Locale;
 import javax.servlet.http.HttpServletRequest;
 import org.springframework.core.MethodParameter;
 import org.springframework.web.bind.support.WebDataBinderFactory;
@@ -24,6 +28,8 @@ public class RequestPaginationResolver implements HandlerMethodArgumentResolver
     String limit = request.getParameter("limit");
     String sortType = request.getParameter("sortType");
     String sortBy = request.getParameter("sortBy");
+    String cursor = request.getParameter("cursor");
+    String countMode = request.getParameter("countMode");
     int indexNum = 0;
     int limitNum = 10;
     if (index != null) {
@@ -32,7 +38,16 @@ public class RequestPaginationResolver implements HandlerMethodArgumentResolver
     if (limit != null) {
       limitNum = Integer.parseInt(limit);
     }
+    CountModeEnum countModeEnum = CountModeEnum.EXACT;
+    if (countMode != null) {
+      try {
+        countModeEnum = CountModeEnum.valueOf(countMode.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(INVALID_COUNT_MODE, e);
+      }
+    }
 
-    return new RequestPaginationModel(indexNum, limitNum, sortBy, sortType);
+    return new RequestPaginationModel(indexNum, limitNum, sortBy, sortType, cursor,
+        countModeEnum);
   }
 }
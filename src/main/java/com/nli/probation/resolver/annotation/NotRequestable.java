@@ -0,0 +1,18 @@
+package com.nli.probation.resolver.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks field of metamodel which is stored for internal use only, so it can not be requested
+ * by {@link RequestFieldsParam}
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface NotRequestable {
+
+}
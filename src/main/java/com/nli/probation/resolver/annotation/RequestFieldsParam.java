@@ -0,0 +1,18 @@
+package com.nli.probation.resolver.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequestFieldsParam {
+
+  /**
+   * Metamodel class listing fields which can be requested
+   */
+  Class<?> value();
+}
@@ -1,52 +1,61 @@
 package com.nli.probation.service;
 
+import static com.nli.probation.constant.ErrorMessageConst.CONCURRENT_LOG_WORK_UPDATE;
 import static com.nli.probation.constant.ErrorMessageConst.DELETED_LOG_WORK;
 import static com.nli.probation.constant.ErrorMessageConst.LOG_WORK_TIME;
-import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_LOG_WORK;
 import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_TASK;
 
 import com.nli.probation.constant.EntityStatusEnum;
+import com.nli.probation.converter.PaginationConverter;
 import com.nli.probation.customexception.NoSuchEntityException;
 import com.nli.probation.customexception.TimeCustomException;
 import com.nli.probation.entity.LogWorkEntity;
-import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.model.RequestPaginationModel;
+import com.nli.probation.model.ResourceModel;
 import com.nli.probation.model.logwork.CreateLogWorkModel;
 import com.nli.probation.model.logwork.LogWorkModel;
 import com.nli.probation.model.logwork.UpdateLogWorkModel;
+import com.nli.probation.repository.LogWorkStore;
 import com.nli.probation.repository.TaskRepository;
-import java.time.Duration;
+import com.nli.probation.utils.OptimisticRetryUtils;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import org.bson.types.ObjectId;
 import org.modelmapper.ModelMapper;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 @Service
 public class LogWorkService {
 
+  private static final String UPDATE_LOG_WORK_OPERATION = "update_log_work";
+  private static final String DELETE_LOG_WORK_OPERATION = "delete_log_work";
+
   private final ModelMapper modelMapper;
   private final TaskRepository taskRepository;
+  private final LogWorkStore logWorkStore;
+  private final LogWorkWriteBehind logWorkWriteBehind;
 
   public LogWorkService(ModelMapper modelMapper,
-      TaskRepository taskRepository) {
+      TaskRepository taskRepository,
+      LogWorkStore logWorkStore,
+      LogWorkWriteBehind logWorkWriteBehind) {
     this.modelMapper = modelMapper;
     this.taskRepository = taskRepository;
+    this.logWorkStore = logWorkStore;
+    this.logWorkWriteBehind = logWorkWriteBehind;
   }
 
   /**
-   * Create new log work
+   * Create new log work, stored with its hours added to actual time of task. With write-behind,
+   * the log work is only queued after its task is checked.
    *
    * @param createLogWorkModel
    * @return saved log work
    */
   public LogWorkModel createLogWork(CreateLogWorkModel createLogWorkModel) {
-    //Check exist task
-    Optional<TaskEntity> existedTaskOptional = taskRepository.findById(
-        createLogWorkModel.getTaskId());
-    TaskEntity existedTaskEntity = existedTaskOptional
-        .orElseThrow(() -> new NoSuchEntityException(NOT_FOUND_TASK));
-
     //Check time
     if (createLogWorkModel.getStartTime().isAfter(createLogWorkModel.getEndTime())) {
       throw new TimeCustomException(LOG_WORK_TIME);
@@ -56,21 +65,17 @@ public class LogWorkService {
     LogWorkEntity logWorkEntity = modelMapper.map(createLogWorkModel, LogWorkEntity.class);
     logWorkEntity.setStatus(EntityStatusEnum.LogWorkStatusEnum.ACTIVE.ordinal());
     logWorkEntity.setId(ObjectId.get().toString());
-    double totalTime = existedTaskEntity.getActualTime()
-        + Duration.between(logWorkEntity.getStartTime(), logWorkEntity.getEndTime()).toMinutes()
-        / 60.0;
-    existedTaskEntity.setActualTime(totalTime);
-    List<LogWorkEntity> logWorkEntities = existedTaskEntity.getLogWorkList();
-    if (logWorkEntities == null) {
-      logWorkEntities = new ArrayList<>();
-    }
-    logWorkEntities.add(logWorkEntity);
-    existedTaskEntity.setLogWorkList(logWorkEntities);
 
-    //Save entity to DB
-    taskRepository.save(existedTaskEntity);
+    //Store log work of task, or queue it for write-behind
+    if (logWorkWriteBehind.isEnabled()) {
+      if (!taskRepository.existsById(createLogWorkModel.getTaskId())) {
+        throw new NoSuchEntityException(NOT_FOUND_TASK);
+      }
+      logWorkWriteBehind.submit(createLogWorkModel.getTaskId(), logWorkEntity);
+    } else {
+      logWorkStore.insert(createLogWorkModel.getTaskId(), logWorkEntity);
+    }
     return modelMapper.map(logWorkEntity, LogWorkModel.class);
-
   }
 
   /**
@@ -81,135 +86,99 @@ public class LogWorkService {
    * @return log work model
    */
   public LogWorkModel findLogWorkById(int taskId, String logWorkId) {
-    //Find task by id
-    Optional<TaskEntity> taskOptional = taskRepository.findById(taskId);
-    TaskEntity taskEntity = taskOptional.orElseThrow(
-        () -> new NoSuchEntityException(NOT_FOUND_TASK));
-
-    //Find log work in list
-    for (LogWorkEntity logWorkEntity : taskEntity.getLogWorkList()) {
-      if (logWorkEntity.getId().equals(logWorkId)) {
-        return modelMapper.map(logWorkEntity, LogWorkModel.class);
-      }
-    }
+    return modelMapper.map(logWorkStore.findById(taskId, logWorkId), LogWorkModel.class);
+  }
 
-    throw new NoSuchEntityException(NOT_FOUND_LOG_WORK);
+  /**
+   * Find log work by id without its task
+   *
+   * @param logWorkId
+   * @return log work model
+   */
+  public LogWorkModel findLogWorkById(String logWorkId) {
+    return modelMapper.map(logWorkStore.findById(logWorkId), LogWorkModel.class);
   }
 
   /**
-   * Delete a log work
+   * Delete a log work by disabling it and subtracting its hours from actual time of task
    *
    * @param taskId
    * @param logWorkId
    * @return deleted log work
    */
   public LogWorkModel deleteLogWorkById(int taskId, String logWorkId) {
-    //Find task by id
-    Optional<TaskEntity> taskOptional = taskRepository.findById(taskId);
-    TaskEntity taskEntity = taskOptional.orElseThrow(
-        () -> new NoSuchEntityException(NOT_FOUND_TASK));
-
-    //Find log work in list and update disable status
-    int index = Integer.MIN_VALUE;
-    for (LogWorkEntity logWorkEntity : taskEntity.getLogWorkList()) {
-      if (logWorkEntity.getId().equals(logWorkId)) {
-        logWorkEntity.setStatus(EntityStatusEnum.LogWorkStatusEnum.DISABLE.ordinal());
-        index = taskEntity.getLogWorkList().indexOf(logWorkEntity);
-        break;
-      }
-    }
-
-    //Check exist log work
-    if (index < 0) {
-      throw new NoSuchEntityException(NOT_FOUND_LOG_WORK);
-    }
-
-    //Update log work
-    LogWorkEntity deletedLogEntity = taskEntity.getLogWorkList().get(index);
-    double totalTime = taskEntity.getActualTime()
-        -
-        Duration.between(deletedLogEntity.getStartTime(), deletedLogEntity.getEndTime()).toMinutes()
-            / 60.0;
-    taskEntity.setActualTime(totalTime);
-
-    //Save entity to DB
-    TaskEntity responseEntity = taskRepository.save(taskEntity);
-    return modelMapper.map(responseEntity.getLogWorkList().get(index), LogWorkModel.class);
+    return OptimisticRetryUtils.retry(DELETE_LOG_WORK_OPERATION, CONCURRENT_LOG_WORK_UPDATE,
+        () -> {
+          //Find log work and check status
+          LogWorkEntity foundLogWork = logWorkStore.findById(taskId, logWorkId);
+          if (foundLogWork.getStatus() == EntityStatusEnum.LogWorkStatusEnum.DISABLE.ordinal()) {
+            throw new NoSuchEntityException(DELETED_LOG_WORK);
+          }
+
+          //Disable log work if it is unchanged since found
+          LogWorkEntity deletedLogWork = new LogWorkEntity(foundLogWork.getId(),
+              foundLogWork.getStartTime(), foundLogWork.getEndTime(),
+              EntityStatusEnum.LogWorkStatusEnum.DISABLE.ordinal());
+          if (!logWorkStore.compareAndSet(taskId, foundLogWork, deletedLogWork)) {
+            return Optional.empty();
+          }
+          return Optional.of(modelMapper.map(deletedLogWork, LogWorkModel.class));
+        });
   }
 
   /**
-   * Update log work
+   * Update time of log work, adding difference of hours to actual time of task
    *
    * @param taskId
    * @param updateLogWorkModel
    * @return updated log work
    */
   public LogWorkModel updateLogWork(int taskId, UpdateLogWorkModel updateLogWorkModel) {
-    //Find task by id
-    Optional<TaskEntity> taskOptional = taskRepository.findById(taskId);
-    TaskEntity taskEntity = taskOptional.orElseThrow(
-        () -> new NoSuchEntityException(NOT_FOUND_TASK));
-
-    //Find log work in list
-    LogWorkEntity foundLogWork = null;
-    for (LogWorkEntity entity : taskEntity.getLogWorkList()) {
-      if (entity.getId().equals(updateLogWorkModel.getId())) {
-        foundLogWork = entity;
-        break;
-      }
-    }
-
-    //Check exist log work
-    if (foundLogWork == null) {
-      throw new NoSuchEntityException(NOT_FOUND_LOG_WORK);
-    }
-
-    //Check status of log work
-    if (foundLogWork.getStatus() == EntityStatusEnum.LogWorkStatusEnum.DISABLE.ordinal()) {
-      throw new NoSuchEntityException(DELETED_LOG_WORK);
-    }
-
     //Check time
     if (updateLogWorkModel.getStartTime().isAfter(updateLogWorkModel.getEndTime())) {
       throw new TimeCustomException(LOG_WORK_TIME);
     }
 
-    //Prepare saved entity
-    LogWorkEntity updatedLogWork = modelMapper.map(updateLogWorkModel, LogWorkEntity.class);
-    double newTimeOfLog =
-        Duration.between(updatedLogWork.getStartTime(), updatedLogWork.getEndTime()).toMinutes()
-            / 60.0;
-    double oldTimeOfLog =
-        Duration.between(foundLogWork.getStartTime(), foundLogWork.getEndTime()).toMinutes() / 60.0;
-    double newActualTimeOfTask = taskEntity.getActualTime() - oldTimeOfLog + newTimeOfLog;
-    updatedLogWork.setStatus(foundLogWork.getStatus());
-    taskEntity.setActualTime(newActualTimeOfTask);
-    int index = taskEntity.getLogWorkList().indexOf(foundLogWork);
-    taskEntity.getLogWorkList().set(index, updatedLogWork);
-
-    //Save entity to database
-    TaskEntity savedEntity = taskRepository.save(taskEntity);
-    return modelMapper.map(savedEntity.getLogWorkList().get(index), LogWorkModel.class);
+    return OptimisticRetryUtils.retry(UPDATE_LOG_WORK_OPERATION, CONCURRENT_LOG_WORK_UPDATE,
+        () -> {
+          //Find log work and check status
+          LogWorkEntity foundLogWork = logWorkStore.findById(taskId, updateLogWorkModel.getId());
+          if (foundLogWork.getStatus() == EntityStatusEnum.LogWorkStatusEnum.DISABLE.ordinal()) {
+            throw new NoSuchEntityException(DELETED_LOG_WORK);
+          }
+
+          //Set time of log work if it is unchanged since found
+          LogWorkEntity updatedLogWork = new LogWorkEntity(foundLogWork.getId(),
+              updateLogWorkModel.getStartTime(), updateLogWorkModel.getEndTime(),
+              foundLogWork.getStatus());
+          if (!logWorkStore.compareAndSet(taskId, foundLogWork, updatedLogWork)) {
+            return Optional.empty();
+          }
+          return Optional.of(modelMapper.map(updatedLogWork, LogWorkModel.class));
+        });
   }
 
   /**
-   * Find all log works of a task
+   * Find log works of a task in requested page, in the order of the storage mode
    *
    * @param taskId
-   * @return
+   * @param paginationModel
+   * @return resource of log works
    */
-  public List<LogWorkModel> findAllLogWorkOfTask(int taskId) {
-    //Find task by id
-    Optional<TaskEntity> taskOptional = taskRepository.findById(taskId);
-    TaskEntity taskEntity = taskOptional.orElseThrow(
-        () -> new NoSuchEntityException(NOT_FOUND_TASK));
-
-    //Find log work in list
+  public ResourceModel<LogWorkModel> findAllLogWorkOfTask(int taskId,
+      RequestPaginationModel paginationModel) {
+    //Find page of log works
+    Page<LogWorkEntity> page = logWorkStore.findPage(taskId,
+        PageRequest.of(paginationModel.getIndex(), paginationModel.getLimit()));
     List<LogWorkModel> logWorkModels = new ArrayList<>();
-    for (LogWorkEntity entity : taskEntity.getLogWorkList()) {
-      logWorkModels.add(modelMapper.map(entity, LogWorkModel.class));
-    }
-
-    return logWorkModels;
+    page.forEach(entity -> logWorkModels.add(modelMapper.map(entity, LogWorkModel.class)));
+
+    //Prepare resource for return
+    PaginationConverter<LogWorkModel, LogWorkEntity> paginationConverter =
+        new PaginationConverter<>();
+    ResourceModel<LogWorkModel> resourceModel = new ResourceModel<>();
+    paginationConverter.buildPagination(paginationModel, page, resourceModel);
+    resourceModel.setData(logWorkModels);
+    return resourceModel;
   }
 }
@@ -0,0 +1,354 @@
+package com.nli.probation.service;
+
+import static com.nli.probation.constant.ErrorMessageConst.LOG_WORK_QUEUE_FULL;
+
+import com.nli.probation.config.LogWorkWriteBehindProperties;
+import com.nli.probation.customexception.NoSuchEntityException;
+import com.nli.probation.customexception.ServiceBusyException;
+import com.nli.probation.entity.LogWorkEntity;
+import com.nli.probation.repository.LogWorkStore;
+import com.nli.probation.utils.MappedJournal;
+import com.nli.probation.utils.MpscRingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import javax.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-behind of created log works. Request threads queue log works in a bounded ring buffer and
+ * return, one flusher thread writes them every flush interval or as soon as a batch is queued,
+ * as one bulk write grouped by task. When the buffer stays full for the offer timeout, requests
+ * are rejected instead of queued. With the journal, queued log works are also appended and synced
+ * to local files before requests return, and the ones not confirmed as written are replayed after
+ * a restart.
+ */
+@Component
+public class LogWorkWriteBehind {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(LogWorkWriteBehind.class);
+  private static final long OFFER_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  private final LogWorkStore logWorkStore;
+  private final LogWorkWriteBehindProperties logWorkWriteBehindProperties;
+  private final MpscRingBuffer<QueuedLogWork> ringBuffer;
+  private final List<QueuedLogWork> batch = new ArrayList<>();
+  private final Timer flushTimer = Metrics.timer("log_work.write_behind.flush");
+  private final Timer queueLatencyTimer = Metrics.timer("log_work.write_behind.latency");
+  private final DistributionSummary batchSizeSummary = Metrics.summary(
+      "log_work.write_behind.batch.size");
+  private final Counter rejectedCounter = Metrics.counter("log_work.write_behind.rejected");
+  private final Timer journalSyncTimer = Metrics.timer("log_work.journal.sync");
+  private final Counter journalSyncFailedCounter = Metrics.counter(
+      "log_work.journal.sync.failed");
+  private final MappedJournal journal;
+  private List<MappedJournal.Record> journalReplay = List.of();
+  private volatile boolean running;
+  private volatile boolean closed;
+  private volatile Thread flusher;
+
+  @Autowired
+  public LogWorkWriteBehind(LogWorkStore logWorkStore,
+      LogWorkWriteBehindProperties logWorkWriteBehindProperties) {
+    this(logWorkStore, logWorkWriteBehindProperties, createJournal(logWorkWriteBehindProperties));
+  }
+
+  /**
+   * Create write-behind over given journal
+   *
+   * @param logWorkStore
+   * @param logWorkWriteBehindProperties
+   * @param journal journal not opened yet, null without journal
+   */
+  public LogWorkWriteBehind(LogWorkStore logWorkStore,
+      LogWorkWriteBehindProperties logWorkWriteBehindProperties, MappedJournal journal) {
+    this.logWorkStore = logWorkStore;
+    this.logWorkWriteBehindProperties = logWorkWriteBehindProperties;
+    this.ringBuffer = new MpscRingBuffer<>(logWorkWriteBehindProperties.getCapacity());
+    this.journal = journal;
+
+    //Recover journal before the first log work is appended
+    if (journal != null) {
+      journalReplay = journal.open();
+      if (!journalReplay.isEmpty()) {
+        LOGGER.info("Recovered {} journaled log works to replay", journalReplay.size());
+      }
+    }
+    Metrics.gauge("log_work.write_behind.queued", ringBuffer, MpscRingBuffer::size);
+  }
+
+  private static MappedJournal createJournal(
+      LogWorkWriteBehindProperties logWorkWriteBehindProperties) {
+    if (!logWorkWriteBehindProperties.isEnabled()
+        || !logWorkWriteBehindProperties.isJournalEnabled()) {
+      return null;
+    }
+    return new MappedJournal(Path.of(logWorkWriteBehindProperties.getJournalDirectory()),
+        Math.toIntExact(logWorkWriteBehindProperties.getJournalSegmentSize().toBytes()));
+  }
+
+  /**
+   * Start flusher when application is ready
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void start() {
+    if (!isEnabled() || running) {
+      return;
+    }
+    running = true;
+    flusher = new Thread(this::run, "log-work-flusher");
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  public boolean isEnabled() {
+    return logWorkWriteBehindProperties.isEnabled();
+  }
+
+  /**
+   * Queue log work of task, waiting for room up to offer timeout when buffer is full. With the
+   * journal, returns once the log work is synced to disk; a failed sync is only logged and
+   * counted since the queued log work is still written, it may just not survive a crash.
+   *
+   * @param taskId
+   * @param logWorkEntity
+   */
+  public void submit(int taskId, LogWorkEntity logWorkEntity) {
+    if (closed) {
+      rejectedCounter.increment();
+      throw new ServiceBusyException(LOG_WORK_QUEUE_FULL);
+    }
+    long queuedNanos = System.nanoTime();
+    long deadline = queuedNanos + logWorkWriteBehindProperties.getOfferTimeout().toNanos();
+    byte[] journalRecord = journal == null ? null : encode(taskId, logWorkEntity);
+    long sequence;
+    while ((sequence = enqueue(taskId, logWorkEntity, queuedNanos, journalRecord))
+        == MappedJournal.REJECTED) {
+      if (System.nanoTime() - deadline >= 0) {
+        rejectedCounter.increment();
+        throw new ServiceBusyException(LOG_WORK_QUEUE_FULL);
+      }
+      wakeFlusher();
+      LockSupport.parkNanos(OFFER_BACKOFF_NANOS);
+    }
+    if (ringBuffer.size() >= logWorkWriteBehindProperties.getFlushBatchSize()) {
+      wakeFlusher();
+    }
+    if (journal != null) {
+      long syncedSequence = sequence;
+      try {
+        journalSyncTimer.record(() -> journal.sync(syncedSequence));
+      } catch (Exception e) {
+        //Forcing a mapped buffer may throw an undeclared IOException
+        journalSyncFailedCounter.increment();
+        LOGGER.warn("Can not sync journaled log work {} of task {}, it is queued but not durable",
+            logWorkEntity.getId(), taskId, e);
+      }
+    }
+  }
+
+  /**
+   * Write queued log works in batches until the buffer is empty. A failed batch is kept and
+   * written first by the next flush.
+   *
+   * @return number of written log works
+   */
+  public synchronized int flush() {
+    replayJournal();
+    int flushed = 0;
+    while (true) {
+      if (batch.isEmpty()) {
+        ringBuffer.drain(batch::add, logWorkWriteBehindProperties.getFlushBatchSize());
+      }
+      if (batch.isEmpty()) {
+        return flushed;
+      }
+
+      //Group log works by task, keeping order of queue
+      Map<Integer, List<LogWorkEntity>> logWorksByTask = new LinkedHashMap<>();
+      for (QueuedLogWork queuedLogWork : batch) {
+        logWorksByTask.computeIfAbsent(queuedLogWork.taskId, taskId -> new ArrayList<>())
+            .add(queuedLogWork.logWorkEntity);
+      }
+      long startNanos = System.nanoTime();
+      logWorkStore.insertAll(logWorksByTask);
+      if (journal != null) {
+        //Queue keeps order of journal, so every log work up to the last one is written
+        journal.confirm(batch.get(batch.size() - 1).sequence);
+      }
+      long endNanos = System.nanoTime();
+
+      flushTimer.record(endNanos - startNanos, TimeUnit.NANOSECONDS);
+      batchSizeSummary.record(batch.size());
+      batch.forEach(queuedLogWork -> queueLatencyTimer.record(
+          endNanos - queuedLogWork.queuedNanos, TimeUnit.NANOSECONDS));
+      flushed += batch.size();
+      batch.clear();
+    }
+  }
+
+  /**
+   * Stop flusher and write log works still queued
+   */
+  @PreDestroy
+  public void stop() {
+    Thread stoppedFlusher = flusher;
+    closed = true;
+    running = false;
+    if (stoppedFlusher != null) {
+      LockSupport.unpark(stoppedFlusher);
+      try {
+        stoppedFlusher.join(logWorkWriteBehindProperties.getShutdownTimeout().toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    try {
+      int flushed = flush();
+      if (flushed > 0) {
+        LOGGER.info("Flushed {} queued log works on shutdown", flushed);
+      }
+    } catch (RuntimeException e) {
+      LOGGER.error("Can not flush {} queued log works on shutdown",
+          batch.size() + ringBuffer.size(), e);
+    }
+  }
+
+  private void run() {
+    long flushIntervalNanos = logWorkWriteBehindProperties.getFlushInterval().toNanos();
+    while (running) {
+      if (ringBuffer.size() < logWorkWriteBehindProperties.getFlushBatchSize()) {
+        LockSupport.parkNanos(this, flushIntervalNanos);
+      }
+      try {
+        flush();
+      } catch (RuntimeException e) {
+        LOGGER.error("Can not flush queued log works, retrying", e);
+        LockSupport.parkNanos(this, flushIntervalNanos);
+      }
+    }
+  }
+
+  /**
+   * Write journaled log works recovered on start which are not stored yet. Hours of stored ones
+   * which a crash left pending in their bucket are added by the reconciliation job.
+   */
+  private void replayJournal() {
+    if (journalReplay.isEmpty()) {
+      return;
+    }
+    Map<Integer, List<LogWorkEntity>> logWorksByTask = new LinkedHashMap<>();
+    for (MappedJournal.Record record : journalReplay) {
+      QueuedLogWork queuedLogWork = decode(record);
+      if (!isStored(queuedLogWork)) {
+        logWorksByTask.computeIfAbsent(queuedLogWork.taskId, taskId -> new ArrayList<>())
+            .add(queuedLogWork.logWorkEntity);
+      }
+    }
+    if (!logWorksByTask.isEmpty()) {
+      logWorkStore.insertAll(logWorksByTask);
+    }
+    journal.confirm(journalReplay.get(journalReplay.size() - 1).getSequence());
+    LOGGER.info("Replayed {} of {} journaled log works",
+        logWorksByTask.values().stream().mapToInt(List::size).sum(), journalReplay.size());
+    journalReplay = List.of();
+  }
+
+  private boolean isStored(QueuedLogWork queuedLogWork) {
+    try {
+      logWorkStore.findById(queuedLogWork.taskId, queuedLogWork.logWorkEntity.getId());
+      return true;
+    } catch (NoSuchEntityException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Offer log work to buffer, appending it to journal in the same order
+   *
+   * @param taskId
+   * @param logWorkEntity
+   * @param queuedNanos
+   * @param journalRecord
+   * @return sequence in journal, zero without journal, rejected when buffer is full
+   */
+  private long enqueue(int taskId, LogWorkEntity logWorkEntity, long queuedNanos,
+      byte[] journalRecord) {
+    if (journal == null) {
+      return ringBuffer.offer(new QueuedLogWork(taskId, logWorkEntity, queuedNanos, 0))
+          ? 0 : MappedJournal.REJECTED;
+    }
+    return journal.append(journalRecord, sequence -> ringBuffer.offer(
+        new QueuedLogWork(taskId, logWorkEntity, queuedNanos, sequence)));
+  }
+
+  private static byte[] encode(int taskId, LogWorkEntity logWorkEntity) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream output = new DataOutputStream(bytes)) {
+      output.writeInt(taskId);
+      output.writeUTF(logWorkEntity.getId());
+      output.writeLong(logWorkEntity.getStartTime().toEpochSecond(ZoneOffset.UTC));
+      output.writeInt(logWorkEntity.getStartTime().getNano());
+      output.writeLong(logWorkEntity.getEndTime().toEpochSecond(ZoneOffset.UTC));
+      output.writeInt(logWorkEntity.getEndTime().getNano());
+      output.writeInt(logWorkEntity.getStatus());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static QueuedLogWork decode(MappedJournal.Record record) {
+    try (DataInputStream input = new DataInputStream(
+        new ByteArrayInputStream(record.getPayload()))) {
+      int taskId = input.readInt();
+      String id = input.readUTF();
+      LocalDateTime startTime = LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(),
+          ZoneOffset.UTC);
+      LocalDateTime endTime = LocalDateTime.ofEpochSecond(input.readLong(), input.readInt(),
+          ZoneOffset.UTC);
+      LogWorkEntity logWorkEntity = new LogWorkEntity(id, startTime, endTime, input.readInt());
+      return new QueuedLogWork(taskId, logWorkEntity, System.nanoTime(), record.getSequence());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void wakeFlusher() {
+    Thread currentFlusher = flusher;
+    if (currentFlusher != null) {
+      LockSupport.unpark(currentFlusher);
+    }
+  }
+
+  @AllArgsConstructor
+  private static class QueuedLogWork {
+
+    private final int taskId;
+    private final LogWorkEntity logWorkEntity;
+    private final long queuedNanos;
+    private final long sequence;
+  }
+}
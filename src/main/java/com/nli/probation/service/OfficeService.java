@@ -5,26 +5,36 @@ import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_OFFICE;
 import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_OFFICE_ID;
 import static com.nli.probation.constant.ErrorMessageConst.OFFICE_NAME_DUPLICATE;
 
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.cache.ReferenceDataCache;
 import com.nli.probation.constant.EntityStatusEnum;
+import com.nli.probation.constant.SearchModeEnum;
 import com.nli.probation.converter.PaginationConverter;
+import com.nli.probation.converter.ProjectionConverter;
 import com.nli.probation.customexception.DuplicatedEntityException;
 import com.nli.probation.customexception.NoSuchEntityException;
 import com.nli.probation.entity.OfficeEntity;
 import com.nli.probation.metamodel.OfficeEntity_;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
 import com.nli.probation.model.office.CreateOfficeModel;
 import com.nli.probation.model.office.OfficeModel;
 import com.nli.probation.model.office.UpdateOfficeModel;
 import com.nli.probation.repository.OfficeRepository;
+import com.nli.probation.utils.SearchTextUtils;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import org.modelmapper.ModelMapper;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -33,13 +43,22 @@ public class OfficeService {
   private final OfficeRepository officeRepository;
   private final ModelMapper modelMapper;
   private final SequenceGeneratorService sequenceGeneratorService;
+  private final ReferenceDataCache referenceDataCache;
+  private final MongoTemplate mongoTemplate;
+  private final CountCache countCache;
 
   public OfficeService(OfficeRepository officeRepository,
       ModelMapper modelMapper,
-      SequenceGeneratorService sequenceGeneratorService) {
+      SequenceGeneratorService sequenceGeneratorService,
+      ReferenceDataCache referenceDataCache,
+      MongoTemplate mongoTemplate,
+      CountCache countCache) {
     this.officeRepository = officeRepository;
     this.modelMapper = modelMapper;
     this.sequenceGeneratorService = sequenceGeneratorService;
+    this.referenceDataCache = referenceDataCache;
+    this.mongoTemplate = mongoTemplate;
+    this.countCache = countCache;
   }
 
   /**
@@ -58,9 +77,11 @@ public class OfficeService {
     OfficeEntity officeEntity = modelMapper.map(createOfficeModel, OfficeEntity.class);
     officeEntity.setId(sequenceGeneratorService.generateSequence(OfficeEntity.SEQUENCE_NAME));
     officeEntity.setStatus(EntityStatusEnum.OfficeStatusEnum.ACTIVE.ordinal());
+    fillSearchFields(officeEntity);
 
     //Save entity to DB
     OfficeEntity savedEntity = officeRepository.save(officeEntity);
+    referenceDataCache.putOffice(savedEntity);
     return modelMapper.map(savedEntity, OfficeModel.class);
 
   }
@@ -69,11 +90,13 @@ public class OfficeService {
    * Find office by id
    *
    * @param id
+   * @param fieldsModel
    * @return found office
    */
-  public OfficeModel findOfficeById(int id) {
+  public OfficeModel findOfficeById(int id, RequestFieldsModel fieldsModel) {
     //Find office by id
-    Optional<OfficeEntity> searchedOfficeOptional = officeRepository.findById(id);
+    Optional<OfficeEntity> searchedOfficeOptional = ProjectionConverter.findById(mongoTemplate,
+        officeRepository, id, fieldsModel, OfficeEntity.class);
     OfficeEntity officeEntity = searchedOfficeOptional.orElseThrow(
         () -> new NoSuchEntityException(NOT_FOUND_OFFICE));
     return modelMapper.map(officeEntity, OfficeModel.class);
@@ -99,6 +122,7 @@ public class OfficeService {
 
     //Save entity to DB
     OfficeEntity responseEntity = officeRepository.save(deletedOfficeEntity);
+    referenceDataCache.putOffice(responseEntity);
     return modelMapper.map(responseEntity, OfficeModel.class);
   }
 
@@ -121,11 +145,40 @@ public class OfficeService {
     }
 
     //Save entity to database
-    OfficeEntity savedEntity = officeRepository.save(
-        modelMapper.map(updateOfficeModel, OfficeEntity.class));
+    OfficeEntity officeEntity = modelMapper.map(updateOfficeModel, OfficeEntity.class);
+    fillSearchFields(officeEntity);
+    OfficeEntity savedEntity = officeRepository.save(officeEntity);
+    referenceDataCache.putOffice(savedEntity);
     return modelMapper.map(savedEntity, OfficeModel.class);
   }
 
+  /**
+   * Fill lowercase search fields from name and location
+   *
+   * @param officeEntity
+   */
+  private void fillSearchFields(OfficeEntity officeEntity) {
+    officeEntity.setSearchName(SearchTextUtils.normalize(officeEntity.getName()));
+    officeEntity.setSearchLocation(SearchTextUtils.normalize(officeEntity.getLocation()));
+  }
+
+  /**
+   * Fill search fields of offices saved before they existed
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfillSearchFields() {
+    List<OfficeEntity> officeEntities = new ArrayList<>();
+    for (OfficeEntity officeEntity : officeRepository.findAll()) {
+      if (officeEntity.getSearchName() == null && officeEntity.getName() != null) {
+        fillSearchFields(officeEntity);
+        officeEntities.add(officeEntity);
+      }
+    }
+    for (OfficeEntity savedEntity : officeRepository.saveAll(officeEntities)) {
+      referenceDataCache.putOffice(savedEntity);
+    }
+  }
+
   /**
    * Specification for search like name or location
    *
@@ -153,35 +206,53 @@ public class OfficeService {
    * Search office like name or location
    *
    * @param searchValue
+   * @param searchMode
    * @param paginationModel
+   * @param fieldsModel
    * @return resource of data
    */
   public ResourceModel<OfficeModel> searchOffices(String searchValue,
-      RequestPaginationModel paginationModel) {
+      SearchModeEnum searchMode, RequestPaginationModel paginationModel,
+      RequestFieldsModel fieldsModel) {
     PaginationConverter<OfficeModel, OfficeEntity> paginationConverter = new PaginationConverter<>();
+    ResourceModel<OfficeModel> resourceModel = new ResourceModel<>();
 
-    //Build pageable
+    //Find offices of requested page
     String defaultSortBy = OfficeEntity_.ID;
-    Pageable pageable = paginationConverter.convertToPageable(paginationModel, defaultSortBy,
-        OfficeEntity.class);
-
-    //Find all offices
-    Page<OfficeEntity> officeEntityPage = officeRepository
-        .findAll(searchNameOrLocation(searchValue), pageable);
+    List<OfficeEntity> officeEntities = paginationConverter.findPage(mongoTemplate, countCache,
+        ProjectionConverter.project(new Query(searchCriteria(searchValue, searchMode)),
+            fieldsModel), paginationModel, defaultSortBy,
+        OfficeEntity.class, resourceModel);
 
     //Convert list of offices entity to list of offices model
     List<OfficeModel> officeModels = new ArrayList<>();
-    for (OfficeEntity entity : officeEntityPage) {
+    for (OfficeEntity entity : officeEntities) {
       officeModels.add(modelMapper.map(entity, OfficeModel.class));
     }
 
     //Prepare resource for return
-    ResourceModel<OfficeModel> resourceModel = new ResourceModel<>();
     resourceModel.setData(officeModels);
     resourceModel.setSearchText(searchValue);
     resourceModel.setSortBy(defaultSortBy);
     resourceModel.setSortType(paginationModel.getSortType());
-    paginationConverter.buildPagination(paginationModel, officeEntityPage, resourceModel);
     return resourceModel;
   }
+
+  /**
+   * Criteria of search mode, prefix of lowercase search fields or like name or location
+   *
+   * @param searchValue
+   * @param searchMode
+   * @return criteria
+   */
+  private Criteria searchCriteria(String searchValue, SearchModeEnum searchMode) {
+    if (searchMode == SearchModeEnum.PREFIX) {
+      String prefixPattern = "^" + Pattern.quote(SearchTextUtils.normalize(searchValue));
+      return new Criteria().orOperator(
+          Criteria.where(OfficeEntity_.SEARCH_NAME).regex(prefixPattern),
+          Criteria.where(OfficeEntity_.SEARCH_LOCATION).regex(prefixPattern));
+    }
+    return new Criteria().alike(searchNameOrLocation(searchValue));
+  }
+
 }
@@ -6,26 +6,36 @@ import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_ROLE_ID;
 import static com.nli.probation.constant.ErrorMessageConst.ROLE_NAME_DUPLICATE;
 import static com.nli.probation.constant.ErrorMessageConst.ROLE_SHORT_NAME_DUPLICATE;
 
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.cache.ReferenceDataCache;
 import com.nli.probation.constant.EntityStatusEnum;
+import com.nli.probation.constant.SearchModeEnum;
 import com.nli.probation.converter.PaginationConverter;
+import com.nli.probation.converter.ProjectionConverter;
 import com.nli.probation.customexception.DuplicatedEntityException;
 import com.nli.probation.customexception.NoSuchEntityException;
 import com.nli.probation.entity.RoleEntity;
 import com.nli.probation.metamodel.RoleEntity_;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
 import com.nli.probation.model.role.CreateRoleModel;
 import com.nli.probation.model.role.RoleModel;
 import com.nli.probation.model.role.UpdateRoleModel;
 import com.nli.probation.repository.RoleRepository;
+import com.nli.probation.utils.SearchTextUtils;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import org.modelmapper.ModelMapper;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -34,13 +44,22 @@ public class RoleService {
   private final RoleRepository roleRepository;
   private final ModelMapper modelMapper;
   private final SequenceGeneratorService sequenceGeneratorService;
+  private final ReferenceDataCache referenceDataCache;
+  private final MongoTemplate mongoTemplate;
+  private final CountCache countCache;
 
   public RoleService(RoleRepository roleRepository,
       ModelMapper modelMapper,
-      SequenceGeneratorService sequenceGeneratorService) {
+      SequenceGeneratorService sequenceGeneratorService,
+      ReferenceDataCache referenceDataCache,
+      MongoTemplate mongoTemplate,
+      CountCache countCache) {
     this.roleRepository = roleRepository;
     this.modelMapper = modelMapper;
     this.sequenceGeneratorService = sequenceGeneratorService;
+    this.referenceDataCache = referenceDataCache;
+    this.mongoTemplate = mongoTemplate;
+    this.countCache = countCache;
   }
 
   /**
@@ -64,9 +83,11 @@ public class RoleService {
     RoleEntity roleEntity = modelMapper.map(createRoleModel, RoleEntity.class);
     roleEntity.setId(sequenceGeneratorService.generateSequence(RoleEntity.SEQUENCE_NAME));
     roleEntity.setStatus(EntityStatusEnum.RoleStatusEnum.ACTIVE.ordinal());
+    fillSearchFields(roleEntity);
 
     //Save entity to DB
     RoleEntity savedEntity = roleRepository.save(roleEntity);
+    referenceDataCache.putRole(savedEntity);
     return modelMapper.map(savedEntity, RoleModel.class);
   }
 
@@ -74,11 +95,13 @@ public class RoleService {
    * Find rolw by id
    *
    * @param id
+   * @param fieldsModel
    * @return found role
    */
-  public RoleModel findRoleById(int id) {
+  public RoleModel findRoleById(int id, RequestFieldsModel fieldsModel) {
     //Find role by id
-    Optional<RoleEntity> searchedRoleOptional = roleRepository.findById(id);
+    Optional<RoleEntity> searchedRoleOptional = ProjectionConverter.findById(mongoTemplate,
+        roleRepository, id, fieldsModel, RoleEntity.class);
     RoleEntity roleEntity = searchedRoleOptional.orElseThrow(
         () -> new NoSuchEntityException(NOT_FOUND_ROLE));
     return modelMapper.map(roleEntity, RoleModel.class);
@@ -104,6 +127,7 @@ public class RoleService {
 
     //Save entity to DB
     RoleEntity responseEntity = roleRepository.save(deletedRoleEntity);
+    referenceDataCache.putRole(responseEntity);
     return modelMapper.map(responseEntity, RoleModel.class);
   }
 
@@ -130,11 +154,40 @@ public class RoleService {
     }
 
     //Save entity to database
-    RoleEntity savedEntity = roleRepository.save(
-        modelMapper.map(updateRoleModel, RoleEntity.class));
+    RoleEntity roleEntity = modelMapper.map(updateRoleModel, RoleEntity.class);
+    fillSearchFields(roleEntity);
+    RoleEntity savedEntity = roleRepository.save(roleEntity);
+    referenceDataCache.putRole(savedEntity);
     return modelMapper.map(savedEntity, RoleModel.class);
   }
 
+  /**
+   * Fill lowercase search fields from name and short name
+   *
+   * @param roleEntity
+   */
+  private void fillSearchFields(RoleEntity roleEntity) {
+    roleEntity.setSearchName(SearchTextUtils.normalize(roleEntity.getName()));
+    roleEntity.setSearchShortName(SearchTextUtils.normalize(roleEntity.getShortName()));
+  }
+
+  /**
+   * Fill search fields of roles saved before they existed
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfillSearchFields() {
+    List<RoleEntity> roleEntities = new ArrayList<>();
+    for (RoleEntity roleEntity : roleRepository.findAll()) {
+      if (roleEntity.getSearchName() == null && roleEntity.getName() != null) {
+        fillSearchFields(roleEntity);
+        roleEntities.add(roleEntity);
+      }
+    }
+    for (RoleEntity savedEntity : roleRepository.saveAll(roleEntities)) {
+      referenceDataCache.putRole(savedEntity);
+    }
+  }
+
   /**
    * Specification for search like name or short name
    *
@@ -162,35 +215,53 @@ public class RoleService {
    * Search role like name or short name
    *
    * @param searchValue
+   * @param searchMode
    * @param paginationModel
+   * @param fieldsModel
    * @return resource of data
    */
   public ResourceModel<RoleModel> searchRoles(String searchValue,
-      RequestPaginationModel paginationModel) {
+      SearchModeEnum searchMode, RequestPaginationModel paginationModel,
+      RequestFieldsModel fieldsModel) {
     PaginationConverter<RoleModel, RoleEntity> paginationConverter = new PaginationConverter<>();
+    ResourceModel<RoleModel> resourceModel = new ResourceModel<>();
 
-    //Build pageable
+    //Find roles of requested page
     String defaultSortBy = RoleEntity_.ID;
-    Pageable pageable = paginationConverter.convertToPageable(paginationModel, defaultSortBy,
-        RoleEntity.class);
-
-    //Find all roles
-    Page<RoleEntity> roleEntityPage = roleRepository.findAll(searchNameOrShortName(searchValue),
-        pageable);
+    List<RoleEntity> roleEntities = paginationConverter.findPage(mongoTemplate, countCache,
+        ProjectionConverter.project(new Query(searchCriteria(searchValue, searchMode)),
+            fieldsModel), paginationModel, defaultSortBy,
+        RoleEntity.class, resourceModel);
 
     //Convert list of roles entity to list of role model
     List<RoleModel> roleModels = new ArrayList<>();
-    for (RoleEntity entity : roleEntityPage) {
+    for (RoleEntity entity : roleEntities) {
       roleModels.add(modelMapper.map(entity, RoleModel.class));
     }
 
     //Prepare resource for return
-    ResourceModel<RoleModel> resourceModel = new ResourceModel<>();
     resourceModel.setData(roleModels);
     resourceModel.setSearchText(searchValue);
     resourceModel.setSortBy(defaultSortBy);
     resourceModel.setSortType(paginationModel.getSortType());
-    paginationConverter.buildPagination(paginationModel, roleEntityPage, resourceModel);
     return resourceModel;
   }
+
+  /**
+   * Criteria of search mode, prefix of lowercase search fields or like name or short name
+   *
+   * @param searchValue
+   * @param searchMode
+   * @return criteria
+   */
+  private Criteria searchCriteria(String searchValue, SearchModeEnum searchMode) {
+    if (searchMode == SearchModeEnum.PREFIX) {
+      String prefixPattern = "^" + Pattern.quote(SearchTextUtils.normalize(searchValue));
+      return new Criteria().orOperator(
+          Criteria.where(RoleEntity_.SEARCH_NAME).regex(prefixPattern),
+          Criteria.where(RoleEntity_.SEARCH_SHORT_NAME).regex(prefixPattern));
+    }
+    return new Criteria().alike(searchNameOrShortName(searchValue));
+  }
+
 }
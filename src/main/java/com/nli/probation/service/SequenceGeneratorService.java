@@ -2,8 +2,19 @@ package com.nli.probation.service;
 
 import static org.springframework.data.mongodb.core.FindAndModifyOptions.options;
 
+import com.nli.probation.config.SequenceProperties;
 import com.nli.probation.entity.DBSequencesEntity;
+import com.nli.probation.model.SequenceRangeModel;
+import io.micrometer.core.instrument.Metrics;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.mongodb.core.MongoOperations;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -13,10 +24,21 @@ import org.springframework.stereotype.Service;
 @Service
 public class SequenceGeneratorService {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(SequenceGeneratorService.class);
+
   private final MongoOperations mongoOperations;
+  private final SequenceProperties sequenceProperties;
+  private final ConcurrentMap<String, SequenceLease> leases = new ConcurrentHashMap<>();
 
   public SequenceGeneratorService(MongoOperations mongoOperations) {
+    this(mongoOperations, new SequenceProperties());
+  }
+
+  @Autowired
+  public SequenceGeneratorService(MongoOperations mongoOperations,
+      SequenceProperties sequenceProperties) {
     this.mongoOperations = mongoOperations;
+    this.sequenceProperties = sequenceProperties;
   }
 
   /**
@@ -26,14 +48,166 @@ public class SequenceGeneratorService {
    * @return sequence number
    */
   public int generateSequence(String seqName) {
+    if (!sequenceProperties.isLeaseEnabled()) {
+      return incrementSequence(seqName, 1);
+    }
+    return leases.computeIfAbsent(seqName, SequenceLease::new).next();
+  }
+
+  /**
+   * Reserve a contiguous range of sequence numbers with one round trip
+   *
+   * @param seqName
+   * @param count
+   * @return reserved range
+   */
+  public SequenceRangeModel generateSequences(String seqName, int count) {
+    if (count <= 0) {
+      throw new IllegalArgumentException("Number of sequences must be positive");
+    }
+    int last = incrementSequence(seqName, count);
+    return new SequenceRangeModel(last - count + 1, last);
+  }
+
+  /**
+   * Record ids of leased blocks which will never be handed out
+   */
+  @PreDestroy
+  public void releaseLeases() {
+    for (Map.Entry<String, SequenceLease> entry : leases.entrySet()) {
+      long remaining = entry.getValue().remaining();
+      if (remaining > 0) {
+        Metrics.counter("sequence.lease.wasted", "sequence", entry.getKey())
+            .increment(remaining);
+        LOGGER.info("Sequence {} wasted {} leased ids on shutdown", entry.getKey(), remaining);
+      }
+    }
+    leases.clear();
+  }
+
+  /**
+   * Increase the counter of a sequence
+   *
+   * @param seqName
+   * @param step
+   * @return last sequence number reserved by this increment
+   */
+  private int incrementSequence(String seqName, int step) {
     //Get sequence number
     Query query = new Query(Criteria.where("id").is(seqName));
     //Update the sequence number
-    Update update = new Update().inc("seq", 1);
+    Update update = new Update().inc("seq", step);
     //Modify in document
     DBSequencesEntity counter = mongoOperations.findAndModify(query,
         update, options().returnNew(true).upsert(true),
         DBSequencesEntity.class);
-    return !Objects.isNull(counter) ? counter.getSeq() : 1;
+    return !Objects.isNull(counter) ? counter.getSeq() : step;
+  }
+
+  /**
+   * Ids of one sequence name leased by this node
+   */
+  private final class SequenceLease {
+
+    private final String seqName;
+    private volatile LeasedBlock block = new LeasedBlock(1, 0);
+    private int blockSize;
+    private long leasedAt;
+
+    private SequenceLease(String seqName) {
+      this.seqName = seqName;
+    }
+
+    /**
+     * Take next id, leasing a new block when the current one is used up
+     *
+     * @return sequence number
+     */
+    private int next() {
+      while (true) {
+        LeasedBlock current = block;
+        long id = current.take();
+        if (id > 0) {
+          return (int) id;
+        }
+        lease(current);
+      }
+    }
+
+    /**
+     * Lease a new block unless another thread already replaced the exhausted one
+     *
+     * @param exhausted
+     */
+    private synchronized void lease(LeasedBlock exhausted) {
+      if (block != exhausted) {
+        return;
+      }
+      long now = System.nanoTime();
+      blockSize = nextBlockSize(now);
+      int last = incrementSequence(seqName, blockSize);
+      block = new LeasedBlock(last - blockSize + 1L, last);
+      leasedAt = now;
+      Metrics.counter("sequence.lease.taken", "sequence", seqName).increment();
+      Metrics.summary("sequence.lease.block.size", "sequence", seqName).record(blockSize);
+    }
+
+    /**
+     * Grow the block when it lasted less than half the target interval, shrink it when it lasted
+     * more than twice the target interval
+     *
+     * @param now
+     * @return size of next block
+     */
+    private int nextBlockSize(long now) {
+      if (leasedAt == 0) {
+        return clampBlockSize(sequenceProperties.getInitialBlockSize());
+      }
+      long elapsed = now - leasedAt;
+      long target = sequenceProperties.getTargetLeaseInterval().toNanos();
+      if (elapsed < target / 2) {
+        return clampBlockSize(blockSize * 2L);
+      }
+      if (elapsed > target * 2) {
+        return clampBlockSize(blockSize / 2L);
+      }
+      return clampBlockSize(blockSize);
+    }
+
+    private int clampBlockSize(long size) {
+      long min = Math.max(1, sequenceProperties.getMinBlockSize());
+      long max = Math.max(min, sequenceProperties.getMaxBlockSize());
+      return (int) Math.min(max, Math.max(min, size));
+    }
+
+    private long remaining() {
+      return block.remaining();
+    }
+  }
+
+  /**
+   * Range of reserved ids, handed out without locking
+   */
+  private static final class LeasedBlock {
+
+    private final AtomicLong next;
+    private final long last;
+
+    private LeasedBlock(long first, long last) {
+      this.next = new AtomicLong(first);
+      this.last = last;
+    }
+
+    /**
+     * @return next id of the block or -1 when the block is used up
+     */
+    private long take() {
+      long id = next.getAndIncrement();
+      return id <= last ? id : -1;
+    }
+
+    private long remaining() {
+      return Math.max(0, last - next.get() + 1);
+    }
   }
 }
@@ -1,55 +1,77 @@
 package com.nli.probation.service;
 
+import static com.nli.probation.constant.ErrorMessageConst.CONCURRENT_TASK_UPDATE;
 import static com.nli.probation.constant.ErrorMessageConst.DELETED_TASK;
 import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_ACCOUNT;
 import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_TASK;
 import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_TASK_ID;
 
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.cache.UserAccountCache;
 import com.nli.probation.constant.EntityStatusEnum;
+import com.nli.probation.constant.SearchModeEnum;
 import com.nli.probation.converter.PaginationConverter;
+import com.nli.probation.converter.ProjectionConverter;
 import com.nli.probation.customexception.NoSuchEntityException;
 import com.nli.probation.entity.TaskEntity;
 import com.nli.probation.entity.UserAccountEntity;
 import com.nli.probation.metamodel.TaskEntity_;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
+import com.nli.probation.model.SequenceRangeModel;
 import com.nli.probation.model.task.CreateTaskModel;
 import com.nli.probation.model.task.TaskModel;
 import com.nli.probation.model.task.UpdateTaskModel;
 import com.nli.probation.model.useraccount.UserAccountModel;
 import com.nli.probation.repository.TaskRepository;
-import com.nli.probation.repository.UserAccountRepository;
+import com.nli.probation.utils.IntObjectHashMap;
+import com.nli.probation.utils.OptimisticRetryUtils;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 @Service
 public class TaskService {
 
+  private static final int BULK_INSERT_BATCH_SIZE = 1000;
+  private static final String UPDATE_TASK_OPERATION = "update_task";
+  private static final String DELETE_TASK_OPERATION = "delete_task";
+  private static final String ASSIGN_TASK_OPERATION = "assign_task";
+  //Embedded log works and ids of hours applied from buckets are never part of a read task
+  private static final String[] DEFAULT_EXCLUDED_FIELDS = {TaskEntity_.LOG_WORKS_LIST,
+      TaskEntity_.APPLIED_HOURS_IDS};
+
   private final TaskRepository taskRepository;
-  private final UserAccountRepository userAccountRepository;
+  private final UserAccountCache userAccountCache;
   private final ModelMapper modelMapper;
   private final SequenceGeneratorService sequenceGeneratorService;
   private final MongoTemplate mongoTemplate;
+  private final CountCache countCache;
 
   public TaskService(TaskRepository taskRepository,
-      UserAccountRepository userAccountRepository,
+      UserAccountCache userAccountCache,
       ModelMapper modelMapper,
       SequenceGeneratorService sequenceGeneratorService,
-      MongoTemplate mongoTemplate) {
+      MongoTemplate mongoTemplate,
+      CountCache countCache) {
     this.taskRepository = taskRepository;
-    this.userAccountRepository = userAccountRepository;
+    this.userAccountCache = userAccountCache;
     this.modelMapper = modelMapper;
     this.sequenceGeneratorService = sequenceGeneratorService;
     this.mongoTemplate = mongoTemplate;
+    this.countCache = countCache;
   }
 
   /**
@@ -61,7 +83,7 @@ public class TaskService {
   public TaskModel createTask(CreateTaskModel createTaskModel) {
 
     //Check assignee
-    Optional<UserAccountEntity> existAccountOptional = userAccountRepository.findById(
+    Optional<UserAccountEntity> existAccountOptional = userAccountCache.findById(
         createTaskModel.getAssigneeId());
 
     //Prepare saved entity
@@ -84,20 +106,65 @@ public class TaskService {
   }
 
   /**
-   * Find task by id
+   * Create list of tasks with one sequence round trip and unordered batch inserts
+   *
+   * @param createTaskModels
+   * @return saved tasks
+   */
+  public List<TaskModel> createTasks(List<CreateTaskModel> createTaskModels) {
+    if (createTaskModels.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    //Check assignees
+    IntObjectHashMap<UserAccountEntity> assigneeMap = userAccountCache.findAllById(
+        createTaskModels.stream().mapToInt(CreateTaskModel::getAssigneeId));
+
+    //Prepare saved entities
+    SequenceRangeModel idRange = sequenceGeneratorService.generateSequences(
+        TaskEntity.SEQUENCE_NAME, createTaskModels.size());
+    List<TaskEntity> taskEntities = new ArrayList<>();
+    for (int i = 0; i < createTaskModels.size(); i++) {
+      CreateTaskModel createTaskModel = createTaskModels.get(i);
+      TaskEntity taskEntity = modelMapper.map(createTaskModel, TaskEntity.class);
+      taskEntity.setId(idRange.get(i));
+      taskEntity.setStatus(EntityStatusEnum.TaskStatusEnum.ACTIVE.ordinal());
+      taskEntity.setLogWorkList(new ArrayList<>());
+      taskEntity.setUserAccountId(
+          assigneeMap.containsKey(createTaskModel.getAssigneeId()) ? createTaskModel
+              .getAssigneeId() : 0);
+      taskEntity.setActualTime(0);
+      taskEntity.setVersion(0L);
+      taskEntities.add(taskEntity);
+    }
+
+    //Save entities to DB
+    for (int from = 0; from < taskEntities.size(); from += BULK_INSERT_BATCH_SIZE) {
+      List<TaskEntity> batch = taskEntities.subList(from,
+          Math.min(from + BULK_INSERT_BATCH_SIZE, taskEntities.size()));
+      mongoTemplate.bulkOps(BulkMode.UNORDERED, TaskEntity.class).insert(batch).execute();
+    }
+
+    return convertToTaskModels(taskEntities, assigneeMap);
+  }
+
+  /**
+   * Find task by id, log works are only read when requested in fields
    *
    * @param id
+   * @param fieldsModel
    * @return found task
    */
-  public TaskModel findTaskById(int id) {
+  public TaskModel findTaskById(int id, RequestFieldsModel fieldsModel) {
     //Find task by id
-    Optional<TaskEntity> searchedTaskOptional = taskRepository.findById(id);
+    Optional<TaskEntity> searchedTaskOptional = ProjectionConverter.findById(mongoTemplate,
+        taskRepository, id, fieldsModel, TaskEntity.class, DEFAULT_EXCLUDED_FIELDS);
     TaskEntity taskEntity = searchedTaskOptional.orElseThrow(
         () -> new NoSuchEntityException(NOT_FOUND_TASK));
     TaskModel taskModel = modelMapper.map(taskEntity, TaskModel.class);
 
     //Check assignee id
-    Optional<UserAccountEntity> accountOptional = userAccountRepository.findById(
+    Optional<UserAccountEntity> accountOptional = userAccountCache.findById(
         taskEntity.getUserAccountId());
     accountOptional.ifPresent(accountEntity -> taskModel.setAssignee(
         modelMapper.map(accountEntity, UserAccountModel.class)));
@@ -112,23 +179,26 @@ public class TaskService {
    * @return deleted model
    */
   public TaskModel deleteTaskById(int id) {
-    //Find task by id
-    Optional<TaskEntity> deletedTaskOptional = taskRepository.findById(id);
-    TaskEntity deletedTaskEntity = deletedTaskOptional.orElseThrow(
-        () -> new NoSuchEntityException(NOT_FOUND_TASK_ID));
-      if (deletedTaskEntity.getStatus() == EntityStatusEnum.TaskStatusEnum.DISABLE.ordinal()) {
-          throw new NoSuchEntityException(DELETED_TASK);
-      }
-
-    //Set status for entity
-    deletedTaskEntity.setStatus(EntityStatusEnum.TaskStatusEnum.DISABLE.ordinal());
-
-    //Save entity to DB
-    TaskEntity responseEntity = taskRepository.save(deletedTaskEntity);
+    TaskEntity responseEntity = OptimisticRetryUtils.retry(DELETE_TASK_OPERATION,
+        CONCURRENT_TASK_UPDATE, () -> {
+          //Find task by id
+          Optional<TaskEntity> deletedTaskOptional = findCurrentTask(id);
+          TaskEntity deletedTaskEntity = deletedTaskOptional.orElseThrow(
+              () -> new NoSuchEntityException(NOT_FOUND_TASK_ID));
+          if (deletedTaskEntity.getStatus() == EntityStatusEnum.TaskStatusEnum.DISABLE.ordinal()) {
+            throw new NoSuchEntityException(DELETED_TASK);
+          }
+
+          //Set status for entity
+          deletedTaskEntity.setStatus(EntityStatusEnum.TaskStatusEnum.DISABLE.ordinal());
+
+          //Save entity to DB if unchanged since found
+          return Optional.of(taskRepository.save(deletedTaskEntity));
+        });
     TaskModel taskModel = modelMapper.map(responseEntity, TaskModel.class);
-    if (deletedTaskEntity.getUserAccountId() > 0) {
-      Optional<UserAccountEntity> accountOptional = userAccountRepository.findById(
-          deletedTaskEntity.getUserAccountId());
+    if (responseEntity.getUserAccountId() > 0) {
+      Optional<UserAccountEntity> accountOptional = userAccountCache.findById(
+          responseEntity.getUserAccountId());
       accountOptional.ifPresent(accountEntity -> taskModel.setAssignee(
           modelMapper.map(accountEntity, UserAccountModel.class)));
     }
@@ -136,28 +206,31 @@ public class TaskService {
   }
 
   /**
-   * Update task information
+   * Update task information, log works and actual time of task are kept
    *
    * @param updateTaskModel
    * @return updated task
    */
   public TaskModel updateTask(UpdateTaskModel updateTaskModel) {
-    //Find task by id
-    Optional<TaskEntity> foundTaskOptional = taskRepository.findById(updateTaskModel.getId());
-    foundTaskOptional.orElseThrow(() -> new NoSuchEntityException(NOT_FOUND_TASK_ID));
-
     //Check assignee
-    Optional<UserAccountEntity> existAccountOptional = userAccountRepository.findById(
+    Optional<UserAccountEntity> existAccountOptional = userAccountCache.findById(
         updateTaskModel.getAssigneeId());
 
-    //Prepare saved entity
-    TaskEntity taskEntity = modelMapper.map(updateTaskModel, TaskEntity.class);
-    existAccountOptional.ifPresentOrElse(
-        existAccount -> taskEntity.setUserAccountId(updateTaskModel.getAssigneeId()),
-        () -> taskEntity.setUserAccountId(0));
-
-    //Save entity to database
-    TaskEntity savedEntity = taskRepository.save(taskEntity);
+    TaskEntity savedEntity = OptimisticRetryUtils.retry(UPDATE_TASK_OPERATION,
+        CONCURRENT_TASK_UPDATE, () -> {
+          //Find task by id
+          Optional<TaskEntity> foundTaskOptional = findCurrentTask(updateTaskModel.getId());
+          TaskEntity taskEntity = foundTaskOptional.orElseThrow(
+              () -> new NoSuchEntityException(NOT_FOUND_TASK_ID));
+
+          //Prepare saved entity
+          modelMapper.map(updateTaskModel, taskEntity);
+          taskEntity.setUserAccountId(
+              existAccountOptional.isPresent() ? updateTaskModel.getAssigneeId() : 0);
+
+          //Save entity to database if unchanged since found
+          return Optional.of(taskRepository.save(taskEntity));
+        });
     TaskModel taskModel = modelMapper.map(savedEntity, TaskModel.class);
     existAccountOptional.ifPresent(existAccountEntity -> taskModel.setAssignee(
         modelMapper.map(existAccountEntity, UserAccountModel.class)));
@@ -169,47 +242,32 @@ public class TaskService {
    * Search task like title
    *
    * @param searchValue
+   * @param searchMode
    * @param paginationModel
+   * @param fieldsModel
    * @return resource of data
    */
-  public ResourceModel<TaskModel> searchTasks(String searchValue,
-      RequestPaginationModel paginationModel) {
+  public ResourceModel<TaskModel> searchTasks(String searchValue, SearchModeEnum searchMode,
+      RequestPaginationModel paginationModel, RequestFieldsModel fieldsModel) {
     PaginationConverter<TaskModel, TaskEntity> paginationConverter = new PaginationConverter<>();
+    ResourceModel<TaskModel> resourceModel = new ResourceModel<>();
 
-    //Build pageable
+    //Find tasks of requested page
     String defaultSortBy = TaskEntity_.START_TIME;
-    Pageable pageable = paginationConverter.convertToPageable(paginationModel, defaultSortBy,
-        TaskEntity.class);
+    Query query = ProjectionConverter.project(
+        buildSearchQuery(searchValue, searchMode, !paginationModel.isSeekMode()), fieldsModel,
+        DEFAULT_EXCLUDED_FIELDS);
+    List<TaskEntity> taskEntities = paginationConverter.findPage(mongoTemplate, countCache, query,
+        paginationModel, defaultSortBy, TaskEntity.class, resourceModel);
 
-    //Create query object
-    Query query = new Query(
-        Criteria.where(TaskEntity_.TITLE).regex(".*" + searchValue + ".*")).with(pageable);
-
-    //Find all tasks
-    List<TaskEntity> taskEntityList = mongoTemplate.find(query, TaskEntity.class);
-    Page<TaskEntity> taskEntityPage = PageableExecutionUtils.getPage(taskEntityList, pageable,
-        () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), TaskEntity.class));
-
-    //Convert list of offices entity to list of task models
-    List<TaskModel> taskModels = new ArrayList<>();
-    for (TaskEntity entity : taskEntityPage) {
-      TaskModel model = modelMapper.map(entity, TaskModel.class);
-      if (entity.getUserAccountId() > 0) {
-        Optional<UserAccountEntity> assigneeOptional = userAccountRepository.findById(
-            entity.getUserAccountId());
-        assigneeOptional.ifPresent(assigneeEntity -> model.setAssignee(
-            modelMapper.map(assigneeEntity, UserAccountModel.class)));
-      }
-      taskModels.add(model);
-    }
+    //Convert list of task entities to list of task models
+    List<TaskModel> taskModels = convertToTaskModels(taskEntities);
 
     //Prepare resource for return
-    ResourceModel<TaskModel> resourceModel = new ResourceModel<>();
     resourceModel.setData(taskModels);
     resourceModel.setSearchText(searchValue);
     resourceModel.setSortBy(defaultSortBy);
     resourceModel.setSortType(paginationModel.getSortType());
-    paginationConverter.buildPagination(paginationModel, taskEntityPage, resourceModel);
     return resourceModel;
   }
 
@@ -221,19 +279,22 @@ public class TaskService {
    * @return saved task model
    */
   public TaskModel assignTaskToUser(int taskId, int userId) {
-    //Check task
-    Optional<TaskEntity> taskOptional = taskRepository.findById(taskId);
-    TaskEntity taskEntity = taskOptional.orElseThrow(
-        () -> new NoSuchEntityException(NOT_FOUND_TASK));
-
     //Check user
-    Optional<UserAccountEntity> userOptional = userAccountRepository.findById(userId);
+    Optional<UserAccountEntity> userOptional = userAccountCache.findById(userId);
     UserAccountEntity userEntity = userOptional.orElseThrow(
         () -> new NoSuchEntityException(NOT_FOUND_ACCOUNT));
 
-    //Update user in task
-    taskEntity.setUserAccountId(userId);
-    TaskEntity savedTaskEntity = taskRepository.save(taskEntity);
+    TaskEntity savedTaskEntity = OptimisticRetryUtils.retry(ASSIGN_TASK_OPERATION,
+        CONCURRENT_TASK_UPDATE, () -> {
+          //Check task
+          Optional<TaskEntity> taskOptional = findCurrentTask(taskId);
+          TaskEntity taskEntity = taskOptional.orElseThrow(
+              () -> new NoSuchEntityException(NOT_FOUND_TASK));
+
+          //Update user in task if unchanged since found
+          taskEntity.setUserAccountId(userId);
+          return Optional.of(taskRepository.save(taskEntity));
+        });
 
     //Prepare for response model
     TaskModel responseModel = modelMapper.map(savedTaskEntity, TaskModel.class);
@@ -245,52 +306,117 @@ public class TaskService {
    * Search task of user
    *
    * @param searchValue
+   * @param searchMode
    * @param paginationModel
+   * @param fieldsModel
    * @param userId
    * @return resource contains list task of user
    */
   public ResourceModel<TaskModel> searchTasksOfUserId(String searchValue,
-      RequestPaginationModel paginationModel, int userId) {
+      SearchModeEnum searchMode, RequestPaginationModel paginationModel,
+      RequestFieldsModel fieldsModel, int userId) {
     //Check exist user account
-    Optional<UserAccountEntity> accountOptional = userAccountRepository.findById(userId);
+    Optional<UserAccountEntity> accountOptional = userAccountCache.findById(userId);
     accountOptional.orElseThrow(() -> new NoSuchEntityException(NOT_FOUND_ACCOUNT));
 
     PaginationConverter<TaskModel, TaskEntity> paginationConverter = new PaginationConverter<>();
+    ResourceModel<TaskModel> resourceModel = new ResourceModel<>();
 
-    //Build pageable
+    //Find tasks of user of requested page
     String defaultSortBy = TaskEntity_.START_TIME;
-    Pageable pageable = paginationConverter.convertToPageable(paginationModel, defaultSortBy,
-        TaskEntity.class);
+    Query query = ProjectionConverter.project(
+        buildSearchQuery(searchValue, searchMode, !paginationModel.isSeekMode())
+            .addCriteria(Criteria.where(TaskEntity_.USER_ACCOUNT_ID).is(userId)), fieldsModel,
+        DEFAULT_EXCLUDED_FIELDS);
+    List<TaskEntity> taskEntities = paginationConverter.findPage(mongoTemplate, countCache, query,
+        paginationModel, defaultSortBy, TaskEntity.class, resourceModel);
 
-    //Create query object
-    Query query = new Query(Criteria.where(TaskEntity_.TITLE).regex(".*" + searchValue + ".*")
-        .andOperator(Criteria.where(TaskEntity_.USER_ACCOUNT_ID).is(userId))).with(pageable);
-
-    //Find all tasks
-    List<TaskEntity> taskEntityList = mongoTemplate.find(query, TaskEntity.class);
-    Page<TaskEntity> taskEntityPage = PageableExecutionUtils.getPage(taskEntityList, pageable,
-        () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), TaskEntity.class));
-
-    //Convert list of offices entity to list of task models
-    List<TaskModel> taskModels = new ArrayList<>();
-    for (TaskEntity entity : taskEntityPage) {
-      TaskModel model = modelMapper.map(entity, TaskModel.class);
-      if (entity.getUserAccountId() > 0) {
-        Optional<UserAccountEntity> assigneeOptional = userAccountRepository.findById(
-            entity.getUserAccountId());
-        assigneeOptional.ifPresent(assigneeEntity -> model.setAssignee(
-            modelMapper.map(assigneeEntity, UserAccountModel.class)));
-      }
-      taskModels.add(model);
-    }
+    //Convert list of task entities to list of task models
+    List<TaskModel> taskModels = convertToTaskModels(taskEntities);
 
     //Prepare resource for return
-    ResourceModel<TaskModel> resourceModel = new ResourceModel<>();
     resourceModel.setData(taskModels);
     resourceModel.setSearchText(searchValue);
     resourceModel.setSortBy(defaultSortBy);
     resourceModel.setSortType(paginationModel.getSortType());
-    paginationConverter.buildPagination(paginationModel, taskEntityPage, resourceModel);
     return resourceModel;
   }
+
+  /**
+   * Build query matching search text. Text mode uses the text index of title and description and
+   * may sort by relevance first, regex mode matches title by escaped substring.
+   *
+   * @param searchValue
+   * @param searchMode
+   * @param sortByScore sort by relevance, not possible when paging by cursor
+   * @return query
+   */
+  private Query buildSearchQuery(String searchValue, SearchModeEnum searchMode,
+      boolean sortByScore) {
+    if (searchValue.isBlank()) {
+      return new Query();
+    }
+    if (searchMode == SearchModeEnum.TEXT) {
+      TextQuery textQuery = TextQuery.queryText(
+          TextCriteria.forDefaultLanguage().matching(searchValue));
+      return sortByScore ? textQuery.sortByScore() : textQuery;
+    }
+    return new Query(Criteria.where(TaskEntity_.TITLE).regex(Pattern.quote(searchValue)));
+  }
+
+  /**
+   * Convert task entities to task models with assignees found in near-cache or by one query
+   *
+   * @param taskEntities
+   * @return list of task models
+   */
+  private List<TaskModel> convertToTaskModels(List<TaskEntity> taskEntities) {
+    return convertToTaskModels(taskEntities,
+        userAccountCache.findAllById(
+            taskEntities.stream().mapToInt(TaskEntity::getUserAccountId)));
+  }
+
+  /**
+   * Convert task entities to task models with found assignees
+   *
+   * @param taskEntities
+   * @param assigneeMap
+   * @return list of task models
+   */
+  private List<TaskModel> convertToTaskModels(List<TaskEntity> taskEntities,
+      IntObjectHashMap<UserAccountEntity> assigneeMap) {
+    List<TaskModel> taskModels = new ArrayList<>();
+    for (TaskEntity taskEntity : taskEntities) {
+      TaskModel taskModel = modelMapper.map(taskEntity, TaskModel.class);
+      UserAccountEntity assigneeEntity = assigneeMap.get(taskEntity.getUserAccountId());
+      if (assigneeEntity != null) {
+        taskModel.setAssignee(modelMapper.map(assigneeEntity, UserAccountModel.class));
+      }
+      taskModels.add(taskModel);
+    }
+    return taskModels;
+  }
+
+  /**
+   * Find task as stored now, by template so an attempt never gets the entity memoized for the
+   * request, which a failed attempt before may have changed. A task without version, written by
+   * a node not versioning tasks yet, gets its initial version first, as saving it would insert.
+   *
+   * @param id
+   * @return optional of task
+   */
+  private Optional<TaskEntity> findCurrentTask(int id) {
+    TaskEntity taskEntity = mongoTemplate.findById(id, TaskEntity.class);
+    if (taskEntity != null && taskEntity.getVersion() == null) {
+      //Read again after setting version, so saving fails when the task is written meanwhile
+      mongoTemplate.updateFirst(new Query(Criteria.where(TaskEntity_.ID).is(id)
+              .and(TaskEntity_.VERSION).exists(false)),
+          new Update().set(TaskEntity_.VERSION, 0L), TaskEntity.class);
+      taskEntity = mongoTemplate.findById(id, TaskEntity.class);
+      if (taskEntity != null && taskEntity.getVersion() == null) {
+        throw new OptimisticLockingFailureException("Task " + id + " is written without version");
+      }
+    }
+    return Optional.ofNullable(taskEntity);
+  }
 }
@@ -6,26 +6,36 @@ import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_TEAM_ID;
 import static com.nli.probation.constant.ErrorMessageConst.TEAM_NAME_DUPLICATE;
 import static com.nli.probation.constant.ErrorMessageConst.TEAM_SHORT_NAME_DUPLICATE;
 
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.cache.ReferenceDataCache;
 import com.nli.probation.constant.EntityStatusEnum;
+import com.nli.probation.constant.SearchModeEnum;
 import com.nli.probation.converter.PaginationConverter;
+import com.nli.probation.converter.ProjectionConverter;
 import com.nli.probation.customexception.DuplicatedEntityException;
 import com.nli.probation.customexception.NoSuchEntityException;
 import com.nli.probation.entity.TeamEntity;
 import com.nli.probation.metamodel.TeamEntity_;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
 import com.nli.probation.model.team.CreateTeamModel;
 import com.nli.probation.model.team.TeamModel;
 import com.nli.probation.model.team.UpdateTeamModel;
 import com.nli.probation.repository.TeamRepository;
+import com.nli.probation.utils.SearchTextUtils;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Pattern;
 import org.modelmapper.ModelMapper;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -34,13 +44,22 @@ public class TeamService {
   private final TeamRepository teamRepository;
   private final ModelMapper modelMapper;
   private final SequenceGeneratorService sequenceGeneratorService;
+  private final ReferenceDataCache referenceDataCache;
+  private final MongoTemplate mongoTemplate;
+  private final CountCache countCache;
 
   public TeamService(TeamRepository teamRepository,
       ModelMapper modelMapper,
-      SequenceGeneratorService sequenceGeneratorService) {
+      SequenceGeneratorService sequenceGeneratorService,
+      ReferenceDataCache referenceDataCache,
+      MongoTemplate mongoTemplate,
+      CountCache countCache) {
     this.teamRepository = teamRepository;
     this.modelMapper = modelMapper;
     this.sequenceGeneratorService = sequenceGeneratorService;
+    this.referenceDataCache = referenceDataCache;
+    this.mongoTemplate = mongoTemplate;
+    this.countCache = countCache;
   }
 
   /**
@@ -64,9 +83,11 @@ public class TeamService {
     TeamEntity teamEntity = modelMapper.map(createTeamModel, TeamEntity.class);
     teamEntity.setId(sequenceGeneratorService.generateSequence(TeamEntity.SEQUENCE_NAME));
     teamEntity.setStatus(EntityStatusEnum.TeamStatusEnum.ACTIVE.ordinal());
+    fillSearchFields(teamEntity);
 
     //Save entity to DB
     TeamEntity savedEntity = teamRepository.save(teamEntity);
+    referenceDataCache.putTeam(savedEntity);
     return modelMapper.map(savedEntity, TeamModel.class);
   }
 
@@ -74,11 +95,13 @@ public class TeamService {
    * Find team by id
    *
    * @param id
+   * @param fieldsModel
    * @return found team
    */
-  public TeamModel findTeamById(int id) {
+  public TeamModel findTeamById(int id, RequestFieldsModel fieldsModel) {
     //Find team by id
-    Optional<TeamEntity> searchedTeamOptional = teamRepository.findById(id);
+    Optional<TeamEntity> searchedTeamOptional = ProjectionConverter.findById(mongoTemplate,
+        teamRepository, id, fieldsModel, TeamEntity.class);
     TeamEntity teamEntity = searchedTeamOptional.orElseThrow(
         () -> new NoSuchEntityException(NOT_FOUND_TEAM));
     return modelMapper.map(teamEntity, TeamModel.class);
@@ -104,6 +127,7 @@ public class TeamService {
 
     //Save entity to DB
     TeamEntity responseEntity = teamRepository.save(deletedTeamEntity);
+    referenceDataCache.putTeam(responseEntity);
     return modelMapper.map(responseEntity, TeamModel.class);
   }
 
@@ -131,11 +155,40 @@ public class TeamService {
     }
 
     //Save entity to database
-    TeamEntity savedEntity = teamRepository.save(
-        modelMapper.map(updateTeamModel, TeamEntity.class));
+    TeamEntity teamEntity = modelMapper.map(updateTeamModel, TeamEntity.class);
+    fillSearchFields(teamEntity);
+    TeamEntity savedEntity = teamRepository.save(teamEntity);
+    referenceDataCache.putTeam(savedEntity);
     return modelMapper.map(savedEntity, TeamModel.class);
   }
 
+  /**
+   * Fill lowercase search fields from name and short name
+   *
+   * @param teamEntity
+   */
+  private void fillSearchFields(TeamEntity teamEntity) {
+    teamEntity.setSearchName(SearchTextUtils.normalize(teamEntity.getName()));
+    teamEntity.setSearchShortName(SearchTextUtils.normalize(teamEntity.getShortName()));
+  }
+
+  /**
+   * Fill search fields of teams saved before they existed
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfillSearchFields() {
+    List<TeamEntity> teamEntities = new ArrayList<>();
+    for (TeamEntity teamEntity : teamRepository.findAll()) {
+      if (teamEntity.getSearchName() == null && teamEntity.getName() != null) {
+        fillSearchFields(teamEntity);
+        teamEntities.add(teamEntity);
+      }
+    }
+    for (TeamEntity savedEntity : teamRepository.saveAll(teamEntities)) {
+      referenceDataCache.putTeam(savedEntity);
+    }
+  }
+
   /**
    * Specification for search like name or short name
    *
@@ -163,36 +216,53 @@ public class TeamService {
    * Search team like name or short name
    *
    * @param searchValue
+   * @param searchMode
    * @param paginationModel
+   * @param fieldsModel
    * @return resource of data
    */
   public ResourceModel<TeamModel> searchTeams(String searchValue,
-      RequestPaginationModel paginationModel) {
+      SearchModeEnum searchMode, RequestPaginationModel paginationModel,
+      RequestFieldsModel fieldsModel) {
     PaginationConverter<TeamModel, TeamEntity> paginationConverter = new PaginationConverter<>();
+    ResourceModel<TeamModel> resourceModel = new ResourceModel<>();
 
-    //Build pageable
+    //Find teams of requested page
     String defaultSortBy = TeamEntity_.ID;
-    Pageable pageable = paginationConverter.convertToPageable(paginationModel, defaultSortBy,
-        TeamEntity.class);
-
-    //Find all teams
-    Page<TeamEntity> teamEntityPage = teamRepository.findAll(searchNameOrShortName(searchValue),
-        pageable);
+    List<TeamEntity> teamEntities = paginationConverter.findPage(mongoTemplate, countCache,
+        ProjectionConverter.project(new Query(searchCriteria(searchValue, searchMode)),
+            fieldsModel), paginationModel, defaultSortBy,
+        TeamEntity.class, resourceModel);
 
     //Convert list of teams entity to list of team model
     List<TeamModel> teamModels = new ArrayList<>();
-    for (TeamEntity entity : teamEntityPage) {
+    for (TeamEntity entity : teamEntities) {
       teamModels.add(modelMapper.map(entity, TeamModel.class));
     }
 
     //Prepare resource for return
-    ResourceModel<TeamModel> resourceModel = new ResourceModel<>();
     resourceModel.setData(teamModels);
     resourceModel.setSearchText(searchValue);
     resourceModel.setSortBy(defaultSortBy);
     resourceModel.setSortType(paginationModel.getSortType());
-    paginationConverter.buildPagination(paginationModel, teamEntityPage, resourceModel);
     return resourceModel;
   }
 
+  /**
+   * Criteria of search mode, prefix of lowercase search fields or like name or short name
+   *
+   * @param searchValue
+   * @param searchMode
+   * @return criteria
+   */
+  private Criteria searchCriteria(String searchValue, SearchModeEnum searchMode) {
+    if (searchMode == SearchModeEnum.PREFIX) {
+      String prefixPattern = "^" + Pattern.quote(SearchTextUtils.normalize(searchValue));
+      return new Criteria().orOperator(
+          Criteria.where(TeamEntity_.SEARCH_NAME).regex(prefixPattern),
+          Criteria.where(TeamEntity_.SEARCH_SHORT_NAME).regex(prefixPattern));
+    }
+    return new Criteria().alike(searchNameOrShortName(searchValue));
+  }
+
 }
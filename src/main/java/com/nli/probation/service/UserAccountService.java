@@ -9,8 +9,14 @@ import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_OFFICE;
 import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_ROLE;
 import static com.nli.probation.constant.ErrorMessageConst.NOT_FOUND_TEAM;
 
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.cache.ReferenceDataCache;
+import com.nli.probation.cache.UserAccountCache;
+import com.nli.probation.cache.UserAccountSearchIndex;
 import com.nli.probation.constant.EntityStatusEnum;
+import com.nli.probation.converter.FacetPagingExecutor;
 import com.nli.probation.converter.PaginationConverter;
+import com.nli.probation.converter.ProjectionConverter;
 import com.nli.probation.customexception.DuplicatedEntityException;
 import com.nli.probation.customexception.NoSuchEntityException;
 import com.nli.probation.entity.OfficeEntity;
@@ -18,57 +24,79 @@ import com.nli.probation.entity.RoleEntity;
 import com.nli.probation.entity.TeamEntity;
 import com.nli.probation.entity.UserAccountEntity;
 import com.nli.probation.metamodel.UserAccountEntity_;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
+import com.nli.probation.model.SequenceRangeModel;
 import com.nli.probation.model.office.OfficeModel;
 import com.nli.probation.model.role.RoleModel;
 import com.nli.probation.model.team.TeamModel;
 import com.nli.probation.model.useraccount.CreateUserAccountModel;
 import com.nli.probation.model.useraccount.UpdateUserAccountModel;
 import com.nli.probation.model.useraccount.UserAccountModel;
-import com.nli.probation.repository.OfficeRepository;
-import com.nli.probation.repository.RoleRepository;
-import com.nli.probation.repository.TeamRepository;
 import com.nli.probation.repository.UserAccountRepository;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import org.bson.Document;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
-import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class UserAccountService {
 
+  private static final int BULK_INSERT_BATCH_SIZE = 1000;
+  private static final String ID_FIELD = "_id";
+  private static final String TEAM_ID_FIELD = "team_id";
+  private static final String OFFICE_ID_FIELD = "office_id";
+  private static final String ROLE_ID_FIELD = "role_id";
+  private static final String TEAM_LOOKUP = "team";
+  private static final String OFFICE_LOOKUP = "office";
+  private static final String ROLE_LOOKUP = "role";
+
   private final UserAccountRepository userAccountRepository;
-  private final TeamRepository teamRepository;
-  private final OfficeRepository officeRepository;
-  private final RoleRepository roleRepository;
+  private final ReferenceDataCache referenceDataCache;
+  private final UserAccountCache userAccountCache;
+  private final UserAccountSearchIndex userAccountSearchIndex;
   private final ModelMapper modelMapper;
   private final SequenceGeneratorService sequenceGeneratorService;
   private final MongoTemplate mongoTemplate;
+  private final CountCache countCache;
 
 
   public UserAccountService(UserAccountRepository userAccountRepository,
-      TeamRepository teamRepository,
-      OfficeRepository officeRepository,
+      ReferenceDataCache referenceDataCache,
+      UserAccountCache userAccountCache,
+      UserAccountSearchIndex userAccountSearchIndex,
       ModelMapper modelMapper,
-      RoleRepository roleRepository,
       SequenceGeneratorService sequenceGeneratorService,
-      MongoTemplate mongoTemplate) {
+      MongoTemplate mongoTemplate,
+      CountCache countCache) {
     this.userAccountRepository = userAccountRepository;
-    this.teamRepository = teamRepository;
-    this.officeRepository = officeRepository;
+    this.referenceDataCache = referenceDataCache;
+    this.userAccountCache = userAccountCache;
+    this.userAccountSearchIndex = userAccountSearchIndex;
     this.modelMapper = modelMapper;
-    this.roleRepository = roleRepository;
     this.sequenceGeneratorService = sequenceGeneratorService;
     this.mongoTemplate = mongoTemplate;
+    this.countCache = countCache;
   }
 
   /**
@@ -89,17 +117,17 @@ public class UserAccountService {
     }
 
     //Check exist team
-    Optional<TeamEntity> existedTeamOptional = teamRepository.findById(
+    Optional<TeamEntity> existedTeamOptional = referenceDataCache.findTeam(
         createUserAccountModel.getTeamId());
 
     //Check exist office
-    Optional<OfficeEntity> existedOfficeOptional = officeRepository.findById(
+    Optional<OfficeEntity> existedOfficeOptional = referenceDataCache.findOffice(
         createUserAccountModel.getOfficeId());
     OfficeEntity existedOfficeEntity = existedOfficeOptional
         .orElseThrow(() -> new NoSuchEntityException(NOT_FOUND_OFFICE));
 
     //Check exist role
-    Optional<RoleEntity> existedRoleOptional = roleRepository.findById(
+    Optional<RoleEntity> existedRoleOptional = referenceDataCache.findRole(
         createUserAccountModel.getRoleId());
     RoleEntity existedRoleEntity = existedRoleOptional
         .orElseThrow(() -> new NoSuchEntityException(NOT_FOUND_ROLE));
@@ -118,6 +146,8 @@ public class UserAccountService {
 
     //Save entity to DB
     UserAccountEntity savedEntity = userAccountRepository.save(userAccountEntity);
+    userAccountCache.invalidate(savedEntity.getId());
+    userAccountSearchIndex.index(savedEntity);
     UserAccountModel responseUserAccountModel = modelMapper.map(savedEntity,
         UserAccountModel.class);
     responseUserAccountModel.setOfficeModel(
@@ -129,32 +159,134 @@ public class UserAccountService {
     return responseUserAccountModel;
   }
 
+  /**
+   * Create list of user accounts with one sequence round trip and unordered batch inserts
+   *
+   * @param createUserAccountModels
+   * @return created user accounts
+   */
+  public List<UserAccountModel> createUserAccounts(
+      List<CreateUserAccountModel> createUserAccountModels) {
+    if (createUserAccountModels.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    //Check duplicated email and phone in request
+    Set<String> emails = new HashSet<>();
+    Set<String> phones = new HashSet<>();
+    for (CreateUserAccountModel createUserAccountModel : createUserAccountModels) {
+      if (!emails.add(createUserAccountModel.getEmail())) {
+        throw new DuplicatedEntityException(ACCOUNT_EMAIL_DUPLICATE);
+      }
+      if (!phones.add(createUserAccountModel.getPhone())) {
+        throw new DuplicatedEntityException(ACCOUNT_PHONE_DUPLICATE);
+      }
+    }
+
+    //Check exist email
+    if (mongoTemplate.exists(new Query(Criteria.where(UserAccountEntity_.EMAIL).in(emails)),
+        UserAccountEntity.class)) {
+      throw new DuplicatedEntityException(ACCOUNT_EMAIL_DUPLICATE);
+    }
+
+    //Check exist phone
+    if (mongoTemplate.exists(new Query(Criteria.where(UserAccountEntity_.PHONE).in(phones)),
+        UserAccountEntity.class)) {
+      throw new DuplicatedEntityException(ACCOUNT_PHONE_DUPLICATE);
+    }
+
+    //Find teams, offices and roles of accounts
+    Map<Integer, TeamEntity> teamMap = new HashMap<>();
+    Map<Integer, OfficeEntity> officeMap = new HashMap<>();
+    Map<Integer, RoleEntity> roleMap = new HashMap<>();
+    for (CreateUserAccountModel createUserAccountModel : createUserAccountModels) {
+      referenceDataCache.findTeam(createUserAccountModel.getTeamId())
+          .ifPresent(teamEntity -> teamMap.put(teamEntity.getId(), teamEntity));
+      referenceDataCache.findOffice(createUserAccountModel.getOfficeId())
+          .ifPresent(officeEntity -> officeMap.put(officeEntity.getId(), officeEntity));
+      referenceDataCache.findRole(createUserAccountModel.getRoleId())
+          .ifPresent(roleEntity -> roleMap.put(roleEntity.getId(), roleEntity));
+    }
+
+    //Prepare saved entities
+    SequenceRangeModel idRange = sequenceGeneratorService.generateSequences(
+        UserAccountEntity.SEQUENCE_NAME, createUserAccountModels.size());
+    List<UserAccountEntity> userAccountEntities = new ArrayList<>();
+    for (int i = 0; i < createUserAccountModels.size(); i++) {
+      CreateUserAccountModel createUserAccountModel = createUserAccountModels.get(i);
+      if (!officeMap.containsKey(createUserAccountModel.getOfficeId())) {
+        throw new NoSuchEntityException(NOT_FOUND_OFFICE);
+      }
+      if (!roleMap.containsKey(createUserAccountModel.getRoleId())) {
+        throw new NoSuchEntityException(NOT_FOUND_ROLE);
+      }
+      UserAccountEntity userAccountEntity = modelMapper.map(createUserAccountModel,
+          UserAccountEntity.class);
+      userAccountEntity.setId(idRange.get(i));
+      userAccountEntity.setStatus(EntityStatusEnum.UserAccountStatusEnum.ACTIVE.ordinal());
+      if (!teamMap.containsKey(userAccountEntity.getTeamId())) {
+        userAccountEntity.setTeamId(0);
+      }
+      userAccountEntities.add(userAccountEntity);
+    }
+
+    //Save entities to DB
+    for (int from = 0; from < userAccountEntities.size(); from += BULK_INSERT_BATCH_SIZE) {
+      List<UserAccountEntity> batch = userAccountEntities.subList(from,
+          Math.min(from + BULK_INSERT_BATCH_SIZE, userAccountEntities.size()));
+      mongoTemplate.bulkOps(BulkMode.UNORDERED, UserAccountEntity.class).insert(batch).execute();
+    }
+    for (UserAccountEntity userAccountEntity : userAccountEntities) {
+      userAccountCache.invalidate(userAccountEntity.getId());
+    }
+    userAccountSearchIndex.indexAll(userAccountEntities);
+
+    //Prepare response models
+    List<UserAccountModel> userAccountModels = new ArrayList<>();
+    for (UserAccountEntity userAccountEntity : userAccountEntities) {
+      UserAccountModel userAccountModel = modelMapper.map(userAccountEntity,
+          UserAccountModel.class);
+      userAccountModel.setOfficeModel(
+          modelMapper.map(officeMap.get(userAccountEntity.getOfficeId()), OfficeModel.class));
+      userAccountModel.setRoleModel(
+          modelMapper.map(roleMap.get(userAccountEntity.getRoleId()), RoleModel.class));
+      TeamEntity teamEntity = teamMap.get(userAccountEntity.getTeamId());
+      if (teamEntity != null) {
+        userAccountModel.setTeamModel(modelMapper.map(teamEntity, TeamModel.class));
+      }
+      userAccountModels.add(userAccountModel);
+    }
+    return userAccountModels;
+  }
+
   /**
    * Find user account by id
    *
    * @param id
+   * @param fieldsModel
    * @return found user account
    */
-  public UserAccountModel findUserAccountById(int id) {
+  public UserAccountModel findUserAccountById(int id, RequestFieldsModel fieldsModel) {
     //Find user account by id
-    Optional<UserAccountEntity> searchedAccountOptional = userAccountRepository.findById(id);
+    Optional<UserAccountEntity> searchedAccountOptional = ProjectionConverter.findById(
+        mongoTemplate, userAccountRepository, id, fieldsModel, UserAccountEntity.class);
     UserAccountEntity userAccountEntity = searchedAccountOptional.orElseThrow(
         () -> new NoSuchEntityException(NOT_FOUND_ACCOUNT));
     UserAccountModel userAccountModel = modelMapper.map(userAccountEntity, UserAccountModel.class);
 
     //Find team information
-    Optional<TeamEntity> teamOptional = teamRepository.findById(userAccountEntity.getTeamId());
+    Optional<TeamEntity> teamOptional = referenceDataCache.findTeam(userAccountEntity.getTeamId());
     teamOptional.ifPresent(
         teamEntity -> userAccountModel.setTeamModel(modelMapper.map(teamEntity, TeamModel.class)));
 
     //Find office information
-    Optional<OfficeEntity> officeOptional = officeRepository.findById(
+    Optional<OfficeEntity> officeOptional = referenceDataCache.findOffice(
         userAccountEntity.getOfficeId());
     officeOptional.ifPresent(officeEntity -> userAccountModel.setOfficeModel(
         modelMapper.map(officeEntity, OfficeModel.class)));
 
     //Find role information
-    Optional<RoleEntity> roleOptional = roleRepository.findById(userAccountEntity.getRoleId());
+    Optional<RoleEntity> roleOptional = referenceDataCache.findRole(userAccountEntity.getRoleId());
     roleOptional.ifPresent(
         roleEntity -> userAccountModel.setRoleModel(modelMapper.map(roleEntity, RoleModel.class)));
 
@@ -182,20 +314,22 @@ public class UserAccountService {
 
     //Save entity to DB
     UserAccountEntity responseEntity = userAccountRepository.save(deletedAccountEntity);
+    userAccountCache.invalidate(responseEntity.getId());
     UserAccountModel userAccountModel = modelMapper.map(responseEntity, UserAccountModel.class);
 
     //Find team information
-    Optional<TeamEntity> teamOptional = teamRepository.findById(responseEntity.getTeamId());
+    Optional<TeamEntity> teamOptional = referenceDataCache.findTeam(responseEntity.getTeamId());
     teamOptional.ifPresent(
         teamEntity -> userAccountModel.setTeamModel(modelMapper.map(teamEntity, TeamModel.class)));
 
     //Find office information
-    Optional<OfficeEntity> officeOptional = officeRepository.findById(responseEntity.getOfficeId());
+    Optional<OfficeEntity> officeOptional = referenceDataCache.findOffice(
+        responseEntity.getOfficeId());
     officeOptional.ifPresent(officeEntity -> userAccountModel.setOfficeModel(
         modelMapper.map(officeEntity, OfficeModel.class)));
 
     //Find role information
-    Optional<RoleEntity> roleOptional = roleRepository.findById(responseEntity.getRoleId());
+    Optional<RoleEntity> roleOptional = referenceDataCache.findRole(responseEntity.getRoleId());
     roleOptional.ifPresent(
         roleEntity -> userAccountModel.setRoleModel(modelMapper.map(roleEntity, RoleModel.class)));
 
@@ -228,17 +362,17 @@ public class UserAccountService {
     }
 
     //Check exist team
-    Optional<TeamEntity> existedTeamOptional = teamRepository.findById(
+    Optional<TeamEntity> existedTeamOptional = referenceDataCache.findTeam(
         updateUserAccountModel.getTeamId());
 
     //Check exist office
-    Optional<OfficeEntity> existedOfficeOptional = officeRepository.findById(
+    Optional<OfficeEntity> existedOfficeOptional = referenceDataCache.findOffice(
         updateUserAccountModel.getOfficeId());
     OfficeEntity existedOfficeEntity = existedOfficeOptional.orElseThrow(
         () -> new NoSuchEntityException(NOT_FOUND_OFFICE));
 
     //Check exist role
-    Optional<RoleEntity> existedRoleOptional = roleRepository.findById(
+    Optional<RoleEntity> existedRoleOptional = referenceDataCache.findRole(
         updateUserAccountModel.getRoleId());
     RoleEntity existedRoleEntity = existedRoleOptional.orElseThrow(
         () -> new NoSuchEntityException(NOT_FOUND_ROLE));
@@ -254,6 +388,8 @@ public class UserAccountService {
 
     //Save entity to DB
     UserAccountEntity savedEntity = userAccountRepository.save(userAccountEntity);
+    userAccountCache.invalidate(savedEntity.getId());
+    userAccountSearchIndex.index(savedEntity);
     UserAccountModel responseUserAccountModel = modelMapper.map(savedEntity,
         UserAccountModel.class);
     responseUserAccountModel.setOfficeModel(
@@ -271,70 +407,144 @@ public class UserAccountService {
    *
    * @param searchValue
    * @param paginationModel
+   * @param fieldsModel
+   * @param teamId
    * @return resource of data
    */
   public ResourceModel<UserAccountModel> searchAccounts(String searchValue,
-      RequestPaginationModel paginationModel,
+      RequestPaginationModel paginationModel, RequestFieldsModel fieldsModel,
       Integer teamId) {
     PaginationConverter<UserAccountModel, UserAccountEntity> paginationConverter = new PaginationConverter<>();
-
-    //Build pageable
+    ResourceModel<UserAccountModel> resourceModel = new ResourceModel<>();
     String defaultSortBy = UserAccountEntity_.ID;
-    Pageable pageable = paginationConverter.convertToPageable(paginationModel, defaultSortBy,
-        UserAccountEntity.class);
 
-    //Create query object
+    //Create criteria object, narrowed to candidates of trigram index when it can answer
+    String searchPattern = Pattern.quote(searchValue);
     Criteria criteria = new Criteria();
-    criteria.orOperator(Criteria.where(UserAccountEntity_.EMAIL).regex(".*" + searchValue + ".*"),
-        Criteria.where(UserAccountEntity_.NAME).regex(".*" + searchValue + ".*"));
-    Query query = new Query(criteria).with(pageable);
-
-    //Find all user accounts
-    List<UserAccountEntity> userAccountEntities;
+    criteria.orOperator(Criteria.where(UserAccountEntity_.EMAIL).regex(searchPattern),
+        Criteria.where(UserAccountEntity_.NAME).regex(searchPattern));
+    int[] candidateIds = userAccountSearchIndex.findCandidates(searchValue);
+    if (candidateIds != null) {
+      criteria = new Criteria().andOperator(
+          Criteria.where(UserAccountEntity_.ID).in(IntStream.of(candidateIds).boxed().toArray()),
+          criteria);
+    }
     if (teamId != 0) {
-      Optional<TeamEntity> teamOptional = teamRepository.findById(teamId);
+      Optional<TeamEntity> teamOptional = referenceDataCache.findTeam(teamId);
       teamOptional.orElseThrow(() -> new NoSuchEntityException(NOT_FOUND_TEAM));
-      userAccountEntities = mongoTemplate.find(
-          query.addCriteria(Criteria.where(UserAccountEntity_.TEAM_ID).is(teamId)),
-          UserAccountEntity.class);
-    } else {
-      userAccountEntities = mongoTemplate.find(query, UserAccountEntity.class);
+      criteria = new Criteria().andOperator(criteria,
+          Criteria.where(UserAccountEntity_.TEAM_ID).is(teamId));
     }
-    Page<UserAccountEntity> accountEntityPage = PageableExecutionUtils.getPage(userAccountEntities,
-        pageable,
-        () -> mongoTemplate.count(Query.of(query).limit(-1).skip(-1), UserAccountEntity.class));
-
-    //Convert list of user accounts entity to list of user account model
-    List<UserAccountModel> accountModels = new ArrayList<>();
-    for (UserAccountEntity entity : accountEntityPage) {
-      UserAccountModel userAccountModel = modelMapper.map(entity, UserAccountModel.class);
-      //Check exist team
-      Optional<TeamEntity> teamOptional = teamRepository.findById(entity.getTeamId());
-      teamOptional.ifPresent(teamEntity -> userAccountModel.setTeamModel(
-          modelMapper.map(teamEntity, TeamModel.class)));
 
-      //Check exist office
-      Optional<OfficeEntity> officeOptional = officeRepository.findById(entity.getOfficeId());
-      officeOptional.ifPresent(officeEntity -> userAccountModel.setOfficeModel(
-          modelMapper.map(officeEntity, OfficeModel.class)));
-
-      //Check exist role
-      Optional<RoleEntity> roleOptional = roleRepository.findById(entity.getRoleId());
-      roleOptional.ifPresent(roleEntity -> userAccountModel.setRoleModel(
-          modelMapper.map(roleEntity, RoleModel.class)));
-      accountModels.add(userAccountModel);
+    //Find page of user accounts with their team, office and role in one round trip, with total
+    //when paging by index
+    List<UserAccountEntity> userAccountEntities = new ArrayList<>();
+    List<UserAccountModel> accountModels;
+    if (paginationModel.isSeekMode()) {
+      Pageable pageable = paginationConverter.convertToSeekPageable(paginationModel,
+          defaultSortBy, UserAccountEntity.class);
+      List<AggregationOperation> operations = new ArrayList<>();
+      operations.add(Aggregation.match(new Criteria().andOperator(criteria,
+          paginationConverter.convertToSeekCriteria(paginationModel, pageable))));
+      operations.add(Aggregation.sort(pageable.getSort()));
+      operations.add(Aggregation.limit(pageable.getPageSize()));
+      AggregationOperation projectStage = ProjectionConverter.toProjectStage(
+          ProjectionConverter.includeSort(ProjectionConverter.project(new Query(), fieldsModel),
+              pageable.getSort()), UserAccountEntity.class);
+      if (projectStage != null) {
+        operations.add(projectStage);
+      }
+      operations.addAll(lookupReferences());
+      List<Document> documents = mongoTemplate.aggregate(
+          Aggregation.newAggregation(UserAccountEntity.class, operations), Document.class)
+          .getMappedResults();
+      accountModels = convertToUserAccountModels(documents, userAccountEntities);
+      List<UserAccountEntity> pageEntities = paginationConverter.buildSeekPagination(
+          paginationModel, pageable, userAccountEntities, resourceModel);
+      accountModels = accountModels.subList(0, pageEntities.size());
+    } else {
+      Pageable pageable = paginationConverter.convertToPageable(paginationModel, defaultSortBy,
+          UserAccountEntity.class);
+      Page<Document> documentPage = new FacetPagingExecutor<>(mongoTemplate, countCache,
+          UserAccountEntity.class).findDocumentPage(
+          ProjectionConverter.project(new Query(criteria), fieldsModel), pageable,
+          paginationModel.getCountMode(), lookupReferences());
+      accountModels = convertToUserAccountModels(documentPage.getContent(),
+          userAccountEntities);
+      Page<UserAccountEntity> accountEntityPage = new PageImpl<>(userAccountEntities, pageable,
+          documentPage.getTotalElements());
+      paginationConverter.buildPagination(paginationModel, accountEntityPage, resourceModel);
     }
 
     //Prepare resource for return
-    ResourceModel<UserAccountModel> resourceModel = new ResourceModel<>();
     resourceModel.setData(accountModels);
     resourceModel.setSearchText(searchValue);
     resourceModel.setSortBy(defaultSortBy);
     resourceModel.setSortType(paginationModel.getSortType());
-    paginationConverter.buildPagination(paginationModel, accountEntityPage, resourceModel);
     return resourceModel;
   }
 
+  /**
+   * Join team, office and role of user accounts
+   *
+   * @return lookup stages
+   */
+  private List<AggregationOperation> lookupReferences() {
+    return List.of(
+        Aggregation.lookup(TeamEntity.COLLECTION_NAME, TEAM_ID_FIELD, ID_FIELD, TEAM_LOOKUP),
+        Aggregation.lookup(OfficeEntity.COLLECTION_NAME, OFFICE_ID_FIELD, ID_FIELD,
+            OFFICE_LOOKUP),
+        Aggregation.lookup(RoleEntity.COLLECTION_NAME, ROLE_ID_FIELD, ID_FIELD, ROLE_LOOKUP));
+  }
+
+  /**
+   * Convert user account documents with joined team, office and role to user account models
+   *
+   * @param documents
+   * @param userAccountEntities list collecting read entities
+   * @return list of user account models
+   */
+  private List<UserAccountModel> convertToUserAccountModels(List<Document> documents,
+      List<UserAccountEntity> userAccountEntities) {
+    List<UserAccountModel> accountModels = new ArrayList<>();
+    MongoConverter mongoConverter = mongoTemplate.getConverter();
+    for (Document document : documents) {
+      UserAccountEntity entity = mongoConverter.read(UserAccountEntity.class, document);
+      UserAccountModel userAccountModel = modelMapper.map(entity, UserAccountModel.class);
+      readFirstLookup(document, TEAM_LOOKUP, TeamEntity.class, mongoConverter)
+          .ifPresent(teamEntity -> userAccountModel.setTeamModel(
+              modelMapper.map(teamEntity, TeamModel.class)));
+      readFirstLookup(document, OFFICE_LOOKUP, OfficeEntity.class, mongoConverter)
+          .ifPresent(officeEntity -> userAccountModel.setOfficeModel(
+              modelMapper.map(officeEntity, OfficeModel.class)));
+      readFirstLookup(document, ROLE_LOOKUP, RoleEntity.class, mongoConverter)
+          .ifPresent(roleEntity -> userAccountModel.setRoleModel(
+              modelMapper.map(roleEntity, RoleModel.class)));
+      userAccountEntities.add(entity);
+      accountModels.add(userAccountModel);
+    }
+    return accountModels;
+  }
+
+  /**
+   * Read first document joined by a $lookup stage
+   *
+   * @param document
+   * @param lookupField
+   * @param entityClass
+   * @param mongoConverter
+   * @param <T>
+   * @return optional of joined entity
+   */
+  private <T> Optional<T> readFirstLookup(Document document, String lookupField,
+      Class<T> entityClass, MongoConverter mongoConverter) {
+    List<Document> joinedDocuments = document.getList(lookupField, Document.class);
+    if (joinedDocuments == null || joinedDocuments.isEmpty()) {
+      return Optional.empty();
+    }
+    return Optional.of(mongoConverter.read(entityClass, joinedDocuments.get(0)));
+  }
+
   /**
    * Add list of users to team
    *
@@ -345,7 +555,7 @@ public class UserAccountService {
   @Transactional(rollbackFor = IllegalArgumentException.class)
   public List<UserAccountModel> addUserListToTeam(int teamId, List<Integer> userIds) {
     //Check exist team
-    Optional<TeamEntity> teamOptional = teamRepository.findById(teamId);
+    Optional<TeamEntity> teamOptional = referenceDataCache.findTeam(teamId);
     TeamEntity teamEntity = teamOptional.orElseThrow(
         () -> new NoSuchEntityException(NOT_FOUND_TEAM));
 
@@ -358,17 +568,19 @@ public class UserAccountService {
     //Save list of user accounts to database
     List<UserAccountModel> userAccountModels = new ArrayList<>();
     List<UserAccountEntity> savedAccounts = userAccountRepository.saveAll(userAccountEntities);
+    userAccountCache.invalidateAll(userIds);
     for (UserAccountEntity userAccountEntity : savedAccounts) {
       UserAccountModel userAccountModel = modelMapper.map(userAccountEntity,
           UserAccountModel.class);
 
       //Find role and set to response model
-      Optional<RoleEntity> roleOptional = roleRepository.findById(userAccountEntity.getRoleId());
+      Optional<RoleEntity> roleOptional = referenceDataCache.findRole(
+          userAccountEntity.getRoleId());
       roleOptional.ifPresent(roleEntity -> userAccountModel.setRoleModel(
           modelMapper.map(roleEntity, RoleModel.class)));
 
       //Find office and set to response model
-      Optional<OfficeEntity> officeOptional = officeRepository.findById(
+      Optional<OfficeEntity> officeOptional = referenceDataCache.findOffice(
           userAccountEntity.getOfficeId());
       officeOptional.ifPresent(officeEntity -> userAccountModel.setOfficeModel(
           modelMapper.map(officeEntity, OfficeModel.class)));
@@ -392,7 +604,7 @@ public class UserAccountService {
   @Transactional(rollbackFor = IllegalArgumentException.class)
   public List<UserAccountModel> deleteUserListFromTeam(int teamId, List<Integer> userIds) {
     //Check exist team
-    Optional<TeamEntity> teamOptional = teamRepository.findById(teamId);
+    Optional<TeamEntity> teamOptional = referenceDataCache.findTeam(teamId);
     teamOptional.orElseThrow(
         () -> new NoSuchEntityException(NOT_FOUND_TEAM));
 
@@ -407,23 +619,25 @@ public class UserAccountService {
     //Save list of user accounts to database
     List<UserAccountModel> userAccountModels = new ArrayList<>();
     List<UserAccountEntity> savedAccounts = userAccountRepository.saveAll(userAccountEntities);
+    userAccountCache.invalidateAll(userIds);
     for (UserAccountEntity userAccountEntity : savedAccounts) {
       UserAccountModel userAccountModel = modelMapper.map(userAccountEntity,
           UserAccountModel.class);
 
       //Find role and set to response model
-      Optional<RoleEntity> roleOptional = roleRepository.findById(userAccountEntity.getRoleId());
+      Optional<RoleEntity> roleOptional = referenceDataCache.findRole(
+          userAccountEntity.getRoleId());
       roleOptional.ifPresent(roleEntity -> userAccountModel.setRoleModel(
           modelMapper.map(roleEntity, RoleModel.class)));
 
       //Find office and set to response model
-      Optional<OfficeEntity> officeOptional = officeRepository.findById(
+      Optional<OfficeEntity> officeOptional = referenceDataCache.findOffice(
           userAccountEntity.getOfficeId());
       officeOptional.ifPresent(officeEntity -> userAccountModel.setOfficeModel(
           modelMapper.map(officeEntity, OfficeModel.class)));
 
       //Fimd team and set to response model
-      Optional<TeamEntity> savedTeamOptional = teamRepository.findById(
+      Optional<TeamEntity> savedTeamOptional = referenceDataCache.findTeam(
           userAccountEntity.getTeamId());
       savedTeamOptional.ifPresent(savedTeamEntity -> userAccountModel.setTeamModel(
           modelMapper.map(savedTeamEntity, TeamModel.class)));
@@ -0,0 +1,193 @@
+package com.nli.probation.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Open addressing hash map with primitive int keys, avoiding boxing of ids on lookup. Null values
+ * are not allowed. This class is not thread safe.
+ *
+ * @param <V> Type of value
+ */
+public class IntObjectHashMap<V> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.5f;
+
+  private int[] keys;
+  private Object[] values;
+  private int size;
+
+  public IntObjectHashMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public IntObjectHashMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY,
+        (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+    keys = new int[capacity];
+    values = new Object[capacity];
+  }
+
+  /**
+   * Copy all entries of another map
+   *
+   * @param source
+   */
+  public IntObjectHashMap(IntObjectHashMap<V> source) {
+    keys = Arrays.copyOf(source.keys, source.keys.length);
+    values = Arrays.copyOf(source.values, source.values.length);
+    size = source.size;
+  }
+
+  /**
+   * Put value for key
+   *
+   * @param key
+   * @param value
+   * @return previous value or null
+   */
+  public V put(int key, V value) {
+    Objects.requireNonNull(value);
+    int index = indexOf(key);
+    if (values[index] != null) {
+      V previous = valueAt(index);
+      values[index] = value;
+      return previous;
+    }
+    keys[index] = key;
+    values[index] = value;
+    if (++size > keys.length * LOAD_FACTOR) {
+      resize();
+    }
+    return null;
+  }
+
+  /**
+   * Get value of key
+   *
+   * @param key
+   * @return value or null
+   */
+  public V get(int key) {
+    return valueAt(indexOf(key));
+  }
+
+  /**
+   * Check key in map
+   *
+   * @param key
+   * @return true or false
+   */
+  public boolean containsKey(int key) {
+    return values[indexOf(key)] != null;
+  }
+
+  /**
+   * Remove key from map
+   *
+   * @param key
+   * @return removed value or null
+   */
+  public V remove(int key) {
+    int index = indexOf(key);
+    V removed = valueAt(index);
+    if (removed == null) {
+      return null;
+    }
+    values[index] = null;
+    size--;
+
+    //Shift following entries of the probe chain back to keep them reachable
+    int mask = keys.length - 1;
+    int free = index;
+    int next = (index + 1) & mask;
+    while (values[next] != null) {
+      int home = slotOf(keys[next]);
+      boolean reachable = free <= next ? (home <= free || home > next)
+          : (home <= free && home > next);
+      if (reachable) {
+        keys[free] = keys[next];
+        values[free] = values[next];
+        values[next] = null;
+        free = next;
+      }
+      next = (next + 1) & mask;
+    }
+    return removed;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Get all keys of map
+   *
+   * @return array of keys
+   */
+  public int[] keys() {
+    int[] result = new int[size];
+    int position = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (values[i] != null) {
+        result[position++] = keys[i];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get all values of map
+   *
+   * @return list of values
+   */
+  public List<V> values() {
+    List<V> result = new ArrayList<>(size);
+    for (int i = 0; i < keys.length; i++) {
+      if (values[i] != null) {
+        result.add(valueAt(i));
+      }
+    }
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V valueAt(int index) {
+    return (V) values[index];
+  }
+
+  private int slotOf(int key) {
+    int hash = key * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & (keys.length - 1);
+  }
+
+  private int indexOf(int key) {
+    int mask = keys.length - 1;
+    int index = slotOf(key);
+    while (values[index] != null && keys[index] != key) {
+      index = (index + 1) & mask;
+    }
+    return index;
+  }
+
+  private void resize() {
+    int[] oldKeys = keys;
+    Object[] oldValues = values;
+    keys = new int[oldKeys.length << 1];
+    values = new Object[oldValues.length << 1];
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldValues[i] != null) {
+        int index = indexOf(oldKeys[i]);
+        keys[index] = oldKeys[i];
+        values[index] = oldValues[i];
+      }
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package com.nli.probation.utils;
+
+import java.util.Arrays;
+
+/**
+ * Sorted list of distinct primitive int ids, used as posting list of an inverted index. Appending
+ * ids in ascending order is amortized constant time. This class is not thread safe.
+ */
+public class IntPostingList {
+
+  private static final int DEFAULT_CAPACITY = 4;
+  private static final int GALLOP_RATIO = 8;
+
+  private int[] ids;
+  private int size;
+
+  public IntPostingList() {
+    ids = new int[DEFAULT_CAPACITY];
+  }
+
+  /**
+   * Add id, keeping list sorted
+   *
+   * @param id
+   * @return true when id was not in list
+   */
+  public boolean add(int id) {
+    if (size == 0 || ids[size - 1] < id) {
+      ensureCapacity(size + 1);
+      ids[size++] = id;
+      return true;
+    }
+    int index = Arrays.binarySearch(ids, 0, size, id);
+    if (index >= 0) {
+      return false;
+    }
+    int insertion = -index - 1;
+    ensureCapacity(size + 1);
+    System.arraycopy(ids, insertion, ids, insertion + 1, size - insertion);
+    ids[insertion] = id;
+    size++;
+    return true;
+  }
+
+  /**
+   * Remove id
+   *
+   * @param id
+   * @return true when id was in list
+   */
+  public boolean remove(int id) {
+    int index = Arrays.binarySearch(ids, 0, size, id);
+    if (index < 0) {
+      return false;
+    }
+    System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+    size--;
+    return true;
+  }
+
+  /**
+   * Check id in list
+   *
+   * @param id
+   * @return true or false
+   */
+  public boolean contains(int id) {
+    return Arrays.binarySearch(ids, 0, size, id) >= 0;
+  }
+
+  /**
+   * Keep ids of sorted array which are also in this list. A small array is looked up by binary
+   * search, otherwise both are merged linearly.
+   *
+   * @param sortedIds
+   * @return sorted ids in both
+   */
+  public int[] intersect(int[] sortedIds) {
+    int[] result = new int[Math.min(size, sortedIds.length)];
+    int count = 0;
+    if ((long) sortedIds.length * GALLOP_RATIO < size) {
+      for (int id : sortedIds) {
+        if (contains(id)) {
+          result[count++] = id;
+        }
+      }
+    } else {
+      int i = 0;
+      int j = 0;
+      while (i < size && j < sortedIds.length) {
+        if (ids[i] < sortedIds[j]) {
+          i++;
+        } else if (ids[i] > sortedIds[j]) {
+          j++;
+        } else {
+          result[count++] = ids[i];
+          i++;
+          j++;
+        }
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Copy ids of list
+   *
+   * @return sorted array of ids
+   */
+  public int[] toArray() {
+    return Arrays.copyOf(ids, size);
+  }
+
+  /**
+   * Release unused capacity
+   */
+  public void trim() {
+    if (ids.length > size) {
+      ids = Arrays.copyOf(ids, Math.max(size, 1));
+    }
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > ids.length) {
+      ids = Arrays.copyOf(ids, Math.max(capacity, ids.length + (ids.length >> 1)));
+    }
+  }
+}
@@ -0,0 +1,281 @@
+package com.nli.probation.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Append-only journal of records in memory-mapped segment files. Each record is framed by its
+ * length and a CRC, so a record torn by a crash ends recovery of its segment instead of being
+ * read. Appends only copy to memory; {@link #sync(long)} forces a segment to disk once for every
+ * record appended before it. Records are dropped once confirmed by {@link #confirm(long)}.
+ */
+public class MappedJournal {
+
+  /**
+   * Sequence returned when a record is not appended
+   */
+  public static final long REJECTED = -1;
+
+  private static final String SEGMENT_SUFFIX = ".journal";
+  private static final int HEADER_SIZE = Integer.BYTES * 2;
+  private static final byte RECORD_TYPE = 1;
+  private static final byte CONFIRM_TYPE = 2;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final List<Segment> segments = new ArrayList<>();
+  private final Object syncLock = new Object();
+  private Segment activeSegment;
+  private long nextSegmentIndex;
+  private long nextSequence = 1;
+  private volatile long syncedSequence;
+
+  /**
+   * Create journal, files are only touched by {@link #open()}
+   *
+   * @param directory
+   * @param segmentSize bytes of one segment file, the largest record must fit in it
+   */
+  public MappedJournal(Path directory, int segmentSize) {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+  }
+
+  /**
+   * Read records not confirmed yet, then start a new segment for appends
+   *
+   * @return records in order of appending
+   */
+  public synchronized List<Record> open() {
+    try {
+      Files.createDirectories(directory);
+      List<Record> records = new ArrayList<>();
+      long confirmedSequence = 0;
+      for (Path path : listSegmentFiles()) {
+        Segment segment = mapSegment(path, Files.size(path));
+        segments.add(segment);
+        nextSegmentIndex = Math.max(nextSegmentIndex, segmentIndexOf(path) + 1);
+        ByteBuffer buffer = segment.buffer.duplicate();
+        Frame frame;
+        while ((frame = readFrame(buffer)) != null) {
+          if (frame.type == CONFIRM_TYPE) {
+            confirmedSequence = Math.max(confirmedSequence, frame.sequence);
+          } else {
+            nextSequence = Math.max(nextSequence, frame.sequence + 1);
+            segment.lastRecordSequence = frame.sequence;
+            records.add(new Record(frame.sequence, frame.payload));
+          }
+        }
+      }
+      long confirmed = confirmedSequence;
+      syncedSequence = nextSequence - 1;
+      activeSegment = createSegment();
+      return records.stream()
+          .filter(record -> record.sequence > confirmed)
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Append record when accepted. Acceptance is decided while no other record is appended, so
+   * accepted records keep the order of their sequences.
+   *
+   * @param payload
+   * @param accept told sequence of the record before it is written
+   * @return sequence of record, {@link #REJECTED} when not accepted
+   */
+  public synchronized long append(byte[] payload, LongPredicate accept) {
+    long sequence = nextSequence;
+    if (!accept.test(sequence)) {
+      return REJECTED;
+    }
+    nextSequence++;
+    writeFrame(RECORD_TYPE, sequence, payload);
+    return sequence;
+  }
+
+  /**
+   * Force appended records to disk. Threads waiting meanwhile are covered by the same force.
+   *
+   * @param sequence
+   */
+  public void sync(long sequence) {
+    if (syncedSequence >= sequence) {
+      return;
+    }
+    synchronized (syncLock) {
+      if (syncedSequence >= sequence) {
+        return;
+      }
+      long appendedSequence;
+      MappedByteBuffer buffer;
+      synchronized (this) {
+        appendedSequence = nextSequence - 1;
+        buffer = activeSegment.buffer;
+      }
+      //Earlier segments are forced when rolled over
+      buffer.force();
+      syncedSequence = appendedSequence;
+    }
+  }
+
+  /**
+   * Confirm records up to sequence are stored elsewhere, delete segments holding only them
+   *
+   * @param sequence
+   */
+  public synchronized void confirm(long sequence) {
+    writeFrame(CONFIRM_TYPE, sequence, new byte[0]);
+    List<Segment> confirmedSegments = segments.stream()
+        .filter(segment -> segment != activeSegment && segment.lastRecordSequence <= sequence)
+        .collect(Collectors.toList());
+    for (Segment segment : confirmedSegments) {
+      try {
+        Files.deleteIfExists(segment.path);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      segments.remove(segment);
+    }
+  }
+
+  private void writeFrame(byte type, long sequence, byte[] payload) {
+    int bodySize = 1 + Long.BYTES + payload.length;
+    if (HEADER_SIZE + bodySize > segmentSize - Integer.BYTES) {
+      throw new IllegalArgumentException("Record of " + payload.length
+          + " bytes does not fit in a journal segment");
+    }
+    try {
+      if (activeSegment.buffer.remaining() < HEADER_SIZE + bodySize + Integer.BYTES) {
+        rollOver();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    ByteBuffer body = ByteBuffer.allocate(bodySize);
+    body.put(type).putLong(sequence).put(payload);
+    CRC32C crc = new CRC32C();
+    crc.update(body.array());
+
+    //Write body before its length so a frame is only readable once complete
+    MappedByteBuffer buffer = activeSegment.buffer;
+    int position = buffer.position();
+    buffer.position(position + HEADER_SIZE);
+    buffer.put(body.array());
+    buffer.putInt(position + Integer.BYTES, (int) crc.getValue());
+    buffer.putInt(position, bodySize);
+    if (type == RECORD_TYPE) {
+      activeSegment.lastRecordSequence = sequence;
+    }
+  }
+
+  private void rollOver() throws IOException {
+    activeSegment.buffer.force();
+    activeSegment = createSegment();
+  }
+
+  private Segment createSegment() throws IOException {
+    Path path = directory.resolve(String.format("%020d%s", nextSegmentIndex++, SEGMENT_SUFFIX));
+    Segment segment = mapSegment(path, segmentSize);
+    segments.add(segment);
+    //Make the new file itself survive a crash
+    try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      directoryChannel.force(true);
+    }
+    return segment;
+  }
+
+  private static Segment mapSegment(Path path, long size) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      return new Segment(path, channel.map(MapMode.READ_WRITE, 0, size), 0);
+    }
+  }
+
+  private List<Path> listSegmentFiles() throws IOException {
+    try (Stream<Path> paths = Files.list(directory)) {
+      return paths.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+  }
+
+  private static long segmentIndexOf(Path path) {
+    String fileName = path.getFileName().toString();
+    return Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+  }
+
+  /**
+   * Read frame at position of buffer
+   *
+   * @param buffer
+   * @return frame, null at end of written frames or at a torn frame
+   */
+  private static Frame readFrame(ByteBuffer buffer) {
+    if (buffer.remaining() < HEADER_SIZE) {
+      return null;
+    }
+    int bodySize = buffer.getInt();
+    int expectedCrc = buffer.getInt();
+    if (bodySize < 1 + Long.BYTES || bodySize > buffer.remaining()) {
+      return null;
+    }
+    byte[] body = new byte[bodySize];
+    buffer.get(body);
+    CRC32C crc = new CRC32C();
+    crc.update(body);
+    if ((int) crc.getValue() != expectedCrc) {
+      return null;
+    }
+    ByteBuffer bodyBuffer = ByteBuffer.wrap(body);
+    byte type = bodyBuffer.get();
+    long sequence = bodyBuffer.getLong();
+    byte[] payload = new byte[bodyBuffer.remaining()];
+    bodyBuffer.get(payload);
+    return new Frame(type, sequence, payload);
+  }
+
+  /**
+   * Record read from journal
+   */
+  @Getter
+  @AllArgsConstructor
+  public static class Record {
+
+    private final long sequence;
+    private final byte[] payload;
+  }
+
+  @AllArgsConstructor
+  private static class Frame {
+
+    private final byte type;
+    private final long sequence;
+    private final byte[] payload;
+  }
+
+  @AllArgsConstructor
+  private static class Segment {
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private long lastRecordSequence;
+  }
+}
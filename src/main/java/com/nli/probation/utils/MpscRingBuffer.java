@@ -0,0 +1,126 @@
+package com.nli.probation.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded lock-free ring buffer for many producer threads and one consumer thread. Each slot has
+ * a sequence telling whether it is free for the producer of a position or filled for the
+ * consumer, so producers only compete on one counter and never wait for each other.
+ *
+ * @param <E> Type of element
+ */
+public class MpscRingBuffer<E> {
+
+  private final int capacity;
+  private final int mask;
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong();
+  private volatile long head;
+
+  /**
+   * Create ring buffer
+   *
+   * @param requestedCapacity rounded up to a power of two
+   */
+  public MpscRingBuffer(int requestedCapacity) {
+    if (requestedCapacity < 1 || requestedCapacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+    }
+    int roundedCapacity = 1;
+    while (roundedCapacity < requestedCapacity) {
+      roundedCapacity <<= 1;
+    }
+    capacity = roundedCapacity;
+    mask = capacity - 1;
+    elements = new AtomicReferenceArray<>(capacity);
+    sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Add element at tail, from any thread
+   *
+   * @param element
+   * @return false when buffer is full
+   */
+  public boolean offer(E element) {
+    long position = tail.get();
+    while (true) {
+      int index = (int) position & mask;
+      long difference = sequences.get(index) - position;
+      if (difference == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          elements.lazySet(index, element);
+          //Publish element to consumer
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (difference < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /**
+   * Remove element at head, from the consumer thread only
+   *
+   * @return element, null when buffer is empty or the next element is not published yet
+   */
+  public E poll() {
+    long position = head;
+    int index = (int) position & mask;
+    if (sequences.get(index) != position + 1) {
+      return null;
+    }
+    E element = elements.get(index);
+    elements.lazySet(index, null);
+    //Free slot for producer of the next round
+    sequences.set(index, position + capacity);
+    head = position + 1;
+    return element;
+  }
+
+  /**
+   * Remove elements at head, from the consumer thread only
+   *
+   * @param consumer
+   * @param limit
+   * @return number of removed elements
+   */
+  public int drain(Consumer<E> consumer, int limit) {
+    int drained = 0;
+    E element;
+    while (drained < limit && (element = poll()) != null) {
+      consumer.accept(element);
+      drained++;
+    }
+    return drained;
+  }
+
+  /**
+   * Get number of elements, exact only when no thread is adding or removing
+   *
+   * @return size
+   */
+  public int size() {
+    long size = tail.get() - head;
+    return (int) Math.max(0, Math.min(capacity, size));
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+}
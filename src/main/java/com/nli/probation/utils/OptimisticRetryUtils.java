@@ -0,0 +1,72 @@
+package com.nli.probation.utils;
+
+import com.nli.probation.customexception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.Metrics;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+/**
+ * Compare-and-set retry loop for optimistic updates, with bounded attempts and jittered backoff
+ * instead of locking
+ */
+public class OptimisticRetryUtils {
+
+  public static final int MAX_ATTEMPTS = 5;
+
+  private static final long BASE_BACKOFF_MILLIS = 2;
+  private static final long MAX_BACKOFF_MILLIS = 50;
+  private static final String OPERATION_TAG = "operation";
+
+  private OptimisticRetryUtils() {
+  }
+
+  /**
+   * Run attempts until one succeeds. An attempt fails its compare by returning empty or by
+   * throwing optimistic locking failure, it is then run again after a random backoff growing
+   * with the attempt.
+   *
+   * @param operation name of operation in metrics
+   * @param conflictMessage message when every attempt failed
+   * @param attempt read, compare and set of the operation
+   * @return result of the successful attempt
+   */
+  public static <T> T retry(String operation, String conflictMessage,
+      Supplier<Optional<T>> attempt) {
+    for (int attemptNumber = 1; attemptNumber <= MAX_ATTEMPTS; attemptNumber++) {
+      try {
+        Optional<T> result = attempt.get();
+        if (result.isPresent()) {
+          Metrics.summary("optimistic.update.attempts", OPERATION_TAG, operation)
+              .record(attemptNumber);
+          return result.get();
+        }
+      } catch (OptimisticLockingFailureException e) {
+        //Same as an empty result, the entity changed since it was read
+      }
+      Metrics.counter("optimistic.update.conflicts", OPERATION_TAG, operation).increment();
+      if (attemptNumber < MAX_ATTEMPTS) {
+        backoff(attemptNumber, conflictMessage);
+      }
+    }
+    Metrics.counter("optimistic.update.exhausted", OPERATION_TAG, operation).increment();
+    throw new ConcurrentUpdateException(conflictMessage);
+  }
+
+  /**
+   * Sleep a random time up to an exponentially growing bound, so conflicting writers spread out
+   *
+   * @param attemptNumber
+   * @param conflictMessage
+   */
+  private static void backoff(int attemptNumber, String conflictMessage) {
+    long bound = Math.min(MAX_BACKOFF_MILLIS, BASE_BACKOFF_MILLIS << attemptNumber);
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ConcurrentUpdateException(conflictMessage, e);
+    }
+  }
+}
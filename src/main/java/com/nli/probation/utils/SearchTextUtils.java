@@ -0,0 +1,24 @@
+package com.nli.probation.utils;
+
+import java.text.Normalizer;
+import java.util.Locale;
+
+public class SearchTextUtils {
+
+  private SearchTextUtils() {
+  }
+
+  /**
+   * Normalize text for lowercase search fields, so case-insensitive prefix search becomes a plain
+   * index range scan
+   *
+   * @param text
+   * @return normalized text or null
+   */
+  public static String normalize(String text) {
+    if (text == null) {
+      return null;
+    }
+    return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+  }
+}
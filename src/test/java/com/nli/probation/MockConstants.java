@@ -39,6 +39,7 @@ public class MockConstants {
   public static final String ACCOUNT_PHONE = "0987654321";
   public static final int ACCOUNT_STATUS = UserAccountStatusEnum.ACTIVE.ordinal();
   public static final int NOT_FOUND_ACCOUNT_ID = Integer.MAX_VALUE;
+  public static final int TASK_ID = 1;
   public static final int SUCCESS_STATUS_CODE = 200;
   public static final String SUCSESS_MESSAGE = "OK";
 }
@@ -0,0 +1,140 @@
+package com.nli.probation.unittest.aop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nli.probation.MockConstants;
+import com.nli.probation.aop.RequestScopedLoaderAspect;
+import com.nli.probation.cache.RequestScopedLoader;
+import com.nli.probation.entity.TeamEntity;
+import com.nli.probation.repository.TeamRepository;
+import com.nli.probation.utils.FacetTestUtils;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class RequestScopedLoaderAspectTest {
+
+  private final TeamRepository mockRepository = Mockito.mock(TeamRepository.class);
+  private TeamRepository teamRepository;
+
+  @BeforeEach
+  void setUp() {
+    AspectJProxyFactory proxyFactory = new AspectJProxyFactory(mockRepository);
+    proxyFactory.addAspect(
+        new RequestScopedLoaderAspect(new RequestScopedLoader(FacetTestUtils.createConverter())));
+    teamRepository = proxyFactory.getProxy();
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  private TeamEntity createTeamEntity(int id) {
+    TeamEntity teamEntity = new TeamEntity();
+    teamEntity.setId(id);
+    teamEntity.setName(MockConstants.TEAM_NAME);
+    return teamEntity;
+  }
+
+  /**
+   * Find same team many times in one request then query database once, until team is saved
+   */
+  @Test
+  void when_findSameIdInRequest_thenLoadOnceUntilSaved() {
+    TeamEntity teamEntity = createTeamEntity(MockConstants.TEAM_ID);
+    when(mockRepository.findById(MockConstants.TEAM_ID)).thenReturn(Optional.of(teamEntity));
+
+    for (int i = 0; i < 50; i++) {
+      assertEquals(teamEntity, teamRepository.findById(MockConstants.TEAM_ID).orElseThrow());
+    }
+    verify(mockRepository, times(1)).findById(MockConstants.TEAM_ID);
+
+    teamRepository.save(teamEntity);
+    teamRepository.findById(MockConstants.TEAM_ID);
+    verify(mockRepository, times(2)).findById(MockConstants.TEAM_ID);
+  }
+
+  /**
+   * Change team found in request then later lookups get their own unchanged copy
+   */
+  @Test
+  void when_changeFoundTeam_thenLaterLookupsNotChanged() {
+    TeamEntity teamEntity = createTeamEntity(MockConstants.TEAM_ID);
+    when(mockRepository.findById(MockConstants.TEAM_ID)).thenReturn(Optional.of(teamEntity));
+
+    TeamEntity changedTeam = teamRepository.findById(MockConstants.TEAM_ID).orElseThrow();
+    changedTeam.setName("changed");
+    TeamEntity foundTeam = teamRepository.findById(MockConstants.TEAM_ID).orElseThrow();
+    assertNotSame(changedTeam, foundTeam);
+    assertEquals(MockConstants.TEAM_NAME, foundTeam.getName());
+    verify(mockRepository, times(1)).findById(MockConstants.TEAM_ID);
+  }
+
+  /**
+   * Save failing then memoized team is forgotten as the write may have been applied
+   */
+  @Test
+  void when_saveFails_thenLoadAgain() {
+    TeamEntity teamEntity = createTeamEntity(MockConstants.TEAM_ID);
+    when(mockRepository.findById(MockConstants.TEAM_ID)).thenReturn(Optional.of(teamEntity));
+    doThrow(new DataAccessResourceFailureException("timeout")).when(mockRepository)
+        .save(teamEntity);
+
+    teamRepository.findById(MockConstants.TEAM_ID);
+    assertThrows(DataAccessResourceFailureException.class, () -> teamRepository.save(teamEntity));
+    teamRepository.findById(MockConstants.TEAM_ID);
+    verify(mockRepository, times(2)).findById(MockConstants.TEAM_ID);
+  }
+
+  /**
+   * Find list of teams then only ids not memoized are queried and later lookups are memoized
+   */
+  @Test
+  void when_findAllById_thenLoadOnlyMissingIds() {
+    TeamEntity firstTeam = createTeamEntity(1);
+    TeamEntity secondTeam = createTeamEntity(2);
+    when(mockRepository.findById(1)).thenReturn(Optional.of(firstTeam));
+    when(mockRepository.findAllById(any())).thenReturn(List.of(secondTeam));
+
+    teamRepository.findById(1);
+    Iterable<TeamEntity> teams = teamRepository.findAllById(List.of(1, 2, 3, 2));
+
+    assertEquals(List.of(firstTeam, secondTeam), teams);
+    verify(mockRepository).findAllById(List.of(2, 3));
+    teamRepository.findById(2);
+    teamRepository.findById(3);
+    verify(mockRepository, times(0)).findById(2);
+    verify(mockRepository, times(0)).findById(3);
+  }
+
+  /**
+   * Find outside of request then every call goes to database
+   */
+  @Test
+  void when_findOutsideRequest_thenNotMemoized() {
+    RequestContextHolder.resetRequestAttributes();
+    when(mockRepository.findById(MockConstants.TEAM_ID)).thenReturn(Optional.empty());
+
+    teamRepository.findById(MockConstants.TEAM_ID);
+    teamRepository.findById(MockConstants.TEAM_ID);
+    verify(mockRepository, times(2)).findById(MockConstants.TEAM_ID);
+  }
+}
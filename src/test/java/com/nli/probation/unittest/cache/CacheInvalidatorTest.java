@@ -0,0 +1,116 @@
+package com.nli.probation.unittest.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nli.probation.MockConstants;
+import com.nli.probation.cache.CacheInvalidator;
+import com.nli.probation.cache.ReferenceDataCache;
+import com.nli.probation.cache.ResumeTokenStore;
+import com.nli.probation.cache.UserAccountCache;
+import com.nli.probation.cache.UserAccountSearchIndex;
+import com.nli.probation.config.CacheInvalidationProperties;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.entity.TeamEntity;
+import com.nli.probation.entity.UserAccountEntity;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+class CacheInvalidatorTest {
+
+  private final InMemoryChangeEventSource changeEventSource = new InMemoryChangeEventSource();
+  private final ResumeTokenStore resumeTokenStore = Mockito.mock(ResumeTokenStore.class);
+  private final ReferenceDataCache referenceDataCache = Mockito.mock(ReferenceDataCache.class);
+  private final UserAccountCache userAccountCache = Mockito.mock(UserAccountCache.class);
+  private final UserAccountSearchIndex userAccountSearchIndex = Mockito.mock(
+      UserAccountSearchIndex.class);
+
+  private CacheInvalidator createCacheInvalidator() {
+    CacheInvalidationProperties cacheInvalidationProperties = new CacheInvalidationProperties();
+    cacheInvalidationProperties.setEnabled(true);
+    cacheInvalidationProperties.setResumeTokenSaveInterval(Duration.ZERO);
+    return new CacheInvalidator(changeEventSource, resumeTokenStore, referenceDataCache,
+        userAccountCache, userAccountSearchIndex, cacheInvalidationProperties);
+  }
+
+  /**
+   * Start from stored token then change events evict cached entries and save their tokens
+   */
+  @Test
+  void when_changeEvent_thenEvictAndSaveToken() {
+    BsonDocument storedToken = new BsonDocument("_data", new BsonInt64(0));
+    when(resumeTokenStore.load(anyString())).thenReturn(storedToken);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    Metrics.addRegistry(meterRegistry);
+    try {
+      CacheInvalidator cacheInvalidator = createCacheInvalidator();
+      cacheInvalidator.start();
+      assertSame(storedToken, changeEventSource.getStartToken());
+
+      changeEventSource.emit(UserAccountEntity.COLLECTION_NAME, MockConstants.ACCOUNT_ID,
+          System.currentTimeMillis() - 50);
+      BsonDocument lastToken = changeEventSource.emit(TeamEntity.COLLECTION_NAME,
+          MockConstants.TEAM_ID, System.currentTimeMillis());
+      changeEventSource.emit(TaskEntity.COLLECTION_NAME, 1, System.currentTimeMillis());
+
+      verify(userAccountCache).invalidate(MockConstants.ACCOUNT_ID);
+      verify(userAccountSearchIndex).refresh(MockConstants.ACCOUNT_ID);
+      verify(referenceDataCache).evictTeam(MockConstants.TEAM_ID);
+      verify(resumeTokenStore).save(any(), eq(lastToken));
+      assertEquals(1, meterRegistry.get("cache.invalidation.lag")
+          .tag("collection", UserAccountEntity.COLLECTION_NAME).timer().count());
+    } finally {
+      Metrics.removeRegistry(meterRegistry);
+    }
+  }
+
+  /**
+   * Start without token of this node then resume from oldest recent token of other nodes and
+   * remove tokens of nodes gone long ago
+   */
+  @Test
+  void when_startWithoutOwnToken_thenResumeFromOldestTokenOfOtherNodes() {
+    BsonDocument otherNodeToken = new BsonDocument("_data", new BsonInt64(0));
+    when(resumeTokenStore.loadOldestSince(any())).thenReturn(otherNodeToken);
+    CacheInvalidator cacheInvalidator = createCacheInvalidator();
+    cacheInvalidator.start();
+
+    assertSame(otherNodeToken, changeEventSource.getStartToken());
+    ArgumentCaptor<Instant> sinceCaptor = ArgumentCaptor.forClass(Instant.class);
+    verify(resumeTokenStore).removeSavedBefore(sinceCaptor.capture());
+    verify(resumeTokenStore).loadOldestSince(sinceCaptor.getValue());
+    assertTrue(sinceCaptor.getValue().isBefore(Instant.now().minus(Duration.ofMinutes(59))));
+  }
+
+  /**
+   * Reset of source drops all cached entries
+   */
+  @Test
+  void when_reset_thenDropAllCaches() {
+    CacheInvalidator cacheInvalidator = createCacheInvalidator();
+    cacheInvalidator.start();
+    assertNull(changeEventSource.getStartToken());
+
+    changeEventSource.reset();
+    cacheInvalidator.stop();
+
+    verify(referenceDataCache).reload();
+    verify(userAccountCache).invalidateAll();
+    verify(resumeTokenStore, never()).save(any(), any());
+  }
+}
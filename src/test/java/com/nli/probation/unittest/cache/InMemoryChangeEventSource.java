@@ -0,0 +1,56 @@
+package com.nli.probation.unittest.cache;
+
+import com.nli.probation.cache.ChangeEvent;
+import com.nli.probation.cache.ChangeEventSource;
+import java.util.Set;
+import lombok.Getter;
+import org.bson.BsonDocument;
+import org.bson.BsonInt64;
+
+/**
+ * Change event source driven by tests
+ */
+@Getter
+class InMemoryChangeEventSource implements ChangeEventSource {
+
+  private Set<String> collections;
+  private BsonDocument startToken;
+  private ChangeEventListener listener;
+  private long sequence;
+
+  @Override
+  public void start(Set<String> collections, BsonDocument resumeToken,
+      ChangeEventListener listener) {
+    this.collections = collections;
+    this.startToken = resumeToken;
+    this.listener = listener;
+  }
+
+  @Override
+  public void stop() {
+    listener = null;
+  }
+
+  @Override
+  public boolean isHealthy() {
+    return listener != null;
+  }
+
+  /**
+   * Deliver change of a document written at given time
+   *
+   * @param collection
+   * @param id
+   * @param clusterTimeMillis
+   * @return token of delivered change
+   */
+  BsonDocument emit(String collection, int id, long clusterTimeMillis) {
+    BsonDocument token = new BsonDocument("_data", new BsonInt64(++sequence));
+    listener.onChange(new ChangeEvent(collection, id, token, clusterTimeMillis));
+    return token;
+  }
+
+  void reset() {
+    listener.onReset();
+  }
+}
@@ -0,0 +1,143 @@
+package com.nli.probation.unittest.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nli.probation.MockConstants;
+import com.nli.probation.cache.ReferenceDataCache;
+import com.nli.probation.config.CacheInvalidationProperties;
+import com.nli.probation.config.ReferenceDataCacheProperties;
+import com.nli.probation.entity.OfficeEntity;
+import com.nli.probation.entity.TeamEntity;
+import com.nli.probation.repository.OfficeRepository;
+import com.nli.probation.repository.RoleRepository;
+import com.nli.probation.repository.TeamRepository;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+class ReferenceDataCacheTest {
+
+  private final OfficeRepository officeRepository = Mockito.mock(OfficeRepository.class);
+  private final RoleRepository roleRepository = Mockito.mock(RoleRepository.class);
+  private final TeamRepository teamRepository = Mockito.mock(TeamRepository.class);
+
+  /**
+   * Reload all reference data then find without querying database
+   */
+  @Test
+  void when_findAfterReload_thenReturnWithoutQuery() {
+    TeamEntity teamEntity = new TeamEntity();
+    teamEntity.setId(MockConstants.TEAM_ID);
+    teamEntity.setName(MockConstants.TEAM_NAME);
+    when(teamRepository.findAll()).thenReturn(List.of(teamEntity));
+
+    ReferenceDataCache referenceDataCache = new ReferenceDataCache(officeRepository,
+        roleRepository, teamRepository);
+    referenceDataCache.reload();
+
+    assertSame(teamEntity, referenceDataCache.findTeam(MockConstants.TEAM_ID).orElseThrow());
+    assertFalse(referenceDataCache.findTeam(0).isPresent());
+    assertEquals(1, referenceDataCache.sizes().get(ReferenceDataCache.TEAM_TYPE));
+    verify(teamRepository, never()).findById(anyInt());
+  }
+
+  /**
+   * Find missing office loads it once, then evict forces another load
+   */
+  @Test
+  void when_findMissingOffice_thenReadThroughOnce() {
+    OfficeEntity officeEntity = new OfficeEntity();
+    officeEntity.setId(MockConstants.OFFICE_ID);
+    when(officeRepository.findById(MockConstants.OFFICE_ID)).thenReturn(Optional.of(officeEntity));
+
+    ReferenceDataCache referenceDataCache = new ReferenceDataCache(officeRepository,
+        roleRepository, teamRepository);
+    assertTrue(referenceDataCache.findOffice(MockConstants.OFFICE_ID).isPresent());
+    assertTrue(referenceDataCache.findOffice(MockConstants.OFFICE_ID).isPresent());
+    verify(officeRepository, times(1)).findById(MockConstants.OFFICE_ID);
+
+    referenceDataCache.evictOffice(MockConstants.OFFICE_ID);
+    assertTrue(referenceDataCache.findOffice(MockConstants.OFFICE_ID).isPresent());
+    verify(officeRepository, times(2)).findById(MockConstants.OFFICE_ID);
+  }
+
+  /**
+   * Write office through while a read-through load of it runs then the loaded row does not
+   * overwrite the written one
+   */
+  @Test
+  void when_writeThroughDuringReadThrough_thenKeepWrittenOffice() {
+    OfficeEntity staleOffice = new OfficeEntity();
+    staleOffice.setId(MockConstants.OFFICE_ID);
+    OfficeEntity writtenOffice = new OfficeEntity();
+    writtenOffice.setId(MockConstants.OFFICE_ID);
+    ReferenceDataCache referenceDataCache = new ReferenceDataCache(officeRepository,
+        roleRepository, teamRepository);
+    when(officeRepository.findById(MockConstants.OFFICE_ID)).thenAnswer(invocation -> {
+      referenceDataCache.putOffice(writtenOffice);
+      return Optional.of(staleOffice);
+    });
+
+    assertSame(staleOffice, referenceDataCache.findOffice(MockConstants.OFFICE_ID).orElseThrow());
+    assertSame(writtenOffice,
+        referenceDataCache.findOffice(MockConstants.OFFICE_ID).orElseThrow());
+    verify(officeRepository, times(1)).findById(MockConstants.OFFICE_ID);
+  }
+
+  /**
+   * Start refresh with cache invalidation disabled then reload all reference data periodically,
+   * so a team renamed by another node is seen
+   */
+  @Test
+  void when_refreshWithoutInvalidation_thenReloadPeriodically() {
+    TeamEntity teamEntity = new TeamEntity();
+    teamEntity.setId(MockConstants.TEAM_ID);
+    teamEntity.setName(MockConstants.TEAM_NAME);
+    TeamEntity renamedTeam = new TeamEntity();
+    renamedTeam.setId(MockConstants.TEAM_ID);
+    renamedTeam.setName("Renamed team");
+    when(teamRepository.findAll()).thenReturn(List.of(teamEntity), List.of(renamedTeam));
+    ReferenceDataCacheProperties referenceDataCacheProperties = new ReferenceDataCacheProperties();
+    referenceDataCacheProperties.setRefreshInterval(Duration.ofMillis(10));
+    ReferenceDataCache referenceDataCache = new ReferenceDataCache(officeRepository,
+        roleRepository, teamRepository, new CacheInvalidationProperties(),
+        referenceDataCacheProperties);
+    referenceDataCache.reload();
+    referenceDataCache.startRefresh();
+    try {
+      verify(teamRepository, timeout(5000).atLeast(2)).findAll();
+      assertEquals("Renamed team",
+          referenceDataCache.findTeam(MockConstants.TEAM_ID).orElseThrow().getName());
+    } finally {
+      referenceDataCache.stopRefresh();
+    }
+  }
+
+  /**
+   * Start refresh with cache invalidation enabled then never reload periodically
+   */
+  @Test
+  void when_refreshWithInvalidation_thenNotStarted() throws InterruptedException {
+    CacheInvalidationProperties cacheInvalidationProperties = new CacheInvalidationProperties();
+    cacheInvalidationProperties.setEnabled(true);
+    ReferenceDataCacheProperties referenceDataCacheProperties = new ReferenceDataCacheProperties();
+    referenceDataCacheProperties.setRefreshInterval(Duration.ofMillis(1));
+    ReferenceDataCache referenceDataCache = new ReferenceDataCache(officeRepository,
+        roleRepository, teamRepository, cacheInvalidationProperties, referenceDataCacheProperties);
+    referenceDataCache.startRefresh();
+    Thread.sleep(50);
+    referenceDataCache.stopRefresh();
+    verify(teamRepository, never()).findAll();
+  }
+}
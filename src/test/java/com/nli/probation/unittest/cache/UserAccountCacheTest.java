@@ -0,0 +1,117 @@
+package com.nli.probation.unittest.cache;
+
+import static com.nli.probation.utils.UserAccountTestUtils.createUserAccountEntity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nli.probation.MockConstants;
+import com.nli.probation.cache.UserAccountCache;
+import com.nli.probation.config.UserAccountCacheProperties;
+import com.nli.probation.entity.UserAccountEntity;
+import com.nli.probation.metamodel.UserAccountEntity_;
+import com.nli.probation.repository.UserAccountRepository;
+import com.nli.probation.utils.IntObjectHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+class UserAccountCacheTest {
+
+  private final UserAccountRepository userAccountRepository = Mockito.mock(
+      UserAccountRepository.class);
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+
+  /**
+   * Find same account twice then query database once, invalidate forces another query
+   */
+  @Test
+  void when_findAccountTwice_thenLoadOnce() {
+    UserAccountEntity accountEntity = createUserAccountEntity();
+    when(userAccountRepository.findById(MockConstants.ACCOUNT_ID))
+        .thenReturn(Optional.of(accountEntity));
+
+    UserAccountCache userAccountCache = new UserAccountCache(userAccountRepository,
+        mongoTemplate, new UserAccountCacheProperties());
+    userAccountCache.findById(MockConstants.ACCOUNT_ID);
+    assertSame(accountEntity, userAccountCache.findById(MockConstants.ACCOUNT_ID).orElseThrow());
+    verify(userAccountRepository, times(1)).findById(MockConstants.ACCOUNT_ID);
+
+    userAccountCache.invalidate(MockConstants.ACCOUNT_ID);
+    userAccountCache.findById(MockConstants.ACCOUNT_ID);
+    verify(userAccountRepository, times(2)).findById(MockConstants.ACCOUNT_ID);
+  }
+
+  /**
+   * Find list of accounts then only missing accounts are queried
+   */
+  @Test
+  void when_findAllById_thenQueryOnlyMissingAccounts() {
+    UserAccountEntity cachedEntity = createUserAccountEntity();
+    when(userAccountRepository.findById(MockConstants.ACCOUNT_ID))
+        .thenReturn(Optional.of(cachedEntity));
+    UserAccountEntity loadedEntity = createUserAccountEntity();
+    loadedEntity.setId(MockConstants.ACCOUNT_ID + 1);
+    when(mongoTemplate.find(any(Query.class), eq(UserAccountEntity.class)))
+        .thenReturn(List.of(loadedEntity));
+
+    UserAccountCache userAccountCache = new UserAccountCache(userAccountRepository,
+        mongoTemplate, new UserAccountCacheProperties());
+    userAccountCache.findById(MockConstants.ACCOUNT_ID);
+    IntObjectHashMap<UserAccountEntity> accountMap = userAccountCache.findAllById(
+        IntStream.of(MockConstants.ACCOUNT_ID, MockConstants.ACCOUNT_ID + 1, 0));
+
+    assertEquals(2, accountMap.size());
+    assertSame(cachedEntity, accountMap.get(MockConstants.ACCOUNT_ID));
+    assertSame(loadedEntity, accountMap.get(MockConstants.ACCOUNT_ID + 1));
+    verify(mongoTemplate).find(eq(new Query(Criteria.where(UserAccountEntity_.ID)
+        .in(List.of(MockConstants.ACCOUNT_ID + 1)))), eq(UserAccountEntity.class));
+  }
+
+  /**
+   * Invalidate account while it is loaded then the loaded account is returned but not cached
+   */
+  @Test
+  void when_invalidateDuringLoad_thenLoadedAccountNotCached() {
+    UserAccountCache userAccountCache = new UserAccountCache(userAccountRepository,
+        mongoTemplate, new UserAccountCacheProperties());
+    UserAccountEntity staleEntity = createUserAccountEntity();
+    when(userAccountRepository.findById(MockConstants.ACCOUNT_ID)).thenAnswer(invocation -> {
+      userAccountCache.invalidate(MockConstants.ACCOUNT_ID);
+      return Optional.of(staleEntity);
+    });
+
+    assertSame(staleEntity, userAccountCache.findById(MockConstants.ACCOUNT_ID).orElseThrow());
+    userAccountCache.findById(MockConstants.ACCOUNT_ID);
+    verify(userAccountRepository, times(2)).findById(MockConstants.ACCOUNT_ID);
+  }
+
+  /**
+   * Invalidate account while a list of accounts is loaded then none of them is cached
+   */
+  @Test
+  void when_invalidateDuringLoadAll_thenLoadedAccountsNotCached() {
+    UserAccountCache userAccountCache = new UserAccountCache(userAccountRepository,
+        mongoTemplate, new UserAccountCacheProperties());
+    UserAccountEntity staleEntity = createUserAccountEntity();
+    when(mongoTemplate.find(any(Query.class), eq(UserAccountEntity.class)))
+        .thenAnswer(invocation -> {
+          userAccountCache.invalidate(MockConstants.ACCOUNT_ID);
+          return List.of(staleEntity);
+        });
+
+    assertSame(staleEntity, userAccountCache.findAllById(IntStream.of(MockConstants.ACCOUNT_ID))
+        .get(MockConstants.ACCOUNT_ID));
+    userAccountCache.findAllById(IntStream.of(MockConstants.ACCOUNT_ID));
+    verify(mongoTemplate, times(2)).find(any(Query.class), eq(UserAccountEntity.class));
+  }
+}
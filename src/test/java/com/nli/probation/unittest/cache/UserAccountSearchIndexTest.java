@@ -0,0 +1,129 @@
+package com.nli.probation.unittest.cache;
+
+import static com.nli.probation.utils.UserAccountTestUtils.createUserAccountEntity;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nli.probation.cache.ChangeEventSource;
+import com.nli.probation.cache.UserAccountSearchIndex;
+import com.nli.probation.config.CacheInvalidationProperties;
+import com.nli.probation.config.UserAccountSearchIndexProperties;
+import com.nli.probation.entity.UserAccountEntity;
+import com.nli.probation.repository.UserAccountRepository;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+class UserAccountSearchIndexTest {
+
+  private final UserAccountRepository userAccountRepository = Mockito.mock(
+      UserAccountRepository.class);
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final UserAccountSearchIndexProperties userAccountSearchIndexProperties =
+      new UserAccountSearchIndexProperties();
+  private final CacheInvalidationProperties cacheInvalidationProperties =
+      new CacheInvalidationProperties();
+  private final ChangeEventSource changeEventSource = Mockito.mock(ChangeEventSource.class);
+
+  @BeforeEach
+  void setUp() {
+    cacheInvalidationProperties.setEnabled(true);
+    when(changeEventSource.isHealthy()).thenReturn(true);
+  }
+
+  private UserAccountEntity createAccount(int id, String name, String email) {
+    UserAccountEntity userAccountEntity = createUserAccountEntity();
+    userAccountEntity.setId(id);
+    userAccountEntity.setName(name);
+    userAccountEntity.setEmail(email);
+    return userAccountEntity;
+  }
+
+  private UserAccountSearchIndex createIndex(List<UserAccountEntity> accounts) {
+    when(mongoTemplate.find(any(Query.class), eq(UserAccountEntity.class))).thenReturn(accounts);
+    UserAccountSearchIndex userAccountSearchIndex = new UserAccountSearchIndex(
+        userAccountRepository, mongoTemplate, userAccountSearchIndexProperties,
+        cacheInvalidationProperties, changeEventSource);
+    userAccountSearchIndex.rebuild();
+    return userAccountSearchIndex;
+  }
+
+  /**
+   * Search substring of name or email then return ids of accounts containing its trigrams
+   */
+  @Test
+  void when_searchSubstring_thenReturnCandidateIds() {
+    List<UserAccountEntity> accounts = new ArrayList<>();
+    for (int id = 1; id <= 100; id++) {
+      accounts.add(createAccount(id, "User " + id, "user" + id + "@mail.com"));
+    }
+    accounts.add(createAccount(101, "Nguyen Van A", "vana@nli.com"));
+    accounts.add(createAccount(102, "Tran Nguyen", "tran@nli.com"));
+    UserAccountSearchIndex userAccountSearchIndex = createIndex(accounts);
+
+    assertArrayEquals(new int[]{101, 102}, userAccountSearchIndex.findCandidates("NGUYEN"));
+    assertArrayEquals(new int[]{101, 102}, userAccountSearchIndex.findCandidates("@nli."));
+    assertArrayEquals(new int[]{42}, userAccountSearchIndex.findCandidates("user42@"));
+    assertArrayEquals(new int[0], userAccountSearchIndex.findCandidates("missing"));
+    assertNull(userAccountSearchIndex.findCandidates("ng"));
+  }
+
+  /**
+   * Index updated account then its old name is forgotten and broad searches fall back to scan
+   */
+  @Test
+  void when_indexUpdatedAccount_thenReplaceTrigrams() {
+    List<UserAccountEntity> accounts = new ArrayList<>();
+    for (int id = 1; id <= 10; id++) {
+      accounts.add(createAccount(id, "Member " + id, "member" + id + "@nli.com"));
+    }
+    UserAccountSearchIndex userAccountSearchIndex = createIndex(accounts);
+
+    userAccountSearchIndex.index(createAccount(3, "Le Thi B", "lethib@nli.com"));
+    assertArrayEquals(new int[]{3}, userAccountSearchIndex.findCandidates("thi b"));
+    assertArrayEquals(new int[]{1, 2, 4, 5, 6, 7, 8, 9, 10},
+        userAccountSearchIndex.findCandidates("member"));
+
+    userAccountSearchIndexProperties.setMaxCandidates(5);
+    assertNull(userAccountSearchIndex.findCandidates("@nli.com"));
+  }
+
+  /**
+   * Search while change stream is failing then scan by regex, since accounts written by other
+   * nodes meanwhile may be missing from the index
+   */
+  @Test
+  void when_changeStreamNotHealthy_thenNotNarrowSearch() {
+    UserAccountSearchIndex userAccountSearchIndex = createIndex(
+        List.of(createAccount(1, "Nguyen Van A", "vana@nli.com")));
+    assertArrayEquals(new int[]{1}, userAccountSearchIndex.findCandidates("nguyen"));
+
+    when(changeEventSource.isHealthy()).thenReturn(false);
+    assertNull(userAccountSearchIndex.findCandidates("nguyen"));
+  }
+
+  /**
+   * Start with cache invalidation disabled then the index is not built and never narrows search
+   */
+  @Test
+  void when_cacheInvalidationDisabled_thenNotBuildIndex() {
+    cacheInvalidationProperties.setEnabled(false);
+    UserAccountSearchIndex userAccountSearchIndex = createIndex(
+        List.of(createAccount(1, "Nguyen Van A", "vana@nli.com")));
+    userAccountSearchIndex.index(createAccount(2, "Tran Van B", "vanb@nli.com"));
+
+    assertNull(userAccountSearchIndex.findCandidates("nguyen"));
+    assertEquals(0, userAccountSearchIndex.size());
+    verify(mongoTemplate, never()).find(any(Query.class), eq(UserAccountEntity.class));
+  }
+}
@@ -0,0 +1,120 @@
+package com.nli.probation.unittest.config;
+
+import static com.nli.probation.utils.FacetTestUtils.createMappingContext;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoCollection;
+import com.nli.probation.config.IndexHealthIndicator;
+import com.nli.probation.config.IndexRegistry;
+import com.nli.probation.config.IndexRegistryProperties;
+import com.nli.probation.entity.LogWorkBucketEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.entity.UserAccountEntity;
+import com.nli.probation.model.IndexDriftModel;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+
+class IndexRegistryTest {
+
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final IndexOperations indexOperations = Mockito.mock(IndexOperations.class);
+  private final Map<String, List<Document>> foundIndexes = new HashMap<>();
+
+  @SuppressWarnings("unchecked")
+  private IndexRegistry createIndexRegistry() {
+    when(mongoTemplate.getCollection(anyString())).thenAnswer(invocation -> {
+      List<Document> indexes = foundIndexes.getOrDefault(invocation.getArgument(0), List.of());
+      MongoCollection<Document> collection = Mockito.mock(MongoCollection.class);
+      ListIndexesIterable<Document> iterable = Mockito.mock(ListIndexesIterable.class);
+      when(collection.listIndexes()).thenReturn(iterable);
+      when(iterable.into(any())).thenAnswer(intoInvocation -> {
+        Collection<Document> target = intoInvocation.getArgument(0);
+        target.addAll(indexes);
+        return target;
+      });
+      return collection;
+    });
+    when(mongoTemplate.indexOps(anyString())).thenReturn(indexOperations);
+    return new IndexRegistry(mongoTemplate, createMappingContext(),
+        new IndexRegistryProperties());
+  }
+
+  private static Document index(String name, Document keys) {
+    return new Document("name", name).append("key", keys);
+  }
+
+  /**
+   * Verify indexes then report missing, changed and undeclared indexes
+   */
+  @Test
+  void when_verifyIndexes_thenReportDrift() {
+    foundIndexes.put(TaskEntity.COLLECTION_NAME, List.of(
+        index("_id_", new Document("_id", 1)),
+        index(TaskEntity.START_TIME_INDEX, new Document("start_time", -1)),
+        index("title_1", new Document("title", 1))));
+    IndexRegistry indexRegistry = createIndexRegistry();
+
+    IndexDriftModel drift = indexRegistry.verify().get(TaskEntity.COLLECTION_NAME);
+    assertTrue(drift.getMissing().contains(TaskEntity.ASSIGNEE_START_TIME_INDEX));
+    assertEquals(List.of(TaskEntity.START_TIME_INDEX), drift.getChanged());
+    assertEquals(List.of("title_1"), drift.getUndeclared());
+  }
+
+  /**
+   * Build missing indexes then only indexes not found in database are built
+   */
+  @Test
+  void when_buildMissingIndexes_thenBuildOnlyMissingIndexes() {
+    foundIndexes.put(TaskEntity.COLLECTION_NAME, List.of(
+        index(TaskEntity.START_TIME_INDEX, new Document("start_time", 1))));
+    IndexRegistry indexRegistry = createIndexRegistry();
+
+    indexRegistry.buildMissingIndexes();
+    verify(indexOperations).ensureIndex(argThat(indexDefinition -> TaskEntity
+        .ASSIGNEE_START_TIME_INDEX.equals(indexDefinition.getIndexOptions().get("name"))));
+    verify(indexOperations, never()).ensureIndex(argThat(indexDefinition -> TaskEntity
+        .START_TIME_INDEX.equals(indexDefinition.getIndexOptions().get("name"))));
+  }
+
+  /**
+   * Check health before verification and after critical indexes are found then readiness waits
+   * for critical indexes
+   */
+  @Test
+  void when_checkHealth_thenDownUntilCriticalIndexesFound() {
+    foundIndexes.put(TaskEntity.COLLECTION_NAME, List.of(
+        index(TaskEntity.START_TIME_INDEX, new Document("start_time", 1)),
+        index(TaskEntity.ASSIGNEE_START_TIME_INDEX, new Document("assignee", 1)),
+        index(TaskEntity.LOG_WORK_ID_INDEX, new Document("log_works._id", 1))));
+    foundIndexes.put(UserAccountEntity.COLLECTION_NAME, List.of(
+        index(UserAccountEntity.EMAIL_INDEX, new Document("email", 1)),
+        index(UserAccountEntity.PHONE_INDEX, new Document("phone", 1)),
+        index(UserAccountEntity.TEAM_ID_INDEX, new Document("team_id", 1))));
+    foundIndexes.put(LogWorkBucketEntity.COLLECTION_NAME, List.of(
+        index(LogWorkBucketEntity.TASK_ID_DAY_INDEX, new Document("task_id", 1)),
+        index(LogWorkBucketEntity.TASK_ID_LOG_WORK_ID_INDEX, new Document("task_id", 1)),
+        index(LogWorkBucketEntity.LOG_WORK_ID_INDEX, new Document("log_works._id", 1))));
+    IndexRegistry indexRegistry = createIndexRegistry();
+    IndexHealthIndicator indexHealthIndicator = new IndexHealthIndicator(indexRegistry);
+
+    assertEquals(Status.DOWN, indexHealthIndicator.health().getStatus());
+    indexRegistry.verify();
+    assertEquals(Status.UP, indexHealthIndicator.health().getStatus());
+  }
+}
@@ -0,0 +1,111 @@
+package com.nli.probation.unittest.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import com.nli.probation.config.LogWorkMigrationJob;
+import com.nli.probation.config.LogWorkStorageProperties;
+import com.nli.probation.constant.EntityStatusEnum.LogWorkStatusEnum;
+import com.nli.probation.entity.LogWorkBucketEntity;
+import com.nli.probation.entity.LogWorkEntity;
+import com.nli.probation.entity.TaskEntity;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+class LogWorkMigrationJobTest {
+
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final BulkOperations bulkOperations = Mockito.mock(BulkOperations.class);
+
+  private LogWorkMigrationJob createMigrationJob(int logWorkCount) {
+    TaskEntity taskEntity = new TaskEntity();
+    taskEntity.setId(1);
+    taskEntity.setVersion(7L);
+    List<LogWorkEntity> logWorkEntities = new ArrayList<>();
+    LocalDateTime startTime = LocalDateTime.of(2021, 5, 1, 8, 0);
+    for (int i = 0; i < logWorkCount; i++) {
+      logWorkEntities.add(new LogWorkEntity("log-" + i, startTime.plusDays(i),
+          startTime.plusDays(i).plusHours(1), LogWorkStatusEnum.ACTIVE.ordinal()));
+    }
+    taskEntity.setLogWorkList(logWorkEntities);
+    when(mongoTemplate.findOne(any(Query.class), eq(TaskEntity.class))).thenReturn(taskEntity);
+    when(mongoTemplate.bulkOps(BulkMode.UNORDERED, LogWorkBucketEntity.class))
+        .thenReturn(bulkOperations);
+    LogWorkStorageProperties logWorkStorageProperties = new LogWorkStorageProperties();
+    logWorkStorageProperties.setBucketCapacity(2);
+    return new LogWorkMigrationJob(mongoTemplate, logWorkStorageProperties);
+  }
+
+  /**
+   * Migrate task then copy log works to buckets of capacity and remove them from task of the
+   * read version
+   */
+  @Test
+  void when_migrateTask_thenCopyToBucketsAndRemoveFromTask() {
+    LogWorkMigrationJob migrationJob = createMigrationJob(5);
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TaskEntity.class)))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    migrationJob.migrateTask(1);
+
+    ArgumentCaptor<Object> bucketCaptor = ArgumentCaptor.forClass(Object.class);
+    verify(bulkOperations, times(3)).replaceOne(any(Query.class), bucketCaptor.capture(),
+        any(FindAndReplaceOptions.class));
+    List<Integer> counts = new ArrayList<>();
+    bucketCaptor.getAllValues().forEach(bucket -> counts.add(
+        ((LogWorkBucketEntity) bucket).getCount()));
+    assertEquals(List.of(2, 2, 1), counts);
+    assertEquals(1.0, ((LogWorkBucketEntity) bucketCaptor.getValue()).getTotalHours());
+
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).updateFirst(queryCaptor.capture(), any(Update.class),
+        eq(TaskEntity.class));
+    assertEquals(7L, queryCaptor.getValue().getQueryObject().get("version"));
+    verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class),
+        eq(LogWorkBucketEntity.class));
+  }
+
+  /**
+   * Migrate task changed between copy and removal then copy again to buckets of the same ids
+   */
+  @Test
+  void when_migrateChangedTask_thenCopyAgainToSameBuckets() {
+    LogWorkMigrationJob migrationJob = createMigrationJob(3);
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TaskEntity.class)))
+        .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    migrationJob.migrateTask(1);
+
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(bulkOperations, times(4)).replaceOne(queryCaptor.capture(), any(),
+        any(FindAndReplaceOptions.class));
+    List<Object> bucketIds = new ArrayList<>();
+    queryCaptor.getAllValues().forEach(query -> bucketIds.add(query.getQueryObject()
+        .get("id")));
+    assertEquals(bucketIds.subList(0, 2), bucketIds.subList(2, 4));
+    assertEquals(new Document("$set", new Document("migrated", false)).toJson(),
+        captureUnmark().getUpdateObject().toJson());
+  }
+
+  private Update captureUnmark() {
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate).updateMulti(any(Query.class), updateCaptor.capture(),
+        eq(LogWorkBucketEntity.class));
+    return updateCaptor.getValue();
+  }
+}
@@ -0,0 +1,70 @@
+package com.nli.probation.unittest.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import com.nli.probation.config.LogWorkReconciliationJob;
+import com.nli.probation.config.LogWorkStorageProperties;
+import com.nli.probation.entity.LogWorkBucketEntity;
+import com.nli.probation.entity.PendingHoursEntity;
+import com.nli.probation.entity.TaskEntity;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+class LogWorkReconciliationJobTest {
+
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+
+  private static LogWorkBucketEntity bucket(int taskId, PendingHoursEntity... pendingHours) {
+    LogWorkBucketEntity bucketEntity = new LogWorkBucketEntity();
+    bucketEntity.setTaskId(taskId);
+    bucketEntity.setPendingHoursList(List.of(pendingHours));
+    return bucketEntity;
+  }
+
+  /**
+   * Reconcile buckets with pending hours, some of them added to task before a failure, then add
+   * each of the others once and remove all from buckets
+   */
+  @Test
+  void when_reconcile_thenAddPendingHoursNotAddedYet() {
+    when(mongoTemplate.find(any(Query.class), eq(LogWorkBucketEntity.class))).thenReturn(List.of(
+        bucket(1, new PendingHoursEntity("pending-1", 2)),
+        bucket(1, new PendingHoursEntity("pending-2", 1)),
+        bucket(2, new PendingHoursEntity("pending-3", 3))));
+    //Task 1 recorded pending-1 as added, task 2 none
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TaskEntity.class)))
+        .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+        .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    LogWorkReconciliationJob reconciliationJob = new LogWorkReconciliationJob(mongoTemplate,
+        new LogWorkStorageProperties());
+    assertEquals(3, reconciliationJob.reconcile());
+
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate, times(4)).updateFirst(queryCaptor.capture(), updateCaptor.capture(),
+        eq(TaskEntity.class));
+    assertEquals(new Document("$nin", List.of("pending-1", "pending-2")),
+        queryCaptor.getAllValues().get(0).getQueryObject().get("appliedHoursIds"));
+    assertEquals(new Document("$ne", "pending-2"),
+        queryCaptor.getAllValues().get(2).getQueryObject().get("appliedHoursIds"));
+    assertEquals(1.0, updateCaptor.getAllValues().get(2).getUpdateObject()
+        .get("$inc", Document.class).get("actualTime"));
+    assertEquals(2, queryCaptor.getAllValues().get(3).getQueryObject().get("id"));
+    verify(mongoTemplate, times(2)).updateMulti(any(Query.class), any(Update.class),
+        eq(LogWorkBucketEntity.class));
+  }
+}
@@ -2,7 +2,11 @@ package com.nli.probation.unittest.controller;
 
 import static com.nli.probation.utils.OfficeTestUtils.createOfficeJsonObject;
 import static com.nli.probation.utils.OfficeTestUtils.createOfficeModel;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.RequestEntity.put;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
@@ -13,13 +17,19 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import com.nli.probation.MockConstants;
 import com.nli.probation.controller.OfficeController;
+import com.nli.probation.metamodel.OfficeEntity_;
+import com.nli.probation.model.RequestFieldsModel;
+import com.nli.probation.resolver.RequestFieldsResolver;
 import com.nli.probation.service.OfficeService;
+import java.util.Set;
 import org.json.JSONObject;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.util.NestedServletException;
 
 class OfficeControllerTest {
 
@@ -55,7 +65,8 @@ class OfficeControllerTest {
    */
   @Test
   void when_findOfficeById_theReturnOffice() throws Exception {
-    when(officeService.findOfficeById(MockConstants.OFFICE_ID)).thenReturn(createOfficeModel());
+    when(officeService.findOfficeById(eq(MockConstants.OFFICE_ID), any()))
+        .thenReturn(createOfficeModel());
     this.mockMvc = MockMvcBuilders.standaloneSetup(new OfficeController(officeService)).build();
     mockMvc.perform(get("/offices/{id}", MockConstants.OFFICE_ID)
             .contentType(MediaType.APPLICATION_JSON)
@@ -88,4 +99,28 @@ class OfficeControllerTest {
         .andExpect(jsonPath("$.data.status").value(MockConstants.OFFICE_STATUS));
   }
 
+  /**
+   * When find office by id with fields then pass requested fields of metamodel to service
+   *
+   * @throws Exception
+   */
+  @Test
+  void when_findOfficeByIdWithFields_thenPassRequestedFields() throws Exception {
+    when(officeService.findOfficeById(eq(MockConstants.OFFICE_ID), any()))
+        .thenReturn(createOfficeModel());
+    this.mockMvc = MockMvcBuilders.standaloneSetup(new OfficeController(officeService))
+        .setCustomArgumentResolvers(new RequestFieldsResolver()).build();
+    mockMvc.perform(get("/offices/{id}", MockConstants.OFFICE_ID)
+            .param("fields", "name, location"))
+        .andExpect(status().isOk());
+
+    ArgumentCaptor<RequestFieldsModel> fieldsCaptor = ArgumentCaptor.forClass(
+        RequestFieldsModel.class);
+    verify(officeService).findOfficeById(eq(MockConstants.OFFICE_ID), fieldsCaptor.capture());
+    assertEquals(Set.of(OfficeEntity_.NAME, OfficeEntity_.LOCATION),
+        fieldsCaptor.getValue().getFields());
+    assertThrows(NestedServletException.class,
+        () -> mockMvc.perform(get("/offices/{id}", MockConstants.OFFICE_ID)
+            .param("fields", "name,password")));
+  }
 }
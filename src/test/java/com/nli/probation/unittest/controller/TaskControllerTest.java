@@ -0,0 +1,61 @@
+package com.nli.probation.unittest.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.nli.probation.MockConstants;
+import com.nli.probation.controller.TaskController;
+import com.nli.probation.metamodel.TaskEntity_;
+import com.nli.probation.model.RequestFieldsModel;
+import com.nli.probation.model.task.TaskModel;
+import com.nli.probation.resolver.RequestFieldsResolver;
+import com.nli.probation.service.LogWorkService;
+import com.nli.probation.service.TaskService;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.util.NestedServletException;
+
+class TaskControllerTest {
+
+  TaskService taskService = Mockito.mock(TaskService.class);
+  LogWorkService logWorkService = Mockito.mock(LogWorkService.class);
+
+  /**
+   * Find task by id with requested fields then only fields of task model are accepted, internal
+   * ones are rejected
+   *
+   * @throws Exception
+   */
+  @Test
+  void when_findTaskByIdWithFields_thenRejectInternalFields() throws Exception {
+    when(taskService.findTaskById(eq(MockConstants.TASK_ID), any())).thenReturn(new TaskModel());
+    MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+            new TaskController(taskService, logWorkService))
+        .setCustomArgumentResolvers(new RequestFieldsResolver()).build();
+    mockMvc.perform(get("/tasks/{id}", MockConstants.TASK_ID)
+            .param("fields", "title,actualTime"))
+        .andExpect(status().isOk());
+
+    ArgumentCaptor<RequestFieldsModel> fieldsCaptor = ArgumentCaptor.forClass(
+        RequestFieldsModel.class);
+    verify(taskService).findTaskById(eq(MockConstants.TASK_ID), fieldsCaptor.capture());
+    assertEquals(Set.of(TaskEntity_.TITLE, TaskEntity_.ACTUAL_TIME),
+        fieldsCaptor.getValue().getFields());
+    assertThrows(NestedServletException.class,
+        () -> mockMvc.perform(get("/tasks/{id}", MockConstants.TASK_ID)
+            .param("fields", TaskEntity_.APPLIED_HOURS_IDS)));
+    assertThrows(NestedServletException.class,
+        () -> mockMvc.perform(get("/tasks/{id}", MockConstants.TASK_ID)
+            .param("fields", TaskEntity_.VERSION)));
+  }
+}
@@ -0,0 +1,119 @@
+package com.nli.probation.unittest.converter;
+
+import static com.nli.probation.utils.FacetTestUtils.createConverter;
+import static com.nli.probation.utils.FacetTestUtils.createFacetResult;
+import static com.nli.probation.utils.FacetTestUtils.findDataStages;
+import static com.nli.probation.utils.FacetTestUtils.renderPipeline;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.config.CountCacheProperties;
+import com.nli.probation.constant.CountModeEnum;
+import com.nli.probation.converter.FacetPagingExecutor;
+import com.nli.probation.entity.OfficeEntity;
+import com.nli.probation.metamodel.OfficeEntity_;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+class FacetPagingExecutorTest {
+
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final CountCache countCache = new CountCache(new CountCacheProperties());
+
+  /**
+   * Find page then match once and read page and total from facets
+   */
+  @Test
+  void when_findPage_thenReadPageAndTotalOfOneAggregation() {
+    OfficeEntity officeEntity = new OfficeEntity();
+    officeEntity.setId(4);
+    officeEntity.setName("Tan Binh");
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenReturn(createFacetResult(List.of(officeEntity), 7));
+    when(mongoTemplate.getConverter()).thenReturn(createConverter());
+
+    Query query = new Query(Criteria.where(OfficeEntity_.NAME).is("Tan Binh"));
+    Page<OfficeEntity> page = new FacetPagingExecutor<>(mongoTemplate, countCache,
+        OfficeEntity.class)
+        .findPage(query, PageRequest.of(2, 3, Sort.by(OfficeEntity_.NAME)),
+            CountModeEnum.EXACT);
+    assertEquals(7, page.getTotalElements());
+    assertEquals(4, page.getContent().get(0).getId());
+
+    ArgumentCaptor<TypedAggregation> aggregationCaptor = ArgumentCaptor.forClass(
+        TypedAggregation.class);
+    verify(mongoTemplate).aggregate(aggregationCaptor.capture(), eq(Document.class));
+    assertTrue(aggregationCaptor.getValue().getOptions().isAllowDiskUse());
+    List<Document> pipeline = renderPipeline(aggregationCaptor.getValue());
+    assertEquals(3, pipeline.size());
+    assertEquals(query.getQueryObject(), pipeline.get(0).get("$match"));
+    assertEquals(new Document(OfficeEntity_.NAME, 1), pipeline.get(1).get("$sort"));
+    assertEquals(List.of(new Document("$skip", 6L), new Document("$limit", 3L)),
+        findDataStages(pipeline));
+  }
+
+  /**
+   * Find page matching nothing then total is zero
+   */
+  @Test
+  void when_findPageMatchingNothing_thenTotalIsZero() {
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenReturn(new AggregationResults<>(
+            List.of(new Document("data", List.of()).append("total", List.of())),
+            new Document()));
+
+    Page<OfficeEntity> page = new FacetPagingExecutor<>(mongoTemplate, countCache,
+        OfficeEntity.class)
+        .findPage(new Query(), PageRequest.of(0, 3), CountModeEnum.EXACT);
+    assertEquals(0, page.getTotalElements());
+    assertEquals(0, page.getContent().size());
+  }
+
+  /**
+   * Find pages of same filter in estimated mode then count it once and read later pages only
+   */
+  @Test
+  void when_findPagesInEstimatedMode_thenCountFilterOnce() {
+    when(mongoTemplate.getConverter()).thenReturn(createConverter());
+    when(mongoTemplate.getCollectionName(OfficeEntity.class)).thenReturn("office");
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenReturn(createFacetResult(List.of(), 7))
+        .thenReturn(new AggregationResults<>(List.of(), new Document()));
+    FacetPagingExecutor<OfficeEntity> executor = new FacetPagingExecutor<>(mongoTemplate,
+        countCache, OfficeEntity.class);
+
+    Criteria name = Criteria.where(OfficeEntity_.NAME).is("Tan Binh");
+    Criteria location = Criteria.where(OfficeEntity_.LOCATION).is("Ho Chi Minh");
+    Page<OfficeEntity> firstPage = executor.findPage(new Query(name).addCriteria(location),
+        PageRequest.of(0, 3), CountModeEnum.ESTIMATED);
+    Page<OfficeEntity> secondPage = executor.findPage(new Query(location).addCriteria(name),
+        PageRequest.of(1, 3), CountModeEnum.ESTIMATED);
+    assertEquals(7, firstPage.getTotalElements());
+    assertEquals(7, secondPage.getTotalElements());
+
+    ArgumentCaptor<TypedAggregation> aggregationCaptor = ArgumentCaptor.forClass(
+        TypedAggregation.class);
+    verify(mongoTemplate, times(2)).aggregate(aggregationCaptor.capture(), eq(Document.class));
+    List<Document> pipeline = renderPipeline(aggregationCaptor.getAllValues().get(1));
+    assertTrue(aggregationCaptor.getAllValues().get(1).getOptions().isAllowDiskUse());
+    assertEquals(List.of(new Document("$skip", 3L), new Document("$limit", 3L)),
+        pipeline.subList(1, pipeline.size()));
+  }
+}
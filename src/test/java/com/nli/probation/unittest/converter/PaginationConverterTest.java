@@ -0,0 +1,111 @@
+package com.nli.probation.unittest.converter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nli.probation.converter.PaginationConverter;
+import com.nli.probation.entity.OfficeEntity;
+import com.nli.probation.metamodel.OfficeEntity_;
+import com.nli.probation.model.RequestPaginationModel;
+import com.nli.probation.model.ResourceModel;
+import com.nli.probation.model.office.OfficeModel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+class PaginationConverterTest {
+
+  private final PaginationConverter<OfficeModel, OfficeEntity> paginationConverter =
+      new PaginationConverter<>();
+
+  private OfficeEntity createOffice(int id, String name) {
+    OfficeEntity officeEntity = new OfficeEntity();
+    officeEntity.setId(id);
+    officeEntity.setName(name);
+    return officeEntity;
+  }
+
+  /**
+   * Page by cursor then next cursor seeks after sort value and id of last entity
+   */
+  @Test
+  void when_pageByCursor_thenNextCursorSeeksAfterLastEntity() {
+    RequestPaginationModel firstPage = new RequestPaginationModel(0, 2, OfficeEntity_.NAME,
+        "dsc", "");
+    Pageable pageable = paginationConverter.convertToSeekPageable(firstPage, OfficeEntity_.ID,
+        OfficeEntity.class);
+    assertEquals(3, pageable.getPageSize());
+    assertEquals(Sort.by(Sort.Direction.DESC, OfficeEntity_.NAME, OfficeEntity_.ID),
+        pageable.getSort());
+    assertEquals(new Criteria(), paginationConverter.convertToSeekCriteria(firstPage, pageable));
+
+    List<OfficeEntity> fetched = new ArrayList<>(List.of(createOffice(7, "Tan Vien"),
+        createOffice(3, "Tan Binh"), createOffice(9, "Tan Binh")));
+    ResourceModel<OfficeModel> resource = new ResourceModel<>();
+    List<OfficeEntity> page = paginationConverter.buildSeekPagination(firstPage, pageable,
+        fetched, resource);
+    assertEquals(2, page.size());
+
+    RequestPaginationModel nextPage = new RequestPaginationModel(0, 2, OfficeEntity_.NAME,
+        "dsc", resource.getNextCursor());
+    Criteria expected = new Criteria().orOperator(
+        Criteria.where(OfficeEntity_.NAME).lt("Tan Binh"),
+        new Criteria().andOperator(Criteria.where(OfficeEntity_.NAME).is("Tan Binh"),
+            Criteria.where(OfficeEntity_.ID).lt(3)),
+        Criteria.where(OfficeEntity_.NAME).is(null));
+    assertEquals(expected.getCriteriaObject(),
+        paginationConverter.convertToSeekCriteria(nextPage, pageable).getCriteriaObject());
+  }
+
+  /**
+   * Last page by cursor has no next cursor, cursor of other sort is rejected
+   */
+  @Test
+  void when_lastPageOrOtherSort_thenNoCursorOrRejected() {
+    RequestPaginationModel firstPage = new RequestPaginationModel(0, 2, null, null, "");
+    Pageable pageable = paginationConverter.convertToSeekPageable(firstPage, OfficeEntity_.ID,
+        OfficeEntity.class);
+    ResourceModel<OfficeModel> resource = new ResourceModel<>();
+    paginationConverter.buildSeekPagination(firstPage, pageable,
+        List.of(createOffice(1, "Tan Vien")), resource);
+    assertNull(resource.getNextCursor());
+
+    paginationConverter.buildSeekPagination(firstPage, pageable,
+        List.of(createOffice(1, "A"), createOffice(2, "B"), createOffice(3, "C")), resource);
+    RequestPaginationModel otherSort = new RequestPaginationModel(0, 2, OfficeEntity_.NAME,
+        null, resource.getNextCursor());
+    Pageable otherPageable = paginationConverter.convertToSeekPageable(otherSort,
+        OfficeEntity_.ID, OfficeEntity.class);
+    assertThrows(IllegalArgumentException.class,
+        () -> paginationConverter.convertToSeekCriteria(otherSort, otherPageable));
+    RequestPaginationModel brokenCursor = new RequestPaginationModel(0, 2, null, null, "%%");
+    assertThrows(IllegalArgumentException.class,
+        () -> paginationConverter.convertToSeekCriteria(brokenCursor, pageable));
+  }
+
+  /**
+   * Cursor holding an operator instead of a value then reject it
+   */
+  @Test
+  void when_cursorWithOperator_thenRejected() {
+    RequestPaginationModel firstPage = new RequestPaginationModel(0, 2, OfficeEntity_.NAME,
+        null, "");
+    Pageable pageable = paginationConverter.convertToSeekPageable(firstPage, OfficeEntity_.ID,
+        OfficeEntity.class);
+    for (String cursor : List.of("{'s': 'name', 'd': 'ASC', 'v': {'$ne': null}, 'i': 1}",
+        "{'s': 'name', 'd': 'ASC', 'v': 'A', 'i': {'$gt': 0}}",
+        "{'s': 'name', 'd': 'ASC', 'v': ['A'], 'i': 1}",
+        "{'s': 'name', 'd': 'ASC', 'v': 'A', 'i': null}")) {
+      RequestPaginationModel injected = new RequestPaginationModel(0, 2, OfficeEntity_.NAME,
+          null, Base64.getUrlEncoder().encodeToString(cursor.getBytes(StandardCharsets.UTF_8)));
+      assertThrows(IllegalArgumentException.class,
+          () -> paginationConverter.convertToSeekCriteria(injected, pageable));
+    }
+  }
+}
@@ -0,0 +1,50 @@
+package com.nli.probation.unittest.converter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.nli.probation.converter.ProjectionConverter;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.metamodel.TaskEntity_;
+import com.nli.probation.model.RequestFieldsModel;
+import java.util.LinkedHashSet;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+
+class ProjectionConverterTest {
+
+  /**
+   * Project requested fields then id and sort fields are read too
+   */
+  @Test
+  void when_projectFields_thenIncludeIdAndSortFields() {
+    RequestFieldsModel fieldsModel = new RequestFieldsModel(
+        new LinkedHashSet<>(List.of(TaskEntity_.TITLE)));
+    Query query = ProjectionConverter.includeSort(
+        ProjectionConverter.project(new Query(), fieldsModel), Sort.by(TaskEntity_.START_TIME));
+    assertEquals(new Document(TaskEntity_.ID, 1).append(TaskEntity_.TITLE, 1)
+        .append(TaskEntity_.START_TIME, 1), query.getFieldsObject());
+    assertEquals(new Document("$project", query.getFieldsObject()),
+        ProjectionConverter.toProjectStage(query, TaskEntity.class)
+            .toDocument(Aggregation.DEFAULT_CONTEXT));
+  }
+
+  /**
+   * Project all fields of text query then only text score is added and no stage is made
+   */
+  @Test
+  void when_projectAllFieldsOfTextQuery_thenNoProjectStage() {
+    Query query = ProjectionConverter.project(
+        TextQuery.queryText(TextCriteria.forDefaultLanguage().matching("deploy")).sortByScore(),
+        new RequestFieldsModel());
+    ProjectionConverter.includeSort(query, Sort.by(TaskEntity_.START_TIME));
+    assertEquals(1, query.getFieldsObject().size());
+    assertNull(ProjectionConverter.toProjectStage(query, TaskEntity.class));
+  }
+}
@@ -0,0 +1,112 @@
+package com.nli.probation.unittest.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.MongoDatabase;
+import com.nli.probation.config.QueryDiagnosticsProperties;
+import com.nli.probation.diagnostics.QueryShape;
+import com.nli.probation.diagnostics.QueryShapeRegistry;
+import com.nli.probation.model.QueryShapeModel;
+import java.time.Duration;
+import java.util.List;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+class QueryShapeRegistryTest {
+
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final MongoDatabase mongoDatabase = Mockito.mock(MongoDatabase.class);
+
+  private QueryShapeRegistry createQueryShapeRegistry() {
+    return createQueryShapeRegistry(new QueryDiagnosticsProperties());
+  }
+
+  @SuppressWarnings("unchecked")
+  private QueryShapeRegistry createQueryShapeRegistry(
+      QueryDiagnosticsProperties queryDiagnosticsProperties) {
+    ObjectProvider<MongoTemplate> mongoTemplateProvider = Mockito.mock(ObjectProvider.class);
+    when(mongoTemplateProvider.getObject()).thenReturn(mongoTemplate);
+    when(mongoTemplate.getDb()).thenReturn(mongoDatabase);
+    return new QueryShapeRegistry(mongoTemplateProvider, queryDiagnosticsProperties);
+  }
+
+  private static BsonDocument findCommand(int teamId, String name) {
+    return BsonDocument.parse("{find: 'user_account', filter: {team_id: " + teamId
+        + ", name: {$regex: '" + name + "'}}, sort: {_id: 1}, limit: 10, $db: 'teamwork',"
+        + " lsid: {id: 1}}");
+  }
+
+  /**
+   * Create shapes of queries differing only in values then share one shape and suggest index by
+   * equality, sort, range
+   */
+  @Test
+  void when_createShapesOfSameQuery_thenShareShapeAndSuggestIndex() {
+    QueryShape shape = QueryShape.of("find", findCommand(3, "an"));
+    assertEquals(shape.getKey(), QueryShape.of("find", findCommand(7, "bo")).getKey());
+    assertEquals(Document.parse("{team_id: '?', name: {$regex: '?'}}"), shape.getFilter());
+    assertEquals(List.of("team_id", "_id", "name"),
+        List.copyOf(shape.suggestIndex().keySet()));
+
+    QueryShape textShape = QueryShape.of("aggregate", BsonDocument.parse(
+        "{aggregate: 'task', pipeline: [{$match: {$text: {$search: 'api'}}}, {$facet: {}}]}"));
+    assertEquals(List.of("$match", "$facet"), textShape.getStages());
+    assertNull(textShape.suggestIndex());
+    assertNull(QueryShape.of("insert", BsonDocument.parse("{insert: 'task'}")));
+  }
+
+  /**
+   * Record new shape scanning collection then it is explained once and listed as poor
+   */
+  @Test
+  void when_recordShapeScanningCollection_thenExplainAndListPoorShape() {
+    when(mongoDatabase.runCommand(any(Bson.class))).thenReturn(Document.parse(
+        "{queryPlanner: {winningPlan: {stage: 'LIMIT', inputStage: {stage: 'COLLSCAN'}}},"
+            + " executionStats: {nReturned: 10, totalKeysExamined: 0,"
+            + " totalDocsExamined: 5000}}"));
+    QueryShapeRegistry queryShapeRegistry = createQueryShapeRegistry();
+    QueryShape shape = QueryShape.of("find", findCommand(3, "an"));
+
+    assertTrue(queryShapeRegistry.record(shape, findCommand(3, "an"), 5));
+    assertFalse(queryShapeRegistry.record(shape, findCommand(4, "an"), 5));
+    queryShapeRegistry.explain(shape);
+
+    List<QueryShapeModel> poorShapes = queryShapeRegistry.findPoorShapes();
+    assertEquals(1, poorShapes.size());
+    assertTrue(poorShapes.get(0).isCollectionScan());
+    assertEquals(5000, poorShapes.get(0).getDocsExamined());
+    assertEquals(2, poorShapes.get(0).getExecutions());
+    assertEquals("{\"team_id\": 1, \"_id\": 1, \"name\": 1}",
+        poorShapes.get(0).getSuggestedIndex());
+  }
+
+  /**
+   * Record fast executions of sampled shape then their commands are not needed, until the shape
+   * was slow and its last explain is older than interval
+   */
+  @Test
+  void when_recordFastExecutions_thenSampleOnlyNewOrSlowShapes() {
+    QueryDiagnosticsProperties queryDiagnosticsProperties = new QueryDiagnosticsProperties();
+    queryDiagnosticsProperties.setExplainInterval(Duration.ZERO);
+    QueryShapeRegistry queryShapeRegistry = createQueryShapeRegistry(queryDiagnosticsProperties);
+    QueryShape shape = QueryShape.of("find", findCommand(3, "an"));
+
+    assertTrue(queryShapeRegistry.needsSample(shape));
+    assertTrue(queryShapeRegistry.record(shape, findCommand(3, "an"), 5));
+    assertFalse(queryShapeRegistry.needsSample(shape));
+    long slowMillis = queryDiagnosticsProperties.getSlowThreshold().toMillis();
+    assertFalse(queryShapeRegistry.record(shape, null, slowMillis));
+    assertTrue(queryShapeRegistry.needsSample(shape));
+    assertTrue(queryShapeRegistry.record(shape, findCommand(4, "an"), slowMillis));
+  }
+}
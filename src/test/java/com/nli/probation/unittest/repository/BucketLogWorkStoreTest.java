@@ -0,0 +1,251 @@
+package com.nli.probation.unittest.repository;
+
+import static com.nli.probation.utils.FacetTestUtils.createConverter;
+import static com.nli.probation.utils.FacetTestUtils.renderPipeline;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import com.nli.probation.constant.EntityStatusEnum.LogWorkStatusEnum;
+import com.nli.probation.entity.LogWorkBucketEntity;
+import com.nli.probation.entity.LogWorkEntity;
+import com.nli.probation.entity.PendingHoursEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.repository.BucketLogWorkStore;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+class BucketLogWorkStoreTest {
+
+  private static final int BUCKET_CAPACITY = 200;
+  private static final LocalDateTime START_TIME = LocalDateTime.of(2021, 5, 1, 8, 0);
+
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final MongoConverter mongoConverter = createConverter();
+  private final MongoPersistentEntity<?> bucketEntity = mongoConverter.getMappingContext()
+      .getRequiredPersistentEntity(LogWorkBucketEntity.class);
+
+  private static LogWorkEntity logWork(String id, int hours) {
+    return new LogWorkEntity(id, START_TIME, START_TIME.plusHours(hours),
+        LogWorkStatusEnum.ACTIVE.ordinal());
+  }
+
+  private static Document toDocument(LogWorkEntity logWorkEntity) {
+    Document document = new Document();
+    createConverter().write(logWorkEntity, document);
+    return document;
+  }
+
+  /**
+   * Insert log work then push it to a bucket of its day with room left with its hours pending,
+   * add them to task unless added before and remove them from bucket
+   */
+  @Test
+  void when_insert_thenPushToBucketWithRoomAndIncrementTask() {
+    when(mongoTemplate.exists(any(Query.class), eq(TaskEntity.class))).thenReturn(true);
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TaskEntity.class)))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    BucketLogWorkStore logWorkStore = new BucketLogWorkStore(mongoTemplate, BUCKET_CAPACITY);
+    logWorkStore.insert(1, logWork("log-1", 2));
+
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate).upsert(queryCaptor.capture(), updateCaptor.capture(),
+        eq(LogWorkBucketEntity.class));
+    Document query = new QueryMapper(mongoConverter).getMappedObject(
+        queryCaptor.getValue().getQueryObject(), bucketEntity);
+    assertEquals(1, query.get("task_id"));
+    assertEquals(false, query.get("migrated"));
+    assertEquals(new Document("$lt", BUCKET_CAPACITY), query.get("count"));
+    Document update = new UpdateMapper(mongoConverter).getMappedObject(
+        updateCaptor.getValue().getUpdateObject(), bucketEntity);
+    assertTrue(update.get("$push", Document.class).containsKey("log_works"));
+    assertEquals(2.0, update.get("$inc", Document.class).get("total_hours"));
+    Document pendingHours = update.get("$push", Document.class).get("pending_hours",
+        Document.class);
+    assertEquals(2.0, pendingHours.get("hours"));
+    String pendingHoursId = pendingHours.getString("_id");
+
+    verify(mongoTemplate).updateFirst(queryCaptor.capture(), updateCaptor.capture(),
+        eq(TaskEntity.class));
+    assertEquals(new Document("$nin", List.of(pendingHoursId)),
+        queryCaptor.getValue().getQueryObject().get("appliedHoursIds"));
+    assertEquals(2.0, updateCaptor.getValue().getUpdateObject().get("$inc", Document.class)
+        .get("actualTime"));
+    verify(mongoTemplate).updateMulti(any(Query.class), updateCaptor.capture(),
+        eq(LogWorkBucketEntity.class));
+    Document pull = new UpdateMapper(mongoConverter).getMappedObject(
+        updateCaptor.getValue().getUpdateObject(), bucketEntity).get("$pull", Document.class);
+    assertEquals(new Document("_id", new Document("$in", List.of(pendingHoursId))),
+        pull.get("pending_hours"));
+  }
+
+  /**
+   * Insert batch whose task update fails then insert it again and add its hours once, from the
+   * bucket holding them pending
+   */
+  @Test
+  void when_insertAllAgainAfterTaskUpdateFails_thenAddHoursOnce() {
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TaskEntity.class)))
+        .thenThrow(new DataAccessResourceFailureException("timeout"))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    BucketLogWorkStore logWorkStore = new BucketLogWorkStore(mongoTemplate, BUCKET_CAPACITY);
+    Map<Integer, List<LogWorkEntity>> batch = Map.of(1, List.of(logWork("log-1", 2),
+        logWork("log-2", 1)));
+    assertThrows(DataAccessResourceFailureException.class, () -> logWorkStore.insertAll(batch));
+
+    //Bucket holds log works with their hours pending
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate).upsert(any(Query.class), updateCaptor.capture(),
+        eq(LogWorkBucketEntity.class));
+    Document pendingHours = new UpdateMapper(mongoConverter).getMappedObject(
+        updateCaptor.getValue().getUpdateObject(), bucketEntity).get("$push", Document.class)
+        .get("pending_hours", Document.class);
+    assertEquals(3.0, pendingHours.get("hours"));
+    LogWorkBucketEntity insertedBucket = new LogWorkBucketEntity();
+    insertedBucket.setPendingHoursList(List.of(new PendingHoursEntity(
+        pendingHours.getString("_id"), 3.0)));
+    when(mongoTemplate.findOne(any(Query.class), eq(LogWorkBucketEntity.class)))
+        .thenReturn(insertedBucket);
+    logWorkStore.insertAll(batch);
+
+    verify(mongoTemplate).upsert(any(Query.class), any(Update.class),
+        eq(LogWorkBucketEntity.class));
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate, times(2)).updateFirst(queryCaptor.capture(), updateCaptor.capture(),
+        eq(TaskEntity.class));
+    assertEquals(new Document("$nin", List.of(pendingHours.getString("_id"))),
+        queryCaptor.getValue().getQueryObject().get("appliedHoursIds"));
+    assertEquals(3.0, updateCaptor.getValue().getUpdateObject().get("$inc", Document.class)
+        .get("actualTime"));
+    verify(mongoTemplate).updateMulti(any(Query.class), any(Update.class),
+        eq(LogWorkBucketEntity.class));
+  }
+
+  /**
+   * Find log work not embedded in task then read only that log work of its bucket
+   */
+  @Test
+  void when_findLogWorkNotEmbedded_thenFindInBucket() {
+    when(mongoTemplate.findOne(any(Query.class), eq(TaskEntity.class)))
+        .thenReturn(new TaskEntity());
+    LogWorkBucketEntity foundBucket = new LogWorkBucketEntity();
+    foundBucket.setLogWorkList(List.of(logWork("log-1", 1)));
+    when(mongoTemplate.findOne(any(Query.class), eq(LogWorkBucketEntity.class)))
+        .thenReturn(foundBucket);
+    BucketLogWorkStore logWorkStore = new BucketLogWorkStore(mongoTemplate, BUCKET_CAPACITY);
+
+    assertEquals("log-1", logWorkStore.findById(1, "log-1").getId());
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).findOne(queryCaptor.capture(), eq(LogWorkBucketEntity.class));
+    Document query = new QueryMapper(mongoConverter).getMappedObject(
+        queryCaptor.getValue().getQueryObject(), bucketEntity);
+    assertEquals("log-1", query.get("log_works._id"));
+  }
+
+  /**
+   * Find log work by id embedded in no task then read it from any bucket holding it
+   */
+  @Test
+  void when_findLogWorkByIdWithoutTask_thenFindInAnyBucket() {
+    LogWorkBucketEntity foundBucket = new LogWorkBucketEntity();
+    foundBucket.setLogWorkList(List.of(logWork("log-1", 1)));
+    when(mongoTemplate.findOne(any(Query.class), eq(LogWorkBucketEntity.class)))
+        .thenReturn(foundBucket);
+    BucketLogWorkStore logWorkStore = new BucketLogWorkStore(mongoTemplate, BUCKET_CAPACITY);
+
+    assertEquals("log-1", logWorkStore.findById("log-1").getId());
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).findOne(queryCaptor.capture(), eq(LogWorkBucketEntity.class));
+    Document query = new QueryMapper(mongoConverter).getMappedObject(
+        queryCaptor.getValue().getQueryObject(), bucketEntity);
+    assertEquals(new Document("log_works._id", "log-1"), query);
+  }
+
+  /**
+   * Update log work not embedded in task then set it in a bucket not copied by running migration
+   * and add difference of hours to task
+   */
+  @Test
+  void when_compareAndSetLogWorkOfBucket_thenUpdateBucketThenTask() {
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TaskEntity.class)))
+        .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class),
+        eq(LogWorkBucketEntity.class))).thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    BucketLogWorkStore logWorkStore = new BucketLogWorkStore(mongoTemplate, BUCKET_CAPACITY);
+
+    assertTrue(logWorkStore.compareAndSet(1, logWork("log-1", 1), logWork("log-1", 4)));
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate).updateFirst(queryCaptor.capture(), updateCaptor.capture(),
+        eq(LogWorkBucketEntity.class));
+    Document query = new QueryMapper(mongoConverter).getMappedObject(
+        queryCaptor.getValue().getQueryObject(), bucketEntity);
+    assertEquals(false, query.get("migrated"));
+    assertEquals("log-1", query.get("log_works", Document.class)
+        .get("$elemMatch", Document.class).get("_id"));
+    Document update = new UpdateMapper(mongoConverter).getMappedObject(
+        updateCaptor.getValue().getUpdateObject(), bucketEntity);
+    assertTrue(update.get("$set", Document.class).containsKey("log_works.$.endTime"));
+    assertEquals(3.0, update.get("$inc", Document.class).get("total_hours"));
+  }
+
+  /**
+   * Find page after the embedded log works then skip the embedded ones in buckets and add totals
+   */
+  @Test
+  void when_findPage_thenContinueEmbeddedLogWorksWithBuckets() {
+    when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenAnswer(invocation -> {
+          TypedAggregation<?> aggregation = invocation.getArgument(0);
+          Document result = aggregation.getInputType().equals(TaskEntity.class)
+              ? new Document("page", List.of(toDocument(logWork("log-3", 1)))).append("total", 3)
+              : new Document("page", new ArrayList<>(List.of(toDocument(logWork("log-4", 1)))))
+                  .append("total", List.of(new Document("total", 5)));
+          return new AggregationResults<>(List.of(result), new Document());
+        });
+    BucketLogWorkStore logWorkStore = new BucketLogWorkStore(mongoTemplate, BUCKET_CAPACITY);
+
+    Page<LogWorkEntity> page = logWorkStore.findPage(1, PageRequest.of(1, 2));
+    assertEquals(List.of("log-3", "log-4"), List.of(page.getContent().get(0).getId(),
+        page.getContent().get(1).getId()));
+    assertEquals(8, page.getTotalElements());
+
+    ArgumentCaptor<TypedAggregation> aggregationCaptor = ArgumentCaptor.forClass(
+        TypedAggregation.class);
+    Mockito.verify(mongoTemplate, Mockito.times(2)).aggregate(aggregationCaptor.capture(),
+        eq(Document.class));
+    List<Document> pipeline = renderPipeline(aggregationCaptor.getAllValues().get(1));
+    assertEquals(false, pipeline.get(0).get("$match", Document.class).get("migrated"));
+    List<Document> pageStages = pipeline.get(2).get("$facet", Document.class)
+        .getList("page", Document.class);
+    assertEquals(new Document("$skip", 0L), pageStages.get(1));
+    assertEquals(new Document("$limit", 1L), pageStages.get(2));
+  }
+}
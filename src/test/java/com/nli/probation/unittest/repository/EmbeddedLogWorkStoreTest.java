@@ -0,0 +1,71 @@
+package com.nli.probation.unittest.repository;
+
+import static com.nli.probation.utils.FacetTestUtils.createConverter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nli.probation.constant.EntityStatusEnum.LogWorkStatusEnum;
+import com.nli.probation.entity.LogWorkEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.repository.EmbeddedLogWorkStore;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+class EmbeddedLogWorkStoreTest {
+
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final BulkOperations bulkOperations = Mockito.mock(BulkOperations.class);
+
+  /**
+   * Insert batch of log works then push them with one update per task in one unordered bulk,
+   * each update skipping a task already holding its first log work
+   */
+  @Test
+  void when_insertAll_thenOneUnorderedBulkOfUpdatePerTask() {
+    when(mongoTemplate.bulkOps(BulkMode.UNORDERED, TaskEntity.class)).thenReturn(bulkOperations);
+    LocalDateTime startTime = LocalDateTime.of(2021, 5, 1, 8, 0);
+    Map<Integer, List<LogWorkEntity>> logWorksByTask = new LinkedHashMap<>();
+    logWorksByTask.put(1, List.of(
+        new LogWorkEntity("log-1", startTime, startTime.plusHours(1),
+            LogWorkStatusEnum.ACTIVE.ordinal()),
+        new LogWorkEntity("log-2", startTime, startTime.plusHours(2),
+            LogWorkStatusEnum.ACTIVE.ordinal())));
+    logWorksByTask.put(2, List.of(new LogWorkEntity("log-3", startTime,
+        startTime.plusHours(1), LogWorkStatusEnum.ACTIVE.ordinal())));
+    new EmbeddedLogWorkStore(mongoTemplate).insertAll(logWorksByTask);
+
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(bulkOperations, times(2)).updateOne(queryCaptor.capture(), updateCaptor.capture());
+    verify(bulkOperations).execute();
+
+    MongoConverter mongoConverter = createConverter();
+    MongoPersistentEntity<?> taskEntity = mongoConverter.getMappingContext()
+        .getRequiredPersistentEntity(TaskEntity.class);
+    Document query = new QueryMapper(mongoConverter).getMappedObject(
+        queryCaptor.getAllValues().get(0).getQueryObject(), taskEntity);
+    assertEquals(new Document("$ne", "log-1"), query.get("log_works._id"));
+    Document update = new UpdateMapper(mongoConverter).getMappedObject(
+        updateCaptor.getAllValues().get(0).getUpdateObject(), taskEntity);
+    assertEquals(2, update.get("$push", Document.class).get("log_works", Document.class)
+        .getList("$each", Object.class).size());
+    assertEquals(3.0, update.get("$inc", Document.class).get("actual_time"));
+  }
+}
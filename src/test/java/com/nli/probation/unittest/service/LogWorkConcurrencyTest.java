@@ -0,0 +1,129 @@
+package com.nli.probation.unittest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nli.probation.config.LogWorkWriteBehindProperties;
+import com.nli.probation.constant.EntityStatusEnum.LogWorkStatusEnum;
+import com.nli.probation.customexception.ConcurrentUpdateException;
+import com.nli.probation.customexception.NoSuchEntityException;
+import com.nli.probation.entity.LogWorkEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.model.logwork.CreateLogWorkModel;
+import com.nli.probation.model.logwork.UpdateLogWorkModel;
+import com.nli.probation.repository.EmbeddedLogWorkStore;
+import com.nli.probation.repository.LogWorkStore;
+import com.nli.probation.repository.TaskRepository;
+import com.nli.probation.service.LogWorkService;
+import com.nli.probation.service.LogWorkWriteBehind;
+import com.nli.probation.utils.InMemoryTaskStore;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.modelmapper.ModelMapper;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+class LogWorkConcurrencyTest {
+
+  private static final int TASK_ID = 1;
+  private static final int THREADS = 32;
+  private static final int OPERATIONS_PER_THREAD = 60;
+  private static final LocalDateTime DAY = LocalDateTime.of(2021, 5, 1, 8, 0);
+
+  private final ModelMapper modelMapper = new ModelMapper();
+  private final TaskRepository taskRepository = Mockito.mock(TaskRepository.class);
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final InMemoryTaskStore taskStore = new InMemoryTaskStore();
+
+  private LogWorkService createLogWorkService() {
+    LogWorkStore logWorkStore = new EmbeddedLogWorkStore(mongoTemplate);
+    return new LogWorkService(modelMapper, taskRepository, logWorkStore,
+        new LogWorkWriteBehind(logWorkStore, new LogWorkWriteBehindProperties()));
+  }
+
+  /**
+   * Create, update and delete log works of one task from many threads then actual time equals
+   * the hours of active log works, no created log work is lost and every write bumps version
+   */
+  @Test
+  void when_writeLogWorksConcurrently_thenActualTimeEqualsActiveHours() throws Exception {
+    TaskEntity taskEntity = new TaskEntity();
+    taskEntity.setId(TASK_ID);
+    taskEntity.setVersion(0L);
+    taskStore.save(taskEntity);
+    taskStore.bind(mongoTemplate);
+    LogWorkService logWorkService = createLogWorkService();
+
+    //Seed a few log works so threads contend on the same elements
+    List<String> logWorkIds = new CopyOnWriteArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      logWorkIds.add(logWorkService.createLogWork(
+          new CreateLogWorkModel(TASK_ID, DAY, DAY.plusHours(1))).getId());
+    }
+    AtomicLong writes = new AtomicLong(logWorkIds.size());
+    AtomicLong exhausted = new AtomicLong();
+
+    ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch startLatch = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int thread = 0; thread < THREADS; thread++) {
+      futures.add(executorService.submit(() -> {
+        startLatch.await();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+          int operation = random.nextInt(10);
+          String logWorkId = logWorkIds.get(random.nextInt(logWorkIds.size()));
+          try {
+            if (operation < 3) {
+              logWorkIds.add(logWorkService.createLogWork(new CreateLogWorkModel(TASK_ID, DAY,
+                  DAY.plusMinutes(15L * random.nextInt(1, 16)))).getId());
+            } else if (operation < 9) {
+              logWorkService.updateLogWork(TASK_ID, new UpdateLogWorkModel(logWorkId, DAY,
+                  DAY.plusMinutes(15L * random.nextInt(1, 16)),
+                  LogWorkStatusEnum.ACTIVE.ordinal()));
+            } else {
+              logWorkService.deleteLogWorkById(TASK_ID, logWorkId);
+            }
+            writes.incrementAndGet();
+          } catch (NoSuchEntityException e) {
+            //Log work was deleted by another thread
+          } catch (ConcurrentUpdateException e) {
+            exhausted.incrementAndGet();
+          }
+        }
+        return null;
+      }));
+    }
+    startLatch.countDown();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executorService.shutdown();
+    assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+
+    TaskEntity savedTask = taskStore.findById(TASK_ID);
+    double activeHours = savedTask.getLogWorkList().stream()
+        .filter(logWork -> logWork.getStatus() == LogWorkStatusEnum.ACTIVE.ordinal())
+        .mapToDouble(LogWorkConcurrencyTest::hoursOf).sum();
+    assertEquals(activeHours, savedTask.getActualTime(), 1e-9);
+    assertEquals(logWorkIds.size(), savedTask.getLogWorkList().size());
+    assertEquals(writes.get(), savedTask.getVersion());
+    assertTrue(exhausted.get() < THREADS * OPERATIONS_PER_THREAD / 10);
+  }
+
+  private static double hoursOf(LogWorkEntity logWorkEntity) {
+    return Duration.between(logWorkEntity.getStartTime(), logWorkEntity.getEndTime()).toMinutes()
+        / 60.0;
+  }
+}
@@ -0,0 +1,225 @@
+package com.nli.probation.unittest.service;
+
+import static com.nli.probation.utils.FacetTestUtils.createConverter;
+import static com.nli.probation.utils.FacetTestUtils.renderPipeline;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import com.nli.probation.config.LogWorkWriteBehindProperties;
+import com.nli.probation.constant.EntityStatusEnum.LogWorkStatusEnum;
+import com.nli.probation.customexception.NoSuchEntityException;
+import com.nli.probation.entity.LogWorkEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.metamodel.TaskEntity_;
+import com.nli.probation.model.RequestPaginationModel;
+import com.nli.probation.model.ResourceModel;
+import com.nli.probation.model.logwork.CreateLogWorkModel;
+import com.nli.probation.model.logwork.LogWorkModel;
+import com.nli.probation.model.logwork.UpdateLogWorkModel;
+import com.nli.probation.repository.EmbeddedLogWorkStore;
+import com.nli.probation.repository.LogWorkStore;
+import com.nli.probation.repository.TaskRepository;
+import com.nli.probation.service.LogWorkService;
+import com.nli.probation.service.LogWorkWriteBehind;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.modelmapper.ModelMapper;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+class LogWorkServiceTest {
+
+  private final ModelMapper modelMapper = new ModelMapper();
+  private final TaskRepository taskRepository = Mockito.mock(TaskRepository.class);
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+
+  private LogWorkService createLogWorkService() {
+    LogWorkStore logWorkStore = new EmbeddedLogWorkStore(mongoTemplate);
+    return new LogWorkService(modelMapper, taskRepository, logWorkStore,
+        new LogWorkWriteBehind(logWorkStore, new LogWorkWriteBehindProperties()));
+  }
+
+  /**
+   * Find log works of task then only requested page is sliced and list is counted
+   */
+  @Test
+  void when_findAllLogWorkOfTask_thenSliceRequestedPage() {
+    LogWorkEntity logWorkEntity = new LogWorkEntity("log-21", LocalDateTime.now().minusHours(1),
+        LocalDateTime.now(), 0);
+    Document logWorkDocument = new Document();
+    createConverter().write(logWorkEntity, logWorkDocument);
+    when(mongoTemplate.getConverter()).thenReturn(createConverter());
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenReturn(new AggregationResults<>(List.of(new Document("page", List.of(logWorkDocument))
+            .append("total", 21)), new Document()));
+    LogWorkService logWorkService = createLogWorkService();
+
+    ResourceModel<LogWorkModel> resourceModel = logWorkService.findAllLogWorkOfTask(1,
+        new RequestPaginationModel(2, 10, null, null));
+
+    ArgumentCaptor<TypedAggregation> aggregationCaptor = ArgumentCaptor.forClass(
+        TypedAggregation.class);
+    verify(mongoTemplate).aggregate(aggregationCaptor.capture(), eq(Document.class));
+    Document project = renderPipeline(aggregationCaptor.getValue()).get(1)
+        .get("$project", Document.class);
+    assertEquals(new Document("$slice", List.of("$logWorkList", 20, 10)), project.get("page"));
+    assertEquals(1, resourceModel.getData().size());
+    assertEquals("log-21", resourceModel.getData().get(0).getId());
+    assertEquals(21, resourceModel.getTotalResult());
+    assertEquals(3, resourceModel.getTotalPage());
+  }
+
+  /**
+   * Find log works of not existed task then throw exception
+   */
+  @Test
+  void when_findAllLogWorkOfNotExistedTask_thenThrowException() {
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenReturn(new AggregationResults<>(List.of(), new Document()));
+    LogWorkService logWorkService = createLogWorkService();
+    RequestPaginationModel paginationModel = new RequestPaginationModel(0, 10, null, null);
+    assertThrows(NoSuchEntityException.class,
+        () -> logWorkService.findAllLogWorkOfTask(1, paginationModel));
+  }
+
+  private void stubFoundLogWork(LogWorkEntity logWorkEntity) {
+    TaskEntity taskEntity = new TaskEntity();
+    taskEntity.setLogWorkList(new ArrayList<>(List.of(logWorkEntity)));
+    when(mongoTemplate.findOne(any(Query.class), eq(TaskEntity.class))).thenReturn(taskEntity);
+  }
+
+  /**
+   * Find log work by id without task then query any task holding it through index on log work
+   * ids and project only the matched log work
+   */
+  @Test
+  void when_findLogWorkByIdWithoutTask_thenProjectMatchedLogWork() {
+    stubFoundLogWork(new LogWorkEntity("log-1", LocalDateTime.now().minusHours(1),
+        LocalDateTime.now(), LogWorkStatusEnum.ACTIVE.ordinal()));
+    LogWorkService logWorkService = createLogWorkService();
+    assertEquals("log-1", logWorkService.findLogWorkById("log-1").getId());
+
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate).findOne(queryCaptor.capture(), eq(TaskEntity.class));
+    MongoConverter mongoConverter = createConverter();
+    MongoPersistentEntity<?> taskEntity = mongoConverter.getMappingContext()
+        .getRequiredPersistentEntity(TaskEntity.class);
+    QueryMapper queryMapper = new QueryMapper(mongoConverter);
+    assertEquals(new Document("log_works._id", "log-1"),
+        queryMapper.getMappedObject(queryCaptor.getValue().getQueryObject(), taskEntity));
+    assertEquals(new Document("log_works", new Document("$elemMatch",
+            new Document("_id", "log-1"))),
+        queryMapper.getMappedFields(queryCaptor.getValue().getFieldsObject(), taskEntity));
+  }
+
+  /**
+   * Find log work by id held by no task then throw exception
+   */
+  @Test
+  void when_findNotExistedLogWorkByIdWithoutTask_thenThrowException() {
+    LogWorkService logWorkService = createLogWorkService();
+    assertThrows(NoSuchEntityException.class, () -> logWorkService.findLogWorkById("log-1"));
+  }
+
+  /**
+   * Create log work then push it and add its hours in one update without reading task
+   */
+  @Test
+  void when_createLogWork_thenPushAndIncrementActualTime() {
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TaskEntity.class)))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    LogWorkService logWorkService = createLogWorkService();
+    LocalDateTime endTime = LocalDateTime.now();
+    logWorkService.createLogWork(new CreateLogWorkModel(1, endTime.minusMinutes(90), endTime));
+
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate).updateFirst(any(Query.class), updateCaptor.capture(),
+        eq(TaskEntity.class));
+    verify(mongoTemplate, never()).findOne(any(Query.class), eq(TaskEntity.class));
+    Document update = updateCaptor.getValue().getUpdateObject();
+    assertEquals(1.5, update.get("$inc", Document.class).get(TaskEntity_.ACTUAL_TIME));
+    assertTrue(update.get("$push", Document.class).containsKey(TaskEntity_.LOG_WORKS_LIST));
+  }
+
+  /**
+   * Update log work changed by another request between read and update then read again and
+   * update with difference of hours of the new read
+   */
+  @Test
+  void when_updateLogWorkChangedConcurrently_thenRetryWithNewValues() {
+    LocalDateTime startTime = LocalDateTime.of(2021, 5, 1, 8, 0);
+    stubFoundLogWork(new LogWorkEntity("log-1", startTime, startTime.plusHours(1),
+        LogWorkStatusEnum.ACTIVE.ordinal()));
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TaskEntity.class)))
+        .thenReturn(UpdateResult.acknowledged(0, 0L, null))
+        .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+    LogWorkService logWorkService = createLogWorkService();
+    LogWorkModel updatedModel = logWorkService.updateLogWork(1,
+        new UpdateLogWorkModel("log-1", startTime, startTime.plusHours(3),
+            LogWorkStatusEnum.ACTIVE.ordinal()));
+
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate, times(2)).updateFirst(queryCaptor.capture(), updateCaptor.capture(),
+        eq(TaskEntity.class));
+    assertEquals(startTime.plusHours(3), updatedModel.getEndTime());
+
+    //Query matches log work with found values and update sets the matched element
+    MongoConverter mongoConverter = createConverter();
+    MongoPersistentEntity<?> taskEntity = mongoConverter.getMappingContext()
+        .getRequiredPersistentEntity(TaskEntity.class);
+    Document query = new QueryMapper(mongoConverter).getMappedObject(
+        queryCaptor.getValue().getQueryObject(), taskEntity);
+    Document logWorkMatch = query.get("log_works", Document.class)
+        .get("$elemMatch", Document.class);
+    assertEquals("log-1", logWorkMatch.get("_id"));
+    assertTrue(logWorkMatch.containsKey("endTime"));
+    Document update = new UpdateMapper(mongoConverter).getMappedObject(
+        updateCaptor.getValue().getUpdateObject(), taskEntity);
+    assertTrue(update.get("$set", Document.class).containsKey("log_works.$.endTime"));
+    assertEquals(2.0, update.get("$inc", Document.class).get("actual_time"));
+
+    //Only the log work is read out of task
+    ArgumentCaptor<Query> findCaptor = ArgumentCaptor.forClass(Query.class);
+    verify(mongoTemplate, times(2)).findOne(findCaptor.capture(), eq(TaskEntity.class));
+    Document fields = new QueryMapper(mongoConverter).getMappedFields(
+        findCaptor.getValue().getFieldsObject(), taskEntity);
+    assertEquals("log-1", fields.get("log_works", Document.class)
+        .get("$elemMatch", Document.class).get("_id"));
+  }
+
+  /**
+   * Delete log work which was already deleted then throw exception without updating task
+   */
+  @Test
+  void when_deleteDeletedLogWork_thenThrowException() {
+    LocalDateTime startTime = LocalDateTime.of(2021, 5, 1, 8, 0);
+    stubFoundLogWork(new LogWorkEntity("log-1", startTime, startTime.plusHours(1),
+        LogWorkStatusEnum.DISABLE.ordinal()));
+    LogWorkService logWorkService = createLogWorkService();
+    assertThrows(NoSuchEntityException.class,
+        () -> logWorkService.deleteLogWorkById(1, "log-1"));
+    verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class),
+        eq(TaskEntity.class));
+  }
+}
@@ -0,0 +1,235 @@
+package com.nli.probation.unittest.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nli.probation.config.LogWorkWriteBehindProperties;
+import com.nli.probation.constant.EntityStatusEnum.LogWorkStatusEnum;
+import com.nli.probation.customexception.NoSuchEntityException;
+import com.nli.probation.customexception.ServiceBusyException;
+import com.nli.probation.entity.LogWorkEntity;
+import com.nli.probation.model.logwork.CreateLogWorkModel;
+import com.nli.probation.repository.LogWorkStore;
+import com.nli.probation.repository.TaskRepository;
+import com.nli.probation.service.LogWorkService;
+import com.nli.probation.service.LogWorkWriteBehind;
+import com.nli.probation.utils.MappedJournal;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.modelmapper.ModelMapper;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+class LogWorkWriteBehindTest {
+
+  private static final LocalDateTime START_TIME = LocalDateTime.of(2021, 5, 1, 8, 0);
+
+  private final LogWorkStore logWorkStore = Mockito.mock(LogWorkStore.class);
+  private final LogWorkWriteBehindProperties properties = new LogWorkWriteBehindProperties();
+
+  private static LogWorkEntity logWork(String id) {
+    return new LogWorkEntity(id, START_TIME, START_TIME.plusHours(1),
+        LogWorkStatusEnum.ACTIVE.ordinal());
+  }
+
+  /**
+   * Flush queued log works of several tasks then write them in one batch grouped by task
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  void when_flush_thenWriteOneBatchGroupedByTask() {
+    LogWorkWriteBehind writeBehind = new LogWorkWriteBehind(logWorkStore, properties);
+    writeBehind.submit(1, logWork("log-1"));
+    writeBehind.submit(2, logWork("log-2"));
+    writeBehind.submit(1, logWork("log-3"));
+    assertEquals(3, writeBehind.flush());
+
+    ArgumentCaptor<Map<Integer, List<LogWorkEntity>>> batchCaptor = ArgumentCaptor.forClass(
+        Map.class);
+    verify(logWorkStore).insertAll(batchCaptor.capture());
+    Map<Integer, List<LogWorkEntity>> batch = batchCaptor.getValue();
+    assertEquals(List.of(1, 2), new ArrayList<>(batch.keySet()));
+    assertEquals("log-3", batch.get(1).get(1).getId());
+  }
+
+  /**
+   * Submit to full buffer then reject after offer timeout
+   */
+  @Test
+  void when_submitToFullBuffer_thenReject() {
+    properties.setCapacity(2);
+    properties.setOfferTimeout(Duration.ofMillis(1));
+    LogWorkWriteBehind writeBehind = new LogWorkWriteBehind(logWorkStore, properties);
+    writeBehind.submit(1, logWork("log-1"));
+    writeBehind.submit(1, logWork("log-2"));
+    LogWorkEntity rejectedLogWork = logWork("log-3");
+    assertThrows(ServiceBusyException.class, () -> writeBehind.submit(1, rejectedLogWork));
+  }
+
+  /**
+   * Flush failing then keep batch and write it first on next flush
+   */
+  @Test
+  void when_flushFails_thenRetryBatchOnNextFlush() {
+    doThrow(new DataAccessResourceFailureException("down")).doNothing()
+        .when(logWorkStore).insertAll(any());
+    LogWorkWriteBehind writeBehind = new LogWorkWriteBehind(logWorkStore, properties);
+    writeBehind.submit(1, logWork("log-1"));
+    assertThrows(DataAccessResourceFailureException.class, writeBehind::flush);
+    assertEquals(1, writeBehind.flush());
+    verify(logWorkStore, Mockito.times(2)).insertAll(Map.of(1, List.of(logWork("log-1"))));
+  }
+
+  /**
+   * Stop with queued log works then flush them and reject later submissions
+   */
+  @Test
+  void when_stop_thenFlushQueuedAndRejectNew() {
+    properties.setEnabled(true);
+    properties.setFlushInterval(Duration.ofHours(1));
+    LogWorkWriteBehind writeBehind = new LogWorkWriteBehind(logWorkStore, properties);
+    writeBehind.start();
+    writeBehind.submit(1, logWork("log-1"));
+    writeBehind.stop();
+
+    verify(logWorkStore).insertAll(Map.of(1, List.of(logWork("log-1"))));
+    LogWorkEntity lateLogWork = logWork("log-2");
+    assertThrows(ServiceBusyException.class, () -> writeBehind.submit(1, lateLogWork));
+  }
+
+  /**
+   * Create a burst of log works from many threads with write-behind then every log work is
+   * written with far fewer round trips than one per log work of the synchronous path
+   */
+  @Test
+  void when_createBurst_thenFewerRoundTripsThanSynchronous() throws Exception {
+    int threads = 16;
+    int perThread = 200;
+    AtomicInteger roundTrips = new AtomicInteger();
+    AtomicInteger written = new AtomicInteger();
+    doAnswer(invocation -> {
+      Thread.sleep(1);
+      roundTrips.incrementAndGet();
+      invocation.<Map<Integer, List<LogWorkEntity>>>getArgument(0).values()
+          .forEach(logWorks -> written.addAndGet(logWorks.size()));
+      return null;
+    }).when(logWorkStore).insertAll(any());
+    TaskRepository taskRepository = Mockito.mock(TaskRepository.class);
+    when(taskRepository.existsById(anyInt())).thenReturn(true);
+    properties.setEnabled(true);
+    properties.setOfferTimeout(Duration.ofSeconds(5));
+    LogWorkWriteBehind writeBehind = new LogWorkWriteBehind(logWorkStore, properties);
+    writeBehind.start();
+    LogWorkService logWorkService = new LogWorkService(new ModelMapper(), taskRepository,
+        logWorkStore, writeBehind);
+
+    ExecutorService executorService = Executors.newFixedThreadPool(threads);
+    CountDownLatch startLatch = new CountDownLatch(1);
+    for (int thread = 0; thread < threads; thread++) {
+      int taskId = thread % 4;
+      executorService.execute(() -> {
+        try {
+          startLatch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for (int i = 0; i < perThread; i++) {
+          logWorkService.createLogWork(new CreateLogWorkModel(taskId, START_TIME,
+              START_TIME.plusHours(1)));
+        }
+      });
+    }
+    startLatch.countDown();
+    executorService.shutdown();
+    assertTrue(executorService.awaitTermination(30, TimeUnit.SECONDS));
+    writeBehind.stop();
+
+    assertEquals(threads * perThread, written.get());
+    assertTrue(roundTrips.get() < threads * perThread / 10);
+    verify(logWorkStore, never()).insert(anyInt(), any());
+  }
+
+  /**
+   * Restart with journaled log works not confirmed then replay those not stored yet, once
+   */
+  @Test
+  void when_restartWithJournal_thenReplayLogWorksNotStored(@TempDir Path directory) {
+    properties.setEnabled(true);
+    properties.setJournalEnabled(true);
+    properties.setJournalDirectory(directory.toString());
+    LogWorkEntity storedLogWork = logWork("log-1");
+    LogWorkEntity lostLogWork = logWork("log-2");
+    lostLogWork.setEndTime(START_TIME.plusMinutes(90).plusNanos(1000));
+    LogWorkWriteBehind crashedWriteBehind = new LogWorkWriteBehind(logWorkStore, properties);
+    crashedWriteBehind.submit(1, storedLogWork);
+    crashedWriteBehind.submit(2, lostLogWork);
+
+    //Only log work flushed before crash, without its batch confirmed, is found
+    when(logWorkStore.findById(1, "log-1")).thenReturn(storedLogWork);
+    when(logWorkStore.findById(2, "log-2")).thenThrow(new NoSuchEntityException("not found"));
+    LogWorkWriteBehind restartedWriteBehind = new LogWorkWriteBehind(logWorkStore, properties);
+    assertEquals(0, restartedWriteBehind.flush());
+    verify(logWorkStore).insertAll(Map.of(2, List.of(lostLogWork)));
+
+    new LogWorkWriteBehind(logWorkStore, properties).flush();
+    verify(logWorkStore).insertAll(any());
+  }
+
+  /**
+   * Flush journaled log works then they are confirmed and not replayed after restart
+   */
+  @Test
+  void when_flushWithJournal_thenNotReplayedAfterRestart(@TempDir Path directory) {
+    properties.setEnabled(true);
+    properties.setJournalEnabled(true);
+    properties.setJournalDirectory(directory.toString());
+    LogWorkWriteBehind writeBehind = new LogWorkWriteBehind(logWorkStore, properties);
+    writeBehind.submit(1, logWork("log-1"));
+    assertEquals(1, writeBehind.flush());
+
+    new LogWorkWriteBehind(logWorkStore, properties).flush();
+    verify(logWorkStore).insertAll(any());
+    verify(logWorkStore, never()).findById(anyInt(), any());
+  }
+
+  /**
+   * Submit while journal can not be synced then log work is still queued and written instead of
+   * failing the request
+   */
+  @Test
+  void when_journalSyncFails_thenSubmitSucceeds(@TempDir Path directory) {
+    properties.setEnabled(true);
+    MappedJournal journal = Mockito.spy(new MappedJournal(directory, 4096));
+    doThrow(new UncheckedIOException(new IOException("disk"))).when(journal).sync(anyLong());
+    LogWorkWriteBehind writeBehind = new LogWorkWriteBehind(logWorkStore, properties, journal);
+    writeBehind.submit(1, logWork("log-1"));
+    assertEquals(1, writeBehind.flush());
+
+    verify(logWorkStore).insertAll(Map.of(1, List.of(logWork("log-1"))));
+    verify(journal).confirm(1);
+  }
+}
@@ -1,22 +1,33 @@
 package com.nli.probation.unittest.service;
 
+import static com.nli.probation.utils.FacetTestUtils.createConverter;
+import static com.nli.probation.utils.FacetTestUtils.createFacetResult;
+import static com.nli.probation.utils.FacetTestUtils.renderPipeline;
 import static com.nli.probation.utils.OfficeTestUtils.compareTwoOffice;
 import static com.nli.probation.utils.OfficeTestUtils.compareTwoOfficeList;
 import static com.nli.probation.utils.OfficeTestUtils.createCreateOfficeModel;
 import static com.nli.probation.utils.OfficeTestUtils.createOfficeModel;
 import static com.nli.probation.utils.OfficeTestUtils.createUpdateOfficeModel;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.nli.probation.MockConstants;
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.cache.ReferenceDataCache;
 import com.nli.probation.constant.EntityStatusEnum.OfficeStatusEnum;
+import com.nli.probation.constant.SearchModeEnum;
 import com.nli.probation.customexception.DuplicatedEntityException;
 import com.nli.probation.customexception.NoSuchEntityException;
 import com.nli.probation.entity.OfficeEntity;
+import com.nli.probation.metamodel.OfficeEntity_;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
 import com.nli.probation.model.office.CreateOfficeModel;
@@ -29,12 +40,15 @@ import com.nli.probation.utils.TestUtils;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 
 class OfficeServiceTest {
 
@@ -42,6 +56,9 @@ class OfficeServiceTest {
   private final ModelMapper modelMapper = new ModelMapper();
   private final SequenceGeneratorService sequenceGeneratorService = Mockito.mock(
       SequenceGeneratorService.class);
+  private final ReferenceDataCache referenceDataCache = Mockito.mock(ReferenceDataCache.class);
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final CountCache countCache = Mockito.mock(CountCache.class);
 
   /**
    * Create new office and save successfully
@@ -58,7 +75,8 @@ class OfficeServiceTest {
     OfficeModel expectedModel = createOfficeModel();
     CreateOfficeModel paramModel = createCreateOfficeModel();
     OfficeModel actualModel = new OfficeService(officeRepository, modelMapper,
-        sequenceGeneratorService).createOffice(paramModel);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache)
+        .createOffice(paramModel);
     assertTrue(compareTwoOffice(expectedModel, actualModel));
   }
 
@@ -71,7 +89,7 @@ class OfficeServiceTest {
 
     CreateOfficeModel paramModel = createCreateOfficeModel();
     OfficeService officeService = new OfficeService(officeRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(DuplicatedEntityException.class, () -> officeService.createOffice(paramModel));
   }
 
@@ -92,7 +110,8 @@ class OfficeServiceTest {
     expectedModel.setStatus(OfficeStatusEnum.DISABLE.ordinal());
 
     OfficeModel actualModel = new OfficeService(officeRepository, modelMapper,
-        sequenceGeneratorService).deleteOfficeById(MockConstants.OFFICE_ID);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache)
+        .deleteOfficeById(MockConstants.OFFICE_ID);
     assertTrue(compareTwoOffice(expectedModel, actualModel));
   }
 
@@ -106,7 +125,7 @@ class OfficeServiceTest {
     when(optional.orElseThrow(any())).thenThrow(NoSuchEntityException.class);
 
     OfficeService officeService = new OfficeService(officeRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(NoSuchEntityException.class,
         () -> officeService.deleteOfficeById(MockConstants.NOT_FOUND_OFFICE_ID));
   }
@@ -124,7 +143,7 @@ class OfficeServiceTest {
     when(optional.orElseThrow(any())).thenReturn(foundOffice);
 
     OfficeService officeService = new OfficeService(officeRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(NoSuchEntityException.class, () -> officeService.deleteOfficeById(
         MockConstants.NOT_FOUND_OFFICE_ID));
   }
@@ -144,8 +163,8 @@ class OfficeServiceTest {
     OfficeModel expectedModel = createOfficeModel();
 
     OfficeModel actualModel = new OfficeService(officeRepository, modelMapper,
-        sequenceGeneratorService).findOfficeById(
-        MockConstants.OFFICE_ID);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache).findOfficeById(
+        MockConstants.OFFICE_ID, new RequestFieldsModel());
     assertTrue(compareTwoOffice(expectedModel, actualModel));
   }
 
@@ -159,9 +178,10 @@ class OfficeServiceTest {
     when(optional.orElseThrow(any())).thenThrow(NoSuchEntityException.class);
 
     OfficeService officeService = new OfficeService(officeRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(NoSuchEntityException.class,
-        () -> officeService.findOfficeById(MockConstants.NOT_FOUND_OFFICE_ID));
+        () -> officeService.findOfficeById(MockConstants.NOT_FOUND_OFFICE_ID,
+            new RequestFieldsModel()));
   }
 
   /**
@@ -182,7 +202,8 @@ class OfficeServiceTest {
     OfficeModel expectedModel = createOfficeModel();
 
     OfficeModel actualModel = new OfficeService(officeRepository, modelMapper,
-        sequenceGeneratorService).updateOffice(createUpdateOfficeModel());
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache)
+        .updateOffice(createUpdateOfficeModel());
     assertTrue(compareTwoOffice(expectedModel, actualModel));
   }
 
@@ -197,7 +218,7 @@ class OfficeServiceTest {
 
     UpdateOfficeModel updateOfficeModel = createUpdateOfficeModel();
     OfficeService officeService = new OfficeService(officeRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(NoSuchEntityException.class, () -> officeService.updateOffice(updateOfficeModel));
   }
 
@@ -208,16 +229,17 @@ class OfficeServiceTest {
   void when_findOfficeLikeNameOrLocationSortByAsc_thenReturnResourceOfListOfOfficesByAsc() {
     List<OfficeEntity> entityList = new ArrayList<>();
     entityList.add(modelMapper.map(createOfficeModel(), OfficeEntity.class));
-    Page<OfficeEntity> entityPage = new PageImpl<>(entityList);
 
-    when(officeRepository.findAll(any(), (Pageable) any())).thenReturn(entityPage);
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenReturn(createFacetResult(entityList, MockConstants.TOTAL_RESULT));
+    when(mongoTemplate.getConverter()).thenReturn(createConverter());
 
     OfficeService officeService = new OfficeService(officeRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     ResourceModel<OfficeModel> actualResource = officeService.
-        searchOffices(MockConstants.SEARCH_VALUE,
+        searchOffices(MockConstants.SEARCH_VALUE, SearchModeEnum.REGEX,
             new RequestPaginationModel(MockConstants.INDEX, MockConstants.LIMIT,
-                MockConstants.SORT_BY, MockConstants.SORT_TYPE));
+                MockConstants.SORT_BY, MockConstants.SORT_TYPE), new RequestFieldsModel());
 
     List<OfficeModel> modelList = new ArrayList<>();
     OfficeModel expectModel = createOfficeModel();
@@ -231,4 +253,29 @@ class OfficeServiceTest {
     assertTrue(testUtils.compareTwoResourceInformation(expectedResource, actualResource));
     assertTrue(compareTwoOfficeList(expectedResource.getData(), actualResource.getData()));
   }
+
+  /**
+   * Search offices by prefix then query lowercase search fields
+   */
+  @Test
+  void when_searchOfficesByPrefix_thenFindByLowercaseSearchFields() {
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenReturn(createFacetResult(List.of(), 0));
+
+    OfficeService officeService = new OfficeService(officeRepository, modelMapper,
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
+    officeService.searchOffices("Ha Noi", SearchModeEnum.PREFIX,
+        new RequestPaginationModel(MockConstants.INDEX, MockConstants.LIMIT,
+            MockConstants.SORT_BY, MockConstants.SORT_TYPE), new RequestFieldsModel());
+
+    ArgumentCaptor<TypedAggregation> aggregationCaptor = ArgumentCaptor.forClass(
+        TypedAggregation.class);
+    verify(mongoTemplate).aggregate(aggregationCaptor.capture(), eq(Document.class));
+    Query expectedQuery = new Query(new Criteria().orOperator(
+        Criteria.where(OfficeEntity_.SEARCH_NAME).regex("^\\Qha noi\\E"),
+        Criteria.where(OfficeEntity_.SEARCH_LOCATION).regex("^\\Qha noi\\E")));
+    assertEquals(expectedQuery.getQueryObject().toJson(),
+        renderPipeline(aggregationCaptor.getValue()).get(0).get("$match", Document.class)
+            .toJson());
+  }
 }
@@ -1,5 +1,7 @@
 package com.nli.probation.unittest.service;
 
+import static com.nli.probation.utils.FacetTestUtils.createConverter;
+import static com.nli.probation.utils.FacetTestUtils.createFacetResult;
 import static com.nli.probation.utils.RoleTestUtils.compareTwoRole;
 import static com.nli.probation.utils.RoleTestUtils.compareTwoRoleList;
 import static com.nli.probation.utils.RoleTestUtils.createCreateRoleModel;
@@ -10,13 +12,18 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import com.nli.probation.MockConstants;
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.cache.ReferenceDataCache;
 import com.nli.probation.constant.EntityStatusEnum.RoleStatusEnum;
+import com.nli.probation.constant.SearchModeEnum;
 import com.nli.probation.customexception.DuplicatedEntityException;
 import com.nli.probation.customexception.NoSuchEntityException;
 import com.nli.probation.entity.RoleEntity;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
 import com.nli.probation.model.role.CreateRoleModel;
@@ -29,12 +36,12 @@ import com.nli.probation.utils.TestUtils;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
 
 class RoleServiceTest {
 
@@ -42,6 +49,9 @@ class RoleServiceTest {
   private final ModelMapper modelMapper = new ModelMapper();
   private final SequenceGeneratorService sequenceGeneratorService = Mockito.mock(
       SequenceGeneratorService.class);
+  private final ReferenceDataCache referenceDataCache = Mockito.mock(ReferenceDataCache.class);
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final CountCache countCache = Mockito.mock(CountCache.class);
 
   /**
    * Create new role and save successfully
@@ -58,7 +68,8 @@ class RoleServiceTest {
     RoleModel expectedModel = createRoleModel();
     CreateRoleModel paramModel = createCreateRoleModel();
     RoleModel actualModel = new RoleService(roleRepository, modelMapper,
-        sequenceGeneratorService).createRole(paramModel);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache)
+        .createRole(paramModel);
     assertTrue(compareTwoRole(expectedModel, actualModel));
   }
 
@@ -71,7 +82,7 @@ class RoleServiceTest {
 
     CreateRoleModel paramModel = createCreateRoleModel();
     RoleService roleService = new RoleService(roleRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(DuplicatedEntityException.class, () -> roleService.createRole(paramModel));
   }
 
@@ -84,7 +95,7 @@ class RoleServiceTest {
 
     CreateRoleModel paramModel = createCreateRoleModel();
     RoleService roleService = new RoleService(roleRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(DuplicatedEntityException.class, () -> roleService.createRole(paramModel));
   }
 
@@ -105,7 +116,8 @@ class RoleServiceTest {
     expectedModel.setStatus(RoleStatusEnum.DISABLE.ordinal());
 
     RoleModel actualModel = new RoleService(roleRepository, modelMapper,
-        sequenceGeneratorService).deleteRoleById(MockConstants.ROLE_ID);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache)
+        .deleteRoleById(MockConstants.ROLE_ID);
     assertTrue(compareTwoRole(expectedModel, actualModel));
   }
 
@@ -119,7 +131,7 @@ class RoleServiceTest {
     when(optional.orElseThrow(any())).thenThrow(NoSuchEntityException.class);
 
     RoleService roleService = new RoleService(roleRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(NoSuchEntityException.class,
         () -> roleService.deleteRoleById(MockConstants.NOT_FOUND_ROLE_ID));
   }
@@ -137,7 +149,7 @@ class RoleServiceTest {
     when(optional.orElseThrow(any())).thenReturn(foundRole);
 
     RoleService roleService = new RoleService(roleRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(NoSuchEntityException.class,
         () -> roleService.deleteRoleById(MockConstants.ROLE_ID));
   }
@@ -157,7 +169,8 @@ class RoleServiceTest {
     RoleModel expectedModel = createRoleModel();
 
     RoleModel actualModel = new RoleService(roleRepository, modelMapper,
-        sequenceGeneratorService).findRoleById(MockConstants.ROLE_ID);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache)
+        .findRoleById(MockConstants.ROLE_ID, new RequestFieldsModel());
     assertTrue(compareTwoRole(expectedModel, actualModel));
   }
 
@@ -171,9 +184,10 @@ class RoleServiceTest {
     when(optional.orElseThrow(any())).thenThrow(NoSuchEntityException.class);
 
     RoleService roleService = new RoleService(roleRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(NoSuchEntityException.class,
-        () -> roleService.findRoleById(MockConstants.NOT_FOUND_ROLE_ID));
+        () -> roleService.findRoleById(MockConstants.NOT_FOUND_ROLE_ID,
+            new RequestFieldsModel()));
   }
 
   /**
@@ -195,7 +209,8 @@ class RoleServiceTest {
     RoleModel expectedModel = createRoleModel();
 
     RoleModel actualModel = new RoleService(roleRepository, modelMapper,
-        sequenceGeneratorService).updateRole(createUpdateRoleModel());
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache)
+        .updateRole(createUpdateRoleModel());
     assertTrue(compareTwoRole(expectedModel, actualModel));
   }
 
@@ -206,16 +221,17 @@ class RoleServiceTest {
   void when_findRoleLikeNameOrShortNameSortByAsc_thenReturnResourceOfListOfRolesByAsc() {
     List<RoleEntity> entityList = new ArrayList<>();
     entityList.add(modelMapper.map(createRoleModel(), RoleEntity.class));
-    Page<RoleEntity> entityPage = new PageImpl<>(entityList);
 
-    when(roleRepository.findAll(any(), (Pageable) any())).thenReturn(entityPage);
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenReturn(createFacetResult(entityList, MockConstants.TOTAL_RESULT));
+    when(mongoTemplate.getConverter()).thenReturn(createConverter());
 
     RoleService roleService = new RoleService(roleRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     ResourceModel<RoleModel> actualResource = roleService.
-        searchRoles(MockConstants.SEARCH_VALUE,
+        searchRoles(MockConstants.SEARCH_VALUE, SearchModeEnum.REGEX,
             new RequestPaginationModel(MockConstants.INDEX, MockConstants.LIMIT,
-                MockConstants.SORT_BY, MockConstants.SORT_TYPE));
+                MockConstants.SORT_BY, MockConstants.SORT_TYPE), new RequestFieldsModel());
 
     List<RoleModel> modelList = new ArrayList<>();
     RoleModel expectModel = createRoleModel();
@@ -1,10 +1,18 @@
 package com.nli.probation.unittest.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.nli.probation.config.SequenceProperties;
+import com.nli.probation.entity.DBSequencesEntity;
+import com.nli.probation.model.SequenceRangeModel;
 import com.nli.probation.service.SequenceGeneratorService;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.data.mongodb.core.MongoOperations;
@@ -25,4 +33,72 @@ class SequenceGeneratorServiceTest {
     int actual = sequenceGeneratorService.generateSequence("seqName");
     assertEquals(1, actual);
   }
+
+  /**
+   * Generate sequence ids from one leased block
+   */
+  @Test
+  void when_leaseEnabled_thenHandOutIdsOfOneBlock() {
+    SequenceProperties sequenceProperties = new SequenceProperties();
+    sequenceProperties.setLeaseEnabled(true);
+    sequenceProperties.setInitialBlockSize(3);
+    sequenceProperties.setMinBlockSize(3);
+    when(mongoOperations.findAndModify(any(), any(), any(), (Class<DBSequencesEntity>) any()))
+        .thenReturn(new DBSequencesEntity("seqName", 3));
+    SequenceGeneratorService sequenceGeneratorService = new SequenceGeneratorService(
+        mongoOperations, sequenceProperties);
+    assertEquals(1, sequenceGeneratorService.generateSequence("seqName"));
+    assertEquals(2, sequenceGeneratorService.generateSequence("seqName"));
+    assertEquals(3, sequenceGeneratorService.generateSequence("seqName"));
+    verify(mongoOperations, times(1)).findAndModify(any(), any(), any(),
+        (Class<DBSequencesEntity>) any());
+  }
+
+  /**
+   * Record unused ids of leased blocks on shutdown
+   */
+  @Test
+  void when_releaseLeases_thenRecordWastedIds() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    Metrics.addRegistry(meterRegistry);
+    SequenceProperties sequenceProperties = new SequenceProperties();
+    sequenceProperties.setLeaseEnabled(true);
+    sequenceProperties.setInitialBlockSize(10);
+    when(mongoOperations.findAndModify(any(), any(), any(), (Class<DBSequencesEntity>) any()))
+        .thenReturn(new DBSequencesEntity("wastedSeqName", 10));
+    SequenceGeneratorService sequenceGeneratorService = new SequenceGeneratorService(
+        mongoOperations, sequenceProperties);
+    sequenceGeneratorService.generateSequence("wastedSeqName");
+    sequenceGeneratorService.releaseLeases();
+    assertEquals(9, meterRegistry.counter("sequence.lease.wasted", "sequence", "wastedSeqName")
+        .count());
+    Metrics.removeRegistry(meterRegistry);
+  }
+
+  /**
+   * Reserve a range of sequence ids with one round trip
+   */
+  @Test
+  void when_generateSequences_thenReturnContiguousRange() {
+    when(mongoOperations.findAndModify(any(), any(), any(), (Class<DBSequencesEntity>) any()))
+        .thenReturn(new DBSequencesEntity("seqName", 150));
+    SequenceGeneratorService sequenceGeneratorService = new SequenceGeneratorService(
+        mongoOperations);
+    SequenceRangeModel range = sequenceGeneratorService.generateSequences("seqName", 50);
+    assertEquals(101, range.getFirst());
+    assertEquals(150, range.getLast());
+    assertEquals(50, range.size());
+    assertEquals(120, range.get(19));
+  }
+
+  /**
+   * Reserve a range with invalid size
+   */
+  @Test
+  void when_generateSequencesWithNotPositiveCount_thenThrowIllegalArgumentException() {
+    SequenceGeneratorService sequenceGeneratorService = new SequenceGeneratorService(
+        mongoOperations);
+    assertThrows(IllegalArgumentException.class,
+        () -> sequenceGeneratorService.generateSequences("seqName", 0));
+  }
 }
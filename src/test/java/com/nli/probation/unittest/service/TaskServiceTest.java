@@ -0,0 +1,235 @@
+package com.nli.probation.unittest.service;
+
+import static com.nli.probation.utils.FacetTestUtils.createFacetResult;
+import static com.nli.probation.utils.FacetTestUtils.findDataStages;
+import static com.nli.probation.utils.FacetTestUtils.renderPipeline;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nli.probation.MockConstants;
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.cache.UserAccountCache;
+import com.nli.probation.constant.SearchModeEnum;
+import com.nli.probation.entity.LogWorkEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.entity.UserAccountEntity;
+import com.nli.probation.metamodel.TaskEntity_;
+import com.nli.probation.model.RequestFieldsModel;
+import com.nli.probation.model.RequestPaginationModel;
+import com.nli.probation.model.SequenceRangeModel;
+import com.nli.probation.model.task.CreateTaskModel;
+import com.nli.probation.model.task.TaskModel;
+import com.nli.probation.model.task.UpdateTaskModel;
+import com.nli.probation.repository.TaskRepository;
+import com.nli.probation.service.SequenceGeneratorService;
+import com.nli.probation.service.TaskService;
+import com.nli.probation.utils.IntObjectHashMap;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import org.bson.BsonRegularExpression;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.modelmapper.ModelMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class TaskServiceTest {
+
+  private final TaskRepository taskRepository = Mockito.mock(TaskRepository.class);
+  private final UserAccountCache userAccountCache = Mockito.mock(UserAccountCache.class);
+  private final ModelMapper modelMapper = new ModelMapper();
+  private final SequenceGeneratorService sequenceGeneratorService = Mockito.mock(
+      SequenceGeneratorService.class);
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final CountCache countCache = Mockito.mock(CountCache.class);
+
+  private List<Document> searchAndCapturePipeline(String searchValue,
+      SearchModeEnum searchMode) {
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenReturn(createFacetResult(List.of(), 0));
+    TaskService taskService = new TaskService(taskRepository, userAccountCache, modelMapper,
+        sequenceGeneratorService, mongoTemplate, countCache);
+    taskService.searchTasks(searchValue, searchMode, new RequestPaginationModel(
+        MockConstants.INDEX, MockConstants.LIMIT, MockConstants.SORT_BY,
+        MockConstants.SORT_TYPE), new RequestFieldsModel());
+    ArgumentCaptor<TypedAggregation> aggregationCaptor = ArgumentCaptor.forClass(
+        TypedAggregation.class);
+    verify(mongoTemplate).aggregate(aggregationCaptor.capture(), eq(Document.class));
+    return renderPipeline(aggregationCaptor.getValue());
+  }
+
+  /**
+   * Search tasks in text mode then query by text index sorted by relevance
+   */
+  @Test
+  void when_searchTasksInTextMode_thenQueryTextIndex() {
+    List<Document> pipeline = searchAndCapturePipeline("deploy api", SearchModeEnum.TEXT);
+    Document text = (Document) pipeline.get(0).get("$match", Document.class).get("$text");
+    assertEquals("deploy api", text.get("$search"));
+    Document sort = pipeline.get(1).get("$sort", Document.class);
+    assertEquals("score", sort.keySet().iterator().next());
+  }
+
+  /**
+   * Search tasks in regex mode then special characters of search text are escaped
+   */
+  @Test
+  void when_searchTasksInRegexMode_thenEscapeSearchText() {
+    List<Document> pipeline = searchAndCapturePipeline("a.*(b", SearchModeEnum.REGEX);
+    Object title = pipeline.get(0).get("$match", Document.class).get("title");
+    String pattern = title instanceof BsonRegularExpression
+        ? ((BsonRegularExpression) title).getPattern() : title.toString();
+    assertEquals("\\Qa.*(b\\E", pattern);
+  }
+
+  /**
+   * Search tasks without fields then log works and applied hours are left out of page
+   */
+  @Test
+  void when_searchTasksWithoutFields_thenExcludeLogWorks() {
+    List<Document> pipeline = searchAndCapturePipeline("", SearchModeEnum.TEXT);
+    assertEquals(new Document("$project", new Document(TaskEntity_.LOG_WORKS_LIST, 0)
+            .append(TaskEntity_.APPLIED_HOURS_IDS, 0)),
+        findDataStages(pipeline).get(2));
+  }
+
+  /**
+   * Create more tasks than one batch then insert them in batches with ids of leased range,
+   * version zero and only found assignees
+   */
+  @Test
+  @SuppressWarnings("unchecked")
+  void when_createTasks_thenInsertBatchesWithIdsOfLeasedRange() {
+    IntObjectHashMap<UserAccountEntity> assigneeMap = new IntObjectHashMap<>();
+    assigneeMap.put(7, new UserAccountEntity());
+    when(userAccountCache.findAllById(any(IntStream.class))).thenReturn(assigneeMap);
+    when(sequenceGeneratorService.generateSequences(TaskEntity.SEQUENCE_NAME, 2500))
+        .thenReturn(new SequenceRangeModel(101, 2600));
+    BulkOperations bulkOperations = Mockito.mock(BulkOperations.class);
+    when(mongoTemplate.bulkOps(BulkMode.UNORDERED, TaskEntity.class)).thenReturn(bulkOperations);
+    when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+    List<CreateTaskModel> createTaskModels = new ArrayList<>();
+    for (int i = 0; i < 2500; i++) {
+      createTaskModels.add(new CreateTaskModel("title " + i, "description", LocalDateTime.now(),
+          1, i % 2 == 0 ? 7 : 8));
+    }
+    TaskService taskService = new TaskService(taskRepository, userAccountCache, modelMapper,
+        sequenceGeneratorService, mongoTemplate, countCache);
+    List<TaskModel> taskModels = taskService.createTasks(createTaskModels);
+
+    ArgumentCaptor<List<TaskEntity>> batchCaptor = ArgumentCaptor.forClass(List.class);
+    verify(bulkOperations, times(3)).insert(batchCaptor.capture());
+    verify(bulkOperations, times(3)).execute();
+    List<List<TaskEntity>> batches = batchCaptor.getAllValues();
+    assertEquals(List.of(1000, 1000, 500),
+        List.of(batches.get(0).size(), batches.get(1).size(), batches.get(2).size()));
+    TaskEntity lastEntity = batches.get(2).get(499);
+    assertEquals(2600, lastEntity.getId());
+    assertEquals(0L, lastEntity.getVersion());
+    assertEquals(0, lastEntity.getUserAccountId());
+    assertEquals(101, batches.get(0).get(0).getId());
+    assertEquals(7, batches.get(0).get(0).getUserAccountId());
+    assertEquals(2500, taskModels.size());
+    assertEquals(1101, taskModels.get(1000).getId());
+  }
+
+  /**
+   * Update task in a request while another writer changes it then retry reads the task as
+   * stored again, keeping log works and actual time written meanwhile
+   */
+  @Test
+  void when_updateTaskConflicts_thenRetryReadsStoredTask() {
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+    try {
+      TaskEntity readTask = new TaskEntity();
+      readTask.setId(MockConstants.TASK_ID);
+      readTask.setActualTime(1);
+      readTask.setVersion(3L);
+      TaskEntity storedTask = new TaskEntity();
+      storedTask.setId(MockConstants.TASK_ID);
+      storedTask.setActualTime(2);
+      storedTask.setLogWorkList(List.of(new LogWorkEntity()));
+      storedTask.setVersion(4L);
+      when(mongoTemplate.findById(MockConstants.TASK_ID, TaskEntity.class))
+          .thenReturn(readTask, storedTask);
+      when(taskRepository.save(any(TaskEntity.class)))
+          .thenThrow(new OptimisticLockingFailureException("changed"))
+          .thenAnswer(invocation -> invocation.getArgument(0));
+      TaskService taskService = new TaskService(taskRepository, userAccountCache, modelMapper,
+          sequenceGeneratorService, mongoTemplate, countCache);
+      taskService.updateTask(new UpdateTaskModel(MockConstants.TASK_ID, "title", "description",
+          LocalDateTime.of(2021, 5, 1, 8, 0), 4, 0, 1));
+
+      ArgumentCaptor<TaskEntity> savedCaptor = ArgumentCaptor.forClass(TaskEntity.class);
+      verify(taskRepository, times(2)).save(savedCaptor.capture());
+      TaskEntity retriedTask = savedCaptor.getAllValues().get(1);
+      assertSame(storedTask, retriedTask);
+      assertEquals(4L, retriedTask.getVersion());
+      assertEquals(2, retriedTask.getActualTime());
+      assertEquals(1, retriedTask.getLogWorkList().size());
+      assertEquals("title", retriedTask.getTitle());
+      verify(taskRepository, never()).findById(anyInt());
+    } finally {
+      RequestContextHolder.resetRequestAttributes();
+    }
+  }
+
+  /**
+   * Assign task written without version by an older node then set its initial version and save
+   * it as update of that version
+   */
+  @Test
+  void when_assignUnversionedTask_thenSetVersionBeforeSave() {
+    TaskEntity unversionedTask = new TaskEntity();
+    unversionedTask.setId(MockConstants.TASK_ID);
+    TaskEntity versionedTask = new TaskEntity();
+    versionedTask.setId(MockConstants.TASK_ID);
+    versionedTask.setVersion(0L);
+    when(mongoTemplate.findById(MockConstants.TASK_ID, TaskEntity.class))
+        .thenReturn(unversionedTask, versionedTask);
+    UserAccountEntity accountEntity = new UserAccountEntity();
+    accountEntity.setId(MockConstants.ACCOUNT_ID);
+    when(userAccountCache.findById(MockConstants.ACCOUNT_ID))
+        .thenReturn(Optional.of(accountEntity));
+    when(taskRepository.save(any(TaskEntity.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    TaskService taskService = new TaskService(taskRepository, userAccountCache, modelMapper,
+        sequenceGeneratorService, mongoTemplate, countCache);
+    taskService.assignTaskToUser(MockConstants.TASK_ID, MockConstants.ACCOUNT_ID);
+
+    ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+    ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+    verify(mongoTemplate).updateFirst(queryCaptor.capture(), updateCaptor.capture(),
+        eq(TaskEntity.class));
+    assertEquals(Document.parse("{id: 1, version: {$exists: false}}"),
+        queryCaptor.getValue().getQueryObject());
+    assertEquals(Document.parse("{$set: {version: 0}}").toJson(),
+        updateCaptor.getValue().getUpdateObject().toJson());
+    ArgumentCaptor<TaskEntity> savedCaptor = ArgumentCaptor.forClass(TaskEntity.class);
+    verify(taskRepository).save(savedCaptor.capture());
+    assertSame(versionedTask, savedCaptor.getValue());
+    assertEquals(MockConstants.ACCOUNT_ID, savedCaptor.getValue().getUserAccountId());
+  }
+}
@@ -1,5 +1,7 @@
 package com.nli.probation.unittest.service;
 
+import static com.nli.probation.utils.FacetTestUtils.createConverter;
+import static com.nli.probation.utils.FacetTestUtils.createFacetResult;
 import static com.nli.probation.utils.TeamTestUtils.compareTwoTeam;
 import static com.nli.probation.utils.TeamTestUtils.compareTwoTeamList;
 import static com.nli.probation.utils.TeamTestUtils.createCreateTeamModel;
@@ -10,13 +12,18 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 import com.nli.probation.MockConstants;
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.cache.ReferenceDataCache;
 import com.nli.probation.constant.EntityStatusEnum.TeamStatusEnum;
+import com.nli.probation.constant.SearchModeEnum;
 import com.nli.probation.customexception.DuplicatedEntityException;
 import com.nli.probation.customexception.NoSuchEntityException;
 import com.nli.probation.entity.TeamEntity;
+import com.nli.probation.model.RequestFieldsModel;
 import com.nli.probation.model.RequestPaginationModel;
 import com.nli.probation.model.ResourceModel;
 import com.nli.probation.model.team.CreateTeamModel;
@@ -29,12 +36,12 @@ import com.nli.probation.utils.TestUtils;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.modelmapper.ModelMapper;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
 
 class TeamServiceTest {
 
@@ -42,6 +49,9 @@ class TeamServiceTest {
   private final ModelMapper modelMapper = new ModelMapper();
   private final SequenceGeneratorService sequenceGeneratorService = Mockito.mock(
       SequenceGeneratorService.class);
+  private final ReferenceDataCache referenceDataCache = Mockito.mock(ReferenceDataCache.class);
+  private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final CountCache countCache = Mockito.mock(CountCache.class);
 
   /**
    * Create new team and save successfully
@@ -58,7 +68,8 @@ class TeamServiceTest {
     TeamModel expectedModel = createTeamModel();
     CreateTeamModel paramModel = createCreateTeamModel();
     TeamModel actualModel = new TeamService(teamRepository, modelMapper,
-        sequenceGeneratorService).createTeam(paramModel);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache)
+        .createTeam(paramModel);
     assertTrue(compareTwoTeam(expectedModel, actualModel));
   }
 
@@ -71,7 +82,7 @@ class TeamServiceTest {
 
     CreateTeamModel paramModel = createCreateTeamModel();
     TeamService teamService = new TeamService(teamRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(DuplicatedEntityException.class, () -> teamService.createTeam(paramModel));
   }
 
@@ -84,7 +95,7 @@ class TeamServiceTest {
 
     CreateTeamModel paramModel = createCreateTeamModel();
     TeamService teamService = new TeamService(teamRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(DuplicatedEntityException.class, () -> teamService.createTeam(paramModel));
   }
 
@@ -105,7 +116,8 @@ class TeamServiceTest {
     expectedModel.setStatus(TeamStatusEnum.DISABLE.ordinal());
 
     TeamModel actualModel = new TeamService(teamRepository, modelMapper,
-        sequenceGeneratorService).deleteTeamById(MockConstants.TEAM_ID);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache)
+        .deleteTeamById(MockConstants.TEAM_ID);
     assertTrue(compareTwoTeam(expectedModel, actualModel));
   }
 
@@ -119,7 +131,7 @@ class TeamServiceTest {
     when(optional.orElseThrow(any())).thenThrow(NoSuchEntityException.class);
 
     TeamService teamService = new TeamService(teamRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(NoSuchEntityException.class,
         () -> teamService.deleteTeamById(MockConstants.NOT_FOUND_TEAM_ID));
   }
@@ -137,7 +149,7 @@ class TeamServiceTest {
     when(optional.orElseThrow(any())).thenReturn(foundTeam);
 
     TeamService teamService = new TeamService(teamRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     assertThrows(NoSuchEntityException.class,
         () -> teamService.deleteTeamById(MockConstants.TEAM_ID));
   }
@@ -157,8 +169,8 @@ class TeamServiceTest {
     TeamModel expectedModel = createTeamModel();
 
     TeamModel actualModel = new TeamService(teamRepository, modelMapper,
-        sequenceGeneratorService).findTeamById(
-        MockConstants.TEAM_ID);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache).findTeamById(
+        MockConstants.TEAM_ID, new RequestFieldsModel());
     assertTrue(compareTwoTeam(expectedModel, actualModel));
   }
 
@@ -181,7 +193,8 @@ class TeamServiceTest {
     TeamModel expectedModel = createTeamModel();
 
     TeamModel actualModel = new TeamService(teamRepository, modelMapper,
-        sequenceGeneratorService).updateTeam(createUpdateTeamModel());
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache)
+        .updateTeam(createUpdateTeamModel());
     assertTrue(compareTwoTeam(expectedModel, actualModel));
   }
 
@@ -192,16 +205,17 @@ class TeamServiceTest {
   void when_findTeamLikeNameOrShortNameSortByAsc_thenReturnResourceOfListOfRolesByAsc() {
     List<TeamEntity> entityList = new ArrayList<>();
     entityList.add(modelMapper.map(createTeamModel(), TeamEntity.class));
-    Page<TeamEntity> entityPage = new PageImpl<>(entityList);
 
-    when(teamRepository.findAll(any(), (Pageable) any())).thenReturn(entityPage);
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenReturn(createFacetResult(entityList, MockConstants.TOTAL_RESULT));
+    when(mongoTemplate.getConverter()).thenReturn(createConverter());
 
     TeamService teamService = new TeamService(teamRepository, modelMapper,
-        sequenceGeneratorService);
+        sequenceGeneratorService, referenceDataCache, mongoTemplate, countCache);
     ResourceModel<TeamModel> actualResource = teamService.
-        searchTeams(MockConstants.SEARCH_VALUE,
+        searchTeams(MockConstants.SEARCH_VALUE, SearchModeEnum.REGEX,
             new RequestPaginationModel(MockConstants.INDEX, MockConstants.LIMIT,
-                MockConstants.SORT_BY, MockConstants.SORT_TYPE));
+                MockConstants.SORT_BY, MockConstants.SORT_TYPE), new RequestFieldsModel());
 
     List<TeamModel> modelList = new ArrayList<>();
     TeamModel expectModel = createTeamModel();
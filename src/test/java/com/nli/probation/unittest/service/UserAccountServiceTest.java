@@ -7,19 +7,32 @@ import static com.nli.probation.utils.UserAccountTestUtils.createCreateUserAccou
 import static com.nli.probation.utils.UserAccountTestUtils.createUpdateUserAccountModel;
 import static com.nli.probation.utils.UserAccountTestUtils.createUserAccountEntity;
 import static com.nli.probation.utils.UserAccountTestUtils.createUserAccountModel;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.nli.probation.MockConstants;
+import com.nli.probation.cache.CountCache;
+import com.nli.probation.cache.ReferenceDataCache;
+import com.nli.probation.cache.UserAccountCache;
+import com.nli.probation.cache.UserAccountSearchIndex;
 import com.nli.probation.constant.EntityStatusEnum.UserAccountStatusEnum;
+import com.nli.probation.customexception.DuplicatedEntityException;
 import com.nli.probation.customexception.NoSuchEntityException;
 import com.nli.probation.entity.OfficeEntity;
 import com.nli.probation.entity.RoleEntity;
 import com.nli.probation.entity.UserAccountEntity;
+import com.nli.probation.model.RequestFieldsModel;
+import com.nli.probation.model.RequestPaginationModel;
+import com.nli.probation.model.ResourceModel;
+import com.nli.probation.model.SequenceRangeModel;
+import com.nli.probation.model.useraccount.CreateUserAccountModel;
 import com.nli.probation.model.useraccount.UserAccountModel;
 import com.nli.probation.repository.OfficeRepository;
 import com.nli.probation.repository.RoleRepository;
@@ -27,12 +40,20 @@ import com.nli.probation.repository.TeamRepository;
 import com.nli.probation.repository.UserAccountRepository;
 import com.nli.probation.service.SequenceGeneratorService;
 import com.nli.probation.service.UserAccountService;
+import java.util.List;
 import java.util.Optional;
+import org.bson.Document;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.modelmapper.ModelMapper;
 import org.modelmapper.convention.MatchingStrategies;
+import org.springframework.data.mongodb.core.BulkOperations;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 
 class UserAccountServiceTest {
 
@@ -45,6 +66,12 @@ class UserAccountServiceTest {
   private final SequenceGeneratorService sequenceGeneratorService = Mockito.mock(
       SequenceGeneratorService.class);
   private final MongoTemplate mongoTemplate = Mockito.mock(MongoTemplate.class);
+  private final CountCache countCache = Mockito.mock(CountCache.class);
+  private final ReferenceDataCache referenceDataCache = new ReferenceDataCache(officeRepository,
+      roleRepository, teamRepository);
+  private final UserAccountCache userAccountCache = Mockito.mock(UserAccountCache.class);
+  private final UserAccountSearchIndex userAccountSearchIndex = Mockito.mock(
+      UserAccountSearchIndex.class);
 
   /**
    * Create new user account and save successfully
@@ -69,8 +96,8 @@ class UserAccountServiceTest {
     when(officeOptional.orElseThrow(any())).thenReturn(savedOfficeEntity);
 
     UserAccountService userAccountService = new UserAccountService(userAccountRepository,
-        teamRepository, officeRepository, modelMapper, roleRepository, sequenceGeneratorService,
-        mongoTemplate);
+        referenceDataCache, userAccountCache, userAccountSearchIndex, modelMapper,
+        sequenceGeneratorService, mongoTemplate, countCache);
     UserAccountEntity savedEntity = createUserAccountEntity();
     when(userAccountRepository.save(any())).thenReturn(savedEntity);
     UserAccountModel expected = createUserAccountModel();
@@ -90,8 +117,8 @@ class UserAccountServiceTest {
     when(userAccountRepository.save(any())).thenReturn(savedEntity);
 
     UserAccountService userAccountService = new UserAccountService(userAccountRepository,
-        teamRepository, officeRepository, modelMapper, roleRepository, sequenceGeneratorService,
-        mongoTemplate);
+        referenceDataCache, userAccountCache, userAccountSearchIndex, modelMapper,
+        sequenceGeneratorService, mongoTemplate, countCache);
 
     UserAccountModel expectedModel = createUserAccountModel();
     expectedModel.setStatus(UserAccountStatusEnum.DISABLE.ordinal());
@@ -99,6 +126,7 @@ class UserAccountServiceTest {
     UserAccountModel actualModel = userAccountService.deleteUserAccountById(
         MockConstants.ACCOUNT_ID);
     assertTrue(compareTwoUserAccount(expectedModel, actualModel));
+    verify(userAccountCache).invalidate(MockConstants.ACCOUNT_ID);
   }
 
   /**
@@ -111,8 +139,8 @@ class UserAccountServiceTest {
     when(optional.orElseThrow(any())).thenThrow(NoSuchEntityException.class);
 
     UserAccountService userAccountService = new UserAccountService(userAccountRepository,
-        teamRepository, officeRepository, modelMapper, roleRepository, sequenceGeneratorService,
-        mongoTemplate);
+        referenceDataCache, userAccountCache, userAccountSearchIndex, modelMapper,
+        sequenceGeneratorService, mongoTemplate, countCache);
     assertThrows(NoSuchEntityException.class,
         () -> userAccountService.deleteUserAccountById(MockConstants.NOT_FOUND_ACCOUNT_ID));
   }
@@ -130,9 +158,10 @@ class UserAccountServiceTest {
     UserAccountModel expectedModel = createUserAccountModel();
 
     UserAccountService userAccountService = new UserAccountService(userAccountRepository,
-        teamRepository, officeRepository, modelMapper, roleRepository, sequenceGeneratorService,
-        mongoTemplate);
-    UserAccountModel actualModel = userAccountService.findUserAccountById(MockConstants.ACCOUNT_ID);
+        referenceDataCache, userAccountCache, userAccountSearchIndex, modelMapper,
+        sequenceGeneratorService, mongoTemplate, countCache);
+    UserAccountModel actualModel = userAccountService.findUserAccountById(MockConstants.ACCOUNT_ID,
+        new RequestFieldsModel());
     assertTrue(compareTwoUserAccount(expectedModel, actualModel));
   }
 
@@ -163,8 +192,8 @@ class UserAccountServiceTest {
     when(officeOptional.orElseThrow(any())).thenReturn(savedOfficeEntity);
 
     UserAccountService userAccountService = new UserAccountService(userAccountRepository,
-        teamRepository, officeRepository, modelMapper, roleRepository, sequenceGeneratorService,
-        mongoTemplate);
+        referenceDataCache, userAccountCache, userAccountSearchIndex, modelMapper,
+        sequenceGeneratorService, mongoTemplate, countCache);
     UserAccountEntity savedEntity = createUserAccountEntity();
     when(userAccountRepository.save(any())).thenReturn(savedEntity);
     UserAccountModel expected = createUserAccountModel();
@@ -172,4 +201,91 @@ class UserAccountServiceTest {
     assertTrue(compareTwoUserAccount(expected, actual));
   }
 
+  /**
+   * Create list of user accounts with one reserved range of ids
+   */
+  @Test
+  void when_saveUserAccountList_thenSaveSuccessfully() {
+    modelMapper.getConfiguration()
+        .setMatchingStrategy(MatchingStrategies.STANDARD);
+    modelMapper.getConfiguration().setAmbiguityIgnored(true);
+    when(mongoTemplate.exists(any(), eq(UserAccountEntity.class))).thenReturn(false);
+    when(officeRepository.findById(anyInt())).thenReturn(
+        Optional.of(modelMapper.map(createOfficeModel(), OfficeEntity.class)));
+    when(roleRepository.findById(anyInt())).thenReturn(
+        Optional.of(modelMapper.map(createRoleModel(), RoleEntity.class)));
+    when(sequenceGeneratorService.generateSequences(anyString(), eq(2)))
+        .thenReturn(new SequenceRangeModel(5, 6));
+    BulkOperations bulkOperations = Mockito.mock(BulkOperations.class);
+    when(mongoTemplate.bulkOps(any(), eq(UserAccountEntity.class))).thenReturn(bulkOperations);
+    when(bulkOperations.insert(any(List.class))).thenReturn(bulkOperations);
+
+    CreateUserAccountModel secondModel = createCreateUserAccountModel();
+    secondModel.setEmail("second" + MockConstants.ACCOUNT_EMAIL);
+    secondModel.setPhone("0123456789");
+    UserAccountService userAccountService = new UserAccountService(userAccountRepository,
+        referenceDataCache, userAccountCache, userAccountSearchIndex, modelMapper,
+        sequenceGeneratorService, mongoTemplate, countCache);
+    List<UserAccountModel> actual = userAccountService.createUserAccounts(
+        List.of(createCreateUserAccountModel(), secondModel));
+    assertEquals(2, actual.size());
+    assertEquals(5, actual.get(0).getId());
+    assertEquals(6, actual.get(1).getId());
+  }
+
+  /**
+   * Create list of user accounts with duplicated email in request
+   */
+  @Test
+  void when_saveUserAccountListWithDuplicatedEmail_thenThrowDuplicatedEntityException() {
+    UserAccountService userAccountService = new UserAccountService(userAccountRepository,
+        referenceDataCache, userAccountCache, userAccountSearchIndex, modelMapper,
+        sequenceGeneratorService, mongoTemplate, countCache);
+    List<CreateUserAccountModel> createModels = List.of(createCreateUserAccountModel(),
+        createCreateUserAccountModel());
+    assertThrows(DuplicatedEntityException.class,
+        () -> userAccountService.createUserAccounts(createModels));
+  }
+
+  /**
+   * Search user accounts with team, office and role joined in one aggregation
+   */
+  @Test
+  void when_searchUserAccounts_thenReturnResourceWithJoinedModels() {
+    Document accountDocument = new Document("_id", MockConstants.ACCOUNT_ID)
+        .append("name", MockConstants.ACCOUNT_NAME)
+        .append("email", MockConstants.ACCOUNT_EMAIL)
+        .append("phone", MockConstants.ACCOUNT_PHONE)
+        .append("status", MockConstants.ACCOUNT_STATUS)
+        .append("team_id", MockConstants.TEAM_ID)
+        .append("office_id", MockConstants.OFFICE_ID)
+        .append("role_id", MockConstants.ROLE_ID)
+        .append("team", List.of(new Document("_id", MockConstants.TEAM_ID)
+            .append("name", MockConstants.TEAM_NAME)))
+        .append("office", List.of(new Document("_id", MockConstants.OFFICE_ID)
+            .append("name", MockConstants.OFFICE_NAME)))
+        .append("role", List.of());
+    Document result = new Document("data", List.of(accountDocument))
+        .append("total", List.of(new Document("total", MockConstants.TOTAL_RESULT)));
+    when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+        .thenReturn(new AggregationResults<>(List.of(result), new Document()));
+    when(mongoTemplate.getConverter()).thenReturn(
+        new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()));
+
+    UserAccountService userAccountService = new UserAccountService(userAccountRepository,
+        referenceDataCache, userAccountCache, userAccountSearchIndex, modelMapper,
+        sequenceGeneratorService, mongoTemplate, countCache);
+    ResourceModel<UserAccountModel> actual = userAccountService.searchAccounts(
+        MockConstants.SEARCH_VALUE, new RequestPaginationModel(MockConstants.INDEX,
+            MockConstants.LIMIT, MockConstants.SORT_BY, MockConstants.SORT_TYPE),
+        new RequestFieldsModel(), 0);
+    assertEquals(MockConstants.TOTAL_RESULT, actual.getTotalResult());
+    assertEquals(MockConstants.TOTAL_PAGE, actual.getTotalPage());
+    assertEquals(1, actual.getData().size());
+    UserAccountModel actualModel = actual.getData().get(0);
+    assertEquals(MockConstants.ACCOUNT_EMAIL, actualModel.getEmail());
+    assertEquals(MockConstants.TEAM_NAME, actualModel.getTeamModel().getName());
+    assertEquals(MockConstants.OFFICE_NAME, actualModel.getOfficeModel().getName());
+    assertEquals(null, actualModel.getRoleModel());
+  }
 }
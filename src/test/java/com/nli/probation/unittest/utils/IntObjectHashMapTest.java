@@ -0,0 +1,56 @@
+package com.nli.probation.unittest.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nli.probation.utils.IntObjectHashMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class IntObjectHashMapTest {
+
+  /**
+   * Put and get values by key
+   */
+  @Test
+  void when_putValues_thenGetValuesByKey() {
+    IntObjectHashMap<String> map = new IntObjectHashMap<>();
+    assertNull(map.put(1, "one"));
+    assertNull(map.put(0, "zero"));
+    assertEquals("one", map.put(1, "uno"));
+    assertEquals("uno", map.get(1));
+    assertEquals("zero", map.get(0));
+    assertNull(map.get(2));
+    assertTrue(map.containsKey(0));
+    assertFalse(map.containsKey(2));
+    assertEquals(2, map.size());
+  }
+
+  /**
+   * Keep map consistent with java map after random puts and removes
+   */
+  @Test
+  void when_putAndRemoveRandomly_thenMatchHashMap() {
+    IntObjectHashMap<Integer> map = new IntObjectHashMap<>();
+    Map<Integer, Integer> expected = new HashMap<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      int key = random.nextInt(2000);
+      if (random.nextBoolean()) {
+        assertEquals(expected.put(key, i), map.put(key, i));
+      } else {
+        assertEquals(expected.remove(key), map.remove(key));
+      }
+    }
+    assertEquals(expected.size(), map.size());
+    for (int key = 0; key < 2000; key++) {
+      assertEquals(expected.get(key), map.get(key));
+    }
+    assertEquals(expected.size(), map.keys().length);
+    assertEquals(expected.size(), map.values().size());
+  }
+}
@@ -0,0 +1,51 @@
+package com.nli.probation.unittest.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nli.probation.utils.IntPostingList;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+class IntPostingListTest {
+
+  /**
+   * Add and remove ids randomly then list stays sorted and distinct
+   */
+  @Test
+  void when_addAndRemoveRandomly_thenMatchSortedSet() {
+    IntPostingList postingList = new IntPostingList();
+    TreeSet<Integer> expected = new TreeSet<>();
+    Random random = new Random(42);
+    for (int i = 0; i < 10000; i++) {
+      int id = random.nextInt(500);
+      if (random.nextInt(3) == 0) {
+        assertTrue(postingList.remove(id) == expected.remove(id));
+      } else {
+        assertTrue(postingList.add(id) == expected.add(id));
+      }
+    }
+    assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(),
+        postingList.toArray());
+  }
+
+  /**
+   * Intersect with small and large arrays then keep ids in both
+   */
+  @Test
+  void when_intersect_thenKeepCommonIds() {
+    IntPostingList postingList = new IntPostingList();
+    for (int id = 0; id < 1000; id += 2) {
+      postingList.add(id);
+    }
+    assertArrayEquals(new int[]{4, 998}, postingList.intersect(new int[]{3, 4, 998, 1001}));
+    int[] evenAndOdd = new int[2000];
+    for (int i = 0; i < evenAndOdd.length; i++) {
+      evenAndOdd[i] = i;
+    }
+    assertArrayEquals(postingList.toArray(), postingList.intersect(evenAndOdd));
+    assertFalse(postingList.contains(1));
+  }
+}
@@ -0,0 +1,204 @@
+package com.nli.probation.unittest.utils;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nli.probation.utils.MappedJournal;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedJournalTest {
+
+  private static final int SEGMENT_SIZE = 4096;
+
+  @TempDir
+  Path directory;
+
+  private static byte[] payload(long sequence) {
+    return ("log-work-" + sequence).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static List<Long> sequencesOf(List<MappedJournal.Record> records) {
+    return records.stream().map(MappedJournal.Record::getSequence).collect(Collectors.toList());
+  }
+
+  private List<Path> segmentFiles() throws IOException {
+    try (Stream<Path> paths = Files.list(directory)) {
+      return paths.sorted().collect(Collectors.toList());
+    }
+  }
+
+  /**
+   * Append records and drop journal without closing it then reopen recovers them in order
+   */
+  @Test
+  void when_reopenWithoutClose_thenRecoverRecordsInOrder() {
+    MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE);
+    assertTrue(journal.open().isEmpty());
+    for (long i = 1; i <= 3; i++) {
+      assertEquals(i, journal.append(payload(i), sequence -> true));
+    }
+    journal.sync(3);
+
+    List<MappedJournal.Record> records = new MappedJournal(directory, SEGMENT_SIZE).open();
+    assertEquals(List.of(1L, 2L, 3L), sequencesOf(records));
+    assertArrayEquals(payload(2), records.get(1).getPayload());
+  }
+
+  /**
+   * Append record not accepted then it is neither written nor given a sequence
+   */
+  @Test
+  void when_notAccepted_thenNotAppended() {
+    MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE);
+    journal.open();
+    assertEquals(MappedJournal.REJECTED, journal.append(payload(1), sequence -> false));
+    assertEquals(1, journal.append(payload(1), sequence -> true));
+
+    assertEquals(List.of(1L), sequencesOf(new MappedJournal(directory, SEGMENT_SIZE).open()));
+  }
+
+  /**
+   * Confirm records then reopen recovers only the later ones
+   */
+  @Test
+  void when_confirm_thenConfirmedRecordsNotRecovered() {
+    MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE);
+    journal.open();
+    for (long i = 1; i <= 4; i++) {
+      journal.append(payload(i), sequence -> true);
+    }
+    journal.confirm(2);
+
+    MappedJournal reopenedJournal = new MappedJournal(directory, SEGMENT_SIZE);
+    assertEquals(List.of(3L, 4L), sequencesOf(reopenedJournal.open()));
+    assertEquals(5, reopenedJournal.append(payload(5), sequence -> true));
+  }
+
+  /**
+   * Append past size of segment then roll over to new segments, and confirm deletes the
+   * segments holding only confirmed records
+   */
+  @Test
+  void when_segmentFull_thenRollOverAndDeleteConfirmedSegments() throws IOException {
+    MappedJournal journal = new MappedJournal(directory, 64);
+    journal.open();
+    for (long i = 1; i <= 10; i++) {
+      journal.append(payload(i), sequence -> true);
+    }
+    assertEquals(5, segmentFiles().size());
+    journal.confirm(8);
+    assertEquals(2, segmentFiles().size());
+
+    assertEquals(List.of(9L, 10L), sequencesOf(new MappedJournal(directory, 64).open()));
+  }
+
+  /**
+   * Corrupt last record as torn by a crash then recover the records before it and keep
+   * appending after them
+   */
+  @Test
+  void when_lastRecordTorn_thenRecoverRecordsBeforeIt() throws IOException {
+    MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE);
+    journal.open();
+    for (long i = 1; i <= 3; i++) {
+      journal.append(payload(i), sequence -> true);
+    }
+    journal.sync(3);
+
+    //Frame is length, crc, type, sequence and payload; flip last byte of third payload
+    int frameSize = Integer.BYTES * 2 + 1 + Long.BYTES + payload(1).length;
+    try (FileChannel channel = FileChannel.open(segmentFiles().get(0),
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[]{0}), frameSize * 3L - 1);
+    }
+
+    MappedJournal reopenedJournal = new MappedJournal(directory, SEGMENT_SIZE);
+    assertEquals(List.of(1L, 2L), sequencesOf(reopenedJournal.open()));
+    assertEquals(3, reopenedJournal.append(payload(3), sequence -> true));
+    assertEquals(List.of(1L, 2L, 3L),
+        sequencesOf(new MappedJournal(directory, SEGMENT_SIZE).open()));
+  }
+
+  /**
+   * Write length of a record without its body as a crash between the two then recovery stops
+   * before it
+   */
+  @Test
+  void when_recordLengthWithoutBody_thenRecoveryStopsBeforeIt() throws IOException {
+    MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE);
+    journal.open();
+    journal.append(payload(1), sequence -> true);
+    journal.sync(1);
+
+    int frameSize = Integer.BYTES * 2 + 1 + Long.BYTES + payload(1).length;
+    try (FileChannel channel = FileChannel.open(segmentFiles().get(0),
+        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 100), frameSize);
+    }
+
+    assertEquals(List.of(1L), sequencesOf(new MappedJournal(directory, SEGMENT_SIZE).open()));
+  }
+
+  /**
+   * Kill a process appending records then every record it acknowledged is recovered, with no
+   * gap in sequences
+   */
+  @Test
+  void when_processKilledMidWrite_thenRecoverAcknowledgedRecords() throws Exception {
+    Process process = new ProcessBuilder(
+        Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+        "-cp", System.getProperty("java.class.path"),
+        JournalWriter.class.getName(), directory.toString())
+        .redirectErrorStream(true)
+        .start();
+    long acknowledged = 0;
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while (acknowledged < 2000 && (line = reader.readLine()) != null) {
+        acknowledged = Long.parseLong(line);
+      }
+      process.destroyForcibly();
+      process.waitFor();
+    }
+    assertEquals(2000, acknowledged);
+
+    List<MappedJournal.Record> records = new MappedJournal(directory, SEGMENT_SIZE).open();
+    assertTrue(records.size() >= acknowledged);
+    for (int i = 0; i < records.size(); i++) {
+      assertEquals(i + 1, records.get(i).getSequence());
+      assertArrayEquals(payload(i + 1), records.get(i).getPayload());
+    }
+  }
+
+  /**
+   * Appends records until killed, printing each sequence once synced
+   */
+  static class JournalWriter {
+
+    public static void main(String[] args) {
+      MappedJournal journal = new MappedJournal(Path.of(args[0]), SEGMENT_SIZE);
+      journal.open();
+      for (long i = 1; ; i++) {
+        long sequence = journal.append(payload(i), accepted -> true);
+        journal.sync(sequence);
+        System.out.println(sequence);
+        System.out.flush();
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package com.nli.probation.unittest.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nli.probation.utils.MpscRingBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.Test;
+
+class MpscRingBufferTest {
+
+  private static final long FULL_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  /**
+   * Offer until full then reject, poll in order and accept again after wrapping around
+   */
+  @Test
+  void when_offerAndPoll_thenFifoBoundedByCapacity() {
+    MpscRingBuffer<Integer> ringBuffer = new MpscRingBuffer<>(3);
+    assertEquals(4, ringBuffer.capacity());
+    for (int i = 0; i < 4; i++) {
+      assertTrue(ringBuffer.offer(i));
+    }
+    assertFalse(ringBuffer.offer(4));
+    assertEquals(0, ringBuffer.poll());
+    assertTrue(ringBuffer.offer(4));
+    List<Integer> drained = new ArrayList<>();
+    assertEquals(4, ringBuffer.drain(drained::add, 10));
+    assertEquals(List.of(1, 2, 3, 4), drained);
+    assertNull(ringBuffer.poll());
+    assertTrue(ringBuffer.isEmpty());
+  }
+
+  /**
+   * Offer from many threads while one thread drains then every element arrives once, in order of
+   * each producer. Threads back off instead of spinning, so the run does not depend on the number
+   * of cores
+   */
+  @Test
+  void when_offerFromManyThreads_thenNoElementLostOrDuplicated() throws Exception {
+    int producers = 8;
+    int perProducer = 5000;
+    MpscRingBuffer<long[]> ringBuffer = new MpscRingBuffer<>(1024);
+    ExecutorService executorService = Executors.newFixedThreadPool(producers);
+    CountDownLatch startLatch = new CountDownLatch(1);
+    for (int producer = 0; producer < producers; producer++) {
+      long producerId = producer;
+      executorService.execute(() -> {
+        try {
+          startLatch.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+        for (long sequence = 0; sequence < perProducer; sequence++) {
+          while (!ringBuffer.offer(new long[]{producerId, sequence})) {
+            LockSupport.parkNanos(FULL_BACKOFF_NANOS);
+          }
+        }
+      });
+    }
+    startLatch.countDown();
+
+    long[] nextSequences = new long[producers];
+    int received = 0;
+    while (received < producers * perProducer) {
+      long[] element = ringBuffer.poll();
+      if (element == null) {
+        Thread.yield();
+        continue;
+      }
+      assertEquals(nextSequences[(int) element[0]]++, element[1]);
+      received++;
+    }
+    executorService.shutdown();
+    assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+    assertTrue(ringBuffer.isEmpty());
+  }
+}
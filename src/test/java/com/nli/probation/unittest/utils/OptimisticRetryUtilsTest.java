@@ -0,0 +1,45 @@
+package com.nli.probation.unittest.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nli.probation.customexception.ConcurrentUpdateException;
+import com.nli.probation.utils.OptimisticRetryUtils;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+class OptimisticRetryUtilsTest {
+
+  /**
+   * Retry attempts failing their compare then return result of first successful attempt
+   */
+  @Test
+  void when_attemptConflicts_thenRetryUntilSuccess() {
+    AtomicInteger attempts = new AtomicInteger();
+    String result = OptimisticRetryUtils.retry("test", "conflict", () -> {
+      int attempt = attempts.incrementAndGet();
+      if (attempt == 1) {
+        throw new OptimisticLockingFailureException("changed");
+      }
+      return attempt == 2 ? Optional.empty() : Optional.of("saved");
+    });
+    assertEquals("saved", result);
+    assertEquals(3, attempts.get());
+  }
+
+  /**
+   * Every attempt conflicts then throw exception after the bounded number of attempts
+   */
+  @Test
+  void when_everyAttemptConflicts_thenThrowException() {
+    AtomicInteger attempts = new AtomicInteger();
+    assertThrows(ConcurrentUpdateException.class,
+        () -> OptimisticRetryUtils.retry("test", "conflict", () -> {
+          attempts.incrementAndGet();
+          return Optional.empty();
+        }));
+    assertEquals(OptimisticRetryUtils.MAX_ATTEMPTS, attempts.get());
+  }
+}
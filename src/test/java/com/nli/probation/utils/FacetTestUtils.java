@@ -0,0 +1,86 @@
+package com.nli.probation.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+public class FacetTestUtils {
+
+  private FacetTestUtils() {
+  }
+
+  /**
+   * Create converter for reading entities of aggregation results, with conversions of java time
+   *
+   * @return mongo converter
+   */
+  public static MongoConverter createConverter() {
+    MappingMongoConverter mongoConverter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE,
+        createMappingContext());
+    mongoConverter.setCustomConversions(new MongoCustomConversions(Collections.emptyList()));
+    mongoConverter.afterPropertiesSet();
+    return mongoConverter;
+  }
+
+  /**
+   * Create mapping context treating java time as simple types, like the one of application
+   *
+   * @return mapping context
+   */
+  public static MongoMappingContext createMappingContext() {
+    MongoMappingContext mappingContext = new MongoMappingContext();
+    mappingContext.setSimpleTypeHolder(
+        new MongoCustomConversions(Collections.emptyList()).getSimpleTypeHolder());
+    return mappingContext;
+  }
+
+  /**
+   * Create result of paging facet with entities of page and total
+   *
+   * @param entities
+   * @param total
+   * @return aggregation results
+   */
+  public static AggregationResults<Document> createFacetResult(List<?> entities, long total) {
+    MongoConverter mongoConverter = createConverter();
+    List<Document> documents = new ArrayList<>();
+    for (Object entity : entities) {
+      Document document = new Document();
+      mongoConverter.write(entity, document);
+      documents.add(document);
+    }
+    Document result = new Document("data", documents)
+        .append("total", List.of(new Document("total", total)));
+    return new AggregationResults<>(List.of(result), new Document());
+  }
+
+  /**
+   * Render stages of aggregation without mapping field names
+   *
+   * @param aggregation
+   * @return list of stages
+   */
+  public static List<Document> renderPipeline(TypedAggregation<?> aggregation) {
+    return aggregation.toPipeline(Aggregation.DEFAULT_CONTEXT);
+  }
+
+  /**
+   * Find stages of data facet of paging aggregation
+   *
+   * @param pipeline
+   * @return list of stages
+   */
+  public static List<Document> findDataStages(List<Document> pipeline) {
+    Document facet = (Document) pipeline.get(pipeline.size() - 1).get("$facet");
+    return facet.getList("data", Document.class);
+  }
+}
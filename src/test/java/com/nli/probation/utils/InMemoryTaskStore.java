@@ -0,0 +1,180 @@
+package com.nli.probation.utils;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.client.result.UpdateResult;
+import com.nli.probation.entity.LogWorkEntity;
+import com.nli.probation.entity.TaskEntity;
+import com.nli.probation.metamodel.LogWorkEntity_;
+import com.nli.probation.metamodel.TaskEntity_;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+/**
+ * Tasks kept in memory behind a mocked mongo template. Each find and update is applied under one
+ * lock like a single document operation of database, and only the operators used on log works
+ * are interpreted: $elemMatch filter and projection, $push, positional $set and $inc.
+ */
+public class InMemoryTaskStore {
+
+  private static final String ELEM_MATCH = "$elemMatch";
+  private static final String POSITIONAL_PREFIX = TaskEntity_.LOG_WORKS_LIST + ".$.";
+
+  private final Map<Integer, TaskEntity> tasks = new HashMap<>();
+
+  /**
+   * Answer finds and updates of tasks of template by this store
+   *
+   * @param mongoTemplate
+   */
+  public void bind(MongoTemplate mongoTemplate) {
+    when(mongoTemplate.findOne(any(Query.class), eq(TaskEntity.class))).thenAnswer(
+        invocation -> findOne(invocation.getArgument(0)));
+    when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(TaskEntity.class)))
+        .thenAnswer(invocation -> updateFirst(invocation.getArgument(0),
+            invocation.getArgument(1)));
+  }
+
+  public synchronized void save(TaskEntity taskEntity) {
+    tasks.put(taskEntity.getId(), copyOf(taskEntity));
+  }
+
+  public synchronized TaskEntity findById(int id) {
+    return copyOf(tasks.get(id));
+  }
+
+  private synchronized TaskEntity findOne(Query query) {
+    TaskEntity taskEntity = tasks.get(query.getQueryObject().getInteger(TaskEntity_.ID));
+    if (taskEntity == null) {
+      return null;
+    }
+    TaskEntity found = copyOf(taskEntity);
+    Document projection = query.getFieldsObject().get(TaskEntity_.LOG_WORKS_LIST,
+        Document.class);
+    if (projection != null) {
+      Document elemMatch = projection.get(ELEM_MATCH, Document.class);
+      List<LogWorkEntity> matched = new ArrayList<>();
+      found.getLogWorkList().stream().filter(logWork -> matches(logWork, elemMatch))
+          .findFirst().ifPresent(matched::add);
+      found.setLogWorkList(matched);
+    }
+    return found;
+  }
+
+  private synchronized UpdateResult updateFirst(Query query, Update update) {
+    Document filter = query.getQueryObject();
+    TaskEntity taskEntity = tasks.get(filter.getInteger(TaskEntity_.ID));
+    if (taskEntity == null) {
+      return UpdateResult.acknowledged(0, 0L, null);
+    }
+
+    //Find position of log work matched by filter
+    int position = -1;
+    Document listFilter = filter.get(TaskEntity_.LOG_WORKS_LIST, Document.class);
+    if (listFilter != null) {
+      Document elemMatch = listFilter.get(ELEM_MATCH, Document.class);
+      for (int i = 0; i < taskEntity.getLogWorkList().size() && position < 0; i++) {
+        if (matches(taskEntity.getLogWorkList().get(i), elemMatch)) {
+          position = i;
+        }
+      }
+      if (position < 0) {
+        return UpdateResult.acknowledged(0, 0L, null);
+      }
+    }
+
+    //Apply operators
+    Document updateObject = update.getUpdateObject();
+    Document push = updateObject.get("$push", new Document());
+    if (push.containsKey(TaskEntity_.LOG_WORKS_LIST)) {
+      taskEntity.getLogWorkList().add(
+          copyOf((LogWorkEntity) push.get(TaskEntity_.LOG_WORKS_LIST)));
+    }
+    LogWorkEntity positioned = position < 0 ? null : taskEntity.getLogWorkList().get(position);
+    for (Map.Entry<String, Object> entry : updateObject.get("$set", new Document()).entrySet()) {
+      set(positioned, entry.getKey().substring(POSITIONAL_PREFIX.length()), entry.getValue());
+    }
+    Document inc = updateObject.get("$inc", new Document());
+    if (inc.containsKey(TaskEntity_.ACTUAL_TIME)) {
+      taskEntity.setActualTime(taskEntity.getActualTime()
+          + ((Number) inc.get(TaskEntity_.ACTUAL_TIME)).doubleValue());
+    }
+    if (inc.containsKey(TaskEntity_.VERSION)) {
+      taskEntity.setVersion(taskEntity.getVersion()
+          + ((Number) inc.get(TaskEntity_.VERSION)).longValue());
+    }
+    return UpdateResult.acknowledged(1, 1L, null);
+  }
+
+  private static boolean matches(LogWorkEntity logWork, Document elemMatch) {
+    for (Map.Entry<String, Object> entry : elemMatch.entrySet()) {
+      if (!Objects.equals(get(logWork, entry.getKey()), entry.getValue())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Object get(LogWorkEntity logWork, String field) {
+    switch (field) {
+      case LogWorkEntity_.ID:
+        return logWork.getId();
+      case LogWorkEntity_.START_TIME:
+        return logWork.getStartTime();
+      case LogWorkEntity_.END_TIME:
+        return logWork.getEndTime();
+      case LogWorkEntity_.STATUS:
+        return logWork.getStatus();
+      default:
+        throw new IllegalArgumentException(field);
+    }
+  }
+
+  private static void set(LogWorkEntity logWork, String field, Object value) {
+    switch (field) {
+      case LogWorkEntity_.START_TIME:
+        logWork.setStartTime((LocalDateTime) value);
+        break;
+      case LogWorkEntity_.END_TIME:
+        logWork.setEndTime((LocalDateTime) value);
+        break;
+      case LogWorkEntity_.STATUS:
+        logWork.setStatus((Integer) value);
+        break;
+      default:
+        throw new IllegalArgumentException(field);
+    }
+  }
+
+  private static TaskEntity copyOf(TaskEntity taskEntity) {
+    if (taskEntity == null) {
+      return null;
+    }
+    TaskEntity copy = new TaskEntity();
+    copy.setId(taskEntity.getId());
+    copy.setStatus(taskEntity.getStatus());
+    copy.setActualTime(taskEntity.getActualTime());
+    copy.setVersion(taskEntity.getVersion());
+    List<LogWorkEntity> logWorks = new ArrayList<>();
+    if (taskEntity.getLogWorkList() != null) {
+      taskEntity.getLogWorkList().forEach(logWork -> logWorks.add(copyOf(logWork)));
+    }
+    copy.setLogWorkList(logWorks);
+    return copy;
+  }
+
+  private static LogWorkEntity copyOf(LogWorkEntity logWork) {
+    return new LogWorkEntity(logWork.getId(), logWork.getStartTime(), logWork.getEndTime(),
+        logWork.getStatus());
+  }
+}